@@ -34,6 +34,7 @@ public class VaultClientConfigKeys {
 
     private static final String VAULT_BASE = PortalConfigurationKeys.INTEGRATION_BASE + "vault.";
     private static final String VAULT_ENDPOINT_BASE = VAULT_BASE + "endpoint.";
+    private static final String VAULT_KEY_VALUE_BASE = VAULT_BASE + "key_value.";
 
     /** Base name for identifying a vault-connection. */
     public static final String VAULT_CONNECTION_BASE = VAULT_BASE + "connection";
@@ -44,4 +45,81 @@ public class VaultClientConfigKeys {
     /** Default name for the Key-Value endpoint, default value is 'secret'. */
     public static final String VAULT_ENDPOINT_KEY_VALUE = VAULT_ENDPOINT_BASE + "key_value";
 
+    /**
+     * The {@link de.cuioss.portal.client.vault.kvstore.WriteMode} used for
+     * writing Key-Values, default value is 'MERGE'.
+     */
+    public static final String VAULT_KEY_VALUE_WRITE_MODE = VAULT_KEY_VALUE_BASE + "write_mode";
+
+    /**
+     * The number of retries for check-and-set writes rejected because of a
+     * concurrent modification, default value is '3'.
+     */
+    public static final String VAULT_KEY_VALUE_CAS_RETRIES = VAULT_KEY_VALUE_BASE + "cas_retries";
+
+    /**
+     * The maximum number of nodes read concurrently by a batch read, default
+     * value is '16'.
+     */
+    public static final String VAULT_KEY_VALUE_BATCH_CONCURRENCY = VAULT_KEY_VALUE_BASE + "batch_concurrency";
+
+    /**
+     * The minimum size in bytes of a binary value to be stored gzip compressed,
+     * default value is '0', saying compression is disabled. Compressed values
+     * are always read, independent of this setting.
+     */
+    public static final String VAULT_KEY_VALUE_COMPRESSION_THRESHOLD = VAULT_KEY_VALUE_BASE
+            + "compression_threshold";
+
+    /**
+     * The size in bytes of the chunks a blob is split into by
+     * {@link de.cuioss.portal.client.vault.kvstore.impl.ChunkedBlobStore},
+     * default value is '1048576' (1 MB).
+     */
+    public static final String VAULT_KEY_VALUE_CHUNK_SIZE = VAULT_KEY_VALUE_BASE + "chunk_size";
+
+    /**
+     * The time in milliseconds the outcome of an existence check of a path is
+     * cached, default value is '0', disabling caching.
+     */
+    public static final String VAULT_KEY_VALUE_EXISTENCE_CACHE_TTL = VAULT_KEY_VALUE_BASE + "existence_cache_ttl";
+
+    /**
+     * The time in milliseconds the listing of a path is cached, default value
+     * is '0', disabling caching.
+     */
+    public static final String VAULT_KEY_VALUE_LIST_CACHE_TTL = VAULT_KEY_VALUE_BASE + "list_cache_ttl";
+
+    /**
+     * The time in milliseconds a listing answered with 404 is cached, default
+     * value is '0', disabling caching.
+     */
+    public static final String VAULT_KEY_VALUE_LIST_CACHE_NEGATIVE_TTL = VAULT_KEY_VALUE_BASE
+            + "list_cache_negative_ttl";
+
+    /**
+     * The time in milliseconds the content of a node is cached by
+     * {@link de.cuioss.portal.client.vault.kvstore.cache.CachingNodeManager},
+     * default value is '0', disabling the node cache.
+     */
+    public static final String VAULT_KEY_VALUE_NODE_CACHE_TTL = VAULT_KEY_VALUE_BASE + "node_cache_ttl";
+
+    /**
+     * The file the content of the node cache is written to on shutdown and read
+     * from on startup, not set by default, disabling the warm cache.
+     */
+    public static final String VAULT_KEY_VALUE_WARM_CACHE_FILE = VAULT_KEY_VALUE_BASE + "warm_cache.file";
+
+    /**
+     * The Base64 encoded AES key the warm cache file is encrypted with, not set
+     * by default, disabling the warm cache.
+     */
+    public static final String VAULT_KEY_VALUE_WARM_CACHE_KEY = VAULT_KEY_VALUE_BASE + "warm_cache.key";
+
+    /**
+     * The time in milliseconds in which each node watched for changes is polled
+     * once, default value is '30000'.
+     */
+    public static final String VAULT_KEY_VALUE_WATCH_INTERVAL = VAULT_KEY_VALUE_BASE + "watch_interval";
+
 }
@@ -19,10 +19,18 @@ import static de.cuioss.tools.base.Preconditions.checkArgument;
 import static de.cuioss.tools.net.UrlHelper.splitPath;
 
 import com.bettercloud.vault.Vault;
+import com.bettercloud.vault.VaultConfig;
 
+import de.cuioss.portal.client.vault.kvstore.WriteMode;
+import de.cuioss.portal.client.vault.kvstore.cache.NodeCache;
+import de.cuioss.portal.client.vault.kvstore.impl.ExistenceCache;
+import de.cuioss.portal.client.vault.kvstore.impl.ListingCache;
 import de.cuioss.tools.net.UrlHelper;
 import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
+import lombok.ToString;
 import lombok.Value;
 
 /**
@@ -34,6 +42,7 @@ import lombok.Value;
  */
 @Value
 @Builder
+@SuppressWarnings("squid:S1170") // False Positive
 public class VaultContext {
 
     @NonNull
@@ -46,6 +55,98 @@ public class VaultContext {
 
     private final String url;
 
+    /**
+     * The configuration the {@link #getVault()} is created with. It is needed
+     * for operations that access the KV version 2 API directly. May be null.
+     */
+    private final VaultConfig config;
+
+    @Default
+    private final WriteMode writeMode = WriteMode.MERGE;
+
+    /**
+     * The number of retries for a {@link WriteMode#CHECK_AND_SET} write
+     * rejected because of a concurrent modification.
+     */
+    @Default
+    private final int casRetries = 3;
+
+    /**
+     * The maximum number of nodes read concurrently by
+     * {@link de.cuioss.portal.client.vault.kvstore.impl.KeyValueBatchReader}.
+     */
+    @Default
+    private final int batchConcurrency = 16;
+
+    /**
+     * The minimum size in bytes of a binary value to be stored gzip compressed,
+     * 0 or negative disables compression.
+     */
+    @Default
+    private final int compressionThreshold = 0;
+
+    /**
+     * The size in bytes of the chunks a blob is split into by
+     * {@link de.cuioss.portal.client.vault.kvstore.impl.ChunkedBlobStore}.
+     */
+    @Default
+    private final int chunkSize = 1024 * 1024;
+
+    /**
+     * The time in milliseconds the outcome of an existence check of a path is
+     * cached, 0 or negative disables caching, being the default.
+     */
+    @Default
+    private final int existenceCacheTtl = 0;
+
+    /**
+     * The cache for the outcome of existence checks, see
+     * {@link #getExistenceCacheTtl()}. As the outcome depends on the
+     * permissions of the token, it must only be shared by contexts using the
+     * same server and token.
+     */
+    @NonNull
+    @Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final ExistenceCache existenceCache = new ExistenceCache();
+
+    /**
+     * The time in milliseconds the listing of a path is cached, 0 or negative
+     * disables caching, being the default.
+     */
+    @Default
+    private final int listCacheTtl = 0;
+
+    /**
+     * The time in milliseconds a listing answered with 404 is cached, 0 or
+     * negative disables caching, being the default.
+     */
+    @Default
+    private final int listCacheNegativeTtl = 0;
+
+    /**
+     * The cache for the listings, see {@link #getListCacheTtl()}, providing its
+     * statistics. As a listing depends on the permissions of the token, it must
+     * only be shared by contexts using the same server and token.
+     */
+    @NonNull
+    @Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final ListingCache listingCache = new ListingCache();
+
+    /**
+     * The cache for the content of the nodes, used by
+     * {@link de.cuioss.portal.client.vault.kvstore.impl.KeyValueNavigator#getNodeManager()}.
+     * May be null, saying the nodes are not cached. As the content depends on
+     * the permissions of the token, it must only be shared by contexts using the
+     * same server and token.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final NodeCache nodeCache;
+
     /**
      * Translates a fullPath, like "/secrets/myKeys" to a relative Path "/mykeys"
      *
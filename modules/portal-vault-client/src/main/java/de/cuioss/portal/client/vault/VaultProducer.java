@@ -18,18 +18,57 @@ package de.cuioss.portal.client.vault;
 import com.bettercloud.vault.SslConfig;
 import com.bettercloud.vault.Vault;
 import com.bettercloud.vault.VaultConfig;
+import de.cuioss.portal.client.vault.kvstore.KVChangeEvent;
+import de.cuioss.portal.client.vault.kvstore.WriteMode;
+import de.cuioss.portal.client.vault.kvstore.cache.NodeCache;
+import de.cuioss.portal.client.vault.kvstore.cache.WarmCacheFile;
+import de.cuioss.portal.client.vault.kvstore.impl.ExistenceCache;
+import de.cuioss.portal.client.vault.kvstore.impl.ListingCache;
+import de.cuioss.portal.client.vault.kvstore.impl.VaultChangeWatcher;
 import de.cuioss.portal.configuration.connections.impl.ConnectionMetadata;
 import de.cuioss.portal.configuration.types.ConfigAsConnectionMetadata;
+import de.cuioss.tools.logging.CuiLogger;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.inject.Disposes;
 import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
 import lombok.Getter;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
 import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_CLIENT_ENABLED;
 import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_ENDPOINT_KEY_VALUE;
+import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_KEY_VALUE_BATCH_CONCURRENCY;
+import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_KEY_VALUE_CAS_RETRIES;
+import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_KEY_VALUE_CHUNK_SIZE;
+import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_KEY_VALUE_COMPRESSION_THRESHOLD;
+import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_KEY_VALUE_EXISTENCE_CACHE_TTL;
+import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_KEY_VALUE_LIST_CACHE_NEGATIVE_TTL;
+import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_KEY_VALUE_LIST_CACHE_TTL;
+import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_KEY_VALUE_NODE_CACHE_TTL;
+import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_KEY_VALUE_WARM_CACHE_FILE;
+import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_KEY_VALUE_WARM_CACHE_KEY;
+import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_KEY_VALUE_WATCH_INTERVAL;
+import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_KEY_VALUE_WRITE_MODE;
 
 /**
  * Produces Instance of {@link VaultConfig}
@@ -39,6 +78,11 @@ import static de.cuioss.portal.client.vault.VaultClientConfigKeys.VAULT_ENDPOINT
 @ApplicationScoped
 class VaultProducer {
 
+    private static final CuiLogger log = new CuiLogger(VaultProducer.class);
+
+    /** The maximum number of server and token combinations caches are kept for. */
+    private static final int MAXIMUM_CACHE_SCOPES = 16;
+
     @Inject
     @ConfigAsConnectionMetadata(baseName = VaultClientConfigKeys.VAULT_CONNECTION_BASE)
     private Provider<ConnectionMetadata> metadataProducer;
@@ -53,6 +97,73 @@ class VaultProducer {
     @Getter
     private Provider<String> keyValueEndpoint;
 
+    @Inject
+    @ConfigProperty(name = VAULT_KEY_VALUE_WRITE_MODE)
+    @Getter
+    private Provider<String> writeMode;
+
+    @Inject
+    @ConfigProperty(name = VAULT_KEY_VALUE_CAS_RETRIES)
+    @Getter
+    private Provider<Integer> casRetries;
+
+    @Inject
+    @ConfigProperty(name = VAULT_KEY_VALUE_BATCH_CONCURRENCY)
+    private Provider<Integer> batchConcurrency;
+
+    @Inject
+    @ConfigProperty(name = VAULT_KEY_VALUE_COMPRESSION_THRESHOLD)
+    private Provider<Integer> compressionThreshold;
+
+    @Inject
+    @ConfigProperty(name = VAULT_KEY_VALUE_CHUNK_SIZE)
+    private Provider<Integer> chunkSize;
+
+    @Inject
+    @ConfigProperty(name = VAULT_KEY_VALUE_EXISTENCE_CACHE_TTL)
+    private Provider<Integer> existenceCacheTtl;
+
+    @Inject
+    @ConfigProperty(name = VAULT_KEY_VALUE_LIST_CACHE_TTL)
+    private Provider<Integer> listCacheTtl;
+
+    @Inject
+    @ConfigProperty(name = VAULT_KEY_VALUE_LIST_CACHE_NEGATIVE_TTL)
+    private Provider<Integer> listCacheNegativeTtl;
+
+    @Inject
+    @ConfigProperty(name = VAULT_KEY_VALUE_NODE_CACHE_TTL)
+    private Provider<Integer> nodeCacheTtl;
+
+    @Inject
+    @ConfigProperty(name = VAULT_KEY_VALUE_WARM_CACHE_FILE)
+    private Provider<Optional<String>> warmCacheFile;
+
+    @Inject
+    @ConfigProperty(name = VAULT_KEY_VALUE_WARM_CACHE_KEY)
+    private Provider<Optional<String>> warmCacheKey;
+
+    @Inject
+    @ConfigProperty(name = VAULT_KEY_VALUE_WATCH_INTERVAL)
+    private Provider<Integer> watchInterval;
+
+    @Inject
+    private Event<KVChangeEvent> changeEvents;
+
+    /**
+     * The caches of the key-value contexts by their scope, see
+     * {@link #cacheScope(VaultConfig)}
+     */
+    private final Map<String, ExistenceCache> existenceCaches = new ConcurrentHashMap<>();
+
+    private final Map<String, ListingCache> listingCaches = new ConcurrentHashMap<>();
+
+    /**
+     * The scope the {@link NodeCache} was produced for, null if the node cache is
+     * disabled
+     */
+    private volatile String nodeCacheScope;
+
     @Produces
     @Dependent
     VaultConfig produceVaultConfig() {
@@ -73,9 +184,147 @@ class VaultProducer {
     @Produces
     @Dependent
     @PortalVaultContext(VaultEndpoint.KEY_VALUE)
-    VaultContext produceVaultContextKV() {
+    VaultContext produceVaultContextKV(@PortalVaultContext(VaultEndpoint.KEY_VALUE) NodeCache nodeCache) {
+        var config = produceVaultConfig();
+        var scope = cacheScope(config);
         return VaultContext.builder().enabled(enabled.get()).endpointName(keyValueEndpoint.get())
-                .vault(produceVault()).url(metadataProducer.get().getServiceUrl()).build();
+                .vault(new Vault(config)).config(config).url(metadataProducer.get().getServiceUrl())
+                .writeMode(WriteMode.valueOf(writeMode.get().trim().toUpperCase())).casRetries(casRetries.get())
+                .batchConcurrency(batchConcurrency.get()).compressionThreshold(compressionThreshold.get())
+                .chunkSize(chunkSize.get()).existenceCacheTtl(existenceCacheTtl.get())
+                .existenceCache(scoped(existenceCaches, scope, ExistenceCache::new))
+                .listCacheTtl(listCacheTtl.get()).listCacheNegativeTtl(listCacheNegativeTtl.get())
+                .listingCache(scoped(listingCaches, scope, ListingCache::new))
+                .nodeCache(scope.equals(nodeCacheScope) ? nodeCache : null).build();
+    }
+
+    /**
+     * @return identifying the server and the token of the given config. The
+     * token is only contained as digest.
+     */
+    static String cacheScope(VaultConfig config) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.valueOf(config.getToken()).getBytes(StandardCharsets.UTF_8));
+            return config.getAddress() + "#" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Mandatory for every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the cache for the given scope, so contexts share a cache only if
+     * they use the same server and token
+     */
+    private static <T> T scoped(Map<String, T> caches, String scope, Supplier<T> factory) {
+        if (caches.size() >= MAXIMUM_CACHE_SCOPES && !caches.containsKey(scope)) {
+            log.debug("More than '{}' tokens in use, dropping the caches", MAXIMUM_CACHE_SCOPES);
+            caches.clear();
+        }
+        return caches.computeIfAbsent(scope, key -> factory.get());
+    }
+
+    /**
+     * @return the {@link NodeCache} shared by the key-value contexts using the
+     * server and token configured at the time it is produced. It is only
+     * attached to the contexts if enabled by
+     * {@link VaultClientConfigKeys#VAULT_KEY_VALUE_NODE_CACHE_TTL}. If a warm
+     * cache is configured, it starts with the content of that file, if present
+     */
+    @Produces
+    @Singleton
+    @PortalVaultContext(VaultEndpoint.KEY_VALUE)
+    NodeCache produceNodeCache() {
+        var builder = NodeCache.builder();
+        var timeToLive = nodeCacheTtl.get();
+        if (null == timeToLive || timeToLive <= 0) {
+            log.debug("Node cache disabled by '{}'", VAULT_KEY_VALUE_NODE_CACHE_TTL);
+            return builder.build();
+        }
+        builder.timeToLive(Duration.ofMillis(timeToLive));
+        nodeCacheScope = cacheScope(produceVaultConfig());
+        var file = resolveWarmCacheFile();
+        var key = resolveWarmCacheKey();
+        if (file.isPresent() && key.isPresent() && Files.isRegularFile(file.get())) {
+            try {
+                var warmCache = WarmCacheFile.open(file.get(), key.get());
+                log.info("Starting node cache with '{}' nodes of warm cache file '{}'", warmCache.getSize(),
+                        file.get());
+                builder.warmCache(warmCache);
+            } catch (IOException e) {
+                log.warn(e, "Unable to open warm cache file '{}', starting with an empty node cache", file.get());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes the content of the given cache to the warm cache file, if
+     * configured. Nothing is written if the cache was not attached to the
+     * contexts, as it would be empty and replace the content of the file.
+     *
+     * @param cache to be disposed
+     */
+    void disposeNodeCache(@Disposes @PortalVaultContext(VaultEndpoint.KEY_VALUE) NodeCache cache) {
+        if (null == nodeCacheScope) {
+            log.debug("Node cache disabled, not writing warm cache file");
+            return;
+        }
+        var file = resolveWarmCacheFile();
+        var key = resolveWarmCacheKey();
+        if (file.isEmpty() || key.isEmpty()) {
+            return;
+        }
+        try {
+            cache.writeSnapshot(file.get(), key.get());
+        } catch (IOException e) {
+            log.warn(e, "Unable to write warm cache file '{}'", file.get());
+        }
+    }
+
+    private Optional<Path> resolveWarmCacheFile() {
+        return warmCacheFile.get().map(String::trim).filter(name -> !name.isEmpty()).map(Path::of);
+    }
+
+    private Optional<SecretKey> resolveWarmCacheKey() {
+        var encoded = warmCacheKey.get().map(String::trim).filter(value -> !value.isEmpty());
+        if (encoded.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new SecretKeySpec(Base64.getDecoder().decode(encoded.get()), "AES"));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid warm cache key configured by '{}', warm cache disabled",
+                    VAULT_KEY_VALUE_WARM_CACHE_KEY);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param nodeCache the cache the changed nodes are invalidated in, before
+     *                  the corresponding {@link KVChangeEvent} is fired
+     * @return the started {@link VaultChangeWatcher} for the key-value endpoint,
+     * firing the detected changes as CDI events
+     */
+    @Produces
+    @Singleton
+    @PortalVaultContext(VaultEndpoint.KEY_VALUE)
+    VaultChangeWatcher produceChangeWatcher(@PortalVaultContext(VaultEndpoint.KEY_VALUE) NodeCache nodeCache) {
+        var context = produceVaultContextKV(nodeCache);
+        var watcher = new VaultChangeWatcher(context, Duration.ofMillis(watchInterval.get()), event -> {
+            nodeCache.invalidate(context.appendToEndpointName(event.getPath()));
+            changeEvents.fire(event);
+        });
+        watcher.start();
+        return watcher;
+    }
+
+    /**
+     * @param watcher to be stopped
+     */
+    void disposeChangeWatcher(@Disposes @PortalVaultContext(VaultEndpoint.KEY_VALUE) VaultChangeWatcher watcher) {
+        watcher.close();
     }
 
     /**
@@ -89,7 +338,7 @@ class VaultProducer {
         var config = produceVaultConfig();
         config.token("unauthorized");
         return VaultContext.builder().enabled(enabled.get())
-                .endpointName(VaultEndpoint.HEALTH.getDefaultValue()).vault(new Vault(config))
+                .endpointName(VaultEndpoint.HEALTH.getDefaultValue()).vault(new Vault(config)).config(config)
                 .url(metadataProducer.get().getServiceUrl()).build();
 
     }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import de.cuioss.uimodel.result.ResultObject;
+
+/**
+ * Asynchronous variant of {@link Navigator}: Each call accessing Vault is
+ * executed on an executor and its outcome is provided as
+ * {@link CompletableFuture}. The semantics of the calls are identical to the
+ * ones of {@link Navigator}, see {@link AsyncNodeManager} for the handling of
+ * timeouts.
+ *
+ * @author agent
+ *
+ */
+public interface AsyncNavigator {
+
+    /**
+     * @return the blocking {@link Navigator} the calls are delegated to
+     */
+    Navigator getNavigator();
+
+    /**
+     * @return the timeout for each call
+     */
+    Duration getTimeout();
+
+    /**
+     * @param timeout must not be null
+     * @return a variant of this navigator using the given timeout
+     */
+    AsyncNavigator withTimeout(Duration timeout);
+
+    /**
+     * @return see {@link Navigator#getPath()}
+     */
+    String getPath();
+
+    /**
+     * @return see {@link Navigator#getParent()}
+     */
+    AsyncNavigator getParent();
+
+    /**
+     * @return see {@link Navigator#list()}
+     */
+    CompletableFuture<ResultObject<List<AsyncNavigator>>> list();
+
+    /**
+     * @param path
+     * @return see {@link Navigator#list(String)}
+     */
+    CompletableFuture<ResultObject<List<AsyncNavigator>>> list(String path);
+
+    /**
+     * @param path to be created, must not be null, nor empty nor "/"
+     * @return see {@link Navigator#create(String)}
+     */
+    CompletableFuture<ResultObject<AsyncNavigator>> create(String path);
+
+    /**
+     * @return see {@link Navigator#delete()}
+     */
+    CompletableFuture<ResultObject<Boolean>> delete();
+
+    /**
+     * @return see {@link Navigator#getNodeManager()}
+     */
+    CompletableFuture<ResultObject<AsyncNodeManager>> getNodeManager();
+}
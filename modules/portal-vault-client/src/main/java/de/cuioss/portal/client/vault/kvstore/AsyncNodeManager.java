@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.result.ResultState;
+
+/**
+ * Asynchronous variant of {@link NodeManager}: Each call is executed on an
+ * executor and its outcome is provided as {@link CompletableFuture}. The
+ * semantics of the calls are identical to the ones of {@link NodeManager}. A
+ * call not completing within {@link #getTimeout()} completes with an error
+ * result with the handling strategy
+ * {@link de.cuioss.uimodel.result.ResultErrorCodes#SERVICE_NOT_AVAILABLE},
+ * the futures do not complete exceptionally because of a timeout.
+ *
+ * @author agent
+ *
+ */
+public interface AsyncNodeManager {
+
+    /**
+     * @return the blocking {@link NodeManager} the calls are delegated to
+     */
+    NodeManager getNodeManager();
+
+    /**
+     * @return the timeout for each call
+     */
+    Duration getTimeout();
+
+    /**
+     * @param timeout must not be null
+     * @return a variant of this manager using the given timeout
+     */
+    AsyncNodeManager withTimeout(Duration timeout);
+
+    /**
+     * @return see {@link NodeManager#read()}
+     */
+    CompletableFuture<ResultObject<Collection<KVEntry>>> read();
+
+    /**
+     * @param key
+     * @return see {@link NodeManager#read(String)}
+     */
+    CompletableFuture<ResultObject<KVEntry>> read(String key);
+
+    /**
+     * The default implementation selects the given keys from {@link #read()},
+     * like {@link NodeManager#read(Collection)} does.
+     *
+     * @param keys must not be null
+     * @return see {@link NodeManager#read(Collection)}
+     */
+    default CompletableFuture<ResultObject<Collection<KVEntry>>> read(Collection<String> keys) {
+        requireNonNull(keys);
+        return read().thenApply(read -> {
+            if (!read.isValid()) {
+                return read;
+            }
+            return ResultObject.<Collection<KVEntry>>builder().result(KVEntries.of(read.getResult()).project(keys))
+                    .state(ResultState.VALID).build();
+        });
+    }
+
+    /**
+     * The default implementation derives the version from {@link #read()}, like
+     * {@link NodeManager#readCurrentVersion()} does.
+     *
+     * @return see {@link NodeManager#readCurrentVersion()}
+     */
+    default CompletableFuture<ResultObject<Integer>> readCurrentVersion() {
+        return read().thenApply(read -> {
+            if (!read.isValid()) {
+                return ResultObject.<Integer>builder().extractStateAndDetailsAndErrorCodeFrom(read)
+                        .validDefaultResult(0).build();
+            }
+            return ResultObject.<Integer>builder().result(currentVersion(read.getResult())).state(ResultState.VALID)
+                    .build();
+        });
+    }
+
+    /**
+     * @param entry to be written
+     * @return see {@link NodeManager#write(KVEntry)}
+     */
+    CompletableFuture<ResultObject<KVEntry>> write(KVEntry entry);
+
+    /**
+     * @param entries to be written
+     * @return see {@link NodeManager#write(Collection)}
+     */
+    CompletableFuture<ResultObject<Collection<KVEntry>>> write(Collection<KVEntry> entries);
+
+    /**
+     * @param key
+     * @return see {@link NodeManager#delete(String)}
+     */
+    CompletableFuture<ResultObject<Boolean>> delete(String key);
+
+    private static int currentVersion(Collection<KVEntry> entries) {
+        return entries.stream().map(entry -> entry.getMetadata().getVersion()).filter(Objects::nonNull)
+                .max(Integer::compare).orElse(0);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import static de.cuioss.tools.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Binary value of a {@link KVEntry} that is kept Base64 encoded, as provided by
+ * Vault, and only decoded on demand. {@link #openStream()} decodes while
+ * reading, directly from the encoded source, without creating intermediate
+ * copies of the data. The source may contain a prefix, like a type-marker,
+ * which is skipped by the given offset. If the payload is gzip compressed, it
+ * is decompressed while being read as well.
+ *
+ * @author agent
+ *
+ */
+public final class BinaryPayload implements Serializable {
+
+    private static final long serialVersionUID = 4526394838474947911L;
+
+    private static final char PADDING = '=';
+
+    private final String source;
+
+    private final int offset;
+
+    private final boolean gzipped;
+
+    /**
+     * @param source containing the Base64 encoded data, starting at the given
+     *               offset, must not be null
+     * @param offset the index of the first Base64 character within source
+     */
+    public BinaryPayload(String source, int offset) {
+        this(source, offset, false);
+    }
+
+    /**
+     * @param source  containing the Base64 encoded data, starting at the given
+     *                offset, must not be null
+     * @param offset  the index of the first Base64 character within source
+     * @param gzipped indicating whether the encoded data is gzip compressed
+     */
+    public BinaryPayload(String source, int offset, boolean gzipped) {
+        this.source = requireNonNull(source);
+        checkArgument(offset >= 0 && offset <= source.length(), "offset out of range");
+        this.offset = offset;
+        this.gzipped = gzipped;
+    }
+
+    /**
+     * @param encoded the Base64 encoded data, must not be null
+     * @return the corresponding payload
+     */
+    public static BinaryPayload ofBase64(String encoded) {
+        return new BinaryPayload(encoded, 0);
+    }
+
+    /**
+     * @return the source as given by the constructor, including a possible
+     *         prefix
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return boolean indicating whether the encoded data is gzip compressed
+     */
+    public boolean isGzipped() {
+        return gzipped;
+    }
+
+    /**
+     * @return the number of Base64 decoded bytes, computed without decoding. In
+     *         case of a compressed payload this is the compressed size.
+     */
+    public int size() {
+        var length = source.length() - offset;
+        var padding = 0;
+        for (var i = source.length() - 1; i >= offset && padding < 2 && PADDING == source.charAt(i); i--) {
+            padding++;
+        }
+        return (int) (length * 3L / 4) - padding;
+    }
+
+    /**
+     * @return a stream decoding the payload while being read. I/O-errors
+     *         signal an invalid encoding
+     * @throws UncheckedIOException in case of an invalid gzip header
+     */
+    public InputStream openStream() {
+        var decoded = Base64.getDecoder().wrap(new AsciiInputStream(source, offset));
+        if (!gzipped) {
+            return decoded;
+        }
+        try {
+            return new GZIPInputStream(decoded);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid gzip payload", e);
+        }
+    }
+
+    /**
+     * @return the decoded payload, decoded on each call
+     * @throws UncheckedIOException in case of an invalid encoding
+     */
+    public byte[] toByteArray() {
+        try (var input = openStream()) {
+            if (gzipped) {
+                return input.readAllBytes();
+            }
+            return input.readNBytes(size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid Base64 payload", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof BinaryPayload other)) {
+            return false;
+        }
+        var length = source.length() - offset;
+        return gzipped == other.gzipped && length == other.source.length() - other.offset
+                && source.regionMatches(offset, other.source, other.offset, length);
+    }
+
+    @Override
+    public int hashCode() {
+        var hash = Boolean.hashCode(gzipped);
+        for (var i = offset; i < source.length(); i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "BinaryPayload(size=" + size() + ", gzipped=" + gzipped + ")";
+    }
+
+    /**
+     * Provides the characters of a String as bytes, assuming they are all
+     * ASCII, as Base64 characters are.
+     */
+    private static final class AsciiInputStream extends InputStream {
+
+        private final String source;
+        private int position;
+
+        private AsciiInputStream(String source, int position) {
+            this.source = source;
+            this.position = position;
+        }
+
+        @Override
+        public int read() {
+            if (position >= source.length()) {
+                return -1;
+            }
+            return source.charAt(position++) & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) {
+            if (0 == len) {
+                return 0;
+            }
+            var available = source.length() - position;
+            if (available <= 0) {
+                return -1;
+            }
+            var count = Math.min(len, available);
+            for (var i = 0; i < count; i++) {
+                buffer[off + i] = (byte) source.charAt(position++);
+            }
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return source.length() - position;
+        }
+    }
+}
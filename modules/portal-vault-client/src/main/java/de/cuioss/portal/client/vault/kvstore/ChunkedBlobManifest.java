@@ -0,0 +1,111 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+import com.bettercloud.vault.json.Json;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Describes a blob stored in chunks by
+ * {@link de.cuioss.portal.client.vault.kvstore.impl.ChunkedBlobStore}. It is
+ * stored as the value of the {@link KVEntry} the blob is written to, prefixed
+ * by {@link #PREFIX}, while the chunks are stored in child nodes identified by
+ * the {@link #getGeneration()}.
+ *
+ * @author agent
+ *
+ */
+@Value
+@Builder
+public class ChunkedBlobManifest implements Serializable {
+
+    private static final long serialVersionUID = 6164392858367815254L;
+
+    /** Prefix identifying the value of a manifest. */
+    public static final String PREFIX = "chunked-blob:";
+
+    /** Defines the manifest of an empty blob without any chunks. */
+    public static final ChunkedBlobManifest EMPTY = builder().size(0).chunkSize(0).chunkCount(0)
+            .sha256("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855").generation("").build();
+
+    private static final String SIZE = "size";
+    private static final String CHUNK_SIZE = "chunk_size";
+    private static final String CHUNK_COUNT = "chunk_count";
+    private static final String SHA_256 = "sha256";
+    private static final String GENERATION = "generation";
+
+    /** The size of the blob in bytes. */
+    private final long size;
+
+    /** The size of each chunk in bytes, except for the last one. */
+    private final int chunkSize;
+
+    private final int chunkCount;
+
+    /** The hex-encoded SHA-256 checksum of the blob. */
+    @NonNull
+    private final String sha256;
+
+    /** Identifies the set of chunks belonging to this manifest. */
+    @NonNull
+    private final String generation;
+
+    /**
+     * @return the value to be stored, starting with {@link #PREFIX}
+     */
+    public String toValue() {
+        return PREFIX + Json.object().add(SIZE, size).add(CHUNK_SIZE, chunkSize).add(CHUNK_COUNT, chunkCount)
+                .add(SHA_256, sha256).add(GENERATION, generation);
+    }
+
+    /**
+     * @param value may be null
+     * @return boolean indicating whether the given value is a manifest, see
+     *         {@link #toValue()}
+     */
+    public static boolean isManifest(String value) {
+        return null != value && value.startsWith(PREFIX);
+    }
+
+    /**
+     * @param value as created by {@link #toValue()}, may be null
+     * @return the parsed manifest, or {@link Optional#empty()} if the given value
+     *         is not a valid manifest
+     */
+    public static Optional<ChunkedBlobManifest> parse(String value) {
+        if (!isManifest(value)) {
+            return Optional.empty();
+        }
+        try {
+            var json = Json.parse(value.substring(PREFIX.length())).asObject();
+            var sha256 = json.getString(SHA_256, null);
+            var generation = json.getString(GENERATION, null);
+            if (null == sha256 || null == generation) {
+                return Optional.empty();
+            }
+            return Optional.of(builder().size(json.getLong(SIZE, 0)).chunkSize(json.getInt(CHUNK_SIZE, 0))
+                    .chunkCount(json.getInt(CHUNK_COUNT, 0)).sha256(sha256).generation(generation).build());
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
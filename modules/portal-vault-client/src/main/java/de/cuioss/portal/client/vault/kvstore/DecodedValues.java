@@ -0,0 +1,156 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.cuioss.tools.logging.CuiLogger;
+
+/**
+ * Memoizes the decoded representations of the value of a {@link KVEntry}. The
+ * primitive variants are held unboxed, each with a state telling whether it is
+ * already decoded and valid. Other types are memoized only if their
+ * {@link ValueCodec} is immutable, see {@link ValueCodec#isImmutable()}.
+ * Concurrent first accesses may decode a value more than once, resulting in
+ * the same outcome.
+ *
+ * @author agent
+ *
+ */
+final class DecodedValues {
+
+    private static final CuiLogger log = new CuiLogger(DecodedValues.class);
+
+    private static final byte UNKNOWN = 0;
+    private static final byte VALID = 1;
+    private static final byte INVALID = 2;
+
+    private volatile byte intState = UNKNOWN;
+    private int intValue;
+
+    private volatile byte longState = UNKNOWN;
+    private long longValue;
+
+    private volatile byte doubleState = UNKNOWN;
+    private double doubleValue;
+
+    private volatile byte booleanState = UNKNOWN;
+    private boolean booleanValue;
+
+    private volatile Map<Class<?>, Optional<?>> decoded;
+
+    int getInt(KVEntry entry, int defaultValue) {
+        var state = intState;
+        if (UNKNOWN == state) {
+            var text = entry.getValueAsText();
+            state = INVALID;
+            if (null != text) {
+                try {
+                    intValue = Integer.parseInt(text.strip());
+                    state = VALID;
+                } catch (NumberFormatException e) {
+                    logInvalid(entry, "int");
+                }
+            }
+            intState = state;
+        }
+        return VALID == state ? intValue : defaultValue;
+    }
+
+    long getLong(KVEntry entry, long defaultValue) {
+        var state = longState;
+        if (UNKNOWN == state) {
+            var text = entry.getValueAsText();
+            state = INVALID;
+            if (null != text) {
+                try {
+                    longValue = Long.parseLong(text.strip());
+                    state = VALID;
+                } catch (NumberFormatException e) {
+                    logInvalid(entry, "long");
+                }
+            }
+            longState = state;
+        }
+        return VALID == state ? longValue : defaultValue;
+    }
+
+    double getDouble(KVEntry entry, double defaultValue) {
+        var state = doubleState;
+        if (UNKNOWN == state) {
+            var text = entry.getValueAsText();
+            state = INVALID;
+            if (null != text) {
+                try {
+                    doubleValue = Double.parseDouble(text.strip());
+                    state = VALID;
+                } catch (NumberFormatException e) {
+                    logInvalid(entry, "double");
+                }
+            }
+            doubleState = state;
+        }
+        return VALID == state ? doubleValue : defaultValue;
+    }
+
+    boolean getBoolean(KVEntry entry, boolean defaultValue) {
+        var state = booleanState;
+        if (UNKNOWN == state) {
+            var text = entry.getValueAsText();
+            state = INVALID;
+            if (null != text) {
+                booleanValue = Boolean.parseBoolean(text.strip());
+                state = VALID;
+            }
+            booleanState = state;
+        }
+        return VALID == state ? booleanValue : defaultValue;
+    }
+
+    @SuppressWarnings("unchecked") // the decoded value is specific to the type
+    <T> Optional<T> get(KVEntry entry, Class<T> type) {
+        if (!isMemoizable(type)) {
+            return entry.decode(type);
+        }
+        var values = decoded;
+        if (null == values) {
+            synchronized (this) {
+                values = decoded;
+                if (null == values) {
+                    values = new ConcurrentHashMap<>(4);
+                    decoded = values;
+                }
+            }
+        }
+        var value = values.get(type);
+        if (null == value) {
+            value = entry.decode(type);
+            values.putIfAbsent(type, value);
+        }
+        return (Optional<T>) value;
+    }
+
+    private static boolean isMemoizable(Class<?> type) {
+        // Without codec the outcome is always empty
+        return ValueCodecs.forType(type).map(ValueCodec::isImmutable).orElse(true);
+    }
+
+    private static void logInvalid(KVEntry entry, String type) {
+        log.warn("Unable to parse value to {}, key={}", type, entry.getKey());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Describes the changes of a node detected by
+ * {@link de.cuioss.portal.client.vault.kvstore.impl.VaultChangeWatcher}, keyed
+ * by the keys of the entries. It is fired as CDI event for each changed node.
+ *
+ * @author agent
+ *
+ */
+@Value
+@Builder
+public class KVChangeEvent implements Serializable {
+
+    private static final long serialVersionUID = 3080250206246935338L;
+
+    /** The path of the node, like {@link Navigator#getPath()}. */
+    @NonNull
+    private final String path;
+
+    /** The version last seen, 0 if the node did not exist. */
+    private final int previousVersion;
+
+    /** The current version, 0 if the node has been deleted. */
+    private final int currentVersion;
+
+    /** The entries with keys not present before. */
+    @NonNull
+    private final List<KVEntry> added;
+
+    /** The current entries with values different from before. */
+    @NonNull
+    private final List<KVEntry> changed;
+
+    /** The previous entries with keys not present anymore. */
+    @NonNull
+    private final List<KVEntry> removed;
+
+    /**
+     * @return boolean indicating whether any entry has been added, changed or
+     *         removed. A new version may only touch the metadata.
+     */
+    public boolean hasChanges() {
+        return !added.isEmpty() || !changed.isEmpty() || !removed.isEmpty();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Immutable, ordered content of a node, indexed by the keys of its entries, so
+ * that {@link #get(String)} is a constant time lookup. In case of duplicate
+ * keys the first entry is the one being indexed. As a {@link List} it can be
+ * used wherever the content of a node is provided as
+ * {@link Collection}&lt;{@link KVEntry}&gt;, see {@link NodeManager#read()}.
+ *
+ * @author agent
+ *
+ */
+public final class KVEntries extends AbstractList<KVEntry> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 5914087330211826716L;
+
+    /** Defines an empty instance. */
+    public static final KVEntries EMPTY = new KVEntries(new KVEntry[0]);
+
+    private final KVEntry[] entries;
+
+    private final HashMap<String, KVEntry> index;
+
+    private KVEntries(KVEntry[] entries) {
+        this.entries = entries;
+        index = new HashMap<>(Math.max(4, (int) (entries.length / 0.75f) + 1));
+        for (KVEntry entry : entries) {
+            index.putIfAbsent(entry.getKey(), entry);
+        }
+    }
+
+    /**
+     * @param entries must not be null nor contain null
+     * @return an indexed copy of the given entries, the given instance if it
+     *         already is a {@link KVEntries}
+     */
+    public static KVEntries of(Collection<KVEntry> entries) {
+        if (entries instanceof KVEntries indexed) {
+            return indexed;
+        }
+        if (entries.isEmpty()) {
+            return EMPTY;
+        }
+        var copy = entries.toArray(new KVEntry[0]);
+        for (KVEntry entry : copy) {
+            requireNonNull(entry);
+        }
+        return new KVEntries(copy);
+    }
+
+    /**
+     * @param key may be null
+     * @return the entry for the given key, if present
+     */
+    public Optional<KVEntry> get(String key) {
+        return Optional.ofNullable(index.get(key));
+    }
+
+    /**
+     * @param key may be null
+     * @return boolean indicating whether there is an entry for the given key
+     */
+    public boolean containsKey(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * @return the keys of the entries, unmodifiable and unordered
+     */
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * @return the entries by their keys, unmodifiable and unordered
+     */
+    public Map<String, KVEntry> asMap() {
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * @param keys to be selected, must not be null
+     * @return the entries for the given keys that are present, in order of the
+     *         given keys
+     */
+    public KVEntries project(Collection<String> keys) {
+        List<KVEntry> selected = new ArrayList<>(Math.min(keys.size(), entries.length));
+        Set<String> seen = new HashSet<>();
+        for (String key : keys) {
+            var entry = index.get(key);
+            if (null != entry && seen.add(key)) {
+                selected.add(entry);
+            }
+        }
+        return of(selected);
+    }
+
+    @Override
+    public KVEntry get(int position) {
+        return entries[position];
+    }
+
+    @Override
+    public int size() {
+        return entries.length;
+    }
+}
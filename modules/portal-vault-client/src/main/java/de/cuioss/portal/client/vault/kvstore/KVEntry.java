@@ -21,19 +21,30 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 import de.cuioss.tools.io.FileLoader;
 import de.cuioss.tools.io.IOStreams;
 import de.cuioss.tools.logging.CuiLogger;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.ToString;
 import lombok.Value;
 
 /**
- * Represents a Key / Value entry with the corresponding metadata
+ * Represents a Key / Value entry with the corresponding metadata. Binary values
+ * read from Vault are held as {@link BinaryPayload} and only decoded on
+ * demand: {@link #getValue()} provides them as {@code byte[]},
+ * {@link #getValueAsInputStream()} decodes while streaming. Large binaries to
+ * be written can be passed as {@link StreamingPayload}, see
+ * {@link #streaming(String, FileLoader)}. Typed representations of the value,
+ * see {@link #getValueAs(Class)}, are decoded once per instance, as long as
+ * they are immutable.
  *
  * @author Oliver Wolff
  *
@@ -41,7 +52,8 @@ import lombok.Value;
 @RequiredArgsConstructor
 @Builder
 @Value
-@EqualsAndHashCode(of = { "key", "value" })
+@EqualsAndHashCode(of = { "key", "value" }, doNotUseGetters = true)
+@ToString(doNotUseGetters = true)
 public class KVEntry implements Serializable {
 
     private static final long serialVersionUID = -25755245193850618L;
@@ -59,6 +71,57 @@ public class KVEntry implements Serializable {
     @NonNull
     private final Metadata metadata;
 
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final transient DecodedValues decoded = new DecodedValues();
+
+    /**
+     * @return the contained value. A {@link BinaryPayload} will be decoded to a
+     *         {@code byte[]}, on each call, an {@link OffHeapPayload} copied to
+     *         one.
+     */
+    public Serializable getValue() {
+        if (value instanceof BinaryPayload payload) {
+            return payload.toByteArray();
+        }
+        if (value instanceof OffHeapPayload payload) {
+            return payload.toByteArray();
+        }
+        return value;
+    }
+
+    /**
+     * @return the {@link BinaryPayload} if the value is held as such, without
+     *         decoding it
+     */
+    public Optional<BinaryPayload> getBinaryPayload() {
+        if (value instanceof BinaryPayload payload) {
+            return Optional.of(payload);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the {@link OffHeapPayload} if the value is held as such, without
+     *         copying it
+     */
+    public Optional<OffHeapPayload> getOffHeapPayload() {
+        if (value instanceof OffHeapPayload payload) {
+            return Optional.of(payload);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the {@link StreamingPayload} if the value is held as such
+     */
+    public Optional<StreamingPayload> getStreamingPayload() {
+        if (value instanceof StreamingPayload payload) {
+            return Optional.of(payload);
+        }
+        return Optional.empty();
+    }
+
     /**
      * @return a String representation of the contained value if available.
      */
@@ -73,53 +136,132 @@ public class KVEntry implements Serializable {
      * @return a Boolean representation of the contained value if available.
      */
     public Optional<Boolean> getValueAsBoolean() {
-        if (null == value) {
-            return Optional.empty();
-        }
-        return Optional.of(Boolean.parseBoolean(String.valueOf(value)));
+        return getValueAs(Boolean.class);
     }
 
     /**
      * @return an Integer representation of the contained value if available.
      */
     public Optional<Integer> getValueAsInteger() {
-        if (null == value) {
-            return Optional.empty();
-        }
-        try {
-            return Optional.of(Integer.parseInt(String.valueOf(value)));
-        } catch (NumberFormatException e) {
-            log.warn(e, "Unable to parse {} to Integer, key={}", value, key);
-            return Optional.empty();
-        }
+        return getValueAs(Integer.class);
     }
 
     /**
      * @return a Double representation of the contained value if available.
      */
     public Optional<Double> getValueAsDouble() {
+        return getValueAs(Double.class);
+    }
+
+    /**
+     * @return a Float representation of the contained value if available.
+     */
+    public Optional<Float> getValueAsFloat() {
+        return getValueAs(Float.class);
+    }
+
+    /**
+     * Decodes the contained value by the {@link ValueCodec} registered for the
+     * given type, see {@link ValueCodecs}. The result is memoized by this
+     * instance if the codec is immutable, see {@link ValueCodec#isImmutable()},
+     * otherwise each call decodes a new instance. Binary values are decoded as
+     * UTF-8 text, a {@link StreamingPayload} is not decoded at all.
+     *
+     * @param <T>  identifying the requested type
+     * @param type must not be null
+     * @return the decoded value if available and valid
+     */
+    public <T> Optional<T> getValueAs(@NonNull Class<T> type) {
         if (null == value) {
             return Optional.empty();
         }
-        try {
-            return Optional.of(Double.parseDouble(String.valueOf(value)));
-        } catch (NumberFormatException e) {
-            log.warn(e, "Unable to parse {} to Double, key={}", value, key);
-            return Optional.empty();
+        if (type.isInstance(value)) {
+            return Optional.of(type.cast(value));
         }
+        return decoded.get(this, type);
     }
 
     /**
-     * @return a Float representation of the contained value if available.
+     * Variant of {@link #getValueAsInteger()} without boxing.
+     *
+     * @param defaultValue returned if there is no valid value
+     * @return the contained value as int
      */
-    public Optional<Float> getValueAsFloat() {
-        if (null == value) {
+    public int getValueAsInt(int defaultValue) {
+        if (value instanceof Integer number) {
+            return number;
+        }
+        return decoded.getInt(this, defaultValue);
+    }
+
+    /**
+     * @param defaultValue returned if there is no valid value
+     * @return the contained value as long, without boxing
+     */
+    public long getValueAsLong(long defaultValue) {
+        if (value instanceof Long number) {
+            return number;
+        }
+        return decoded.getLong(this, defaultValue);
+    }
+
+    /**
+     * Variant of {@link #getValueAsDouble()} without boxing.
+     *
+     * @param defaultValue returned if there is no valid value
+     * @return the contained value as double
+     */
+    public double getValueAsDouble(double defaultValue) {
+        if (value instanceof Double number) {
+            return number;
+        }
+        return decoded.getDouble(this, defaultValue);
+    }
+
+    /**
+     * Variant of {@link #getValueAsBoolean()} without boxing.
+     *
+     * @param defaultValue returned if there is no value
+     * @return the contained value as boolean
+     */
+    public boolean getValueAsBoolean(boolean defaultValue) {
+        if (value instanceof Boolean flag) {
+            return flag;
+        }
+        return decoded.getBoolean(this, defaultValue);
+    }
+
+    /**
+     * @return the textual representation of the value as input for a
+     *         {@link ValueCodec}, null if there is none
+     */
+    String getValueAsText() {
+        if (null == value || value instanceof StreamingPayload) {
+            return null;
+        }
+        if (value instanceof String string) {
+            return string;
+        }
+        if (value instanceof byte[] || value instanceof BinaryPayload || value instanceof OffHeapPayload) {
+            return new String((byte[]) getValue(), StandardCharsets.UTF_8);
+        }
+        return String.valueOf(value);
+    }
+
+    <T> Optional<T> decode(Class<T> type) {
+        var codec = ValueCodecs.forType(type);
+        if (codec.isEmpty()) {
+            log.warn("No ValueCodec registered for {}, key={}", type.getName(), key);
+            return Optional.empty();
+        }
+        var text = getValueAsText();
+        if (null == text) {
             return Optional.empty();
         }
         try {
-            return Optional.of(Float.parseFloat(String.valueOf(value)));
-        } catch (NumberFormatException e) {
-            log.warn(e, "Unable to parse {} to Float, key={}", value, key);
+            return Optional.ofNullable(codec.get().decode(text));
+        } catch (IllegalArgumentException e) {
+            log.warn("Unable to parse value to {}, key={}, due to '{}'", type.getSimpleName(), key, e.getMessage());
             return Optional.empty();
         }
     }
@@ -138,10 +280,44 @@ public class KVEntry implements Serializable {
         if (value instanceof byte[] bytes) {
             return Optional.of(new ByteArrayInputStream(bytes));
         }
+        if (value instanceof BinaryPayload payload) {
+            return Optional.of(payload.openStream());
+        }
+        if (value instanceof OffHeapPayload payload) {
+            return Optional.of(payload.openStream());
+        }
+        if (value instanceof StreamingPayload payload) {
+            try {
+                return Optional.of(payload.open());
+            } catch (IOException e) {
+                log.error(e, "Unable to open streaming payload, key='{}'", key);
+                return Optional.empty();
+            }
+        }
         log.error("Unknown type detected key='{}', type='{}'", key, value.getClass());
         return Optional.empty();
     }
 
+    /**
+     * Restores the transient memoized values after deserialization.
+     *
+     * @return a new instance with the same content
+     */
+    private Object readResolve() {
+        return new KVEntry(key, value, metadata);
+    }
+
+    /**
+     * Shorthand for creating a new instance
+     *
+     * @param newMetadata must not be null
+     * @return a new instance of this {@link KVEntry} with the given metadata but
+     *         containing the previous value, without decoding it
+     */
+    public KVEntry newMetadata(Metadata newMetadata) {
+        return new KVEntry(key, value, newMetadata);
+    }
+
     /**
      * Shorthand for creating a new instance
      *
@@ -211,6 +387,38 @@ public class KVEntry implements Serializable {
 
     }
 
+    /**
+     * Creates a {@link KVEntry} with implicitly passed {@link Metadata#EMPTY},
+     * whose content will be streamed from the given loader while being written,
+     * see {@link StreamingPayload}. In contrast to
+     * {@link #of(String, FileLoader)} the content is not loaded into memory.
+     *
+     * @param key    must not be null
+     * @param loader must not be null
+     * @return the created {@link KVEntry}
+     * @throws FileNotFoundException in case {@link FileLoader#isReadable()}
+     *                               returns {@code false}
+     */
+    public static KVEntry streaming(String key, FileLoader loader) throws FileNotFoundException {
+        if (!loader.isReadable()) {
+            throw new FileNotFoundException("Unable to load file " + loader.getFileName());
+        }
+        return of(key, StreamingPayload.of(loader));
+    }
+
+    /**
+     * Variant of {@link #streaming(String, FileLoader)} for an
+     * {@link InputStream}: it can only be written once and will be closed after
+     * being written.
+     *
+     * @param key   must not be null
+     * @param input must not be null
+     * @return the created {@link KVEntry}
+     */
+    public static KVEntry streaming(String key, InputStream input) {
+        return of(key, StreamingPayload.of(input));
+    }
+
     /**
      * Translates an {@link InputStream} to an {@link Byte} array in order to
      * serialize
@@ -17,37 +17,135 @@ package de.cuioss.portal.client.vault.kvstore;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
-import lombok.Value;
+import lombok.ToString;
 
 /**
- * Represents a certain Metadata-element
+ * Represents a certain Metadata-element. The timestamps are held as epoch
+ * seconds, as provided by {@link #ofEpochSeconds(long, long, boolean, Integer,
+ * String)}, and only materialized as {@link LocalDateTime} on access.
  *
  * @author Oliver Wolff
  *
  */
-@RequiredArgsConstructor
-@Builder
-@Value
-public class Metadata implements Serializable {
+@EqualsAndHashCode(of = { "createdEpochSecond", "createdNano", "deletedEpochSecond", "deletedNano", "destroyed",
+        "version", "path" })
+@ToString(of = { "created", "deleted", "destroyed", "version", "path" })
+public final class Metadata implements Serializable {
 
     private static final long serialVersionUID = -5519008712013013134L;
 
+    /** Marks the absence of a deletion time. */
+    public static final long NOT_DELETED = Long.MIN_VALUE;
+
     /** Defines an empty Metadata. */
     public static final Metadata EMPTY = Metadata.builder().created(LocalDateTime.now()).destroyed(false).version(1)
             .build();
 
-    @NonNull
-    private final LocalDateTime created;
+    /**
+     * The creation time in seconds since 1970-01-01T00:00:00, see
+     * {@link LocalDateTime#toEpochSecond(ZoneOffset)} with {@link ZoneOffset#UTC}
+     */
+    @Getter
+    private final long createdEpochSecond;
+
+    private final int createdNano;
+
+    /**
+     * The deletion time like {@link #getCreatedEpochSecond()}, or
+     * {@link #NOT_DELETED}
+     */
+    @Getter
+    private final long deletedEpochSecond;
 
-    private final LocalDateTime deleted;
+    private final int deletedNano;
 
+    @Getter
     private final boolean destroyed;
 
+    @Getter
     private final Integer version;
 
+    @Getter
     private final String path;
+
+    private transient LocalDateTime created;
+
+    private transient LocalDateTime deleted;
+
+    /**
+     * @param created   must not be null
+     * @param deleted   may be null
+     * @param destroyed indicating whether the version has been destroyed
+     * @param version   may be null
+     * @param path      may be null
+     */
+    @Builder
+    public Metadata(@NonNull LocalDateTime created, LocalDateTime deleted, boolean destroyed, Integer version,
+            String path) {
+        this(created.toEpochSecond(ZoneOffset.UTC), created.getNano(),
+                null == deleted ? NOT_DELETED : deleted.toEpochSecond(ZoneOffset.UTC),
+                null == deleted ? 0 : deleted.getNano(), destroyed, version, path);
+        this.created = created;
+        this.deleted = deleted;
+    }
+
+    private Metadata(long createdEpochSecond, int createdNano, long deletedEpochSecond, int deletedNano,
+            boolean destroyed, Integer version, String path) {
+        this.createdEpochSecond = createdEpochSecond;
+        this.createdNano = createdNano;
+        this.deletedEpochSecond = deletedEpochSecond;
+        this.deletedNano = deletedNano;
+        this.destroyed = destroyed;
+        this.version = version;
+        this.path = path;
+    }
+
+    /**
+     * Creates a {@link Metadata} without materializing the timestamps.
+     *
+     * @param createdEpochSecond see {@link #getCreatedEpochSecond()}
+     * @param deletedEpochSecond see {@link #getDeletedEpochSecond()}
+     * @param destroyed          indicating whether the version has been
+     *                           destroyed
+     * @param version            may be null
+     * @param path               may be null
+     * @return the created {@link Metadata}
+     */
+    public static Metadata ofEpochSeconds(long createdEpochSecond, long deletedEpochSecond, boolean destroyed,
+            Integer version, String path) {
+        return new Metadata(createdEpochSecond, 0, deletedEpochSecond, 0, destroyed, version, path);
+    }
+
+    /**
+     * @return the creation time, never null
+     */
+    public LocalDateTime getCreated() {
+        var result = created;
+        if (null == result) {
+            result = LocalDateTime.ofEpochSecond(createdEpochSecond, createdNano, ZoneOffset.UTC);
+            created = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the deletion time, may be null
+     */
+    public LocalDateTime getDeleted() {
+        if (NOT_DELETED == deletedEpochSecond) {
+            return null;
+        }
+        var result = deleted;
+        if (null == result) {
+            result = LocalDateTime.ofEpochSecond(deletedEpochSecond, deletedNano, ZoneOffset.UTC);
+            deleted = result;
+        }
+        return result;
+    }
 }
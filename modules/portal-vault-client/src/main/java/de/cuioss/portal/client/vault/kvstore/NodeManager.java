@@ -15,9 +15,13 @@
  */
 package de.cuioss.portal.client.vault.kvstore;
 
+import static java.util.Objects.requireNonNull;
+
 import java.util.Collection;
+import java.util.Objects;
 
 import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.result.ResultState;
 
 /**
  * Manager Object for reading / updating the Key Values on a given Path
@@ -34,10 +38,34 @@ public interface NodeManager {
     Navigator getNavigator();
 
     /**
-     * @return the actual content of the key / values at this node
+     * @return the actual content of the key / values at this node. Usually
+     *         provided as {@link KVEntries}, see {@link KVEntries#of(Collection)}
+     *         for an indexed view.
      */
     ResultObject<Collection<KVEntry>> read();
 
+    /**
+     * Reads the current version of the node from its metadata, without reading
+     * the payload. Compared to {@link Metadata#getVersion()} of previously read
+     * entries it tells whether the node was modified meanwhile.
+     * <p>
+     * The default implementation reads the node by {@link #read()} and provides
+     * the highest version found in the metadata of its entries. Implementations
+     * able to access the metadata only should override it.
+     *
+     * @return the current version of the node, 0 if the node does not exist or
+     *         its current version is deleted
+     */
+    default ResultObject<Integer> readCurrentVersion() {
+        var read = read();
+        if (!read.isValid()) {
+            return ResultObject.<Integer>builder().extractStateAndDetailsAndErrorCodeFrom(read)
+                    .validDefaultResult(0).build();
+        }
+        return ResultObject.<Integer>builder().result(currentVersion(read.getResult())).state(ResultState.VALID)
+                .build();
+    }
+
     /**
      * @param entry to be written
      * @return the written entry with updated Metadata
@@ -58,6 +86,26 @@ public interface NodeManager {
      */
     ResultObject<KVEntry> read(String key);
 
+    /**
+     * Projection of {@link #read()}: Only the entries for the given keys are
+     * materialized. The default implementation reads all entries and selects
+     * the given keys by {@link KVEntries#project(Collection)}.
+     *
+     * @param keys must not be null
+     * @return the entries for the given keys that are present, in order of the
+     *         given keys. Keys not being present are not considered to be an
+     *         error.
+     */
+    default ResultObject<Collection<KVEntry>> read(Collection<String> keys) {
+        requireNonNull(keys);
+        var read = read();
+        if (!read.isValid()) {
+            return read;
+        }
+        return ResultObject.<Collection<KVEntry>>builder().result(KVEntries.of(read.getResult()).project(keys))
+                .state(ResultState.VALID).build();
+    }
+
     /**
      * Deletes a specified key
      *
@@ -65,4 +113,9 @@ public interface NodeManager {
      * @return boolean indicating whether the deletion was successful.
      */
     ResultObject<Boolean> delete(String key);
+
+    private static int currentVersion(Collection<KVEntry> entries) {
+        return entries.stream().map(entry -> entry.getMetadata().getVersion()).filter(Objects::nonNull)
+                .max(Integer::compare).orElse(0);
+    }
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binary value of a {@link KVEntry} that is held outside the Java heap, within
+ * a direct {@link ByteBuffer}. Created by
+ * {@link de.cuioss.portal.client.vault.kvstore.cache.OffHeapStore} for large
+ * binaries kept within a cache. {@link #openStream()} reads directly from the
+ * buffer, without creating a copy of the data on the heap.
+ * <p>
+ * The holders of a payload announce their usage by {@link #retain()} and
+ * {@link #release()}. Once the last holder has released it, the memory is
+ * returned to the budget of its store. The buffer itself stays readable for
+ * references still around and is freed by the garbage collector, so releasing
+ * never invalidates an entry already handed out.
+ *
+ * @author agent
+ *
+ */
+public final class OffHeapPayload implements Serializable {
+
+    private static final long serialVersionUID = -1296385837710350622L;
+
+    private transient ByteBuffer buffer;
+
+    private transient Runnable onRelease;
+
+    private transient AtomicInteger references = new AtomicInteger();
+
+    private transient AtomicBoolean released = new AtomicBoolean();
+
+    /**
+     * @param buffer    containing the data between its position and limit, must
+     *                  not be null. It must not be modified afterwards.
+     * @param onRelease called once the last holder has released the payload,
+     *                  must not be null
+     */
+    public OffHeapPayload(ByteBuffer buffer, Runnable onRelease) {
+        this.buffer = requireNonNull(buffer).asReadOnlyBuffer();
+        this.onRelease = requireNonNull(onRelease);
+    }
+
+    /**
+     * @return the number of bytes
+     */
+    public int size() {
+        return buffer.remaining();
+    }
+
+    /**
+     * @return boolean indicating whether the data is held outside the heap. It is
+     *         false for a deserialized payload.
+     */
+    public boolean isDirect() {
+        return buffer.isDirect();
+    }
+
+    /**
+     * @return a read-only view on the data, not copying it
+     */
+    public ByteBuffer asReadOnlyBuffer() {
+        return buffer.duplicate();
+    }
+
+    /**
+     * @return a stream reading directly from the buffer
+     */
+    public InputStream openStream() {
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    /**
+     * @return a copy of the data on the heap, created on each call
+     */
+    public byte[] toByteArray() {
+        var bytes = new byte[size()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Announces a new holder of this payload.
+     *
+     * @return this payload
+     */
+    public OffHeapPayload retain() {
+        references.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Announces that a holder no longer uses this payload. Releasing the last
+     * holder returns the memory to the store, once.
+     */
+    public void release() {
+        if (references.decrementAndGet() <= 0 && released.compareAndSet(false, true)) {
+            onRelease.run();
+        }
+    }
+
+    /**
+     * @return boolean indicating whether the last holder has released this
+     *         payload
+     */
+    public boolean isReleased() {
+        return released.get();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        return obj instanceof OffHeapPayload other && buffer.equals(other.buffer);
+    }
+
+    @Override
+    public int hashCode() {
+        return buffer.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapPayload(size=" + size() + ", direct=" + isDirect() + ")";
+    }
+
+    private void writeObject(ObjectOutputStream output) throws IOException {
+        output.defaultWriteObject();
+        var bytes = toByteArray();
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        var bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        buffer = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        onRelease = () -> {
+        };
+        references = new AtomicInteger();
+        released = new AtomicBoolean();
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            return buffer.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (0 == length) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            var count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long count) {
+            var skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
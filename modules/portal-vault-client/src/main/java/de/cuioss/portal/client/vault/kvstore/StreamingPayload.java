@@ -0,0 +1,120 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.cuioss.tools.io.FileLoader;
+
+/**
+ * Binary value of a {@link KVEntry} to be written, that is read from its
+ * source only while writing: The content is encoded directly into the request
+ * sent to Vault, without being held in memory. Created by
+ * {@link KVEntry#streaming(String, FileLoader)} or
+ * {@link KVEntry#streaming(String, InputStream)}.
+ * <p>
+ * Only repeatable payloads can be serialized, as the {@link InputStream} of a
+ * non-repeatable one can not.
+ *
+ * @author agent
+ *
+ */
+public final class StreamingPayload implements Serializable {
+
+    private static final long serialVersionUID = -3021580347781722513L;
+
+    /**
+     * Provides the content to be written.
+     */
+    @FunctionalInterface
+    public interface Source extends Serializable {
+
+        /**
+         * @return a newly opened stream, to be closed by the caller
+         * @throws IOException if the content can not be accessed
+         */
+        InputStream open() throws IOException;
+    }
+
+    private final Source source;
+
+    private final boolean repeatable;
+
+    private StreamingPayload(Source source, boolean repeatable) {
+        this.source = requireNonNull(source);
+        this.repeatable = repeatable;
+    }
+
+    /**
+     * @param loader must not be null
+     * @return a repeatable payload, opening the given loader on each access
+     */
+    public static StreamingPayload of(FileLoader loader) {
+        requireNonNull(loader);
+        return new StreamingPayload(loader::inputStream, true);
+    }
+
+    /**
+     * @param input must not be null
+     * @return a payload that can only be read once
+     */
+    public static StreamingPayload of(InputStream input) {
+        requireNonNull(input);
+        var consumed = new AtomicBoolean();
+        return new StreamingPayload(() -> {
+            if (consumed.getAndSet(true)) {
+                throw new IOException("The given InputStream has already been consumed");
+            }
+            return input;
+        }, false);
+    }
+
+    /**
+     * @return a stream on the content, to be closed by the caller
+     * @throws IOException if the content can not be accessed, or in case of a
+     *                     non-repeatable payload it has already been opened
+     */
+    public InputStream open() throws IOException {
+        return source.open();
+    }
+
+    /**
+     * @return boolean indicating whether {@link #open()} can be called more
+     *         than once, e.g. for retrying a write
+     */
+    public boolean isRepeatable() {
+        return repeatable;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingPayload(repeatable=" + repeatable + ")";
+    }
+
+    private void writeObject(ObjectOutputStream output) throws IOException {
+        if (!repeatable) {
+            throw new NotSerializableException("StreamingPayload on an InputStream can not be serialized");
+        }
+        output.defaultWriteObject();
+    }
+}
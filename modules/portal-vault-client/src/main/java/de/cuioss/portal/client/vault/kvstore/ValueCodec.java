@@ -0,0 +1,107 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Function;
+
+/**
+ * Decodes the textual representation of the value of a {@link KVEntry} to a
+ * specific type, see {@link KVEntry#getValueAs(Class)}. Besides the built-in
+ * codecs, see {@link ValueCodecs}, further ones can be provided by
+ * {@link ValueCodecs#register(ValueCodec)} or as service, declared within
+ * {@code META-INF/services/de.cuioss.portal.client.vault.kvstore.ValueCodec}.
+ *
+ * @author agent
+ *
+ * @param <T> identifying the decoded type
+ */
+public interface ValueCodec<T> {
+
+    /**
+     * @return the type this codec decodes to, must not be null
+     */
+    Class<T> getType();
+
+    /**
+     * @param value the textual representation of the value, never null
+     * @return the decoded value, may be null
+     * @throws IllegalArgumentException if the given value can not be decoded
+     */
+    T decode(String value);
+
+    /**
+     * @return boolean indicating whether the decoded values are immutable. Only
+     *         those are memoized by {@link KVEntry#getValueAs(Class)} and shared
+     *         between its callers, mutable ones are decoded on each call.
+     *         Defaults to false.
+     */
+    default boolean isImmutable() {
+        return false;
+    }
+
+    /**
+     * @param <T>     identifying the decoded type
+     * @param type    must not be null
+     * @param decoder must not be null, throwing an
+     *                {@link IllegalArgumentException} if a value can not be
+     *                decoded
+     * @return a codec delegating to the given decoder, decoding to mutable
+     *         values
+     */
+    static <T> ValueCodec<T> of(Class<T> type, Function<String, T> decoder) {
+        return of(type, decoder, false);
+    }
+
+    /**
+     * @param <T>     identifying the decoded type
+     * @param type    must not be null
+     * @param decoder must not be null, see {@link #of(Class, Function)}
+     * @return a codec delegating to the given decoder, decoding to immutable
+     *         values
+     */
+    static <T> ValueCodec<T> immutable(Class<T> type, Function<String, T> decoder) {
+        return of(type, decoder, true);
+    }
+
+    private static <T> ValueCodec<T> of(Class<T> type, Function<String, T> decoder, boolean immutable) {
+        requireNonNull(type);
+        requireNonNull(decoder);
+        return new ValueCodec<>() {
+
+            @Override
+            public Class<T> getType() {
+                return type;
+            }
+
+            @Override
+            public T decode(String value) {
+                return decoder.apply(value);
+            }
+
+            @Override
+            public boolean isImmutable() {
+                return immutable;
+            }
+
+            @Override
+            public String toString() {
+                return "ValueCodec(" + type.getName() + ")";
+            }
+        };
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.bettercloud.vault.json.Json;
+import com.bettercloud.vault.json.JsonObject;
+import com.bettercloud.vault.json.JsonValue;
+import com.bettercloud.vault.json.ParseException;
+
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Registry of the {@link ValueCodec}s used by {@link KVEntry#getValueAs(Class)}.
+ * Built-in codecs are provided for {@link String}, {@link Boolean},
+ * {@link Integer}, {@link Long}, {@link Double}, {@link Float},
+ * {@link Duration}, {@link JsonValue}, {@link JsonObject} and
+ * {@link Properties}. Codecs declared as service are loaded on initialization
+ * and take precedence over the built-in ones. The JSON and {@link Properties}
+ * codecs decode to mutable values, therefore each call provides a new
+ * instance.
+ *
+ * @author agent
+ *
+ */
+@UtilityClass
+public class ValueCodecs {
+
+    private static final CuiLogger log = new CuiLogger(ValueCodecs.class);
+
+    private static final Map<Class<?>, ValueCodec<?>> CODECS = new ConcurrentHashMap<>();
+
+    static {
+        register(ValueCodec.immutable(String.class, value -> value));
+        register(ValueCodec.immutable(Boolean.class, value -> Boolean.parseBoolean(value.strip())));
+        register(ValueCodec.immutable(Integer.class, value -> Integer.valueOf(value.strip())));
+        register(ValueCodec.immutable(Long.class, value -> Long.valueOf(value.strip())));
+        register(ValueCodec.immutable(Double.class, value -> Double.valueOf(value.strip())));
+        register(ValueCodec.immutable(Float.class, value -> Float.valueOf(value.strip())));
+        register(ValueCodec.immutable(Duration.class, ValueCodecs::parseDuration));
+        register(ValueCodec.of(JsonValue.class, ValueCodecs::parseJson));
+        register(ValueCodec.of(JsonObject.class, value -> {
+            var json = parseJson(value);
+            if (!json.isObject()) {
+                throw new IllegalArgumentException("Not a JSON-object");
+            }
+            return json.asObject();
+        }));
+        register(ValueCodec.of(Properties.class, ValueCodecs::parseProperties));
+        try {
+            ServiceLoader.load(ValueCodec.class).forEach(ValueCodecs::register);
+        } catch (ServiceConfigurationError e) {
+            log.warn(e, "Unable to load the declared ValueCodecs");
+        }
+    }
+
+    /**
+     * Registers the given codec, replacing a previously registered one for the
+     * same type.
+     *
+     * @param codec must not be null
+     */
+    public static void register(ValueCodec<?> codec) {
+        CODECS.put(requireNonNull(codec.getType()), codec);
+    }
+
+    /**
+     * @param <T>  identifying the decoded type
+     * @param type must not be null
+     * @return the codec registered for the given type
+     */
+    @SuppressWarnings("unchecked") // ensured by register
+    public static <T> Optional<ValueCodec<T>> forType(Class<T> type) {
+        return Optional.ofNullable((ValueCodec<T>) CODECS.get(requireNonNull(type)));
+    }
+
+    /**
+     * Parses either an ISO-8601 duration, like "PT30S", or a number with an
+     * optional unit, as used by Vault, like "30s", "5m", "12h" or "250ms". A
+     * number without unit is interpreted as seconds.
+     *
+     * @param value must not be null
+     * @return the parsed duration
+     * @throws IllegalArgumentException if the value is not a valid duration
+     */
+    static Duration parseDuration(String value) {
+        var text = value.strip().toLowerCase(Locale.ROOT);
+        try {
+            if (text.startsWith("p") || text.startsWith("-p")) {
+                return Duration.parse(text);
+            }
+            var end = text.startsWith("-") ? 1 : 0;
+            while (end < text.length() && Character.isDigit(text.charAt(end))) {
+                end++;
+            }
+            var amount = Long.parseLong(text.substring(0, end));
+            var unit = switch (text.substring(end).strip()) {
+            case "", "s" -> ChronoUnit.SECONDS;
+            case "ms" -> ChronoUnit.MILLIS;
+            case "m" -> ChronoUnit.MINUTES;
+            case "h" -> ChronoUnit.HOURS;
+            case "d" -> ChronoUnit.DAYS;
+            default -> throw new IllegalArgumentException("Unknown unit of duration '" + value + "'");
+            };
+            return Duration.of(amount, unit);
+        } catch (DateTimeException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid duration '" + value + "'", e);
+        }
+    }
+
+    private static JsonValue parseJson(String value) {
+        try {
+            return Json.parse(value);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private static Properties parseProperties(String value) {
+        var properties = new Properties();
+        try (var reader = new StringReader(value)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            // Not to be expected for a StringReader
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        return properties;
+    }
+}
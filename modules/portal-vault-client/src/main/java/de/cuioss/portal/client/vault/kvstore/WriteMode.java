@@ -0,0 +1,51 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+/**
+ * Defines the strategy used by {@link NodeManager#write(java.util.Collection)}
+ * for persisting the given entries. All modes share the same semantics: The
+ * given entries are merged into the already persisted ones.
+ *
+ * @author agent
+ *
+ */
+public enum WriteMode {
+
+    /**
+     * Reads the existing entries, writes the merged result and reads the written
+     * entries again: Three round trips per write. This is the default.
+     */
+    MERGE,
+
+    /**
+     * Reads the existing entries and writes the merged result using the
+     * check-and-set option of KV version 2 with the version read before. The
+     * result is derived from the write response without reading again. In case of
+     * a concurrent modification the write is retried.
+     */
+    CHECK_AND_SET,
+
+    /**
+     * Sends only the given entries using the JSON merge-patch endpoint of KV
+     * version 2: One round trip per write, independent of the number of entries
+     * already persisted. {@link NodeManager#delete(String)} sends the key with a
+     * null value, therefore it can not detect a missing key. The result of a
+     * write only contains the given entries. Falls back to {@link #MERGE} if the
+     * server does not support patching or the node does not exist yet.
+     */
+    PATCH
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import static de.cuioss.tools.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Simple, thread-safe cache bounded by the number of entries and by the
+ * accumulated weight of its values, using the W-TinyLFU policy:
+ * <ul>
+ * <li>New entries are put into a small LRU window (1% of the maximum
+ * size).</li>
+ * <li>Entries leaving the window are only admitted to the main space if they
+ * are accessed more frequently than the entry the main space would evict
+ * otherwise. The frequency is estimated by a {@link FrequencySketch}.</li>
+ * <li>The main space is a segmented LRU: entries accessed again are promoted
+ * from probation to the protected segment (80% of the main space).</li>
+ * </ul>
+ * Each entry expires after a time-to-live, given on {@link #put(Object, Object)}
+ * or {@link #put(Object, Object, Duration)}. Expired entries are removed on
+ * access.
+ *
+ * @author agent
+ *
+ * @param <K> identifying the type of the keys
+ * @param <V> identifying the type of the values
+ */
+public class BoundedCache<K, V> {
+
+    private enum Segment {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    private static final class Node<K, V> {
+
+        private final K key;
+        private V value;
+        private long weight;
+        private long expiresAt;
+        private Segment segment;
+
+        private Node(K key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Listener to be notified on removal of an entry, e.g. because of eviction,
+     * expiry, invalidation or replacement.
+     *
+     * @param <K> identifying the type of the keys
+     * @param <V> identifying the type of the values
+     */
+    @FunctionalInterface
+    public interface RemovalListener<K, V> {
+
+        /**
+         * @param key   of the removed entry
+         * @param value of the removed entry
+         */
+        void onRemoval(K key, V value);
+    }
+
+    @Getter
+    private final long maximumSize;
+
+    @Getter
+    private final long maximumWeight;
+
+    private final ToLongFunction<V> weigher;
+
+    private final Duration timeToLive;
+
+    private final LongSupplier ticker;
+
+    private final RemovalListener<K, V> removalListener;
+
+    private final long windowMaximum;
+
+    private final long protectedMaximum;
+
+    private final FrequencySketch sketch;
+
+    private final Map<K, Node<K, V>> data = new HashMap<>();
+
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LinkedHashMap<K, Node<K, V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalWeight;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param maximumSize     the maximum number of entries, must be positive
+     * @param maximumWeight   the maximum accumulated weight of all values, must
+     *                        be positive
+     * @param weigher         computing the weight of a value, defaults to 1 for
+     *                        each value
+     * @param timeToLive      the default time-to-live of an entry, must not be
+     *                        null
+     * @param ticker          providing the current time in nanoseconds,
+     *                        defaults to {@link System#nanoTime()}
+     * @param removalListener may be null
+     */
+    @Builder
+    public BoundedCache(long maximumSize, long maximumWeight, ToLongFunction<V> weigher,
+            @NonNull Duration timeToLive, LongSupplier ticker, RemovalListener<K, V> removalListener) {
+        checkArgument(maximumSize > 0, "maximumSize must be positive");
+        checkArgument(maximumWeight > 0, "maximumWeight must be positive");
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = null == weigher ? value -> 1L : weigher;
+        this.timeToLive = timeToLive;
+        this.ticker = null == ticker ? System::nanoTime : ticker;
+        this.removalListener = removalListener;
+        windowMaximum = Math.max(1, maximumSize / 100);
+        protectedMaximum = Math.max(1, (maximumSize - windowMaximum) * 8 / 10);
+        sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * @param key must not be null
+     * @return the value if present and not expired
+     */
+    public synchronized Optional<V> getIfPresent(K key) {
+        requireNonNull(key);
+        sketch.increment(key);
+        var node = data.get(key);
+        if (null == node || isExpired(node)) {
+            if (null != node) {
+                remove(node);
+            }
+            missCount.increment();
+            return Optional.empty();
+        }
+        hitCount.increment();
+        onAccess(node);
+        return Optional.of(node.value);
+    }
+
+    /**
+     * Variant of {@link #getIfPresent(Object)} that neither records statistics
+     * nor influences the eviction order.
+     *
+     * @param key must not be null
+     * @return the value if present and not expired
+     */
+    public synchronized Optional<V> peek(K key) {
+        var node = data.get(requireNonNull(key));
+        if (null == node || isExpired(node)) {
+            return Optional.empty();
+        }
+        return Optional.of(node.value);
+    }
+
+    /**
+     * Puts the given value with the default time-to-live
+     *
+     * @param key   must not be null
+     * @param value must not be null
+     */
+    public void put(K key, V value) {
+        put(key, value, timeToLive);
+    }
+
+    /**
+     * @param key        must not be null
+     * @param value      must not be null
+     * @param timeToLive the time-to-live of this entry, must not be null
+     */
+    public synchronized void put(K key, V value, Duration timeToLive) {
+        requireNonNull(key);
+        requireNonNull(value);
+        sketch.increment(key);
+        var node = data.get(key);
+        if (null == node) {
+            node = new Node<>(key);
+            node.segment = Segment.WINDOW;
+            data.put(key, node);
+            window.put(key, node);
+        } else {
+            totalWeight -= node.weight;
+            if (node.value != value) {
+                notifyRemoval(key, node.value);
+            }
+            onAccess(node);
+        }
+        node.value = value;
+        node.weight = weigher.applyAsLong(value);
+        node.expiresAt = ticker.getAsLong() + timeToLive.toNanos();
+        totalWeight += node.weight;
+        evict();
+    }
+
+    /**
+     * Puts the given value with the default time-to-live, but only if the
+     * current value is the expected one.
+     *
+     * @param key      must not be null
+     * @param expected the value expected to be present, compared by identity.
+     *                 If null, the value is only put if there is none or it is
+     *                 expired.
+     * @param value    must not be null
+     * @return boolean indicating whether the value was put
+     */
+    public synchronized boolean replace(K key, V expected, V value) {
+        if (peek(key).orElse(null) != expected) {
+            return false;
+        }
+        put(key, value, timeToLive);
+        return true;
+    }
+
+    /**
+     * @param key must not be null
+     */
+    public synchronized void invalidate(K key) {
+        var node = data.get(requireNonNull(key));
+        if (null != node) {
+            remove(node);
+        }
+    }
+
+    /** Removes all entries. */
+    public synchronized void invalidateAll() {
+        for (Node<K, V> node : data.values()) {
+            notifyRemoval(node.key, node.value);
+        }
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * @return a copy of all entries not expired. Like {@link #peek(Object)} it
+     *         neither records statistics nor influences the eviction order.
+     */
+    public synchronized Map<K, V> snapshot() {
+        Map<K, V> result = new LinkedHashMap<>();
+        for (Node<K, V> node : data.values()) {
+            if (!isExpired(node)) {
+                result.put(node.key, node.value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of entries, including expired ones not yet removed
+     */
+    public synchronized long size() {
+        return data.size();
+    }
+
+    /**
+     * @return the accumulated weight of all entries
+     */
+    public synchronized long weightedSize() {
+        return totalWeight;
+    }
+
+    /**
+     * @return the number of lookups resulting in a present value
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of lookups resulting in no value
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the number of entries evicted because of the size or weight bounds
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private boolean isExpired(Node<K, V> node) {
+        return ticker.getAsLong() - node.expiresAt >= 0;
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.segment) {
+        case WINDOW:
+            window.get(node.key);
+            break;
+        case PROBATION:
+            probation.remove(node.key);
+            node.segment = Segment.PROTECTED;
+            protectedSegment.put(node.key, node);
+            if (protectedSegment.size() > protectedMaximum) {
+                var demoted = removeFirst(protectedSegment);
+                demoted.segment = Segment.PROBATION;
+                probation.put(demoted.key, demoted);
+            }
+            break;
+        default:
+            protectedSegment.get(node.key);
+        }
+    }
+
+    private void evict() {
+        // Entries leaving the window compete with the eviction victim of the main
+        // space
+        while (window.size() > windowMaximum) {
+            var candidate = removeFirst(window);
+            candidate.segment = Segment.PROBATION;
+            probation.put(candidate.key, candidate);
+            if (isOverflowing()) {
+                var victim = firstOfMain(candidate);
+                if (null == victim || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                    evict(candidate);
+                } else {
+                    evict(victim);
+                }
+            }
+        }
+        // Still overflowing, e.g. because of a heavy entry: evict from the main
+        // space first
+        while (isOverflowing()) {
+            var victim = firstOfMain(null);
+            if (null == victim) {
+                victim = window.values().iterator().next();
+            }
+            evict(victim);
+        }
+    }
+
+    private boolean isOverflowing() {
+        return !data.isEmpty() && (data.size() > maximumSize || totalWeight > maximumWeight);
+    }
+
+    /**
+     * @return the least recently used entry of the main space, preferring the
+     *         probation segment, that is not the given candidate. May be null.
+     */
+    private Node<K, V> firstOfMain(Node<K, V> candidate) {
+        if (!probation.isEmpty()) {
+            var first = probation.values().iterator().next();
+            if (first != candidate) {
+                return first;
+            }
+        }
+        if (!protectedSegment.isEmpty()) {
+            return protectedSegment.values().iterator().next();
+        }
+        return null;
+    }
+
+    private void evict(Node<K, V> node) {
+        evictionCount.increment();
+        remove(node);
+    }
+
+    private void remove(Node<K, V> node) {
+        data.remove(node.key);
+        segmentOf(node).remove(node.key);
+        totalWeight -= node.weight;
+        notifyRemoval(node.key, node.value);
+    }
+
+    private LinkedHashMap<K, Node<K, V>> segmentOf(Node<K, V> node) {
+        return switch (node.segment) {
+        case WINDOW -> window;
+        case PROBATION -> probation;
+        default -> protectedSegment;
+        };
+    }
+
+    private Node<K, V> removeFirst(LinkedHashMap<K, Node<K, V>> segment) {
+        var iterator = segment.values().iterator();
+        var first = iterator.next();
+        iterator.remove();
+        return first;
+    }
+
+    private void notifyRemoval(K key, V value) {
+        if (null != removalListener) {
+            removalListener.onRemoval(key, value);
+        }
+    }
+}
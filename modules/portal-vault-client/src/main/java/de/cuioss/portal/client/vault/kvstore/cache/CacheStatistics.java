@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import java.io.Serializable;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Snapshot of the statistics of a {@link NodeCache}
+ *
+ * @author agent
+ *
+ */
+@Value
+@Builder
+public class CacheStatistics implements Serializable {
+
+    private static final long serialVersionUID = 4226415542717781339L;
+
+    /** The number of lookups answered from the cache. */
+    private final long hitCount;
+
+    /** The number of lookups that needed to load from the backend. */
+    private final long missCount;
+
+    /** The number of successful loads from the backend. */
+    private final long loadSuccessCount;
+
+    /** The number of failed loads from the backend, they are not cached. */
+    private final long loadFailureCount;
+
+    /** The number of entries evicted because of the size or weight bounds. */
+    private final long evictionCount;
+
+    /** The number of background refreshes started. */
+    private final long refreshCount;
+
+    /**
+     * The number of revalidations by {@link RevalidationMode#METADATA_VERSION}
+     * that found the cached node unchanged, saving a reload.
+     */
+    private final long revalidationCount;
+
+    /**
+     * The number of lookups answered by stale content, because the backend was
+     * not available.
+     */
+    private final long staleHitCount;
+
+    /** The number of lookups answered by the {@link WarmCacheFile}. */
+    private final long warmHitCount;
+
+    /** The current number of entries. */
+    private final long size;
+
+    /** The current accumulated weight of all entries. */
+    private final long weightedSize;
+
+    /** The accumulated size in bytes of the values held off-heap. */
+    private final long offHeapSize;
+
+    /**
+     * @return the number of lookups
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return the ratio of lookups answered by the cache, 1.0 if there was no
+     *         lookup yet
+     */
+    public double getHitRate() {
+        var requestCount = getRequestCount();
+        if (0 == requestCount) {
+            return 1.0;
+        }
+        return (double) hitCount / requestCount;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntries;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * The content of a node as held by {@link NodeCache}
+ *
+ * @author agent
+ *
+ */
+@Value
+@AllArgsConstructor
+public class CachedNode {
+
+    /** The full path of the node. */
+    @NonNull
+    private final String path;
+
+    /** The decoded entries of the node, indexed by their keys. */
+    @NonNull
+    private final KVEntries entries;
+
+    /** The time, provided by the ticker of the cache, the entries were loaded. */
+    private final long loadedAt;
+
+    /**
+     * Indicates whether the entries were taken from a {@link WarmCacheFile}
+     * instead of being loaded from the backend.
+     */
+    private final boolean warm;
+
+    /**
+     * @param path     must not be null
+     * @param entries  must not be null
+     * @param loadedAt the time, provided by the ticker of the cache, the entries
+     *                 were loaded
+     */
+    public CachedNode(String path, KVEntries entries, long loadedAt) {
+        this(path, entries, loadedAt, false);
+    }
+
+    /**
+     * @return the version of the node as provided by the metadata of its
+     *         entries, {@code null} if there are no entries
+     */
+    public Integer getVersion() {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        return entries.get(0).getMetadata().getVersion();
+    }
+}
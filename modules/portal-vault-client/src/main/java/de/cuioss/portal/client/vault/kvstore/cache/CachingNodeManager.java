@@ -0,0 +1,283 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.isStale;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.notFound;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.stale;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
+import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
+import static de.cuioss.tools.string.MoreStrings.requireNotEmpty;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntries;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.portal.client.vault.kvstore.NodeManager;
+import de.cuioss.portal.client.vault.kvstore.impl.KeyValueNavigator;
+import de.cuioss.portal.client.vault.kvstore.impl.ResultFactory;
+import de.cuioss.tools.logging.CuiLogger;
+import de.cuioss.uimodel.result.ResultErrorCodes;
+import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.result.ResultState;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Read-through caching decorator for a {@link NodeManager}. The content of the
+ * node is kept within the given {@link NodeCache}, so {@link #read()},
+ * {@link #read(String)} and {@link #read(Collection)} only access the backend
+ * on a cache miss. Only valid
+ * results are cached. Writes update the cached content, deletes invalidate it.
+ * <p>
+ * Once the refresh of a cached node is due, see
+ * {@link NodeCache#getRefreshAfter()}, it is revalidated in the background
+ * according to {@link NodeCache#getRevalidationMode()}.
+ * <p>
+ * If {@link NodeCache#getMaximumStaleness()} is set, an expired node is served
+ * as long as the backend is not available, flagged by
+ * {@link ResultFactory#stale(Object, String, Duration)}. Meanwhile, it is
+ * revalidated in the background.
+ * <p>
+ * A node answered from the {@link NodeCache#getWarmCache()} is served right
+ * away and revalidated in the background by comparing its version with the
+ * current one of the backend, regardless of the
+ * {@link NodeCache#getRevalidationMode()}.
+ *
+ * @author agent
+ *
+ */
+@RequiredArgsConstructor
+@ToString(of = "delegate")
+public class CachingNodeManager implements NodeManager {
+
+    private static final CuiLogger log = new CuiLogger(CachingNodeManager.class);
+
+    @NonNull
+    private final NodeManager delegate;
+
+    @NonNull
+    @Getter
+    private final NodeCache cache;
+
+    @Override
+    public Navigator getNavigator() {
+        return delegate.getNavigator();
+    }
+
+    @Override
+    public ResultObject<Collection<KVEntry>> read() {
+        var path = cachePath();
+        var cached = cache.get(path);
+        if (cached.isPresent() && cache.isStale(cached.get())) {
+            return readStale(path, cached.get());
+        }
+        if (cached.isPresent()) {
+            log.trace("Cache hit for '{}'", path);
+            if (cached.get().isWarm() || cache.isRefreshDue(cached.get())) {
+                cache.refresh(path, this::revalidate);
+            }
+            return valid(cached.get().getEntries());
+        }
+        return load();
+    }
+
+    /**
+     * While the backend is known to be unavailable, the stale node is served
+     * right away, otherwise only if loading fails because of that.
+     */
+    private ResultObject<Collection<KVEntry>> readStale(String path, CachedNode node) {
+        if (cache.isBackendUnavailable()) {
+            cache.refresh(path, this::revalidate);
+            return serveStale(path, node);
+        }
+        var loaded = load();
+        if (!loaded.isValid() && isUnavailable(loaded)) {
+            return serveStale(path, node);
+        }
+        return loaded;
+    }
+
+    private ResultObject<Collection<KVEntry>> serveStale(String path, CachedNode node) {
+        var age = cache.getAge(node);
+        log.debug("Backend not available, serving '{}' being '{}' old", path, age);
+        cache.recordStaleHit();
+        return stale(node.getEntries(), path, age);
+    }
+
+    private static boolean isUnavailable(ResultObject<?> result) {
+        return ResultState.ERROR == result.getState()
+                && result.containsErrorCode(ResultErrorCodes.SERVICE_NOT_AVAILABLE);
+    }
+
+    /**
+     * Reads the content of the node from the backend and caches it, if valid
+     * and the cached node did not change meanwhile, see
+     * {@link NodeCache#replace(String, CachedNode, Collection)}.
+     *
+     * @return the result of the backend
+     */
+    ResultObject<Collection<KVEntry>> load() {
+        return load(cache.peek(cachePath()).orElse(null));
+    }
+
+    private ResultObject<Collection<KVEntry>> load(CachedNode expected) {
+        var path = cachePath();
+        log.trace("Loading '{}'", path);
+        var loaded = delegate.read();
+        if (loaded.isValid()) {
+            cache.replace(path, expected, loaded.getResult());
+            cache.recordLoadSuccess();
+        } else {
+            cache.recordLoadFailure(isUnavailable(loaded));
+        }
+        return loaded;
+    }
+
+    /**
+     * Revalidates the cached node according to
+     * {@link NodeCache#getRevalidationMode()}, a node taken from the warm cache
+     * always by its version. If the node is not cached it will be loaded.
+     *
+     * @return {@link Boolean#TRUE} if the node was loaded again,
+     *         {@link Boolean#FALSE} if the cached node was still up to date
+     */
+    public ResultObject<Boolean> revalidate() {
+        var path = cachePath();
+        var cached = cache.peek(path);
+        if (cached.isPresent() && null != cached.get().getVersion()
+                && (RevalidationMode.METADATA_VERSION == cache.getRevalidationMode() || cached.get().isWarm())) {
+            var currentVersion = delegate.readCurrentVersion();
+            if (!currentVersion.isValid()) {
+                cache.recordLoadFailure(isUnavailable(currentVersion));
+                return ResultObject.<Boolean>builder().extractStateAndDetailsAndErrorCodeFrom(currentVersion)
+                        .validDefaultResult(Boolean.FALSE).build();
+            }
+            if (cached.get().getVersion().equals(currentVersion.getResult())) {
+                log.trace("Node '{}' is still at version '{}'", path, currentVersion.getResult());
+                cache.revalidated(cached.get());
+                return valid(Boolean.FALSE);
+            }
+            log.debug("Node '{}' changed from version '{}' to '{}', reloading", path, cached.get().getVersion(),
+                    currentVersion.getResult());
+        }
+        var loaded = load(cached.orElse(null));
+        if (!loaded.isValid()) {
+            return ResultObject.<Boolean>builder().extractStateAndDetailsAndErrorCodeFrom(loaded)
+                    .validDefaultResult(Boolean.FALSE).build();
+        }
+        return valid(Boolean.TRUE);
+    }
+
+    /**
+     * Batched variant of {@link #revalidate()}: The given managers are
+     * revalidated concurrently, using the executors of their caches.
+     *
+     * @param managers must not be null
+     * @return the results of {@link #revalidate()} by the full path of the
+     *         corresponding node
+     */
+    public static Map<String, ResultObject<Boolean>> revalidateAll(Collection<CachingNodeManager> managers) {
+        Map<String, CompletableFuture<ResultObject<Boolean>>> running = new LinkedHashMap<>();
+        for (CachingNodeManager manager : managers) {
+            running.put(manager.cachePath(),
+                    CompletableFuture.supplyAsync(manager::revalidate, manager.getCache().getExecutor()));
+        }
+        Map<String, ResultObject<Boolean>> result = new LinkedHashMap<>();
+        running.forEach((path, future) -> result.put(path, future.join()));
+        return result;
+    }
+
+    @Override
+    public ResultObject<Integer> readCurrentVersion() {
+        return delegate.readCurrentVersion();
+    }
+
+    @Override
+    public ResultObject<KVEntry> read(String key) {
+        requireNotEmpty(key);
+        var allentries = read();
+        if (!allentries.isValid() && !isStale(allentries)) {
+            return ResultObject.<KVEntry>builder().extractStateAndDetailsAndErrorCodeFrom(allentries)
+                    .validDefaultResult(KVEntry.EMPTY).build();
+        }
+        var found = KVEntries.of(allentries.getResult()).get(key);
+        if (found.isPresent()) {
+            return ResultFactory.map(allentries, all -> found.get());
+        }
+        return notFound(KVEntry.EMPTY, "KeyValue", key);
+    }
+
+    @Override
+    public ResultObject<Collection<KVEntry>> read(Collection<String> keys) {
+        var allentries = read();
+        if (!allentries.isValid() && !isStale(allentries)) {
+            return allentries;
+        }
+        return ResultFactory.map(allentries, all -> KVEntries.of(all).project(keys));
+    }
+
+    @Override
+    public ResultObject<KVEntry> write(KVEntry entry) {
+        var written = delegate.write(entry);
+        if (written.isValid()) {
+            cache.merge(cachePath(), immutableList(written.getResult()));
+        } else {
+            cache.invalidate(cachePath());
+        }
+        return written;
+    }
+
+    @Override
+    public ResultObject<Collection<KVEntry>> write(Collection<KVEntry> entries) {
+        var written = delegate.write(entries);
+        if (written.isValid()) {
+            cache.merge(cachePath(), written.getResult());
+        } else {
+            cache.invalidate(cachePath());
+        }
+        return written;
+    }
+
+    @Override
+    public ResultObject<Boolean> delete(String key) {
+        var deleted = delegate.delete(key);
+        cache.invalidate(cachePath());
+        return deleted;
+    }
+
+    /**
+     * @return the statistics of the underlying {@link NodeCache}
+     */
+    public CacheStatistics getStatistics() {
+        return cache.getStatistics();
+    }
+
+    private String cachePath() {
+        var navigator = delegate.getNavigator();
+        if (navigator instanceof KeyValueNavigator keyValueNavigator) {
+            return keyValueNavigator.getFullPath();
+        }
+        return navigator.getPath();
+    }
+}
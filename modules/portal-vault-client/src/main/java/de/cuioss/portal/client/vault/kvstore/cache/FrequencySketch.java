@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+/**
+ * Count-Min sketch with 4-bit counters estimating the access frequency of keys
+ * within a time window, as used by the TinyLFU admission policy. Each
+ * {@code long} of the table holds 16 counters. Once the number of increments
+ * reaches the sample size all counters are halved, so that the frequency of
+ * keys no longer accessed decays.
+ * <p>
+ * The sketch is not thread-safe, it is guarded by its {@link BoundedCache}.
+ *
+ * @author agent
+ *
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L };
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAXIMUM_CAPACITY = 1 << 24;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * @param maximumSize the maximum number of entries of the cache, used for
+     *                    sizing the sketch
+     */
+    FrequencySketch(long maximumSize) {
+        var capacity = (int) Math.min(Math.max(16, maximumSize), MAXIMUM_CAPACITY);
+        capacity = Integer.highestOneBit(capacity - 1) << 1;
+        table = new long[capacity];
+        tableMask = capacity - 1;
+        sampleSize = 10 * capacity;
+    }
+
+    /**
+     * @param key must not be null
+     * @return the estimated number of accesses of the given key, at most 15
+     */
+    int frequency(Object key) {
+        var hash = spread(key.hashCode());
+        var start = (hash & 3) << 2;
+        var frequency = Integer.MAX_VALUE;
+        for (var i = 0; i < 4; i++) {
+            var index = indexOf(hash, i);
+            var count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments the access frequency of the given key, if not already at its
+     * maximum.
+     *
+     * @param key must not be null
+     */
+    void increment(Object key) {
+        var hash = spread(key.hashCode());
+        var start = (hash & 3) << 2;
+        var added = false;
+        for (var i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        var offset = counter << 2;
+        var mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /** Halves all counters and adjusts the size accordingly. */
+    void reset() {
+        var odd = 0;
+        for (var i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int item, int row) {
+        var hash = (item + SEEDS[row]) * SEEDS[row];
+        hash += hash >>> 32;
+        return ((int) hash) & tableMask;
+    }
+
+    private static int spread(int value) {
+        var x = ((value >>> 16) ^ value) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
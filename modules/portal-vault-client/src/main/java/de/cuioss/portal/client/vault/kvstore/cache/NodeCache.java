@@ -0,0 +1,513 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.crypto.SecretKey;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntries;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.OffHeapPayload;
+import de.cuioss.portal.client.vault.kvstore.StreamingPayload;
+import de.cuioss.portal.client.vault.kvstore.impl.VaultExecutors;
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Holds the decoded content of nodes, identified by their full path, for
+ * {@link CachingNodeManager}. It is bounded by the number of nodes and their
+ * estimated size in bytes, see {@link BoundedCache} for the eviction policy.
+ * Entries expire after {@link #getTimeToLive()}. If {@link #getRefreshAfter()}
+ * is set, a lookup of an entry older than that will trigger a reload in the
+ * background while still answering with the cached content.
+ * How a node is revalidated is defined by {@link #getRevalidationMode()}.
+ * If an {@link OffHeapStore} is given, large binary values are held outside
+ * the heap while being cached.
+ * <p>
+ * If {@link #getMaximumStaleness()} is set, expired entries are kept for that
+ * time as last known content: While the backend is not available, they are
+ * still served, flagged as stale, see {@link CachingNodeManager#read()}.
+ * <p>
+ * If a {@link WarmCacheFile} is given, a lookup of a node not cached yet is
+ * answered from that file once, marked as {@link CachedNode#isWarm()}, see
+ * {@link #get(String)}. Such a node is revalidated against the version of the
+ * backend by {@link CachingNodeManager}. The content of the cache can be
+ * written to such a file by {@link #writeSnapshot(Path, SecretKey)}.
+ * <p>
+ * One instance is meant to be shared by all {@link CachingNodeManager}s of a
+ * mount.
+ *
+ * @author agent
+ *
+ */
+public class NodeCache {
+
+    /** 1000 nodes */
+    public static final long DEFAULT_MAXIMUM_SIZE = 1000;
+
+    /** 64 MB */
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 64L * 1024 * 1024;
+
+    /** 5 minutes */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    /** 4 refreshes */
+    public static final int DEFAULT_REFRESH_CONCURRENCY = 4;
+
+    private static final long NODE_OVERHEAD = 64;
+    private static final long ENTRY_OVERHEAD = 48;
+    private static final long OBJECT_WEIGHT = 16;
+
+    private static final CuiLogger log = new CuiLogger(NodeCache.class);
+
+    @Getter
+    private final Duration timeToLive;
+
+    /** May be null, saying there is no refresh-ahead. */
+    @Getter
+    private final Duration refreshAfter;
+
+    @Getter
+    private final Executor executor;
+
+    @Getter
+    private final RevalidationMode revalidationMode;
+
+    /** May be null, saying all values are kept on the heap. */
+    @Getter
+    private final OffHeapStore offHeapStore;
+
+    /** May be null, saying expired entries are not served at all. */
+    @Getter
+    private final Duration maximumStaleness;
+
+    @Getter
+    private final int refreshConcurrency;
+
+    /** May be null, saying there is no content to start with. */
+    @Getter
+    private final WarmCacheFile warmCache;
+
+    /** The paths of the warm cache not answered or cached otherwise yet. */
+    private final Set<String> warmPending = ConcurrentHashMap.newKeySet();
+
+    /** The paths of the warm cache not invalidated yet. */
+    private final Set<String> warmRetained = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean warmDiscarded;
+
+    private final Semaphore refreshPermits;
+
+    private volatile boolean backendUnavailable;
+
+    private final LongSupplier ticker;
+
+    private final BoundedCache<String, CachedNode> cache;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder loadSuccessCount = new LongAdder();
+
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    private final LongAdder refreshCount = new LongAdder();
+
+    private final LongAdder revalidationCount = new LongAdder();
+
+    private final LongAdder staleHitCount = new LongAdder();
+
+    private final LongAdder warmHitCount = new LongAdder();
+
+    /**
+     * @param maximumSize        the maximum number of nodes, defaults to
+     *                           {@link #DEFAULT_MAXIMUM_SIZE}
+     * @param maximumWeight      the maximum estimated size of all nodes in
+     *                           bytes, defaults to {@link #DEFAULT_MAXIMUM_WEIGHT}
+     * @param timeToLive         defaults to {@link #DEFAULT_TIME_TO_LIVE}
+     * @param refreshAfter       may be null. If set, it should be shorter than
+     *                           the timeToLive
+     * @param executor           running the background refreshes, defaults to
+     *                           {@link VaultExecutors#defaultExecutor()}
+     * @param ticker             providing the current time in nanoseconds,
+     *                           defaults to {@link System#nanoTime()}
+     * @param revalidationMode   defaults to {@link RevalidationMode#RELOAD}
+     * @param offHeapStore       may be null
+     * @param maximumStaleness   may be null. If set, the time an expired entry
+     *                           is still served while the backend is not
+     *                           available
+     * @param refreshConcurrency the maximum number of background refreshes
+     *                           running at the same time, defaults to
+     *                           {@link #DEFAULT_REFRESH_CONCURRENCY}
+     * @param warmCache          may be null. If set, answering lookups of
+     *                           nodes not cached yet
+     */
+    @Builder
+    public NodeCache(long maximumSize, long maximumWeight, Duration timeToLive, Duration refreshAfter,
+            Executor executor, LongSupplier ticker, RevalidationMode revalidationMode, OffHeapStore offHeapStore,
+            Duration maximumStaleness, int refreshConcurrency, WarmCacheFile warmCache) {
+        this.timeToLive = null == timeToLive ? DEFAULT_TIME_TO_LIVE : timeToLive;
+        this.refreshAfter = refreshAfter;
+        this.executor = null == executor ? VaultExecutors.defaultExecutor() : executor;
+        this.ticker = null == ticker ? System::nanoTime : ticker;
+        this.revalidationMode = null == revalidationMode ? RevalidationMode.RELOAD : revalidationMode;
+        this.offHeapStore = offHeapStore;
+        this.maximumStaleness = maximumStaleness;
+        this.warmCache = warmCache;
+        if (null != warmCache) {
+            warmPending.addAll(warmCache.paths());
+            warmRetained.addAll(warmPending);
+        }
+        this.refreshConcurrency = refreshConcurrency > 0 ? refreshConcurrency : DEFAULT_REFRESH_CONCURRENCY;
+        refreshPermits = new Semaphore(this.refreshConcurrency);
+        var retention = null == maximumStaleness ? this.timeToLive : this.timeToLive.plus(maximumStaleness);
+        cache = BoundedCache.<String, CachedNode>builder()
+                .maximumSize(maximumSize > 0 ? maximumSize : DEFAULT_MAXIMUM_SIZE)
+                .maximumWeight(maximumWeight > 0 ? maximumWeight : DEFAULT_MAXIMUM_WEIGHT)
+                .weigher(node -> weigh(node.getEntries())).timeToLive(retention).ticker(this.ticker)
+                .removalListener((path, node) -> release(node)).build();
+    }
+
+    /**
+     * @param path the full path of the node, must not be null
+     * @return the cached node if present and not expired. If
+     *         {@link #getMaximumStaleness()} is set, it may be stale, see
+     *         {@link #isStale(CachedNode)}. Without a cached node, the
+     *         content of the {@link #getWarmCache()} is returned, but only on
+     *         the first lookup of that path.
+     */
+    public Optional<CachedNode> get(String path) {
+        var cached = cache.getIfPresent(path);
+        if (cached.isPresent() || null == warmCache || warmDiscarded || !warmPending.remove(path)) {
+            return cached;
+        }
+        var warm = warmCache.read(path);
+        if (warm.isEmpty() || warmDiscarded) {
+            return Optional.empty();
+        }
+        log.trace("Answering '{}' from warm cache file", path);
+        warmHitCount.increment();
+        return Optional.of(store(path, warm.get(), true));
+    }
+
+    /**
+     * Variant of {@link #get(String)} that neither records statistics nor
+     * influences the eviction order.
+     *
+     * @param path the full path of the node, must not be null
+     * @return the cached node if present and not expired
+     */
+    public Optional<CachedNode> peek(String path) {
+        return cache.peek(path);
+    }
+
+    /**
+     * @param path    the full path of the node, must not be null
+     * @param entries the complete content of the node, must not be null
+     * @return the cached node
+     */
+    public CachedNode put(String path, Collection<KVEntry> entries) {
+        warmPending.remove(path);
+        return store(path, entries, false);
+    }
+
+    /**
+     * Variant of {@link #put(String, Collection)} for content read while the
+     * given node was cached: The entries are only cached if that node is still
+     * the cached one, so the outcome of a concurrent
+     * {@link #merge(String, Collection)} or {@link #invalidate(String)} is not
+     * overwritten by the content read before.
+     *
+     * @param path     the full path of the node, must not be null
+     * @param expected the node cached when reading started, may be null saying
+     *                 there was none
+     * @param entries  the complete content of the node, must not be null
+     * @return boolean indicating whether the entries were cached
+     */
+    boolean replace(String path, CachedNode expected, Collection<KVEntry> entries) {
+        var node = newNode(path, entries, false);
+        if (!cache.replace(path, expected, node)) {
+            log.trace("Discarding content of '{}', the cached node changed meanwhile", path);
+            release(node);
+            return false;
+        }
+        warmPending.remove(path);
+        return true;
+    }
+
+    private CachedNode store(String path, Collection<KVEntry> entries, boolean warm) {
+        var node = newNode(path, entries, warm);
+        cache.put(path, node);
+        return node;
+    }
+
+    private CachedNode newNode(String path, Collection<KVEntry> entries, boolean warm) {
+        var cached = KVEntries.of(entries.stream().map(this::offload).toList());
+        return new CachedNode(path, cached, ticker.getAsLong(), warm);
+    }
+
+    private KVEntry offload(KVEntry entry) {
+        var offloaded = null == offHeapStore ? entry : offHeapStore.offload(entry);
+        offloaded.getOffHeapPayload().ifPresent(OffHeapPayload::retain);
+        return offloaded;
+    }
+
+    private static void release(CachedNode node) {
+        node.getEntries().forEach(entry -> entry.getOffHeapPayload().ifPresent(OffHeapPayload::release));
+    }
+
+    /**
+     * Merges the given written entries into the cached node, if present. The
+     * metadata of the written entries is taken over for the remaining ones. If
+     * an entry was written from a {@link StreamingPayload}, the node is
+     * invalidated instead, because its content is not known.
+     *
+     * @param path    the full path of the node, must not be null
+     * @param written the entries written, must not be null
+     */
+    public void merge(String path, Collection<KVEntry> written) {
+        var cached = cache.peek(path);
+        if (cached.isEmpty() || written.isEmpty()) {
+            return;
+        }
+        if (written.stream().anyMatch(entry -> entry.getStreamingPayload().isPresent())) {
+            invalidate(path);
+            return;
+        }
+        var metadata = written.iterator().next().getMetadata();
+        var merged = new LinkedHashMap<String, KVEntry>();
+        for (KVEntry entry : cached.get().getEntries()) {
+            merged.put(entry.getKey(), entry.newMetadata(metadata));
+        }
+        written.forEach(entry -> merged.put(entry.getKey(), entry));
+        if (!replace(path, cached.get(), merged.values())) {
+            invalidate(path);
+        }
+    }
+
+    /**
+     * @param path the full path of the node, must not be null
+     */
+    public void invalidate(String path) {
+        warmPending.remove(path);
+        warmRetained.remove(path);
+        cache.invalidate(path);
+    }
+
+    /** Removes all nodes, including the remaining ones of the warm cache. */
+    public void invalidateAll() {
+        warmDiscarded = true;
+        warmPending.clear();
+        warmRetained.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return the entries of all nodes not expired, by their full path
+     */
+    public Map<String, Collection<KVEntry>> snapshot() {
+        Map<String, Collection<KVEntry>> result = new LinkedHashMap<>();
+        cache.snapshot().forEach((path, node) -> result.put(path, node.getEntries()));
+        return result;
+    }
+
+    /**
+     * Writes {@link #snapshot()} to the given file, to be used as
+     * {@link WarmCacheFile} on the next start. The nodes of
+     * {@link #getWarmCache()} not cached anymore are kept, unless they were
+     * invalidated by {@link #invalidate(String)} or {@link #invalidateAll()}.
+     * So the file does not lose nodes just because they were not looked up or
+     * expired in the meantime.
+     *
+     * @param target must not be null
+     * @param key    the AES key to encrypt the entries with, must not be null
+     * @throws IOException if writing fails
+     */
+    public void writeSnapshot(Path target, SecretKey key) throws IOException {
+        var nodes = snapshot();
+        if (null != warmCache && !warmDiscarded) {
+            for (String path : warmRetained) {
+                if (!nodes.containsKey(path)) {
+                    warmCache.read(path).ifPresent(entries -> nodes.put(path, entries));
+                }
+            }
+        }
+        WarmCacheFile.write(target, key, nodes);
+    }
+
+    /**
+     * @param node must not be null
+     * @return boolean indicating whether the given node is older than
+     *         {@link #getRefreshAfter()}
+     */
+    public boolean isRefreshDue(CachedNode node) {
+        return null != refreshAfter && ticker.getAsLong() - node.getLoadedAt() >= refreshAfter.toNanos();
+    }
+
+    /**
+     * @param node must not be null
+     * @return boolean indicating whether the given node is older than
+     *         {@link #getTimeToLive()}, being only kept because of
+     *         {@link #getMaximumStaleness()}
+     */
+    public boolean isStale(CachedNode node) {
+        return null != maximumStaleness && getAge(node).compareTo(timeToLive) >= 0;
+    }
+
+    /**
+     * @param node must not be null
+     * @return the time since the given node was loaded
+     */
+    public Duration getAge(CachedNode node) {
+        return Duration.ofNanos(ticker.getAsLong() - node.getLoadedAt());
+    }
+
+    /**
+     * @return boolean indicating whether the last load from the backend failed
+     *         because it was not available
+     */
+    public boolean isBackendUnavailable() {
+        return backendUnavailable;
+    }
+
+    /**
+     * Runs the given loader for the given path on {@link #getExecutor()}, unless
+     * a refresh for that path is already running or
+     * {@link #getRefreshConcurrency()} refreshes are running.
+     *
+     * @param path   the full path of the node, must not be null
+     * @param loader loading and caching the node, must not be null
+     */
+    public void refresh(String path, Runnable loader) {
+        requireNonNull(loader);
+        if (!refreshing.add(requireNonNull(path))) {
+            return;
+        }
+        if (!refreshPermits.tryAcquire()) {
+            log.trace("Skipping refresh of '{}', '{}' refreshes running", path, refreshConcurrency);
+            refreshing.remove(path);
+            return;
+        }
+        refreshCount.increment();
+        try {
+            executor.execute(() -> {
+                try {
+                    loader.run();
+                } finally {
+                    refreshing.remove(path);
+                    refreshPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Unable to refresh '{}', due to '{}'", path, e.getMessage());
+            refreshing.remove(path);
+            refreshPermits.release();
+        }
+    }
+
+    /**
+     * Marks the given node as being still up to date: It is cached again with a
+     * new time-to-live, without touching its entries. This is skipped if the
+     * node was replaced or invalidated meanwhile.
+     *
+     * @param node must not be null
+     */
+    void revalidated(CachedNode node) {
+        if (replace(node.getPath(), node, node.getEntries())) {
+            revalidationCount.increment();
+        }
+    }
+
+    void recordLoadSuccess() {
+        loadSuccessCount.increment();
+        backendUnavailable = false;
+    }
+
+    /**
+     * @param unavailable indicating whether the backend was not available
+     */
+    void recordLoadFailure(boolean unavailable) {
+        loadFailureCount.increment();
+        if (unavailable) {
+            backendUnavailable = true;
+        }
+    }
+
+    void recordStaleHit() {
+        staleHitCount.increment();
+    }
+
+    /**
+     * @return a snapshot of the current statistics
+     */
+    public CacheStatistics getStatistics() {
+        return CacheStatistics.builder().hitCount(cache.getHitCount()).missCount(cache.getMissCount())
+                .loadSuccessCount(loadSuccessCount.sum()).loadFailureCount(loadFailureCount.sum())
+                .evictionCount(cache.getEvictionCount()).refreshCount(refreshCount.sum())
+                .revalidationCount(revalidationCount.sum()).staleHitCount(staleHitCount.sum())
+                .warmHitCount(warmHitCount.sum()).size(cache.size()).weightedSize(cache.weightedSize())
+                .offHeapSize(null == offHeapStore ? 0 : offHeapStore.getUsed()).build();
+    }
+
+    /**
+     * @param entries must not be null
+     * @return the estimated size of the given entries in bytes
+     */
+    static long weigh(Collection<KVEntry> entries) {
+        var weight = NODE_OVERHEAD;
+        for (KVEntry entry : entries) {
+            weight += ENTRY_OVERHEAD + 2L * entry.getKey().length() + weighValue(entry);
+        }
+        return weight;
+    }
+
+    private static long weighValue(KVEntry entry) {
+        if (entry.getOffHeapPayload().isPresent()) {
+            return OBJECT_WEIGHT;
+        }
+        var payload = entry.getBinaryPayload();
+        if (payload.isPresent()) {
+            return 2L * payload.get().getSource().length();
+        }
+        var value = entry.getValue();
+        if (null == value) {
+            return 0;
+        }
+        if (value instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (value instanceof String string) {
+            return 2L * string.length();
+        }
+        return OBJECT_WEIGHT;
+    }
+}
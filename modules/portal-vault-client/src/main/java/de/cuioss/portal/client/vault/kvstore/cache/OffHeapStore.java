@@ -0,0 +1,167 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import de.cuioss.portal.client.vault.kvstore.BinaryPayload;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.OffHeapPayload;
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Moves large binary values of {@link KVEntry}s out of the Java heap, into
+ * direct {@link ByteBuffer}s, see {@link OffHeapPayload}. Only values of at
+ * least {@link #getThreshold()} bytes are moved, and only as long as the
+ * accumulated size stays within {@link #getBudget()}. Otherwise, the entry is
+ * kept as it is.
+ * <p>
+ * Used by {@link NodeCache}, that retains the payloads of cached nodes and
+ * releases them on eviction, invalidation or replacement.
+ *
+ * @author agent
+ *
+ */
+@ToString(of = { "threshold", "budget" })
+public class OffHeapStore {
+
+    /** 64 KB */
+    public static final long DEFAULT_THRESHOLD = 64L * 1024;
+
+    /** 256 MB */
+    public static final long DEFAULT_BUDGET = 256L * 1024 * 1024;
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private static final CuiLogger log = new CuiLogger(OffHeapStore.class);
+
+    @Getter
+    private final long threshold;
+
+    @Getter
+    private final long budget;
+
+    private final AtomicLong used = new AtomicLong();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * @param threshold the minimum size in bytes of a value to be moved, defaults
+     *                  to {@link #DEFAULT_THRESHOLD}
+     * @param budget    the maximum accumulated size in bytes of all values held,
+     *                  defaults to {@link #DEFAULT_BUDGET}
+     */
+    @Builder
+    public OffHeapStore(long threshold, long budget) {
+        this.threshold = threshold > 0 ? threshold : DEFAULT_THRESHOLD;
+        this.budget = budget > 0 ? budget : DEFAULT_BUDGET;
+    }
+
+    /**
+     * @param entry must not be null
+     * @return an entry with the value held by an {@link OffHeapPayload}, if the
+     *         value is binary, large enough and fits into the budget. Otherwise,
+     *         the given entry.
+     */
+    public KVEntry offload(KVEntry entry) {
+        if (entry.getOffHeapPayload().isPresent()) {
+            return entry;
+        }
+        var payload = entry.getBinaryPayload();
+        if (payload.isPresent() && !payload.get().isGzipped()) {
+            return offload(entry, payload.get());
+        }
+        // Compressed payloads are decompressed, as their size is only known then
+        if (entry.getValue() instanceof byte[] bytes && bytes.length >= threshold) {
+            return allocate(entry, bytes.length, buffer -> buffer.put(bytes));
+        }
+        return entry;
+    }
+
+    private KVEntry offload(KVEntry entry, BinaryPayload payload) {
+        var size = payload.size();
+        if (size < threshold) {
+            return entry;
+        }
+        return allocate(entry, size, buffer -> {
+            try (InputStream input = payload.openStream()) {
+                var chunk = new byte[COPY_BUFFER_SIZE];
+                int read;
+                while (buffer.hasRemaining()
+                        && (read = input.read(chunk, 0, Math.min(chunk.length, buffer.remaining()))) > 0) {
+                    buffer.put(chunk, 0, read);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private KVEntry allocate(KVEntry entry, int size, Consumer<ByteBuffer> filler) {
+        if (!reserve(size)) {
+            rejectedCount.increment();
+            log.debug("Off-heap budget exhausted, keeping '{}' with '{}' bytes on the heap", entry.getKey(), size);
+            return entry;
+        }
+        try {
+            var buffer = ByteBuffer.allocateDirect(size);
+            filler.accept(buffer);
+            buffer.flip();
+            return entry.newValue(new OffHeapPayload(buffer, () -> used.addAndGet(-size)));
+        } catch (OutOfMemoryError | RuntimeException e) {
+            used.addAndGet(-size);
+            rejectedCount.increment();
+            log.debug("Unable to move '{}' off-heap, due to '{}'", entry.getKey(), e.getMessage());
+            return entry;
+        }
+    }
+
+    private boolean reserve(long size) {
+        while (true) {
+            var current = used.get();
+            if (current + size > budget) {
+                return false;
+            }
+            if (used.compareAndSet(current, current + size)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return the accumulated size in bytes of all values currently held
+     */
+    public long getUsed() {
+        return used.get();
+    }
+
+    /**
+     * @return the number of values kept on the heap, because the budget was
+     *         exhausted or the allocation failed
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import de.cuioss.portal.client.vault.kvstore.NodeManager;
+
+/**
+ * Defines how {@link CachingNodeManager} revalidates a cached node, once its
+ * refresh is due or on {@link CachingNodeManager#revalidate()}
+ *
+ * @author agent
+ *
+ */
+public enum RevalidationMode {
+
+    /** The node is read again completely. */
+    RELOAD,
+
+    /**
+     * Only the current version of the node is read by
+     * {@link NodeManager#readCurrentVersion()}. The payload is only read again if
+     * that version differs from the cached one, which includes the current
+     * version having been deleted meanwhile. Saves bandwidth for large nodes
+     * at the cost of an additional request for modified ones.
+     */
+    METADATA_VERSION
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Metadata;
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Read-only, memory-mapped snapshot of the content of nodes, used by
+ * {@link NodeCache} to answer lookups right after startup, before the nodes
+ * have been loaded from Vault.
+ * <p>
+ * The file consists of a header, the records and an open-addressing hash
+ * index mapping the path of a node to the offset of its record, so a lookup
+ * touches only the slots probed and the record found. The entries of each
+ * node, including their metadata and thus their version, are encrypted with
+ * AES-GCM using the path as additional authenticated data. A file that was
+ * written with another key, or was tampered with, answers with no content.
+ * <p>
+ * Files are written by {@link #write(Path, SecretKey, Map)} to a temporary
+ * file that replaces the target atomically.
+ *
+ * @author agent
+ *
+ */
+public final class WarmCacheFile {
+
+    private static final CuiLogger log = new CuiLogger(WarmCacheFile.class);
+
+    private static final int MAGIC = 0x50565743;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int SLOT_SIZE = Long.BYTES;
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte BINARY_VALUE = 2;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Getter
+    private final Path path;
+
+    /** The time the file was written, in milliseconds since the epoch. */
+    @Getter
+    private final long writtenAt;
+
+    /** The number of nodes contained. */
+    @Getter
+    private final int size;
+
+    private final SecretKey key;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    private final int indexOffset;
+
+    private WarmCacheFile(Path path, SecretKey key, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.key = key;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || MAGIC != buffer.getInt(0) || FORMAT_VERSION != buffer.getInt(4)) {
+            throw new IOException("Not a warm cache file of format version " + FORMAT_VERSION + ": " + path);
+        }
+        size = buffer.getInt(8);
+        slotCount = buffer.getInt(12);
+        indexOffset = (int) buffer.getLong(16);
+        writtenAt = buffer.getLong(24);
+        if (Integer.bitCount(slotCount) != 1 || indexOffset < HEADER_SIZE
+                || (long) indexOffset + (long) slotCount * SLOT_SIZE > buffer.capacity()) {
+            throw new IOException("Corrupt index of warm cache file: " + path);
+        }
+    }
+
+    /**
+     * Maps the given file into memory.
+     *
+     * @param path the file as written by {@link #write(Path, SecretKey, Map)},
+     *             must not be null
+     * @param key  the key the file was written with, must not be null
+     * @return the opened file
+     * @throws IOException if the file can not be read or is not a warm cache
+     *                     file
+     */
+    public static WarmCacheFile open(@NonNull Path path, @NonNull SecretKey key) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Warm cache file too large: " + path);
+            }
+            return new WarmCacheFile(path, key, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @param nodePath the full path of the node, must not be null
+     * @return the entries of the node if contained and readable with the key of
+     *         this file
+     */
+    public Optional<Collection<KVEntry>> read(String nodePath) {
+        var wanted = nodePath.getBytes(UTF_8);
+        var mask = slotCount - 1;
+        for (int probe = 0, slot = hash(wanted) & mask; probe < slotCount; probe++, slot = (slot + 1) & mask) {
+            var position = buffer.getLong(indexOffset + slot * SLOT_SIZE);
+            if (0 == position) {
+                return Optional.empty();
+            }
+            var offset = recordAt(position);
+            if (offset < 0) {
+                continue;
+            }
+            var pathLength = buffer.getInt(offset);
+            if (pathLength == wanted.length
+                    && buffer.slice(offset + Integer.BYTES, pathLength).equals(ByteBuffer.wrap(wanted))) {
+                return decrypt(nodePath, wanted, offset + Integer.BYTES + pathLength);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the full paths of all nodes contained, in the order of the index
+     */
+    public List<String> paths() {
+        List<String> paths = new ArrayList<>(size);
+        for (var slot = 0; slot < slotCount; slot++) {
+            var position = buffer.getLong(indexOffset + slot * SLOT_SIZE);
+            var offset = 0 == position ? -1 : recordAt(position);
+            if (offset >= 0) {
+                var pathBytes = new byte[buffer.getInt(offset)];
+                buffer.get(offset + Integer.BYTES, pathBytes);
+                paths.add(new String(pathBytes, UTF_8));
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * @param position the offset of a record as stored in a slot of the index
+     * @return the given offset, or -1 if the record, including its path and
+     *         the length of its encrypted entries, does not lie between the
+     *         header and the index
+     */
+    private int recordAt(long position) {
+        var limit = (long) indexOffset - 2L * Integer.BYTES;
+        if (position < HEADER_SIZE || position > limit) {
+            log.warn("Skipping invalid record offset '{}' of warm cache file '{}'", position, path);
+            return -1;
+        }
+        var pathLength = buffer.getInt((int) position);
+        if (pathLength < 0 || pathLength > limit - position) {
+            log.warn("Skipping invalid path length '{}' of warm cache file '{}'", pathLength, path);
+            return -1;
+        }
+        return (int) position;
+    }
+
+    private Optional<Collection<KVEntry>> decrypt(String nodePath, byte[] aad, int offset) {
+        var sealedLength = buffer.getInt(offset);
+        if (sealedLength < IV_LENGTH || sealedLength > (long) indexOffset - offset - Integer.BYTES) {
+            log.warn("Unable to read '{}' from warm cache file '{}', due to invalid length '{}'", nodePath, path,
+                    sealedLength);
+            return Optional.empty();
+        }
+        var sealed = new byte[sealedLength];
+        buffer.get(offset + Integer.BYTES, sealed);
+        try {
+            var cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, sealed, 0, IV_LENGTH));
+            cipher.updateAAD(aad);
+            return Optional.of(readEntries(cipher.doFinal(sealed, IV_LENGTH, sealed.length - IV_LENGTH)));
+        } catch (GeneralSecurityException | IOException e) {
+            log.warn("Unable to read '{}' from warm cache file '{}', due to '{}'", nodePath, path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the given nodes to a temporary file next to the target, replacing
+     * the target atomically afterwards.
+     *
+     * @param target the file to be written, must not be null
+     * @param key    the AES key to encrypt the entries with, must not be null
+     * @param nodes  the entries by the full path of their node, must not be
+     *               null
+     * @throws IOException if writing fails
+     */
+    public static void write(@NonNull Path target, @NonNull SecretKey key,
+            @NonNull Map<String, ? extends Collection<KVEntry>> nodes) throws IOException {
+        var slotCount = Integer.highestOneBit(Math.max(2, nodes.size() * 2 - 1)) << 1;
+        var slots = new long[slotCount];
+        var content = new ByteArrayOutputStream();
+        var output = new DataOutputStream(content);
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(nodes.size());
+        output.writeInt(slotCount);
+        output.writeLong(0);
+        output.writeLong(System.currentTimeMillis());
+        for (Map.Entry<String, ? extends Collection<KVEntry>> node : nodes.entrySet()) {
+            var pathBytes = node.getKey().getBytes(UTF_8);
+            var slot = hash(pathBytes) & (slotCount - 1);
+            while (0 != slots[slot]) {
+                slot = (slot + 1) & (slotCount - 1);
+            }
+            slots[slot] = output.size();
+            output.writeInt(pathBytes.length);
+            output.write(pathBytes);
+            var sealed = encrypt(key, pathBytes, writeEntries(node.getValue()));
+            output.writeInt(sealed.length);
+            output.write(sealed);
+        }
+        var indexOffset = output.size();
+        for (long slot : slots) {
+            output.writeLong(slot);
+        }
+        output.flush();
+        var bytes = content.toByteArray();
+        ByteBuffer.wrap(bytes).putLong(16, indexOffset);
+
+        var temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, bytes);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Written '{}' nodes to warm cache file '{}'", nodes.size(), target);
+    }
+
+    private static byte[] encrypt(SecretKey key, byte[] aad, byte[] plain) throws IOException {
+        var iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        try {
+            var cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+            cipher.updateAAD(aad);
+            var sealed = new byte[IV_LENGTH + cipher.getOutputSize(plain.length)];
+            System.arraycopy(iv, 0, sealed, 0, IV_LENGTH);
+            cipher.doFinal(plain, 0, plain.length, sealed, IV_LENGTH);
+            return sealed;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Unable to encrypt warm cache entries", e);
+        }
+    }
+
+    /**
+     * FNV-1a
+     */
+    static int hash(byte[] bytes) {
+        var hash = 0x811c9dc5;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    static byte[] writeEntries(Collection<KVEntry> entries) throws IOException {
+        var content = new ByteArrayOutputStream();
+        try (var output = new DataOutputStream(content)) {
+            output.writeInt(entries.size());
+            for (KVEntry entry : entries) {
+                writeString(output, entry.getKey());
+                writeValue(output, entry.getValue());
+                var metadata = entry.getMetadata();
+                output.writeLong(metadata.getCreatedEpochSecond());
+                output.writeLong(metadata.getDeletedEpochSecond());
+                output.writeBoolean(metadata.isDestroyed());
+                output.writeBoolean(null != metadata.getVersion());
+                output.writeInt(null == metadata.getVersion() ? 0 : metadata.getVersion());
+                output.writeBoolean(null != metadata.getPath());
+                writeString(output, null == metadata.getPath() ? "" : metadata.getPath());
+            }
+        }
+        return content.toByteArray();
+    }
+
+    private static void writeValue(DataOutputStream output, Serializable value) throws IOException {
+        if (null == value) {
+            output.writeByte(NULL_VALUE);
+        } else if (value instanceof byte[] bytes) {
+            output.writeByte(BINARY_VALUE);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        } else {
+            output.writeByte(STRING_VALUE);
+            writeString(output, value.toString());
+        }
+    }
+
+    static List<KVEntry> readEntries(byte[] content) throws IOException {
+        var input = new DataInputStream(new ByteArrayInputStream(content));
+        var count = input.readInt();
+        List<KVEntry> entries = new ArrayList<>(count);
+        for (var i = 0; i < count; i++) {
+            var entryKey = readString(input);
+            Serializable value = switch (input.readByte()) {
+            case NULL_VALUE -> null;
+            case STRING_VALUE -> readString(input);
+            case BINARY_VALUE -> readBytes(input);
+            default -> throw new IOException("Unknown value type");
+            };
+            var created = input.readLong();
+            var deleted = input.readLong();
+            var destroyed = input.readBoolean();
+            var hasVersion = input.readBoolean();
+            var version = input.readInt();
+            var hasPath = input.readBoolean();
+            var metadataPath = readString(input);
+            entries.add(KVEntry.builder().key(entryKey).value(value)
+                    .metadata(Metadata.ofEpochSeconds(created, deleted, destroyed, hasVersion ? version : null,
+                            hasPath ? metadataPath : null))
+                    .build());
+        }
+        return entries;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        var bytes = value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return new String(readBytes(input), UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream input) throws IOException {
+        var length = input.readInt();
+        if (length < 0 || length > input.available()) {
+            throw new IOException("Invalid length " + length);
+        }
+        var bytes = new byte[length];
+        input.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.AsyncKeyValueNodeManager.call;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import de.cuioss.portal.client.vault.kvstore.AsyncNavigator;
+import de.cuioss.portal.client.vault.kvstore.AsyncNodeManager;
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.tools.collect.CollectionBuilder;
+import de.cuioss.uimodel.result.ResultObject;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * {@link AsyncNavigator} delegating to a blocking {@link Navigator}, usually a
+ * {@link KeyValueNavigator}, on a given {@link Executor}. Navigators and
+ * NodeManagers derived from it use the same executor and timeout.
+ *
+ * @author agent
+ *
+ */
+@RequiredArgsConstructor
+@EqualsAndHashCode
+@ToString(of = { "navigator", "timeout" })
+public class AsyncKeyValueNavigator implements AsyncNavigator {
+
+    @NonNull
+    @Getter
+    private final Navigator navigator;
+
+    @NonNull
+    @Getter
+    private final Executor executor;
+
+    @NonNull
+    @Getter
+    private final Duration timeout;
+
+    /**
+     * @param navigator must not be null
+     * @return an {@link AsyncNavigator} using
+     *         {@link VaultExecutors#defaultExecutor()} and
+     *         {@link AsyncKeyValueNodeManager#DEFAULT_TIMEOUT}
+     */
+    public static AsyncNavigator of(Navigator navigator) {
+        return new AsyncKeyValueNavigator(navigator, VaultExecutors.defaultExecutor(),
+                AsyncKeyValueNodeManager.DEFAULT_TIMEOUT);
+    }
+
+    @Override
+    public AsyncNavigator withTimeout(Duration timeout) {
+        return new AsyncKeyValueNavigator(navigator, executor, timeout);
+    }
+
+    @Override
+    public String getPath() {
+        return navigator.getPath();
+    }
+
+    @Override
+    public AsyncNavigator getParent() {
+        return wrap(navigator.getParent());
+    }
+
+    @Override
+    public CompletableFuture<ResultObject<List<AsyncNavigator>>> list() {
+        return call(navigator::list, Collections.<Navigator>emptyList(), executor, timeout)
+                .thenApply(listed -> ResultFactory.map(listed, this::wrapAll));
+    }
+
+    @Override
+    public CompletableFuture<ResultObject<List<AsyncNavigator>>> list(String path) {
+        return call(() -> navigator.list(path), Collections.<Navigator>emptyList(), executor, timeout)
+                .thenApply(listed -> ResultFactory.map(listed, this::wrapAll));
+    }
+
+    @Override
+    public CompletableFuture<ResultObject<AsyncNavigator>> create(String path) {
+        return call(() -> navigator.create(path), navigator, executor, timeout)
+                .thenApply(created -> ResultFactory.map(created, this::wrap));
+    }
+
+    @Override
+    public CompletableFuture<ResultObject<Boolean>> delete() {
+        return call(navigator::delete, Boolean.FALSE, executor, timeout);
+    }
+
+    /**
+     * Retrieving the {@link de.cuioss.portal.client.vault.kvstore.NodeManager}
+     * does not access Vault, therefore the resulting future is already
+     * completed.
+     */
+    @Override
+    public CompletableFuture<ResultObject<AsyncNodeManager>> getNodeManager() {
+        return CompletableFuture.completedFuture(ResultFactory.map(navigator.getNodeManager(),
+                nodeManager -> new AsyncKeyValueNodeManager(nodeManager, executor, timeout)));
+    }
+
+    private AsyncNavigator wrap(Navigator toBeWrapped) {
+        return new AsyncKeyValueNavigator(toBeWrapped, executor, timeout);
+    }
+
+    private List<AsyncNavigator> wrapAll(List<Navigator> toBeWrapped) {
+        var builder = new CollectionBuilder<AsyncNavigator>();
+        toBeWrapped.forEach(element -> builder.add(wrap(element)));
+        return builder.toImmutableList();
+    }
+}
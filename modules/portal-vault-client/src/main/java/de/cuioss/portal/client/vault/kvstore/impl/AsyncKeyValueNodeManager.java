@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import de.cuioss.portal.client.vault.kvstore.AsyncNodeManager;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.NodeManager;
+import de.cuioss.uimodel.result.ResultObject;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * {@link AsyncNodeManager} delegating to a blocking {@link NodeManager},
+ * usually a {@link KeyValueNodeManager}, on a given {@link Executor}.
+ *
+ * @author agent
+ *
+ */
+@RequiredArgsConstructor
+@EqualsAndHashCode
+@ToString(of = { "nodeManager", "timeout" })
+public class AsyncKeyValueNodeManager implements AsyncNodeManager {
+
+    /** 30 seconds */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String SERVICE_NAME = "AsyncKeyValueNodeManager";
+
+    @NonNull
+    @Getter
+    private final NodeManager nodeManager;
+
+    @NonNull
+    @Getter
+    private final Executor executor;
+
+    @NonNull
+    @Getter
+    private final Duration timeout;
+
+    /**
+     * @param nodeManager must not be null
+     * @return an {@link AsyncNodeManager} using
+     *         {@link VaultExecutors#defaultExecutor()} and
+     *         {@link #DEFAULT_TIMEOUT}
+     */
+    public static AsyncNodeManager of(NodeManager nodeManager) {
+        return new AsyncKeyValueNodeManager(nodeManager, VaultExecutors.defaultExecutor(), DEFAULT_TIMEOUT);
+    }
+
+    @Override
+    public AsyncNodeManager withTimeout(Duration timeout) {
+        return new AsyncKeyValueNodeManager(nodeManager, executor, timeout);
+    }
+
+    @Override
+    public CompletableFuture<ResultObject<Collection<KVEntry>>> read() {
+        return call(nodeManager::read, Collections.emptyList());
+    }
+
+    @Override
+    public CompletableFuture<ResultObject<KVEntry>> read(String key) {
+        return call(() -> nodeManager.read(key), KVEntry.EMPTY);
+    }
+
+    @Override
+    public CompletableFuture<ResultObject<Collection<KVEntry>>> read(Collection<String> keys) {
+        return call(() -> nodeManager.read(keys), Collections.emptyList());
+    }
+
+    @Override
+    public CompletableFuture<ResultObject<Integer>> readCurrentVersion() {
+        return call(nodeManager::readCurrentVersion, 0);
+    }
+
+    @Override
+    public CompletableFuture<ResultObject<KVEntry>> write(KVEntry entry) {
+        return call(() -> nodeManager.write(entry), KVEntry.EMPTY);
+    }
+
+    @Override
+    public CompletableFuture<ResultObject<Collection<KVEntry>>> write(Collection<KVEntry> entries) {
+        return call(() -> nodeManager.write(entries), Collections.emptyList());
+    }
+
+    @Override
+    public CompletableFuture<ResultObject<Boolean>> delete(String key) {
+        return call(() -> nodeManager.delete(key), Boolean.FALSE);
+    }
+
+    private <T> CompletableFuture<ResultObject<T>> call(Supplier<ResultObject<T>> call, T defaultResult) {
+        return call(call, defaultResult, executor, timeout);
+    }
+
+    /**
+     * Runs the given call on the given executor. If it does not complete within
+     * the given timeout the future completes with
+     * {@link ResultFactory#timeout(Object, String, Duration)}.
+     */
+    static <T> CompletableFuture<ResultObject<T>> call(Supplier<ResultObject<T>> call, T defaultResult,
+            Executor executor, Duration timeout) {
+        requireNonNull(call);
+        return CompletableFuture.supplyAsync(call, executor).completeOnTimeout(
+                ResultFactory.timeout(defaultResult, SERVICE_NAME, timeout), timeout.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+
+/**
+ * Provides the Base64 encoded content of a source stream while reading it.
+ * Only a fixed size chunk of the source is held in memory at a time.
+ *
+ * @author agent
+ *
+ */
+final class Base64EncodingInputStream extends InputStream {
+
+    /** Must be a multiple of 3, so that only the last chunk is padded. */
+    private static final int CHUNK_SIZE = 3 * 4096;
+
+    private static final byte[] EMPTY = {};
+
+    private final InputStream source;
+
+    private final Base64.Encoder encoder = Base64.getEncoder();
+
+    private byte[] buffer = EMPTY;
+
+    private int position;
+
+    private boolean exhausted;
+
+    Base64EncodingInputStream(InputStream source) {
+        this.source = requireNonNull(source);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        if (0 == length) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        var count = Math.min(length, buffer.length - position);
+        System.arraycopy(buffer, position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private boolean fill() throws IOException {
+        if (position < buffer.length) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        var chunk = source.readNBytes(CHUNK_SIZE);
+        if (chunk.length < CHUNK_SIZE) {
+            exhausted = true;
+        }
+        if (0 == chunk.length) {
+            return false;
+        }
+        buffer = encoder.encode(chunk);
+        position = 0;
+        return true;
+    }
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.notFound;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.serviceNotAvailable;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.vaultException;
+import static de.cuioss.tools.string.MoreStrings.requireNotEmpty;
+import static java.util.Objects.requireNonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import com.bettercloud.vault.VaultException;
+
+import de.cuioss.portal.client.vault.VaultContext;
+import de.cuioss.portal.client.vault.kvstore.ChunkedBlobManifest;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.NodeManager;
+import de.cuioss.tools.logging.CuiLogger;
+import de.cuioss.tools.net.UrlHelper;
+import de.cuioss.uimodel.result.ResultErrorCodes;
+import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.service.ServiceState;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Stores binaries that exceed the request size limit of Vault, or that should
+ * not be transferred on each read of their node. The content is split into
+ * chunks of {@link VaultContext#getChunkSize()} bytes, each one stored in its
+ * own child node "{key}.chunks/{generation}/{index}" of the node. The entry
+ * identified by the key holds the {@link ChunkedBlobManifest}, containing the
+ * size and the SHA-256 checksum of the blob.
+ * <p>
+ * A write stores a new generation of chunks before replacing the manifest, so
+ * concurrent readers always see a complete blob. The chunks of the previous
+ * generation are deleted afterwards. On read the chunks are fetched in
+ * parallel, at most {@link VaultContext#getBatchConcurrency()} ahead of the
+ * consumer of the stream.
+ *
+ * @author agent
+ *
+ */
+@RequiredArgsConstructor
+@ToString(of = "vault")
+public class ChunkedBlobStore {
+
+    /** Suffix of the key identifying the child node containing the chunks. */
+    public static final String CHUNKS_SUFFIX = ".chunks";
+
+    static final String CHUNK_KEY = "chunk";
+
+    private static final String SERVICE_NAME = "ChunkedBlobStore";
+    private static final String ELEMENT_NAME = "ChunkedBlob";
+    private static final CuiLogger log = new CuiLogger(ChunkedBlobStore.class);
+
+    @NonNull
+    @Getter
+    private final VaultContext vault;
+
+    @NonNull
+    @Getter
+    private final Executor executor;
+
+    /**
+     * Constructor using {@link VaultExecutors#defaultExecutor()}
+     *
+     * @param vault must not be null
+     */
+    public ChunkedBlobStore(VaultContext vault) {
+        this(vault, VaultExecutors.defaultExecutor());
+    }
+
+    /**
+     * Writes the given content as blob, replacing an existing one.
+     *
+     * @param path    of the node, relative to the mount point like
+     *                {@link KeyValueNavigator#getPath()}, must not be null
+     * @param key     identifying the blob within the node, must not be empty
+     * @param content to be written, will be consumed and closed
+     * @return the manifest of the written blob
+     */
+    public ResultObject<ChunkedBlobManifest> write(String path, String key, InputStream content) {
+        requireNonNull(content);
+        requireNotEmpty(key);
+        var node = new KeyValueNavigator(vault, path);
+        if (!node.isServiceAvailable()) {
+            close(content);
+            return serviceNotAvailable(ChunkedBlobManifest.EMPTY, SERVICE_NAME, node.getServiceState());
+        }
+        var manager = nodeManager(node);
+        var previous = manager.read(key);
+        if (!previous.isValid() && !previous.containsErrorCode(ResultErrorCodes.NOT_FOUND)) {
+            close(content);
+            return ResultObject.<ChunkedBlobManifest>builder().extractStateAndDetailsAndErrorCodeFrom(previous)
+                    .validDefaultResult(ChunkedBlobManifest.EMPTY).build();
+        }
+        var generation = UUID.randomUUID().toString();
+        var written = writeChunks(node, key, generation, content);
+        if (!written.isValid()) {
+            deleteChunks(node, key, written.getResult());
+            return written;
+        }
+        var manifest = written.getResult();
+        log.debug("Wrote '{}' chunks for '{}' within '{}', writing manifest", manifest.getChunkCount(), key,
+                node.getFullPath());
+        var manifestWritten = manager.write(KVEntry.of(key, manifest.toValue()));
+        if (!manifestWritten.isValid()) {
+            deleteChunks(node, key, manifest);
+            return ResultObject.<ChunkedBlobManifest>builder().extractStateAndDetailsAndErrorCodeFrom(manifestWritten)
+                    .validDefaultResult(ChunkedBlobManifest.EMPTY).build();
+        }
+        if (previous.isValid()) {
+            ChunkedBlobManifest.parse(previous.getResult().getValueAsString().orElse(null))
+                    .ifPresent(outdated -> deleteChunks(node, key, outdated));
+        }
+        return valid(manifest);
+    }
+
+    private ResultObject<ChunkedBlobManifest> writeChunks(KeyValueNavigator node, String key, String generation,
+            InputStream content) {
+        var chunkSize = Math.max(1, vault.getChunkSize());
+        var digest = sha256();
+        var permits = new Semaphore(Math.max(1, vault.getBatchConcurrency()));
+        var failure = new AtomicReference<ResultObject<KVEntry>>();
+        List<CompletableFuture<ResultObject<KVEntry>>> running = new ArrayList<>();
+        long size = 0;
+        try (content) {
+            byte[] chunk;
+            while (null == failure.get() && (chunk = content.readNBytes(chunkSize)).length > 0) {
+                digest.update(chunk);
+                size += chunk.length;
+                var entry = KVEntry.of(CHUNK_KEY, chunk);
+                var manager = nodeManager(chunkNavigator(node, key, generation, running.size()));
+                running.add(submit(() -> manager.write(entry), permits, KVEntry.EMPTY).thenApply(result -> {
+                    if (!result.isValid()) {
+                        failure.compareAndSet(null, result);
+                    }
+                    return result;
+                }));
+            }
+        } catch (IOException e) {
+            running.forEach(CompletableFuture::join);
+            return vaultException(manifest(chunkSize, running.size(), size, digest, generation),
+                    new VaultException(e));
+        }
+        running.forEach(CompletableFuture::join);
+        var manifest = manifest(chunkSize, running.size(), size, digest, generation);
+        if (null != failure.get()) {
+            return ResultObject.<ChunkedBlobManifest>builder().extractStateAndDetailsAndErrorCodeFrom(failure.get())
+                    .validDefaultResult(manifest).build();
+        }
+        return valid(manifest);
+    }
+
+    private static ChunkedBlobManifest manifest(int chunkSize, int chunkCount, long size, MessageDigest digest,
+            String generation) {
+        return ChunkedBlobManifest.builder().size(size).chunkSize(chunkSize).chunkCount(chunkCount)
+                .sha256(HexFormat.of().formatHex(digest.digest())).generation(generation).build();
+    }
+
+    /**
+     * @param path of the node, relative to the mount point like
+     *             {@link KeyValueNavigator#getPath()}, must not be null
+     * @param key  identifying the blob within the node, must not be empty
+     * @return the manifest of the blob
+     */
+    public ResultObject<ChunkedBlobManifest> readManifest(String path, String key) {
+        requireNotEmpty(key);
+        var node = new KeyValueNavigator(vault, path);
+        if (!node.isServiceAvailable()) {
+            return serviceNotAvailable(ChunkedBlobManifest.EMPTY, SERVICE_NAME, node.getServiceState());
+        }
+        var read = nodeManager(node).read(key);
+        if (!read.isValid()) {
+            return ResultObject.<ChunkedBlobManifest>builder().extractStateAndDetailsAndErrorCodeFrom(read)
+                    .validDefaultResult(ChunkedBlobManifest.EMPTY).build();
+        }
+        var manifest = ChunkedBlobManifest.parse(read.getResult().getValueAsString().orElse(null));
+        if (manifest.isEmpty()) {
+            log.debug("Entry '{}' within '{}' is not a chunked blob", key, node.getFullPath());
+            return notFound(ChunkedBlobManifest.EMPTY, ELEMENT_NAME, node.getPath() + "#" + key);
+        }
+        return valid(manifest.get());
+    }
+
+    /**
+     * Opens the blob for reading. The chunks are fetched in the background while
+     * the stream is being consumed. Failing fetches, a size or checksum mismatch
+     * are reported as {@link IOException} by the stream.
+     *
+     * @param path of the node, relative to the mount point like
+     *             {@link KeyValueNavigator#getPath()}, must not be null
+     * @param key  identifying the blob within the node, must not be empty
+     * @return a stream on the content of the blob, to be closed by the caller
+     */
+    public ResultObject<InputStream> open(String path, String key) {
+        var manifest = readManifest(path, key);
+        if (!manifest.isValid()) {
+            return ResultObject.<InputStream>builder().extractStateAndDetailsAndErrorCodeFrom(manifest)
+                    .validDefaultResult(new ByteArrayInputStream(new byte[0])).build();
+        }
+        return valid(new ChunkInputStream(new KeyValueNavigator(vault, path), key, manifest.getResult()));
+    }
+
+    /**
+     * Deletes the blob, i.e. its manifest entry and all of its chunks.
+     *
+     * @param path of the node, relative to the mount point like
+     *             {@link KeyValueNavigator#getPath()}, must not be null
+     * @param key  identifying the blob within the node, must not be empty
+     * @return Boolean indicating whether the deletion was successful
+     */
+    public ResultObject<Boolean> delete(String path, String key) {
+        var manifest = readManifest(path, key);
+        if (!manifest.isValid()) {
+            return ResultObject.<Boolean>builder().extractStateAndDetailsAndErrorCodeFrom(manifest)
+                    .validDefaultResult(Boolean.FALSE).build();
+        }
+        var node = new KeyValueNavigator(vault, path);
+        var deleted = nodeManager(node).delete(key);
+        if (deleted.isValid()) {
+            deleteChunks(node, key, manifest.getResult());
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes the chunks of the given manifest permanently, so no versions or
+     * metadata are left behind. Failures are only logged, as they leave orphaned
+     * chunks but no inconsistent blob.
+     */
+    private void deleteChunks(KeyValueNavigator node, String key, ChunkedBlobManifest manifest) {
+        var permits = new Semaphore(Math.max(1, vault.getBatchConcurrency()));
+        List<CompletableFuture<ResultObject<Boolean>>> running = new ArrayList<>();
+        for (var index = 0; index < manifest.getChunkCount(); index++) {
+            var chunk = chunkNavigator(node, key, manifest.getGeneration(), index);
+            running.add(submit(() -> deleteNode(chunk), permits, Boolean.FALSE).thenApply(result -> {
+                if (!result.isValid()) {
+                    log.warn("Unable to delete chunk '{}', due to '{}'", chunk.getFullPath(),
+                            result.getResultDetail());
+                }
+                return result;
+            }));
+        }
+        running.forEach(CompletableFuture::join);
+    }
+
+    private <T> CompletableFuture<ResultObject<T>> submit(Supplier<ResultObject<T>> task, Semaphore permits,
+            T defaultResult) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(unavailable(defaultResult));
+        }
+        try {
+            return CompletableFuture.supplyAsync(task, executor).whenComplete((result, e) -> permits.release())
+                    .exceptionally(e -> {
+                        log.debug("Unable to access chunk, due to '{}'", e.getMessage());
+                        return unavailable(defaultResult);
+                    });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            log.debug("Unable to access chunk, due to '{}'", e.getMessage());
+            return CompletableFuture.completedFuture(unavailable(defaultResult));
+        }
+    }
+
+    private static <T> ResultObject<T> unavailable(T defaultResult) {
+        return serviceNotAvailable(defaultResult, SERVICE_NAME, ServiceState.TEMPORARILY_UNAVAILABLE);
+    }
+
+    /**
+     * @return the navigator on the node storing the chunk with the given index
+     */
+    KeyValueNavigator chunkNavigator(KeyValueNavigator node, String key, String generation, int index) {
+        return new KeyValueNavigator(vault, UrlHelper.addTrailingSlashToUrl(node.getPath()) + key + CHUNKS_SUFFIX
+                + "/" + generation + "/" + index);
+    }
+
+    /**
+     * @param navigator identifying the node
+     * @return the {@link NodeManager} for the given node
+     */
+    NodeManager nodeManager(KeyValueNavigator navigator) {
+        return new KeyValueNodeManager(navigator, vault);
+    }
+
+    /**
+     * @param navigator identifying the node to be deleted
+     * @return the result of the permanent deletion, see
+     *         {@link KeyValueNavigator#destroy()}
+     */
+    ResultObject<Boolean> deleteNode(KeyValueNavigator navigator) {
+        return navigator.destroy();
+    }
+
+    private byte[] readChunk(KeyValueNavigator chunk) {
+        var read = nodeManager(chunk).read(CHUNK_KEY);
+        if (!read.isValid()) {
+            throw new UncheckedIOException(new IOException(
+                    "Unable to read chunk '" + chunk.getFullPath() + "', due to " + read.getResultDetail()));
+        }
+        if (read.getResult().getValue() instanceof byte[] bytes) {
+            return bytes;
+        }
+        throw new UncheckedIOException(
+                new IOException("Chunk '" + chunk.getFullPath() + "' does not contain binary data"));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 must be supported by every Java platform", e);
+        }
+    }
+
+    private static void close(InputStream content) {
+        try {
+            content.close();
+        } catch (IOException e) {
+            log.debug("Unable to close content, due to '{}'", e.getMessage());
+        }
+    }
+
+    /**
+     * Provides the content of the chunks in order, fetching up to
+     * {@link VaultContext#getBatchConcurrency()} chunks ahead. The size and the
+     * checksum are verified once the last chunk has been consumed.
+     */
+    private final class ChunkInputStream extends InputStream {
+
+        private final KeyValueNavigator node;
+        private final String key;
+        private final ChunkedBlobManifest manifest;
+        private final MessageDigest digest = sha256();
+        private final Deque<CompletableFuture<byte[]>> fetching = new ArrayDeque<>();
+        private final int window = Math.max(1, vault.getBatchConcurrency());
+        private int nextIndex;
+        private long consumed;
+        private byte[] current = new byte[0];
+        private int position;
+        private boolean verified;
+        private boolean closed;
+
+        private ChunkInputStream(KeyValueNavigator node, String key, ChunkedBlobManifest manifest) {
+            this.node = node;
+            this.key = key;
+            this.manifest = manifest;
+            fetchAhead();
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureAvailable()) {
+                return -1;
+            }
+            return current[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (0 == length) {
+                return 0;
+            }
+            if (!ensureAvailable()) {
+                return -1;
+            }
+            var count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return current.length - position;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            fetching.forEach(future -> future.cancel(true));
+            fetching.clear();
+        }
+
+        private boolean ensureAvailable() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            while (position == current.length) {
+                if (fetching.isEmpty()) {
+                    verify();
+                    return false;
+                }
+                var next = fetching.poll();
+                fetchAhead();
+                try {
+                    current = next.join();
+                } catch (CompletionException e) {
+                    close();
+                    if (e.getCause() instanceof UncheckedIOException unchecked) {
+                        throw unchecked.getCause();
+                    }
+                    throw new IOException(e.getCause());
+                }
+                position = 0;
+                digest.update(current);
+                consumed += current.length;
+            }
+            return true;
+        }
+
+        private void fetchAhead() {
+            while (fetching.size() < window && nextIndex < manifest.getChunkCount()) {
+                var chunk = chunkNavigator(node, key, manifest.getGeneration(), nextIndex++);
+                fetching.add(CompletableFuture.supplyAsync(() -> readChunk(chunk), executor));
+            }
+        }
+
+        private void verify() throws IOException {
+            if (verified || nextIndex < manifest.getChunkCount()) {
+                return;
+            }
+            verified = true;
+            if (consumed != manifest.getSize()) {
+                throw new IOException("Size mismatch for blob '" + key + "' within '" + node.getFullPath()
+                        + "', expected " + manifest.getSize() + " but was " + consumed);
+            }
+            if (!HexFormat.of().formatHex(digest.digest()).equals(manifest.getSha256())) {
+                throw new IOException(
+                        "Checksum mismatch for blob '" + key + "' within '" + node.getFullPath() + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache for the outcome of existence checks, see
+ * {@link KeyValueNavigator#pathExists(String)}. Positive and negative outcomes
+ * are cached alike. If the cache reaches its maximum size, expired entries are
+ * removed and, if that is not sufficient, all entries.
+ * <p>
+ * An instance is held by a {@link de.cuioss.portal.client.vault.VaultContext},
+ * see {@link de.cuioss.portal.client.vault.VaultContext#getExistenceCache()}.
+ * As the outcome depends on the permissions of the token, it must not be
+ * shared between contexts using different tokens.
+ *
+ * @author agent
+ *
+ */
+public final class ExistenceCache {
+
+    /** 10000 paths */
+    static final int MAXIMUM_SIZE = 10_000;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongSupplier ticker;
+
+    private static final class Entry {
+
+        private final boolean exists;
+        private final long expiresAt;
+
+        private Entry(boolean exists, long expiresAt) {
+            this.exists = exists;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Constructor using {@link System#nanoTime()}
+     */
+    public ExistenceCache() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * @param ticker providing the current time in nanoseconds, must not be null
+     */
+    ExistenceCache(LongSupplier ticker) {
+        this.ticker = requireNonNull(ticker);
+    }
+
+    /**
+     * @param key the full path, must not be null
+     * @return the cached outcome if present and not expired
+     */
+    Optional<Boolean> get(String key) {
+        var entry = entries.get(key);
+        if (null == entry) {
+            return Optional.empty();
+        }
+        if (ticker.getAsLong() - entry.expiresAt >= 0) {
+            entries.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.exists);
+    }
+
+    /**
+     * @param key        the full path, must not be null
+     * @param exists     the outcome of the check
+     * @param timeToLive if not positive, nothing is cached
+     */
+    void put(String key, boolean exists, Duration timeToLive) {
+        if (timeToLive.isZero() || timeToLive.isNegative()) {
+            return;
+        }
+        var now = ticker.getAsLong();
+        if (entries.size() >= MAXIMUM_SIZE) {
+            entries.values().removeIf(entry -> now - entry.expiresAt >= 0);
+            if (entries.size() >= MAXIMUM_SIZE) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new Entry(exists, now + timeToLive.toNanos()));
+    }
+
+    /**
+     * @param key the full path, must not be null
+     */
+    void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
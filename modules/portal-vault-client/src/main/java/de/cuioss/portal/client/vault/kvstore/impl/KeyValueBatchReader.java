@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.serviceNotAvailable;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import de.cuioss.portal.client.vault.VaultContext;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.tools.logging.CuiLogger;
+import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.service.ServiceState;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Reads the content of many nodes concurrently. At most
+ * {@link VaultContext#getBatchConcurrency()} nodes are read at the same time,
+ * each one like {@link KeyValueNodeManager#read()} does.
+ *
+ * @author agent
+ *
+ */
+@RequiredArgsConstructor
+@ToString(of = "vault")
+public class KeyValueBatchReader {
+
+    private static final String SERVICE_NAME = "KeyValueBatchReader";
+    private static final CuiLogger log = new CuiLogger(KeyValueBatchReader.class);
+
+    @NonNull
+    @Getter
+    private final VaultContext vault;
+
+    @NonNull
+    @Getter
+    private final Executor executor;
+
+    /**
+     * Constructor using {@link VaultExecutors#defaultExecutor()}
+     *
+     * @param vault must not be null
+     */
+    public KeyValueBatchReader(VaultContext vault) {
+        this(vault, VaultExecutors.defaultExecutor());
+    }
+
+    /**
+     * @param paths the paths of the nodes to be read, relative to the mount
+     *              point like {@link KeyValueNavigator#getPath()}, must not be
+     *              null. Duplicates are read once.
+     * @return the result of {@link KeyValueNodeManager#read()} for each given
+     *         path, in the order of the given paths. Failing reads are reported
+     *         by the corresponding result, not affecting the other ones.
+     */
+    public Map<String, ResultObject<Collection<KVEntry>>> readAll(Collection<String> paths) {
+        requireNonNull(paths);
+        log.debug("Reading '{}' paths with a concurrency of '{}'", paths.size(), vault.getBatchConcurrency());
+        var permits = new Semaphore(Math.max(1, vault.getBatchConcurrency()));
+        Map<String, CompletableFuture<ResultObject<Collection<KVEntry>>>> running = new LinkedHashMap<>();
+        for (String path : paths) {
+            if (!running.containsKey(path)) {
+                running.put(path, submit(path, permits));
+            }
+        }
+        Map<String, ResultObject<Collection<KVEntry>>> result = new LinkedHashMap<>();
+        running.forEach((path, future) -> result.put(path, future.join()));
+        return result;
+    }
+
+    private CompletableFuture<ResultObject<Collection<KVEntry>>> submit(String path, Semaphore permits) {
+        // Fails fast on invalid paths
+        var navigator = new KeyValueNavigator(vault, path);
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debug("Interrupted while waiting for reading '{}'", path);
+            return CompletableFuture.completedFuture(unavailable());
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> read(navigator), executor)
+                    .whenComplete((read, e) -> permits.release()).exceptionally(e -> {
+                        log.debug("Unable to read '{}', due to '{}'", path, e.getMessage());
+                        return unavailable();
+                    });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            log.debug("Unable to read '{}', due to '{}'", path, e.getMessage());
+            return CompletableFuture.completedFuture(unavailable());
+        }
+    }
+
+    /**
+     * @param navigator identifying the node to be read
+     * @return the content of the node
+     */
+    ResultObject<Collection<KVEntry>> read(KeyValueNavigator navigator) {
+        return new KeyValueNodeManager(navigator, vault).read();
+    }
+
+    private static ResultObject<Collection<KVEntry>> unavailable() {
+        return serviceNotAvailable(Collections.emptyList(), SERVICE_NAME, ServiceState.TEMPORARILY_UNAVAILABLE);
+    }
+}
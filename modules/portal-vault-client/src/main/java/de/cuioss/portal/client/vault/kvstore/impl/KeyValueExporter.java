@@ -0,0 +1,169 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.bettercloud.vault.json.Json;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Metadata;
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.tools.logging.CuiLogger;
+import de.cuioss.uimodel.result.ResultObject;
+import lombok.ToString;
+
+/**
+ * Exports a subtree as newline-delimited JSON, one record per
+ * {@link KVEntry}:
+ *
+ * <pre>
+ * {"path":"/app","key":"user","value":"admin","metadata":{"created":1700000000,"destroyed":false,"version":3}}
+ * </pre>
+ *
+ * Binary values are exported in the encoding used within Vault, see
+ * {@link PayloadEncoding}, so values read as
+ * {@link de.cuioss.portal.client.vault.kvstore.BinaryPayload} are neither
+ * decoded nor encoded again. "deleted" is only present for
+ * deleted versions. The records of one node are written consecutively, the
+ * order of the nodes is undefined. The subtree is read by
+ * {@link KeyValueTreeReader#readTree(Navigator, int, int, java.util.function.BiConsumer)},
+ * each node being written as soon as it is read, so the memory needed does not
+ * depend on the size of the subtree. See {@link KeyValueImporter} for the
+ * reverse direction.
+ *
+ * @author agent
+ *
+ */
+@ToString
+public class KeyValueExporter {
+
+    static final String PATH = "path";
+    static final String KEY = "key";
+    static final String VALUE = "value";
+    static final String METADATA = "metadata";
+    static final String CREATED = "created";
+    static final String DELETED = "deleted";
+    static final String DESTROYED = "destroyed";
+    static final String VERSION = "version";
+
+    private static final CuiLogger log = new CuiLogger(KeyValueExporter.class);
+
+    private final KeyValueTreeReader reader = new KeyValueTreeReader();
+
+    /**
+     * @param root        the node to start at, must not be null
+     * @param parallelism the maximum number of nodes being read concurrently,
+     *                    must be positive
+     * @param target      the file to be written, UTF-8 encoded. An existing
+     *                    file is overwritten.
+     * @return the number of entries exported, see {@link #export(Navigator, int, Writer)}
+     * @throws IOException if writing fails
+     */
+    public ResultObject<Integer> export(Navigator root, int parallelism, Path target) throws IOException {
+        try (var writer = Files.newBufferedWriter(target, UTF_8)) {
+            return export(root, parallelism, writer);
+        }
+    }
+
+    /**
+     * @param root        the node to start at, must not be null
+     * @param parallelism the maximum number of nodes being read concurrently,
+     *                    must be positive
+     * @param target      to be written to, must not be null. It is flushed, but
+     *                    not closed.
+     * @return the number of entries exported. If some nodes failed to be listed
+     *         or read, the result is a
+     *         {@link ResultFactory#partialFailure(Object, String, int, Map)},
+     *         the other nodes are exported nevertheless.
+     * @throws IOException if writing fails
+     */
+    public ResultObject<Integer> export(Navigator root, int parallelism, Writer target) throws IOException {
+        requireNonNull(target);
+        var exported = new AtomicInteger();
+        try {
+            var read = reader.readTree(root, KeyValueTreeReader.UNLIMITED, parallelism,
+                    (path, entries) -> write(target, path, entries, exported));
+            target.flush();
+            log.debug("Exported '{}' entries of '{}' nodes below '{}'", exported.get(), read.getResult(),
+                    root.getPath());
+            return ResultFactory.map(read, nodes -> exported.get());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void write(Writer target, String path, Collection<KVEntry> entries, AtomicInteger exported) {
+        var records = new StringBuilder();
+        for (KVEntry entry : entries) {
+            records.append(toRecord(path, entry)).append('\n');
+        }
+        synchronized (target) {
+            try {
+                target.write(records.toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        exported.addAndGet(entries.size());
+    }
+
+    /**
+     * @param path  of the node containing the entry, must not be null
+     * @param entry must not be null
+     * @return the record for the given entry, without line separator
+     */
+    static String toRecord(String path, KVEntry entry) {
+        var record = Json.object().add(PATH, path).add(KEY, entry.getKey());
+        var value = toText(entry);
+        record.add(VALUE, null == value ? Json.NULL : Json.value(value));
+        var metadata = entry.getMetadata();
+        var meta = Json.object().add(CREATED, metadata.getCreatedEpochSecond());
+        if (Metadata.NOT_DELETED != metadata.getDeletedEpochSecond()) {
+            meta.add(DELETED, metadata.getDeletedEpochSecond());
+        }
+        meta.add(DESTROYED, metadata.isDestroyed());
+        if (null != metadata.getVersion()) {
+            meta.add(VERSION, metadata.getVersion().intValue());
+        }
+        return record.add(METADATA, meta).toString();
+    }
+
+    private static String toText(KVEntry entry) {
+        var payload = entry.getBinaryPayload();
+        if (payload.isPresent() && PayloadEncoding.isEncoded(payload.get().getSource())) {
+            return payload.get().getSource();
+        }
+        var value = entry.getValue();
+        if (null == value) {
+            return null;
+        }
+        if (value instanceof byte[] bytes) {
+            return PayloadEncoding.encode(bytes, 0);
+        }
+        return value.toString();
+    }
+}
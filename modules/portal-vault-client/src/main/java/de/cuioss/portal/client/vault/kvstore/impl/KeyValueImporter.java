@@ -0,0 +1,331 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.partialFailure;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.serviceNotAvailable;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+import com.bettercloud.vault.json.Json;
+import com.bettercloud.vault.json.JsonObject;
+import com.bettercloud.vault.json.JsonValue;
+import com.bettercloud.vault.json.ParseException;
+
+import de.cuioss.portal.client.vault.VaultContext;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Metadata;
+import de.cuioss.portal.client.vault.kvstore.NodeManager;
+import de.cuioss.tools.logging.CuiLogger;
+import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.service.ServiceState;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Imports the records written by {@link KeyValueExporter}. Consecutive records
+ * of the same node are written as one batch, like
+ * {@link KeyValueNodeManager#write(Collection)} does. At most
+ * {@link VaultContext#getBatchConcurrency()} batches are written at the same
+ * time, reading the source is paused meanwhile, so the memory needed does not
+ * depend on the size of the source.
+ * <p>
+ * The progress is reported as checkpoint: The number of lines of the source
+ * that are completely imported. A failed batch is not part of the checkpoint,
+ * so an import resumed from the last checkpoint retries it. Writing a node
+ * again is harmless, it only creates a new version.
+ *
+ * @author agent
+ *
+ */
+@RequiredArgsConstructor
+@ToString(of = "vault")
+public class KeyValueImporter {
+
+    /** The minimum number of lines between two reported checkpoints. */
+    public static final int CHECKPOINT_INTERVAL = 1000;
+
+    private static final String SERVICE_NAME = "KeyValueImporter";
+    private static final CuiLogger log = new CuiLogger(KeyValueImporter.class);
+
+    @NonNull
+    @Getter
+    private final VaultContext vault;
+
+    @NonNull
+    @Getter
+    private final Executor executor;
+
+    /**
+     * Constructor using {@link VaultExecutors#defaultExecutor()}
+     *
+     * @param vault must not be null
+     */
+    public KeyValueImporter(VaultContext vault) {
+        this(vault, VaultExecutors.defaultExecutor());
+    }
+
+    /**
+     * Imports the given file, resuming from the given checkpoint file if it
+     * exists. The checkpoint file is updated while importing, it is kept after
+     * the import is finished.
+     *
+     * @param source     the file to be imported, UTF-8 encoded, must not be null
+     * @param checkpoint the file holding the checkpoint, must not be null
+     * @return the number of entries imported, see
+     *         {@link #importFrom(BufferedReader, long, LongConsumer)}
+     * @throws IOException if reading the source or writing the checkpoint fails
+     */
+    public ResultObject<Integer> importFrom(Path source, Path checkpoint) throws IOException {
+        requireNonNull(checkpoint);
+        long resumeAt = 0;
+        if (Files.exists(checkpoint)) {
+            resumeAt = Long.parseLong(Files.readString(checkpoint, UTF_8).trim());
+            log.info("Resuming import of '{}' at line '{}'", source, resumeAt);
+        }
+        var temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (var reader = Files.newBufferedReader(source, UTF_8)) {
+            return importFrom(reader, resumeAt, lines -> {
+                try {
+                    Files.writeString(temporary, Long.toString(lines), UTF_8);
+                    Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    log.warn("Unable to write checkpoint '{}', due to '{}'", checkpoint, e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * @param source     providing the records, must not be null
+     * @param resumeAt   the number of lines to be skipped, usually the last
+     *                   checkpoint reported
+     * @param checkpoint receiving the number of lines completely imported, at
+     *                   most every {@link #CHECKPOINT_INTERVAL} lines and once
+     *                   at the end. Must not be null.
+     * @return the number of entries imported. If some batches failed to be
+     *         written, the result is a
+     *         {@link ResultFactory#partialFailure(Object, String, int, Map)},
+     *         providing the failures by the path of the nodes.
+     * @throws IOException              if reading the source fails
+     * @throws IllegalArgumentException if the source contains an invalid
+     *                                  record. The batches completely read
+     *                                  before are imported nevertheless.
+     */
+    public ResultObject<Integer> importFrom(BufferedReader source, long resumeAt, LongConsumer checkpoint)
+            throws IOException {
+        requireNonNull(source);
+        requireNonNull(checkpoint);
+        var run = new Run(resumeAt, checkpoint, Math.max(1, vault.getBatchConcurrency()));
+        long line = 0;
+        try {
+            for (; line < resumeAt; line++) {
+                if (null == source.readLine()) {
+                    break;
+                }
+            }
+            String currentPath = null;
+            List<KVEntry> batch = new ArrayList<>();
+            var batchStart = line;
+            String text;
+            while (null != (text = source.readLine())) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                var record = parseRecord(text, line);
+                var path = record.get(KeyValueExporter.PATH).asString();
+                if (!batch.isEmpty() && !path.equals(currentPath)) {
+                    submit(run, currentPath, batch, batchStart, line - 1);
+                    batch = new ArrayList<>();
+                    batchStart = line - 1;
+                }
+                currentPath = path;
+                batch.add(toEntry(record));
+            }
+            if (!batch.isEmpty()) {
+                submit(run, currentPath, batch, batchStart, line);
+            } else {
+                run.completed(batchStart, line);
+            }
+        } finally {
+            run.awaitAll();
+        }
+        log.debug("Imported '{}' entries of '{}' batches, '{}' failed", run.imported.get(), run.batches.get(),
+                run.failures.size());
+        if (run.failures.isEmpty()) {
+            return valid(run.imported.get());
+        }
+        return partialFailure(run.imported.get(), SERVICE_NAME, run.batches.get(), new TreeMap<>(run.failures));
+    }
+
+    private void submit(Run run, String path, List<KVEntry> batch, long start, long end) {
+        run.batches.incrementAndGet();
+        try {
+            run.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.failures.put(path, unavailable());
+            return;
+        }
+        try {
+            CompletableFuture.supplyAsync(() -> write(path, batch), executor).whenComplete((written, e) -> {
+                if (null == e && written.isValid()) {
+                    run.imported.addAndGet(batch.size());
+                    run.completed(start, end);
+                } else {
+                    log.debug("Unable to import '{}', due to '{}'", path,
+                            null == e ? written.getResultDetail() : e.getMessage());
+                    run.failures.put(path, null == e ? written : unavailable());
+                }
+                run.permits.release();
+            });
+        } catch (RejectedExecutionException e) {
+            run.permits.release();
+            log.debug("Unable to import '{}', due to '{}'", path, e.getMessage());
+            run.failures.put(path, unavailable());
+        }
+    }
+
+    /**
+     * @param path    of the node, relative to the mount point like
+     *                {@link KeyValueNavigator#getPath()}
+     * @param entries the content to be written
+     * @return the result of {@link NodeManager#write(Collection)} of
+     *         {@link KeyValueNavigator#getNodeManager()}, so the node cache of
+     *         the context, if any, is updated
+     */
+    ResultObject<Collection<KVEntry>> write(String path, List<KVEntry> entries) {
+        return new KeyValueNavigator(vault, path).getNodeManager().getResult().write(entries);
+    }
+
+    private static JsonObject parseRecord(String text, long line) {
+        try {
+            var record = Json.parse(text);
+            if (record.isObject() && null != record.asObject().get(KeyValueExporter.PATH)
+                    && null != record.asObject().get(KeyValueExporter.KEY)) {
+                return record.asObject();
+            }
+        } catch (ParseException e) {
+            log.debug("Unable to parse line '{}', due to '{}'", line, e.getMessage());
+        }
+        throw new IllegalArgumentException("Invalid record at line " + line);
+    }
+
+    /**
+     * @param record as written by {@link KeyValueExporter#toRecord(String, KVEntry)}
+     * @return the corresponding entry
+     */
+    static KVEntry toEntry(JsonObject record) {
+        var value = record.get(KeyValueExporter.VALUE);
+        var text = null == value || value.isNull() ? null : value.asString();
+        return KVEntry.builder().key(record.get(KeyValueExporter.KEY).asString())
+                .value(PayloadEncoding.decode(text)).metadata(toMetadata(record.get(KeyValueExporter.METADATA)))
+                .build();
+    }
+
+    private static Metadata toMetadata(JsonValue value) {
+        if (null == value || !value.isObject()) {
+            return Metadata.EMPTY;
+        }
+        var meta = value.asObject();
+        var deleted = meta.get(KeyValueExporter.DELETED);
+        var version = meta.get(KeyValueExporter.VERSION);
+        return Metadata.ofEpochSeconds(meta.getLong(KeyValueExporter.CREATED, 0),
+                null == deleted ? Metadata.NOT_DELETED : deleted.asLong(),
+                meta.getBoolean(KeyValueExporter.DESTROYED, false), null == version ? null : version.asInt(), null);
+    }
+
+    private static ResultObject<Collection<KVEntry>> unavailable() {
+        return serviceNotAvailable(Collections.emptyList(), SERVICE_NAME, ServiceState.TEMPORARILY_UNAVAILABLE);
+    }
+
+    /** The state of one import. */
+    private static final class Run {
+
+        private final LongConsumer checkpoint;
+        private final int concurrency;
+        private final Semaphore permits;
+        private final AtomicInteger imported = new AtomicInteger();
+        private final AtomicInteger batches = new AtomicInteger();
+        private final Map<String, ResultObject<?>> failures = new ConcurrentHashMap<>();
+
+        /** The completed ranges of lines not yet contiguous, by their start */
+        private final Map<Long, Long> completed = new TreeMap<>();
+        private long watermark;
+        private long reported;
+
+        private Run(long resumeAt, LongConsumer checkpoint, int concurrency) {
+            this.checkpoint = checkpoint;
+            this.concurrency = concurrency;
+            permits = new Semaphore(concurrency);
+            watermark = resumeAt;
+            reported = resumeAt;
+        }
+
+        private void completed(long start, long end) {
+            long report = -1;
+            synchronized (completed) {
+                completed.put(start, end);
+                Long next;
+                while (null != (next = completed.remove(watermark))) {
+                    watermark = next;
+                }
+                if (watermark - reported >= CHECKPOINT_INTERVAL) {
+                    reported = watermark;
+                    report = watermark;
+                }
+            }
+            if (report >= 0) {
+                checkpoint.accept(report);
+            }
+        }
+
+        private void awaitAll() {
+            permits.acquireUninterruptibly(concurrency);
+            permits.release(concurrency);
+            long report;
+            synchronized (completed) {
+                reported = watermark;
+                report = watermark;
+            }
+            checkpoint.accept(report);
+        }
+    }
+}
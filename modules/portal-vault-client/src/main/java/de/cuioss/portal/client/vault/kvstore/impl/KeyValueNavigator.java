@@ -26,8 +26,10 @@ import static de.cuioss.tools.net.UrlHelper.splitPath;
 import static de.cuioss.tools.string.MoreStrings.requireNotEmpty;
 import static java.util.Objects.requireNonNull;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.bettercloud.vault.VaultException;
@@ -35,6 +37,7 @@ import com.bettercloud.vault.VaultException;
 import de.cuioss.portal.client.vault.VaultContext;
 import de.cuioss.portal.client.vault.kvstore.Navigator;
 import de.cuioss.portal.client.vault.kvstore.NodeManager;
+import de.cuioss.portal.client.vault.kvstore.cache.CachingNodeManager;
 import de.cuioss.tools.logging.CuiLogger;
 import de.cuioss.tools.net.UrlHelper;
 import de.cuioss.tools.string.MoreStrings;
@@ -131,33 +134,63 @@ public class KeyValueNavigator implements Navigator {
             listPath = getVault().appendToEndpointName(path);
         }
         listPath = UrlHelper.addTrailingSlashToUrl(listPath);
+        var cacheKey = ListingCache.key(listPath);
+        var cached = vault.getListingCache().get(cacheKey);
+        if (cached.isPresent()) {
+            log.trace("Listing of '{}' taken from cache", listPath);
+            if (cached.get().isNotFound()) {
+                return listNotFound(path);
+            }
+            return valid(toNavigators(cached.get().getNames()));
+        }
         try {
             var list = vault.getVault().logical().list(listPath);
-            if (HttpServletResponse.SC_NOT_FOUND == list.getRestResponse().getStatus()) {
-                if ("/".equals(path)) {
-                    log.trace("Assuming no content for subsequent children, returning valid '/' mapping, context='{}'",
-                            this);
-                    return valid(Collections.emptyList());
-                }
-                return notFound(Collections.emptyList(), path, SERVICE_NAME);
+            var status = list.getRestResponse().getStatus();
+            if (HttpServletResponse.SC_NOT_FOUND == status) {
+                vault.getListingCache().putNotFound(cacheKey, Duration.ofMillis(vault.getListCacheNegativeTtl()));
+                return listNotFound(path);
+            }
+            if (HttpServletResponse.SC_OK == status) {
+                vault.getListingCache().put(cacheKey, list.getListData(), Duration.ofMillis(vault.getListCacheTtl()));
             }
-            var parentSlashed = UrlHelper.addTrailingSlashToUrl(getPath());
-            List<Navigator> navigator = list.getListData().stream()
-                    .map(pathElement -> new KeyValueNavigator(vault, parentSlashed + pathElement))
-                    .collect(Collectors.toList());
-            return valid(navigator);
+            return valid(toNavigators(list.getListData()));
         } catch (VaultException e) {
             return vaultException(Collections.emptyList(), e);
         }
     }
 
+    private ResultObject<List<Navigator>> listNotFound(String path) {
+        if ("/".equals(path)) {
+            log.trace("Assuming no content for subsequent children, returning valid '/' mapping, context='{}'", this);
+            return valid(Collections.emptyList());
+        }
+        return notFound(Collections.emptyList(), path, SERVICE_NAME);
+    }
+
+    private List<Navigator> toNavigators(List<String> pathElements) {
+        var parentSlashed = UrlHelper.addTrailingSlashToUrl(getPath());
+        List<Navigator> navigator = pathElements.stream()
+                .map(pathElement -> new KeyValueNavigator(vault, parentSlashed + pathElement))
+                .collect(Collectors.toList());
+        return navigator;
+    }
+
+    /**
+     * @return a {@link KeyValueNodeManager} for this node. If the context
+     *         provides a {@link VaultContext#getNodeCache()}, it is decorated by
+     *         a {@link CachingNodeManager} using that cache.
+     */
     @Override
     public ResultObject<NodeManager> getNodeManager() {
         log.debug("Calling retrieveNodeManager on '{}' with", fullPath);
         if (!isServiceAvailable()) {
             return serviceNotAvailable(new KeyValueNodeManager(this, vault), SERVICE_NAME, getServiceState());
         }
-        return valid(new KeyValueNodeManager(this, vault));
+        NodeManager manager = new KeyValueNodeManager(this, vault);
+        if (null != vault.getNodeCache()) {
+            manager = new CachingNodeManager(manager, vault.getNodeCache());
+        }
+        return valid(manager);
     }
 
     @Override
@@ -171,6 +204,8 @@ public class KeyValueNavigator implements Navigator {
         var listPath = getVault().appendToEndpointName(path);
         try {
             var response = vault.getVault().logical().write(listPath, null);
+            vault.getExistenceCache().invalidate(listPath);
+            vault.getListingCache().invalidatePath(listPath);
             log.info("Calling create new path '{}' within '{}', with result", fullPath, path,
                     response.getRestResponse().getStatus());
             if (!CREATE_OK.contains(response.getRestResponse().getStatus())) {
@@ -195,6 +230,8 @@ public class KeyValueNavigator implements Navigator {
                 return notFound(Boolean.FALSE, SERVICE_NAME, path);
             }
             var delete = vault.getVault().logical().delete(fullPath);
+            vault.getExistenceCache().invalidate(fullPath);
+            vault.getListingCache().invalidatePath(fullPath);
             if (DELETE_OK.contains(delete.getRestResponse().getStatus())) {
                 return valid(Boolean.TRUE);
             }
@@ -205,19 +242,144 @@ public class KeyValueNavigator implements Navigator {
     }
 
     /**
-     * Checks whether a given path actually exists on the remote server
+     * Permanently deletes the node, including all of its versions and its
+     * metadata, see {@link KeyValueRestClient#deleteMetadata(String)}. Without a
+     * {@link VaultContext#getConfig()} it falls back to {@link #delete()}.
+     *
+     * @return {@link Boolean#TRUE} if the node was deleted, Vault answers
+     *         successfully for not existing nodes as well
+     */
+    public ResultObject<Boolean> destroy() {
+        log.debug("Calling destroy on '{}'", fullPath);
+        if (!isServiceAvailable()) {
+            return serviceNotAvailable(Boolean.FALSE, SERVICE_NAME, getServiceState());
+        }
+        if (null == vault.getConfig()) {
+            return delete();
+        }
+        try {
+            var response = new KeyValueRestClient(vault).deleteMetadata(fullPath);
+            vault.getExistenceCache().invalidate(fullPath);
+            vault.getListingCache().invalidatePath(fullPath);
+            if (DELETE_OK.contains(response.getStatus())) {
+                return valid(Boolean.TRUE);
+            }
+            return vaultHttpError(Boolean.FALSE, response);
+        } catch (VaultException e) {
+            return vaultException(Boolean.FALSE, e);
+        }
+    }
+
+    /**
+     * Permanently deletes this node and all nodes below it, see
+     * {@link KeyValueTreeWriter#deleteTree(Navigator, int)}. At most
+     * {@link VaultContext#getBatchConcurrency()} nodes are processed
+     * concurrently.
      *
-     * @param path to be checked
+     * @return the outcome of each deleted node by its path
+     */
+    public ResultObject<Map<String, ResultObject<Boolean>>> deleteRecursive() {
+        log.debug("Calling deleteRecursive on '{}'", fullPath);
+        if (!isServiceAvailable()) {
+            return serviceNotAvailable(Collections.emptyMap(), SERVICE_NAME, getServiceState());
+        }
+        return new KeyValueTreeWriter().deleteTree(this, parallelism());
+    }
+
+    /**
+     * Copies this node and all nodes below it to the given target, see
+     * {@link KeyValueTreeWriter#copyTree(Navigator, Navigator, int)}.
+     *
+     * @param target must be a {@link KeyValueNavigator}, possibly of another
+     *               mount, not located within this node
+     * @return the outcome of each copied node by its path
+     */
+    public ResultObject<Map<String, ResultObject<Boolean>>> copyTo(Navigator target) {
+        log.debug("Calling copyTo on '{}' with '{}'", fullPath, target);
+        if (!isServiceAvailable()) {
+            return serviceNotAvailable(Collections.emptyMap(), SERVICE_NAME, getServiceState());
+        }
+        return new KeyValueTreeWriter().copyTree(this, target, parallelism());
+    }
+
+    /**
+     * Moves this node and all nodes below it to the given target, see
+     * {@link KeyValueTreeWriter#moveTree(Navigator, Navigator, int)}.
+     *
+     * @param target must be a {@link KeyValueNavigator}, possibly of another
+     *               mount, not located within this node
+     * @return the outcome of each moved node by its path
+     */
+    public ResultObject<Map<String, ResultObject<Boolean>>> moveTo(Navigator target) {
+        log.debug("Calling moveTo on '{}' with '{}'", fullPath, target);
+        if (!isServiceAvailable()) {
+            return serviceNotAvailable(Collections.emptyMap(), SERVICE_NAME, getServiceState());
+        }
+        return new KeyValueTreeWriter().moveTree(this, target, parallelism());
+    }
+
+    private int parallelism() {
+        return Math.max(1, vault.getBatchConcurrency());
+    }
+
+    /**
+     * Checks whether a given path actually exists on the remote server: Either
+     * as secret, determined by a single metadata lookup, or as parent of other
+     * paths. The outcome is cached by {@link VaultContext#getExistenceCache()}
+     * for {@link VaultContext#getExistenceCacheTtl()} milliseconds. Without a
+     * {@link VaultContext#getConfig()} the listing of the parent is used
+     * instead.
+     *
+     * @param path to be checked, interpreted as absolute within the mount like
+     *             {@link #list(String)} does. The root "/" is not considered to
+     *             be existing, as it can not be deleted.
      * @return boolean indicating whether the actual path exists on the remote
      *         server.
      */
     boolean pathExists(String path) {
+        var searchPath = UrlHelper.removePrecedingSlashFromPath(path);
+        if (MoreStrings.isEmpty(searchPath) || "/".equals(searchPath)) {
+            return false;
+        }
+        if (null == vault.getConfig()) {
+            return listedByParent(searchPath);
+        }
+        var targetPath = vault.appendToEndpointName(path);
+        var cached = vault.getExistenceCache().get(targetPath);
+        if (cached.isPresent()) {
+            log.trace("Existence of '{}' taken from cache: '{}'", targetPath, cached.get());
+            return cached.get();
+        }
+        try {
+            var exists = lookupExistence(targetPath);
+            vault.getExistenceCache().put(targetPath, exists, Duration.ofMillis(vault.getExistenceCacheTtl()));
+            return exists;
+        } catch (VaultException e) {
+            log.debug("Unable to determine existence of '{}', due to '{}'", targetPath, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean lookupExistence(String targetPath) throws VaultException {
+        var metadata = new KeyValueRestClient(vault).readMetadata(targetPath);
+        if (HttpServletResponse.SC_OK == metadata.getStatus()) {
+            return true;
+        }
+        if (HttpServletResponse.SC_NOT_FOUND != metadata.getStatus()) {
+            throw new VaultException("Unexpected status reading metadata: " + metadata.getStatus(),
+                    metadata.getStatus());
+        }
+        // Not a secret, but possibly the parent of others
+        var list = vault.getVault().logical().list(UrlHelper.addTrailingSlashToUrl(targetPath));
+        return HttpServletResponse.SC_OK == list.getRestResponse().getStatus() && !list.getListData().isEmpty();
+    }
+
+    private boolean listedByParent(String searchPath) {
         var listFromParent = getParent().list();
         if (!listFromParent.isValid()) {
             log.debug("Unable to determine correct path from parent '{}'", this);
             return false;
         }
-        var searchPath = UrlHelper.removePrecedingSlashFromPath(path);
         List<String> contextNames = listFromParent.getResult().stream().map(Navigator::getContext)
                 .collect(Collectors.toList());
         return contextNames.contains(searchPath);
@@ -20,32 +20,49 @@ import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.serviceNo
 import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
 import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.vaultException;
 import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.vaultHttpError;
+import static de.cuioss.portal.client.vault.util.ParsedVaultResponse.asString;
 import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
 import static de.cuioss.tools.collect.MoreCollections.isEmpty;
 import static de.cuioss.tools.string.MoreStrings.requireNotEmpty;
 import static java.util.Objects.requireNonNull;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
-import java.time.temporal.ChronoUnit;
-import java.util.Base64;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.bettercloud.vault.VaultException;
+import com.bettercloud.vault.json.Json;
+import com.bettercloud.vault.json.JsonObject;
+import com.bettercloud.vault.json.JsonValue;
+import com.bettercloud.vault.json.ParseException;
 import com.bettercloud.vault.rest.RestResponse;
 
 import de.cuioss.portal.client.vault.VaultContext;
+import de.cuioss.portal.client.vault.kvstore.KVEntries;
 import de.cuioss.portal.client.vault.kvstore.KVEntry;
 import de.cuioss.portal.client.vault.kvstore.Metadata;
 import de.cuioss.portal.client.vault.kvstore.NodeManager;
-import de.cuioss.portal.client.vault.util.VaultJsonHelper;
+import de.cuioss.portal.client.vault.kvstore.StreamingPayload;
+import de.cuioss.portal.client.vault.kvstore.WriteMode;
+import de.cuioss.portal.client.vault.util.JsonPath;
+import de.cuioss.portal.client.vault.util.JsonPathExtractor;
+import de.cuioss.portal.client.vault.util.ParsedVaultResponse;
+import de.cuioss.portal.client.vault.util.Rfc3339;
 import de.cuioss.tools.collect.CollectionBuilder;
 import de.cuioss.tools.logging.CuiLogger;
 import de.cuioss.tools.string.MoreStrings;
@@ -67,13 +84,21 @@ import lombok.ToString;
 @ToString
 public class KeyValueNodeManager implements NodeManager {
 
-    private static final String BASE64_BIN = "base64-binary:";
     private static final String SERVICE_NAME = "KeyValueNodeManager";
     private static final CuiLogger log = new CuiLogger(KeyValueNodeManager.class);
 
     private static final List<Integer> WRITE_OK = immutableList(HttpServletResponse.SC_CREATED,
             HttpServletResponse.SC_OK);
 
+    /** Identifies the endpoints, see {@link #patchIdentifier()}, that do not support patching. */
+    private static final Set<String> PATCH_NOT_SUPPORTED = ConcurrentHashMap.newKeySet();
+
+    private static final String DATA = "data";
+    private static final String METADATA = "metadata";
+
+    private static final List<Integer> READ_OK = immutableList(HttpServletResponse.SC_OK,
+            HttpServletResponse.SC_NOT_FOUND);
+
     @NonNull
     @Getter
     private final KeyValueNavigator navigator;
@@ -88,56 +113,137 @@ public class KeyValueNodeManager implements NodeManager {
             return serviceNotAvailable(Collections.emptyList(), SERVICE_NAME, navigator.getServiceState());
         }
         try {
-            var response = vault.getVault().logical().read(navigator.getFullPath());
-            var meta = extractMetadata(response.getRestResponse());
-            var builder = new CollectionBuilder<KVEntry>();
-            for (Entry<String, String> entry : response.getData().entrySet()) {
-                builder.add(KVEntry.builder().key(entry.getKey()).value(decodePayload(entry.getValue())).metadata(meta)
-                        .build());
+            var response = readData();
+            if (!READ_OK.contains(response.getStatus())) {
+                return vaultHttpError(Collections.emptyList(), response);
             }
-            return valid(builder.toImmutableList());
+            var parsed = ParsedVaultResponse.of(response);
+            var meta = extractMetadata(parsed);
+            List<KVEntry> entries = new ArrayList<>();
+            parsed.getSecretData().ifPresent(data -> data.forEach(member -> entries.add(KVEntry.builder()
+                    .key(member.getName()).value(decodePayload(asString(member.getValue()))).metadata(meta).build())));
+            return valid(KVEntries.of(entries));
         } catch (VaultException e) {
             return vaultException(Collections.emptyList(), e);
         }
     }
 
-    Metadata extractMetadata(RestResponse response) {
-        var dataOptional = VaultJsonHelper.getAsJsonObject(response, "data");
-        if (dataOptional.isEmpty()) {
+    @Override
+    public ResultObject<Integer> readCurrentVersion() {
+        log.debug("Calling readCurrentVersion() on '{}' ", navigator.getFullPath());
+        if (!navigator.isServiceAvailable()) {
+            return serviceNotAvailable(0, SERVICE_NAME, navigator.getServiceState());
+        }
+        try {
+            var response = restClient().readMetadata(navigator.getFullPath());
+            if (HttpServletResponse.SC_NOT_FOUND == response.getStatus()) {
+                return valid(0);
+            }
+            if (HttpServletResponse.SC_OK != response.getStatus()) {
+                return vaultHttpError(0, response);
+            }
+            return valid(ParsedVaultResponse.of(response).getData().map(this::currentVersion).orElse(0));
+        } catch (VaultException e) {
+            return vaultException(0, e);
+        }
+    }
+
+    /**
+     * @param metadata the data-object of a metadata response
+     * @return the value of 'current_version', 0 if that version is deleted or
+     *         destroyed, as reading the node would not find it
+     */
+    int currentVersion(JsonObject metadata) {
+        var version = metadata.getInt(KeyValueRestClient.CURRENT_VERSION, 0);
+        var versions = metadata.get(KeyValueRestClient.VERSIONS);
+        if (0 == version || null == versions || !versions.isObject()) {
+            return version;
+        }
+        var current = versions.asObject().get(String.valueOf(version));
+        if (null == current || !current.isObject()) {
+            return version;
+        }
+        var state = toMetadata(current.asObject());
+        // A deletion time in the future is scheduled by 'delete_version_after'
+        var deleted = Metadata.NOT_DELETED != state.getDeletedEpochSecond()
+                && state.getDeletedEpochSecond() <= LocalDateTime.now(ZoneOffset.UTC).toEpochSecond(ZoneOffset.UTC);
+        if (deleted || state.isDestroyed()) {
+            log.trace("Current version '{}' of '{}' is deleted", version, navigator.getFullPath());
+            return 0;
+        }
+        return version;
+    }
+
+    /**
+     * Reads the secret with a single request. The body is parsed once by
+     * {@link ParsedVaultResponse}, so the {@link KeyValueRestClient} is used if
+     * possible, as the driver would parse it on its own.
+     *
+     * @return the raw response
+     */
+    private RestResponse readData() throws VaultException {
+        if (null == vault.getConfig()) {
+            return vault.getVault().logical().read(navigator.getFullPath()).getRestResponse();
+        }
+        return restClient().readData(navigator.getFullPath());
+    }
+
+    Metadata extractMetadata(ParsedVaultResponse response) {
+        if (response.getData().isEmpty()) {
             log.debug("No data-object given to extract from");
             return Metadata.EMPTY;
         }
-        var metaObjectOption = VaultJsonHelper.getAsJsonObject(dataOptional.get(), "metadata");
-        if (metaObjectOption.isEmpty()) {
+        var metaObject = response.getSecretMetadata();
+        if (metaObject.isEmpty()) {
             log.debug("No metadata given to extract from");
             return Metadata.EMPTY;
         }
-        var metaObject = metaObjectOption.get();
+        return toMetadata(metaObject.get());
+    }
+
+    /**
+     * @param metaObject the metadata-object as provided by a read, e.g.
+     *                   'data.metadata', or by a write, e.g. 'data'
+     * @return the {@link Metadata} derived from the given object
+     */
+    Metadata toMetadata(JsonObject metaObject) {
         var creationTime = metaObject.getString("created_time", "");
         var deletionTime = metaObject.getString("deletion_time", "");
-        Boolean destroyed = metaObject.getBoolean("destroyed", false);
+        var destroyed = metaObject.getBoolean("destroyed", false);
         Integer version = metaObject.getInt("version", 1);
-        var builder = Metadata.builder();
+        long created;
         if (!MoreStrings.isEmpty(creationTime)) {
             try {
-                builder.created(ZonedDateTime.parse(creationTime).truncatedTo(ChronoUnit.SECONDS).toLocalDateTime());
+                created = parseTimestamp(creationTime);
             } catch (DateTimeParseException e) {
-                log.warn(e, "Unable to determine Creation date from {}, derived by key 'created_time'",
-                        dataOptional.get());
-                builder.created(LocalDateTime.now());
+                log.warn(e, "Unable to determine Creation date from {}, derived by key 'created_time'", metaObject);
+                created = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
             }
         } else {
-            log.warn("Unable to determine Creation date from {}, defaulting to 'now'", dataOptional.get());
+            log.warn("Unable to determine Creation date from {}, defaulting to 'now'", metaObject);
+            created = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
         }
+        var deleted = Metadata.NOT_DELETED;
         if (!MoreStrings.isEmpty(deletionTime)) {
             try {
-                builder.deleted(ZonedDateTime.parse(deletionTime).truncatedTo(ChronoUnit.SECONDS).toLocalDateTime());
+                deleted = parseTimestamp(deletionTime);
             } catch (DateTimeParseException e) {
-                log.warn(e, "Unable to determine deletion date from {}, derived by key 'deletion_time'",
-                        dataOptional.get());
+                log.warn(e, "Unable to determine deletion date from {}, derived by key 'deletion_time'", metaObject);
             }
         }
-        return builder.destroyed(destroyed).version(version).path(navigator.getFullPath()).build();
+        return Metadata.ofEpochSeconds(created, deleted, destroyed, version, navigator.getFullPath());
+    }
+
+    /**
+     * Parses with {@link Rfc3339}, falling back to {@link ZonedDateTime} for
+     * variants not covered by RFC 3339, like region-based zones.
+     */
+    private static long parseTimestamp(String timestamp) {
+        try {
+            return Rfc3339.parseLocalEpochSecond(timestamp);
+        } catch (DateTimeParseException e) {
+            return ZonedDateTime.parse(timestamp).toLocalDateTime().toEpochSecond(ZoneOffset.UTC);
+        }
     }
 
     @Override
@@ -150,7 +256,7 @@ public class KeyValueNodeManager implements NodeManager {
             return ResultObject.<KVEntry>builder().extractStateAndDetailsAndErrorCodeFrom(written)
                     .validDefaultResult(KVEntry.EMPTY).build();
         }
-        var readAgain = written.getResult().stream().filter(read -> entry.getKey().equals(read.getKey())).findFirst();
+        var readAgain = KVEntries.of(written.getResult()).get(entry.getKey());
 
         if (readAgain.isPresent()) {
             return valid(readAgain.get());
@@ -167,6 +273,22 @@ public class KeyValueNodeManager implements NodeManager {
         if (isEmpty(entries)) {
             return valid(Collections.emptyList());
         }
+        // The node may be created by this write
+        vault.getExistenceCache().invalidate(navigator.getFullPath());
+        vault.getListingCache().invalidatePath(navigator.getFullPath());
+        if (entries.stream().anyMatch(entry -> entry.getStreamingPayload().isPresent())) {
+            return writeStreaming(entries);
+        }
+        if (WriteMode.CHECK_AND_SET == vault.getWriteMode()) {
+            return writeCheckAndSet(entries);
+        }
+        if (isPatchEnabled()) {
+            return writePatch(entries);
+        }
+        return writeMerge(entries);
+    }
+
+    private ResultObject<Collection<KVEntry>> writeMerge(Collection<KVEntry> entries) {
         Map<String, Object> parameter = new HashMap<>();
         entries.forEach(entry -> parameter.put(entry.getKey(), parse(entry)));
         // Now fetch existing entries: the write method acts as overwrite and not as
@@ -201,7 +323,226 @@ public class KeyValueNodeManager implements NodeManager {
         return valid(builder.toImmutableList());
     }
 
+    /**
+     * @return the client accessing the KV version 2 API directly
+     */
+    KeyValueRestClient restClient() {
+        return new KeyValueRestClient(vault);
+    }
+
+    /**
+     * Variant of {@link #write(Collection)} for {@link WriteMode#CHECK_AND_SET}:
+     * The existing entries are read once, the merged entries are written with the
+     * version read before as check-and-set option and the result is derived from
+     * the write response. A write rejected because of a concurrent modification
+     * is retried up to {@link VaultContext#getCasRetries()} times.
+     */
+    private ResultObject<Collection<KVEntry>> writeCheckAndSet(Collection<KVEntry> entries) {
+        var client = restClient();
+        try {
+            var attempt = 0;
+            while (true) {
+                var current = client.readData(navigator.getFullPath());
+                if (!READ_OK.contains(current.getStatus())) {
+                    return vaultHttpError(Collections.emptyList(), current);
+                }
+                var parsed = ParsedVaultResponse.of(current);
+                Map<String, Object> parameter = new HashMap<>();
+                entries.forEach(entry -> parameter.put(entry.getKey(), parse(entry)));
+                var existing = parsed.getSecretData();
+                if (existing.isPresent()) {
+                    log.debug("Taking over already persisted properties, {}", existing.get().names());
+                    existing.get().forEach(member -> parameter.putIfAbsent(member.getName(), member.getValue()));
+                }
+                var version = parsed.getSecretVersion();
+                var response = client.writeData(navigator.getFullPath(), parameter, version);
+                if (KeyValueRestClient.isCheckAndSetMismatch(response) && attempt < vault.getCasRetries()) {
+                    attempt++;
+                    log.debug("Concurrent modification on '{}', version '{}', retry '{}'", navigator.getFullPath(),
+                            version, attempt);
+                    continue;
+                }
+                if (!WRITE_OK.contains(response.getStatus())) {
+                    return vaultHttpError(Collections.emptyList(), response);
+                }
+                log.debug("Wrote on '{}' with entries '{}' and cas '{}'", navigator.getFullPath(), entries, version);
+                var meta = ParsedVaultResponse.of(response).getData().map(this::toMetadata)
+                        .orElse(Metadata.EMPTY);
+                return valid(toEntries(parameter, meta));
+            }
+        } catch (VaultException e) {
+            return vaultException(Collections.emptyList(), e);
+        }
+    }
+
+    /**
+     * Variant of {@link #write(Collection)} for entries containing a
+     * {@link StreamingPayload}: Like {@link #writeCheckAndSet(Collection)} the
+     * existing entries are read once and the merged entries are written directly,
+     * but the streaming payloads are encoded into the request body while it is
+     * sent. The check-and-set option is only used for
+     * {@link WriteMode#CHECK_AND_SET}, retries only for repeatable payloads.
+     * {@link WriteMode#PATCH} is treated like {@link WriteMode#MERGE}. The
+     * resulting entries of streaming payloads contain the payload itself, as
+     * their content is not read again.
+     */
+    private ResultObject<Collection<KVEntry>> writeStreaming(Collection<KVEntry> entries) {
+        var client = restClient();
+        var checkAndSet = WriteMode.CHECK_AND_SET == vault.getWriteMode();
+        var repeatable = entries.stream()
+                .allMatch(entry -> entry.getStreamingPayload().map(StreamingPayload::isRepeatable).orElse(true));
+        try {
+            var attempt = 0;
+            while (true) {
+                var current = client.readData(navigator.getFullPath());
+                if (!READ_OK.contains(current.getStatus())) {
+                    return vaultHttpError(Collections.emptyList(), current);
+                }
+                Map<String, Object> parameter = new HashMap<>();
+                Map<String, StreamingPayload> streamed = new LinkedHashMap<>();
+                for (KVEntry entry : entries) {
+                    var payload = entry.getStreamingPayload();
+                    if (payload.isPresent()) {
+                        streamed.put(entry.getKey(), payload.get());
+                    } else {
+                        parameter.put(entry.getKey(), parse(entry));
+                    }
+                }
+                var written = new HashMap<>(parameter);
+                var parsed = ParsedVaultResponse.of(current);
+                parsed.getSecretData().ifPresent(existing -> existing.forEach(member -> {
+                            if (!streamed.containsKey(member.getName())) {
+                                parameter.putIfAbsent(member.getName(), member.getValue());
+                            }
+                        }));
+                Integer version = checkAndSet ? parsed.getSecretVersion() : null;
+                var encoded = encode(streamed);
+                RestResponse response;
+                try {
+                    response = client.writeData(navigator.getFullPath(), parameter, encoded, version);
+                } finally {
+                    close(encoded.values());
+                }
+                if (checkAndSet && repeatable && KeyValueRestClient.isCheckAndSetMismatch(response)
+                        && attempt < vault.getCasRetries()) {
+                    attempt++;
+                    log.debug("Concurrent modification on '{}', version '{}', retry '{}'", navigator.getFullPath(),
+                            version, attempt);
+                    continue;
+                }
+                if (!WRITE_OK.contains(response.getStatus())) {
+                    return vaultHttpError(Collections.emptyList(), response);
+                }
+                log.debug("Wrote on '{}' with streamed entries '{}'", navigator.getFullPath(), streamed.keySet());
+                var meta = ParsedVaultResponse.of(response).getData().map(this::toMetadata)
+                        .orElse(Metadata.EMPTY);
+                var builder = new CollectionBuilder<KVEntry>();
+                toEntries(written, meta).forEach(builder::add);
+                streamed.forEach((key, payload) -> builder
+                        .add(KVEntry.builder().key(key).value(payload).metadata(meta).build()));
+                return valid(builder.toImmutableList());
+            }
+        } catch (VaultException e) {
+            return vaultException(Collections.emptyList(), e);
+        } catch (IOException e) {
+            return vaultException(Collections.emptyList(), new VaultException(e));
+        }
+    }
+
+    /**
+     * @return the streams providing the encoded content of the given payloads,
+     *         see {@link PayloadEncoding#encode(InputStream, int)}
+     */
+    private Map<String, InputStream> encode(Map<String, StreamingPayload> payloads) throws IOException {
+        Map<String, InputStream> encoded = new LinkedHashMap<>();
+        try {
+            for (Entry<String, StreamingPayload> entry : payloads.entrySet()) {
+                encoded.put(entry.getKey(),
+                        PayloadEncoding.encode(entry.getValue().open(), vault.getCompressionThreshold()));
+            }
+        } catch (IOException e) {
+            close(encoded.values());
+            throw e;
+        }
+        return encoded;
+    }
+
+    private static void close(Collection<InputStream> streams) {
+        for (InputStream stream : streams) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                log.debug("Unable to close stream, due to '{}'", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Variant of {@link #write(Collection)} for {@link WriteMode#PATCH}: Only the
+     * given entries are sent as JSON merge-patch. Falls back to
+     * {@link WriteMode#MERGE} if the node does not exist or the server does not
+     * support patching.
+     */
+    private ResultObject<Collection<KVEntry>> writePatch(Collection<KVEntry> entries) {
+        Map<String, Object> parameter = new HashMap<>();
+        entries.forEach(entry -> parameter.put(entry.getKey(), parse(entry)));
+        try {
+            var response = restClient().patchData(navigator.getFullPath(), parameter);
+            if (HttpServletResponse.SC_NOT_FOUND == response.getStatus()) {
+                log.debug("Node '{}' does not exist, unable to patch, falling back to merge", navigator.getFullPath());
+                return writeMerge(entries);
+            }
+            if (KeyValueRestClient.isMethodNotSupported(response)) {
+                disablePatch();
+                return writeMerge(entries);
+            }
+            if (!WRITE_OK.contains(response.getStatus())) {
+                return vaultHttpError(Collections.emptyList(), response);
+            }
+            log.debug("Patched '{}' with entries '{}'", navigator.getFullPath(), entries);
+            var meta = ParsedVaultResponse.of(response).getData().map(this::toMetadata).orElse(Metadata.EMPTY);
+            return valid(toEntries(parameter, meta));
+        } catch (VaultException e) {
+            return vaultException(Collections.emptyList(), e);
+        }
+    }
+
+    private boolean isPatchEnabled() {
+        return WriteMode.PATCH == vault.getWriteMode() && !PATCH_NOT_SUPPORTED.contains(patchIdentifier());
+    }
+
+    private void disablePatch() {
+        log.info("Server '{}' does not support patching, falling back to merge for endpoint '{}'", vault.getUrl(),
+                vault.getEndpointName());
+        PATCH_NOT_SUPPORTED.add(patchIdentifier());
+    }
+
+    private String patchIdentifier() {
+        return vault.getUrl() + "/" + vault.getEndpointName();
+    }
+
+    /**
+     * Creates the entries like they would be returned by {@link #read()} after
+     * writing the given parameter, without reading again.
+     */
+    private List<KVEntry> toEntries(Map<String, Object> parameter, Metadata meta) {
+        var builder = new CollectionBuilder<KVEntry>();
+        for (Entry<String, Object> entry : parameter.entrySet()) {
+            var value = KeyValueRestClient.toJsonValue(entry.getValue());
+            if (!value.isNull()) {
+                builder.add(KVEntry.builder().key(entry.getKey()).value(decodePayload(asString(value))).metadata(meta)
+                        .build());
+            }
+        }
+        return builder.toImmutableList();
+    }
+
     private Object parse(KVEntry entry) {
+        var payload = entry.getBinaryPayload();
+        if (payload.isPresent() && PayloadEncoding.isEncoded(payload.get().getSource())) {
+            // Still encoded as read: no need to decode and encode again
+            return payload.get().getSource();
+        }
         var value = entry.getValue();
         if (null == value) {
             return null;
@@ -211,47 +552,144 @@ public class KeyValueNodeManager implements NodeManager {
             if (0 == valueArray.length) {
                 return null;
             }
-            return BASE64_BIN + new String(Base64.getEncoder().encode(valueArray));
+            return PayloadEncoding.encode(valueArray, vault.getCompressionThreshold());
         }
         return value;
     }
 
     private Serializable decodePayload(String value) {
-        if (MoreStrings.isEmpty(value)) {
-            return value;
-        }
-        if (value.startsWith(BASE64_BIN)) {
-            return Base64.getDecoder().decode(value.substring(BASE64_BIN.length()));
-        }
-        return value;
+        return PayloadEncoding.decode(value);
     }
 
     @Override
     public ResultObject<KVEntry> read(String key) {
         log.debug("Calling read() on '{}' with key '{}'", navigator.getFullPath(), key);
         requireNotEmpty(key);
-        var allentries = read();
-        if (!allentries.isValid()) {
-            return ResultObject.<KVEntry>builder().extractStateAndDetailsAndErrorCodeFrom(allentries)
+        ResultObject<Collection<KVEntry>> read;
+        if (null != vault.getConfig() && navigator.isServiceAvailable()) {
+            read = extract(immutableList(key));
+        } else {
+            read = read();
+        }
+        if (!read.isValid()) {
+            return ResultObject.<KVEntry>builder().extractStateAndDetailsAndErrorCodeFrom(read)
                     .validDefaultResult(KVEntry.EMPTY).build();
         }
-        var found = allentries.getResult().stream().filter(entry -> key.equals(entry.getKey())).findFirst();
+        var found = KVEntries.of(read.getResult()).get(key);
         if (found.isPresent()) {
             return valid(found.get());
         }
         return notFound(KVEntry.EMPTY, "KeyValue", key);
     }
 
+    @Override
+    public ResultObject<Collection<KVEntry>> read(Collection<String> keys) {
+        log.debug("Calling read() on '{}' with keys '{}'", navigator.getFullPath(), keys);
+        requireNonNull(keys);
+        if (null != vault.getConfig() && navigator.isServiceAvailable()) {
+            return extract(keys);
+        }
+        var read = read();
+        if (!read.isValid()) {
+            return read;
+        }
+        return valid(KVEntries.of(read.getResult()).project(keys));
+    }
+
+    /**
+     * Variant of {@link #read(Collection)} resolving only the given keys and the
+     * metadata from the response by {@link JsonPathExtractor}, so the other
+     * entries of the node are neither parsed nor decoded.
+     *
+     * @return the entries for the given keys that are present, in order of the
+     *         given keys, as {@link KVEntries}
+     */
+    private ResultObject<Collection<KVEntry>> extract(Collection<String> keys) {
+        var metadataPath = JsonPath.of(DATA, METADATA);
+        Map<String, JsonPath> valuePaths = new LinkedHashMap<>();
+        keys.forEach(key -> valuePaths.put(key, JsonPath.of(DATA, DATA, key)));
+        try {
+            var response = restClient().readData(navigator.getFullPath());
+            if (!READ_OK.contains(response.getStatus())) {
+                return vaultHttpError(KVEntries.EMPTY, response);
+            }
+            if (valuePaths.isEmpty() || HttpServletResponse.SC_NOT_FOUND == response.getStatus()
+                    || null == response.getBody()) {
+                return valid(KVEntries.EMPTY);
+            }
+            var requested = new ArrayList<>(valuePaths.values());
+            requested.add(metadataPath);
+            var extracted = JsonPathExtractor.extract(response.getBody(), requested);
+            var meta = Optional.ofNullable(extracted.get(metadataPath)).map(Json::parse).filter(JsonValue::isObject)
+                    .map(value -> toMetadata(value.asObject())).orElse(Metadata.EMPTY);
+            List<KVEntry> entries = new ArrayList<>(valuePaths.size());
+            valuePaths.forEach((key, path) -> {
+                if (extracted.containsKey(path)) {
+                    entries.add(KVEntry.builder().key(key).value(decodePayload(extracted.get(path))).metadata(meta)
+                            .build());
+                }
+            });
+            return valid(KVEntries.of(entries));
+        } catch (VaultException e) {
+            return vaultException(KVEntries.EMPTY, e);
+        } catch (IllegalArgumentException | ParseException e) {
+            return vaultException(KVEntries.EMPTY, new VaultException(e));
+        }
+    }
+
     @Override
     public ResultObject<Boolean> delete(String key) {
         log.debug("Calling delete() on '{}' with key '{}'", navigator.getFullPath(), key);
+        if (isPatchEnabled()) {
+            return deletePatch(key);
+        }
+        return deleteMerge(key);
+    }
+
+    /**
+     * Variant of {@link #delete(String)} for {@link WriteMode#PATCH}: Removes the
+     * key by patching it with a null value. Like {@link #deleteMerge(String)} it
+     * checks first whether the key is present, as patching a missing key would
+     * still write a new version.
+     */
+    private ResultObject<Boolean> deletePatch(String key) {
+        if (!navigator.isServiceAvailable()) {
+            return serviceNotAvailable(Boolean.FALSE, SERVICE_NAME, navigator.getServiceState());
+        }
+        var existing = read(key);
+        if (!existing.isValid()) {
+            return ResultObject.<Boolean>builder().extractStateAndDetailsAndErrorCodeFrom(existing)
+                    .validDefaultResult(Boolean.FALSE).build();
+        }
+        Map<String, Object> parameter = new HashMap<>();
+        parameter.put(key, null);
+        try {
+            var response = restClient().patchData(navigator.getFullPath(), parameter);
+            if (HttpServletResponse.SC_NOT_FOUND == response.getStatus()) {
+                return notFound(Boolean.FALSE, key, key);
+            }
+            if (KeyValueRestClient.isMethodNotSupported(response)) {
+                disablePatch();
+                return deleteMerge(key);
+            }
+            if (!WRITE_OK.contains(response.getStatus())) {
+                return vaultHttpError(Boolean.FALSE, response);
+            }
+            log.debug("Deletion of '{}' by patch result in Status '{}' ", key, response.getStatus());
+            return valid(Boolean.TRUE);
+        } catch (VaultException e) {
+            return vaultException(Boolean.FALSE, e);
+        }
+    }
+
+    private ResultObject<Boolean> deleteMerge(String key) {
         var read = read();
         if (!read.isValid()) {
             return ResultObject.<Boolean>builder().extractStateAndDetailsAndErrorCodeFrom(read)
                     .validDefaultResult(Boolean.FALSE).build();
         }
         Map<String, Object> parameter = new HashMap<>();
-        read.getResult().forEach(entry -> parameter.putIfAbsent(entry.getKey(), entry.getValue()));
+        read.getResult().forEach(entry -> parameter.putIfAbsent(entry.getKey(), parse(entry)));
         if (!parameter.containsKey(key)) {
             return notFound(Boolean.FALSE, key, key);
         }
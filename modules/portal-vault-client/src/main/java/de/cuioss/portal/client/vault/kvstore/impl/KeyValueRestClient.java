@@ -0,0 +1,370 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.tools.net.UrlHelper.splitPath;
+import static java.util.Objects.requireNonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import javax.net.ssl.SSLContext;
+
+import com.bettercloud.vault.VaultConfig;
+import com.bettercloud.vault.VaultException;
+import com.bettercloud.vault.json.Json;
+import com.bettercloud.vault.json.JsonObject;
+import com.bettercloud.vault.json.JsonValue;
+import com.bettercloud.vault.rest.RestResponse;
+
+import de.cuioss.portal.client.vault.VaultContext;
+import de.cuioss.tools.logging.CuiLogger;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Thin client for the KV version 2 HTTP-API. It complements the
+ * vault-java-driver for operations the driver does not provide, like writing
+ * with the check-and-set option. In contrast to
+ * {@link com.bettercloud.vault.api.Logical} it does not throw on non 2xx
+ * status codes: the caller decides on how to handle the {@link RestResponse}.
+ * A {@link VaultException} is only thrown in case of I/O-problems.
+ * <p>
+ * All paths are full paths as provided by
+ * {@link KeyValueNavigator#getFullPath()}, e.g. "/secret/platform/namespaces"
+ *
+ * @author agent
+ *
+ */
+public class KeyValueRestClient {
+
+    static final String DATA = "data";
+    static final String METADATA = "metadata";
+    static final String CURRENT_VERSION = "current_version";
+    static final String VERSIONS = "versions";
+    static final String OPTIONS = "options";
+    static final String CAS = "cas";
+
+    private static final String API_VERSION = "/v1/";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String APPLICATION_JSON = "application/json";
+    private static final String APPLICATION_MERGE_PATCH = "application/merge-patch+json";
+    private static final String PATCH = "PATCH";
+    private static final String HEADER_TOKEN = "X-Vault-Token";
+
+    private static final CuiLogger log = new CuiLogger(KeyValueRestClient.class);
+
+    private static final HttpClient DEFAULT_CLIENT = HttpClient.newBuilder().build();
+
+    private static final Map<SSLContext, HttpClient> SSL_CLIENTS = new ConcurrentHashMap<>();
+
+    private final VaultContext context;
+
+    private final VaultConfig config;
+
+    /**
+     * @param context must not be null and must provide a {@link VaultConfig}
+     */
+    public KeyValueRestClient(VaultContext context) {
+        this.context = requireNonNull(context);
+        config = requireNonNull(context.getConfig(),
+                "VaultContext must provide a VaultConfig in order to access the KV v2 API directly");
+    }
+
+    /**
+     * Reads the latest version of the secret at the given path. Calls
+     * "GET /v1/{mount}/data/{path}"
+     *
+     * @param fullPath must not be null
+     * @return the raw response
+     * @throws VaultException in case of I/O-problems
+     */
+    public RestResponse readData(String fullPath) throws VaultException {
+        return send(request(fullPath, DATA).GET());
+    }
+
+    /**
+     * Reads the metadata of the secret at the given path, e.g. its
+     * "current_version", without transferring the payload. Calls
+     * "GET /v1/{mount}/metadata/{path}"
+     *
+     * @param fullPath must not be null
+     * @return the raw response
+     * @throws VaultException in case of I/O-problems
+     */
+    public RestResponse readMetadata(String fullPath) throws VaultException {
+        return send(request(fullPath, METADATA).GET());
+    }
+
+    /**
+     * Permanently deletes the secret at the given path, including all of its
+     * versions and its metadata. Calls "DELETE /v1/{mount}/metadata/{path}"
+     *
+     * @param fullPath must not be null
+     * @return the raw response
+     * @throws VaultException in case of I/O-problems
+     */
+    public RestResponse deleteMetadata(String fullPath) throws VaultException {
+        return send(request(fullPath, METADATA).DELETE());
+    }
+
+    /**
+     * Writes the given data as new version of the secret at the given path. Calls
+     * "POST /v1/{mount}/data/{path}"
+     *
+     * @param fullPath must not be null
+     * @param data     the complete data of the new version. Values are
+     *                 translated like by
+     *                 {@link com.bettercloud.vault.api.Logical#write(String, Map)}
+     * @param cas      if not null, it will be passed as check-and-set option: 0
+     *                 means the write is only allowed if the secret does not
+     *                 exist, otherwise the write is only allowed if the given
+     *                 value matches the current version of the secret
+     * @return the raw response
+     * @throws VaultException in case of I/O-problems
+     */
+    public RestResponse writeData(String fullPath, Map<String, Object> data, Integer cas) throws VaultException {
+        var body = Json.object();
+        if (null != cas) {
+            body.add(OPTIONS, Json.object().add(CAS, cas.intValue()));
+        }
+        body.add(DATA, toJson(data));
+        return send(request(fullPath, DATA).header(CONTENT_TYPE, APPLICATION_JSON).POST(ofJson(body)));
+    }
+
+    /**
+     * Variant of {@link #writeData(String, Map, Integer)} streaming the values of
+     * the given streamedValues into the request body while it is being sent.
+     * The streams are consumed and closed.
+     *
+     * @param fullPath       must not be null
+     * @param data           the data of the new version not being streamed
+     * @param streamedValues providing the raw content of string values by their
+     *                       key. They must only provide characters not needing
+     *                       escaping within a JSON string, e.g. Base64
+     * @param cas            see {@link #writeData(String, Map, Integer)}
+     * @return the raw response
+     * @throws VaultException in case of I/O-problems
+     */
+    public RestResponse writeData(String fullPath, Map<String, Object> data, Map<String, InputStream> streamedValues,
+            Integer cas) throws VaultException {
+        var body = singleUse(streamingBody(data, streamedValues, cas));
+        return send(request(fullPath, DATA).header(CONTENT_TYPE, APPLICATION_JSON)
+                .POST(BodyPublishers.ofInputStream(body)));
+    }
+
+    /**
+     * @return a supplier providing the given body once. As the streamed values
+     *         can not be read again, a second subscription, e.g. for following a
+     *         redirect, fails instead of sending a truncated body.
+     */
+    static Supplier<InputStream> singleUse(InputStream body) {
+        var consumed = new AtomicBoolean();
+        return () -> {
+            if (consumed.getAndSet(true)) {
+                throw new UncheckedIOException(new IOException("The streamed request body can not be sent again"));
+            }
+            return body;
+        };
+    }
+
+    /**
+     * @return the body for {@link #writeData(String, Map, Map, Integer)}: the
+     *         JSON-object with the streamed values appended to the data-object
+     */
+    static InputStream streamingBody(Map<String, Object> data, Map<String, InputStream> streamedValues,
+            Integer cas) {
+        var dataJson = toJson(data);
+        var text = new StringBuilder("{");
+        if (null != cas) {
+            text.append(Json.value(OPTIONS)).append(':').append(Json.object().add(CAS, cas.intValue())).append(',');
+        }
+        var dataText = dataJson.toString();
+        // Leave the data-object open
+        text.append(Json.value(DATA)).append(':').append(dataText, 0, dataText.length() - 1);
+        List<InputStream> parts = new ArrayList<>();
+        var separator = !dataJson.isEmpty();
+        for (Entry<String, InputStream> entry : streamedValues.entrySet()) {
+            if (separator) {
+                text.append(',');
+            }
+            separator = true;
+            text.append(Json.value(entry.getKey())).append(":\"");
+            parts.add(toStream(text));
+            parts.add(entry.getValue());
+            text.setLength(0);
+            text.append('"');
+        }
+        text.append("}}");
+        parts.add(toStream(text));
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+
+    private static InputStream toStream(CharSequence text) {
+        return new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Merges the given data into the latest version of the secret at the given
+     * path, creating a new version. Calls "PATCH /v1/{mount}/data/{path}" with a
+     * JSON merge-patch, saying keys with a null value will be removed. Requires
+     * Vault 1.9 or later and an existing secret.
+     *
+     * @param fullPath must not be null
+     * @param data     the entries to be added, updated or removed (null value)
+     * @return the raw response
+     * @throws VaultException in case of I/O-problems
+     */
+    public RestResponse patchData(String fullPath, Map<String, Object> data) throws VaultException {
+        var body = Json.object().add(DATA, toJson(data));
+        return send(request(fullPath, DATA).header(CONTENT_TYPE, APPLICATION_MERGE_PATCH).method(PATCH, ofJson(body)));
+    }
+
+    /**
+     * @param response to be checked
+     * @return boolean indicating whether the given response was rejected because
+     *         the server does not support the used method
+     */
+    public static boolean isMethodNotSupported(RestResponse response) {
+        return HttpServletResponse.SC_METHOD_NOT_ALLOWED == response.getStatus();
+    }
+
+    /**
+     * @param response to be checked
+     * @return boolean indicating whether the given response was rejected because
+     *         of a check-and-set mismatch
+     */
+    public static boolean isCheckAndSetMismatch(RestResponse response) {
+        return HttpServletResponse.SC_BAD_REQUEST == response.getStatus() && null != response.getBody()
+                && new String(response.getBody(), StandardCharsets.UTF_8).contains("check-and-set");
+    }
+
+    /**
+     * Translates the given map to a {@link JsonObject}, following the rules of
+     * {@link com.bettercloud.vault.api.Logical#write(String, Map)}
+     *
+     * @param data may be null
+     * @return the resulting {@link JsonObject}
+     */
+    static JsonObject toJson(Map<String, Object> data) {
+        var json = Json.object();
+        if (null == data) {
+            return json;
+        }
+        for (Entry<String, Object> entry : data.entrySet()) {
+            json.add(entry.getKey(), toJsonValue(entry.getValue()));
+        }
+        return json;
+    }
+
+    static JsonValue toJsonValue(Object value) {
+        if (null == value) {
+            return Json.NULL;
+        }
+        if (value instanceof JsonValue jsonValue) {
+            return jsonValue;
+        }
+        if (value instanceof Boolean booleanValue) {
+            return Json.value(booleanValue.booleanValue());
+        }
+        if (value instanceof Integer integerValue) {
+            return Json.value(integerValue.intValue());
+        }
+        if (value instanceof Long longValue) {
+            return Json.value(longValue.longValue());
+        }
+        if (value instanceof Float floatValue) {
+            return Json.value(floatValue.floatValue());
+        }
+        if (value instanceof Double doubleValue) {
+            return Json.value(doubleValue.doubleValue());
+        }
+        return Json.value(value.toString());
+    }
+
+    /**
+     * Translates the given full path, e.g. "/secret/a/b" to the corresponding
+     * api-path, e.g. "/v1/secret/data/a/b"
+     *
+     * @param fullPath must start with the endpoint-name of the context
+     * @param section  e.g. "data" or "metadata"
+     * @return the translated api-path
+     */
+    String toApiPath(String fullPath, String section) {
+        var elements = splitPath(context.stripEndpointName(fullPath));
+        var builder = new StringBuilder(API_VERSION).append(context.getEndpointName()).append('/').append(section);
+        for (String element : elements) {
+            builder.append('/').append(URLEncoder.encode(element, StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+        return builder.toString();
+    }
+
+    HttpRequest.Builder request(String fullPath, String section) {
+        var builder = HttpRequest.newBuilder(URI.create(config.getAddress() + toApiPath(fullPath, section)))
+                .header(HEADER_TOKEN, config.getToken());
+        if (null != config.getReadTimeout() && 0 < config.getReadTimeout()) {
+            builder.timeout(Duration.ofSeconds(config.getReadTimeout()));
+        }
+        return builder;
+    }
+
+    static BodyPublisher ofJson(JsonValue json) {
+        return BodyPublishers.ofByteArray(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    RestResponse send(HttpRequest.Builder builder) throws VaultException {
+        var request = builder.build();
+        log.trace("Calling '{} {}'", request.method(), request.uri());
+        try {
+            var response = httpClient().send(request, BodyHandlers.ofByteArray());
+            return new RestResponse(response.statusCode(),
+                    response.headers().firstValue(CONTENT_TYPE).orElse(APPLICATION_JSON), response.body());
+        } catch (IOException e) {
+            throw new VaultException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VaultException(e);
+        }
+    }
+
+    private HttpClient httpClient() {
+        var sslConfig = config.getSslConfig();
+        if (null == sslConfig || null == sslConfig.getSslContext()) {
+            return DEFAULT_CLIENT;
+        }
+        return SSL_CLIENTS.computeIfAbsent(sslConfig.getSslContext(),
+                sslContext -> HttpClient.newBuilder().sslContext(sslContext).build());
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.partialFailure;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
+import static de.cuioss.tools.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.tools.logging.CuiLogger;
+import de.cuioss.uimodel.result.ResultObject;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Reads the content of all nodes of a subtree, starting at a given
+ * {@link Navigator}. The subtree is walked by a {@link ForkJoinPool} of the
+ * given parallelism: Each node lists its children and forks a task for each of
+ * them before reading its own content, so idle workers steal pending nodes from
+ * busy ones. A node failing to be listed or read does not abort the walk, see
+ * {@link #readTree(Navigator, int, int)}. The structure of a subtree alone can
+ * be walked by {@link #listTree(Navigator, int, int, BiConsumer)}, not reading
+ * any content.
+ *
+ * @author agent
+ *
+ */
+@ToString
+public class KeyValueTreeReader {
+
+    /** Depth for reading the complete subtree. */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final String SERVICE_NAME = "KeyValueTreeReader";
+    private static final CuiLogger log = new CuiLogger(KeyValueTreeReader.class);
+
+    /**
+     * @param root        the node to start at, must not be null
+     * @param depth       the number of levels below root to be read, 0 for root
+     *                    only, {@link #UNLIMITED} for the complete subtree
+     * @param parallelism the maximum number of nodes being processed
+     *                    concurrently, must be positive
+     * @return the content of all nodes providing entries, by their paths, like
+     *         {@link Navigator#getPath()}, in order of the paths. If some nodes
+     *         failed to be listed or read, the result is a
+     *         {@link ResultFactory#partialFailure(Object, String, int, Map)},
+     *         providing the content of the remaining nodes as default result.
+     */
+    public ResultObject<Map<String, Collection<KVEntry>>> readTree(Navigator root, int depth, int parallelism) {
+        Map<String, Collection<KVEntry>> read = new ConcurrentHashMap<>();
+        var outcome = readTree(root, depth, parallelism, read::put);
+        return ResultFactory.map(outcome, count -> Collections.unmodifiableMap(new TreeMap<>(read)));
+    }
+
+    /**
+     * Streaming variant of {@link #readTree(Navigator, int, int)}: The content
+     * of each node is passed to the given consumer as soon as it is read.
+     *
+     * @param root        the node to start at, must not be null
+     * @param depth       the number of levels below root to be read, 0 for root
+     *                    only, {@link #UNLIMITED} for the complete subtree
+     * @param parallelism the maximum number of nodes being processed
+     *                    concurrently, must be positive
+     * @param consumer    receiving the path and the content of each node
+     *                    providing entries, must not be null. It is called
+     *                    concurrently and therefore must be thread-safe.
+     * @return the number of nodes passed to the consumer, see
+     *         {@link #readTree(Navigator, int, int)} regarding failures.
+     */
+    public ResultObject<Integer> readTree(Navigator root, int depth, int parallelism,
+            BiConsumer<String, Collection<KVEntry>> consumer) {
+        requireNonNull(root);
+        requireNonNull(consumer);
+        checkArgument(depth >= 0, "depth must not be negative");
+        checkArgument(parallelism > 0, "parallelism must be positive");
+        log.debug("Reading tree '{}' with depth '{}' and parallelism '{}'", root.getPath(), depth, parallelism);
+        var walk = new Walk(depth, consumer, null);
+        invoke(walk, root, parallelism);
+        log.debug("Read '{}' of '{}' nodes of tree '{}', '{}' failed", walk.provided.get(), walk.visited.get(),
+                root.getPath(), walk.failures.size());
+        return outcome(walk);
+    }
+
+    /**
+     * Walks the structure of a subtree without reading the content of any node.
+     *
+     * @param root        the node to start at, must not be null
+     * @param depth       the number of levels below root to be listed, 1 for the
+     *                    children of root only, {@link #UNLIMITED} for the
+     *                    complete subtree
+     * @param parallelism the maximum number of nodes being listed concurrently,
+     *                    must be positive
+     * @param consumer    receiving each listed node together with its children,
+     *                    must not be null. It is called concurrently and
+     *                    therefore must be thread-safe.
+     * @return the number of nodes passed to the consumer, see
+     *         {@link #readTree(Navigator, int, int)} regarding failures.
+     */
+    public ResultObject<Integer> listTree(Navigator root, int depth, int parallelism,
+            BiConsumer<Navigator, List<Navigator>> consumer) {
+        requireNonNull(root);
+        requireNonNull(consumer);
+        checkArgument(depth >= 0, "depth must not be negative");
+        checkArgument(parallelism > 0, "parallelism must be positive");
+        log.debug("Listing tree '{}' with depth '{}' and parallelism '{}'", root.getPath(), depth, parallelism);
+        var walk = new Walk(depth, null, consumer);
+        invoke(walk, root, parallelism);
+        log.debug("Listed '{}' nodes of tree '{}', '{}' failed", walk.visited.get(), root.getPath(),
+                walk.failures.size());
+        return outcome(walk);
+    }
+
+    private static void invoke(Walk walk, Navigator root, int parallelism) {
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new NodeTask(walk, root, 0));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static ResultObject<Integer> outcome(Walk walk) {
+        if (walk.failures.isEmpty()) {
+            return valid(walk.provided.get());
+        }
+        return partialFailure(walk.provided.get(), SERVICE_NAME, walk.visited.get(), new TreeMap<>(walk.failures));
+    }
+
+    /** The state shared by all tasks of a walk. */
+    @RequiredArgsConstructor
+    private static final class Walk {
+
+        private final int depth;
+        /** null if no content is to be read */
+        private final BiConsumer<String, Collection<KVEntry>> consumer;
+        /** null if listings are not to be provided */
+        private final BiConsumer<Navigator, List<Navigator>> listConsumer;
+        private final AtomicInteger visited = new AtomicInteger();
+        private final AtomicInteger provided = new AtomicInteger();
+        private final Map<String, ResultObject<?>> failures = new ConcurrentHashMap<>();
+
+        private void failed(String path, ResultObject<?> result) {
+            log.debug("Unable to process '{}', due to '{}'", path, result.getResultDetail());
+            failures.putIfAbsent(path, result);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class NodeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = -4283129875617396815L;
+
+        private final transient Walk walk;
+        private final transient Navigator navigator;
+        private final int level;
+
+        @Override
+        protected void compute() {
+            walk.visited.incrementAndGet();
+            var path = navigator.getPath();
+            List<NodeTask> children = new ArrayList<>();
+            if (level < walk.depth) {
+                var listed = navigator.list();
+                if (listed.isValid()) {
+                    listed.getResult().forEach(child -> children.add(new NodeTask(walk, child, level + 1)));
+                    if (null != walk.listConsumer) {
+                        walk.provided.incrementAndGet();
+                        walk.listConsumer.accept(navigator, listed.getResult());
+                    }
+                } else {
+                    walk.failed(path, listed);
+                }
+            }
+            children.forEach(ForkJoinTask::fork);
+            if (null != walk.consumer) {
+                read(path);
+            }
+            children.forEach(ForkJoinTask::join);
+        }
+
+        private void read(String path) {
+            var manager = navigator.getNodeManager();
+            if (!manager.isValid()) {
+                walk.failed(path, manager);
+                return;
+            }
+            var content = manager.getResult().read();
+            if (!content.isValid()) {
+                walk.failed(path, content);
+            } else if (!content.getResult().isEmpty()) {
+                walk.provided.incrementAndGet();
+                walk.consumer.accept(path, content.getResult());
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.partialFailure;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.serviceNotAvailable;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
+import static de.cuioss.tools.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.tools.logging.CuiLogger;
+import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.service.ServiceState;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Deletes, copies and moves complete subtrees, starting at a given
+ * {@link Navigator}. The subtree is walked by {@link KeyValueTreeReader} with
+ * the given parallelism. A node failing does not abort the operation: The
+ * outcome of each node is provided by its path, the failures are summarized by
+ * {@link ResultFactory#partialFailure(Object, String, int, Map)}.
+ * <p>
+ * {@link #deleteTree(Navigator, int)} deletes level by level, the deepest
+ * nodes first, each level concurrently on the given executor. Nodes of a
+ * {@link KeyValueNavigator} are removed permanently, see
+ * {@link KeyValueNavigator#destroy()}.
+ *
+ * @author agent
+ *
+ */
+@RequiredArgsConstructor
+@ToString(of = "executor")
+public class KeyValueTreeWriter {
+
+    private static final String SERVICE_NAME = "KeyValueTreeWriter";
+    private static final CuiLogger log = new CuiLogger(KeyValueTreeWriter.class);
+
+    private final KeyValueTreeReader reader = new KeyValueTreeReader();
+
+    @NonNull
+    @Getter
+    private final Executor executor;
+
+    /**
+     * Constructor using {@link VaultExecutors#defaultExecutor()}
+     */
+    public KeyValueTreeWriter() {
+        this(VaultExecutors.defaultExecutor());
+    }
+
+    /**
+     * Deletes the given node and all nodes below it, leaves before their
+     * parents.
+     *
+     * @param root        the node to start at, must not be null. If it is a
+     *                    secret, it is deleted last.
+     * @param parallelism the maximum number of nodes being processed
+     *                    concurrently, must be positive
+     * @return the outcome of each deleted node by its path. If some nodes
+     *         failed to be listed or deleted, the result is a
+     *         {@link ResultFactory#partialFailure(Object, String, int, Map)},
+     *         providing all outcomes as default result.
+     */
+    public ResultObject<Map<String, ResultObject<Boolean>>> deleteTree(Navigator root, int parallelism) {
+        requireNonNull(root);
+        checkArgument(parallelism > 0, "parallelism must be positive");
+        Map<String, Navigator> nodes = new ConcurrentHashMap<>();
+        var listed = reader.listTree(root, KeyValueTreeReader.UNLIMITED, parallelism,
+                (parent, children) -> children.stream().filter(child -> !isFolder(child))
+                        .forEach(child -> nodes.put(child.getPath(), child)));
+        if (!isFolder(root) && exists(root)) {
+            nodes.put(root.getPath(), root);
+        }
+        log.debug("Deleting '{}' nodes of tree '{}' with parallelism '{}'", nodes.size(), root.getPath(),
+                parallelism);
+        var levels = nodes.values().stream()
+                .collect(Collectors.groupingBy(node -> depth(node.getPath()), TreeMap::new, Collectors.toList()));
+        Map<String, ResultObject<Boolean>> outcomes = new TreeMap<>();
+        for (List<Navigator> level : levels.descendingMap().values()) {
+            outcomes.putAll(process(level, parallelism, KeyValueTreeWriter::destroy));
+        }
+        return outcome(listed, root, outcomes);
+    }
+
+    /**
+     * Copies the content of the given node and all nodes below it, keeping
+     * their relative paths. Existing nodes at the target are updated according
+     * to the {@link de.cuioss.portal.client.vault.kvstore.WriteMode} of the
+     * target.
+     *
+     * @param source      the node to start at, must not be null
+     * @param target      the node corresponding to source, must not be null
+     *                    and must not be located within source
+     * @param parallelism the maximum number of nodes being processed
+     *                    concurrently, must be positive
+     * @return the outcome of each copied node by its source path, see
+     *         {@link #deleteTree(Navigator, int)} regarding failures
+     */
+    public ResultObject<Map<String, ResultObject<Boolean>>> copyTree(Navigator source, Navigator target,
+            int parallelism) {
+        requireNonNull(source);
+        requireNonNull(target);
+        checkArgument(parallelism > 0, "parallelism must be positive");
+        checkArgument(!location(target).startsWith(location(source)), "target must not be located within source");
+        log.debug("Copying tree '{}' to '{}' with parallelism '{}'", source.getPath(), target.getPath(),
+                parallelism);
+        Map<String, ResultObject<Boolean>> outcomes = new ConcurrentHashMap<>();
+        var read = reader.readTree(source, KeyValueTreeReader.UNLIMITED, parallelism,
+                (path, entries) -> outcomes.put(path,
+                        write(resolve(target, targetPath(source.getPath(), target.getPath(), path)), entries)));
+        return outcome(read, source, new TreeMap<>(outcomes));
+    }
+
+    /**
+     * Copies the subtree like {@link #copyTree(Navigator, Navigator, int)} and
+     * deletes it at the source afterwards, but only if all nodes were copied.
+     *
+     * @param source      the node to start at, must not be null
+     * @param target      the node corresponding to source, must not be null
+     *                    and must not be located within source
+     * @param parallelism the maximum number of nodes being processed
+     *                    concurrently, must be positive
+     * @return the outcome of {@link #deleteTree(Navigator, int)} for the source,
+     *         or the one of {@link #copyTree(Navigator, Navigator, int)} if
+     *         copying failed for some nodes, leaving the source untouched.
+     */
+    public ResultObject<Map<String, ResultObject<Boolean>>> moveTree(Navigator source, Navigator target,
+            int parallelism) {
+        var copied = copyTree(source, target, parallelism);
+        if (!copied.isValid()) {
+            log.debug("Not deleting '{}', as copying to '{}' failed", source.getPath(), target.getPath());
+            return copied;
+        }
+        return deleteTree(source, parallelism);
+    }
+
+    /**
+     * @param target the navigator given as target
+     * @param path   the path of the node to be resolved
+     * @return the navigator for the given path, located like the given target
+     */
+    Navigator resolve(Navigator target, String path) {
+        if (target instanceof KeyValueNavigator keyValueNavigator) {
+            return new KeyValueNavigator(keyValueNavigator.getVault(), path);
+        }
+        throw new IllegalArgumentException("Unsupported target: " + target);
+    }
+
+    /**
+     * @return the path of the given node within the target, e.g.
+     *         "/target/child" for "/source/child" copied from "/source/" to
+     *         "/target"
+     */
+    static String targetPath(String sourceRoot, String targetRoot, String path) {
+        var suffix = path.substring(sourceRoot.length());
+        if (suffix.isEmpty()) {
+            return targetRoot.length() > 1 && targetRoot.endsWith("/")
+                    ? targetRoot.substring(0, targetRoot.length() - 1)
+                    : targetRoot;
+        }
+        var prefix = targetRoot.endsWith("/") ? targetRoot : targetRoot + "/";
+        return prefix + (suffix.startsWith("/") ? suffix.substring(1) : suffix);
+    }
+
+    private Map<String, ResultObject<Boolean>> process(List<Navigator> nodes, int parallelism,
+            Function<Navigator, ResultObject<Boolean>> action) {
+        var permits = new Semaphore(parallelism);
+        Map<String, CompletableFuture<ResultObject<Boolean>>> running = new LinkedHashMap<>();
+        for (Navigator node : nodes) {
+            running.put(node.getPath(), submit(node, permits, action));
+        }
+        Map<String, ResultObject<Boolean>> result = new LinkedHashMap<>();
+        running.forEach((path, future) -> result.put(path, future.join()));
+        return result;
+    }
+
+    private CompletableFuture<ResultObject<Boolean>> submit(Navigator node, Semaphore permits,
+            Function<Navigator, ResultObject<Boolean>> action) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debug("Interrupted while waiting for processing '{}'", node.getPath());
+            return CompletableFuture.completedFuture(unavailable());
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> action.apply(node), executor)
+                    .whenComplete((processed, e) -> permits.release());
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            log.debug("Unable to process '{}', due to '{}'", node.getPath(), e.getMessage());
+            return CompletableFuture.completedFuture(unavailable());
+        }
+    }
+
+    private static ResultObject<Boolean> destroy(Navigator node) {
+        if (node instanceof KeyValueNavigator keyValueNavigator) {
+            return keyValueNavigator.destroy();
+        }
+        return node.delete();
+    }
+
+    private static ResultObject<Boolean> write(Navigator node, Collection<KVEntry> entries) {
+        var manager = node.getNodeManager();
+        if (!manager.isValid()) {
+            return failed(manager);
+        }
+        var written = manager.getResult().write(entries);
+        if (!written.isValid()) {
+            return failed(written);
+        }
+        return valid(Boolean.TRUE);
+    }
+
+    /**
+     * @return boolean indicating whether the given node is a secret with at
+     *         least one version
+     */
+    private static boolean exists(Navigator node) {
+        var manager = node.getNodeManager();
+        if (!manager.isValid()) {
+            return false;
+        }
+        var version = manager.getResult().readCurrentVersion();
+        return version.isValid() && version.getResult() > 0;
+    }
+
+    private static boolean isFolder(Navigator node) {
+        return node.getPath().endsWith("/");
+    }
+
+    private static int depth(String path) {
+        var depth = 0;
+        for (var i = 0; i < path.length() - 1; i++) {
+            if ('/' == path.charAt(i)) {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    private static String location(Navigator node) {
+        var path = node instanceof KeyValueNavigator keyValueNavigator ? keyValueNavigator.getFullPath()
+                : node.getPath();
+        return path.endsWith("/") ? path : path + "/";
+    }
+
+    private static ResultObject<Map<String, ResultObject<Boolean>>> outcome(ResultObject<Integer> walk,
+            Navigator root, Map<String, ResultObject<Boolean>> outcomes) {
+        Map<String, ResultObject<Boolean>> failures = new TreeMap<>();
+        outcomes.forEach((path, result) -> {
+            if (!result.isValid()) {
+                failures.put(path, result);
+            }
+        });
+        if (!walk.isValid()) {
+            failures.putIfAbsent(root.getPath(), failed(walk));
+        }
+        var result = Collections.unmodifiableMap(outcomes);
+        if (failures.isEmpty()) {
+            return valid(result);
+        }
+        return partialFailure(result, SERVICE_NAME, Math.max(outcomes.size(), failures.size()), failures);
+    }
+
+    private static ResultObject<Boolean> failed(ResultObject<?> outcome) {
+        return ResultObject.<Boolean>builder().extractStateAndDetailsAndErrorCodeFrom(outcome)
+                .validDefaultResult(Boolean.FALSE).build();
+    }
+
+    private static ResultObject<Boolean> unavailable() {
+        return serviceNotAvailable(Boolean.FALSE, SERVICE_NAME, ServiceState.TEMPORARILY_UNAVAILABLE);
+    }
+}
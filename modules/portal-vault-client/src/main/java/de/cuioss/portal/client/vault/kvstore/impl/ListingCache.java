@@ -0,0 +1,225 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import de.cuioss.tools.net.UrlHelper;
+
+/**
+ * Bounded cache for the outcome of {@link KeyValueNavigator#list(String)},
+ * identified by the full path listed. Found listings and listings answered
+ * with 404 are cached with separate time-to-live. If the cache reaches its
+ * maximum size, the least recently used listing is evicted.
+ * <p>
+ * An instance is held by a {@link de.cuioss.portal.client.vault.VaultContext},
+ * see {@link de.cuioss.portal.client.vault.VaultContext#getListingCache()},
+ * providing its statistics for monitoring. As a listing depends on the
+ * permissions of the token, it must not be shared between contexts using
+ * different tokens.
+ *
+ * @author agent
+ *
+ */
+public final class ListingCache {
+
+    /** 1000 listings */
+    public static final int MAXIMUM_SIZE = 1000;
+
+    private final int maximumSize;
+
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder negativeHitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * A cached listing: Either the names of the children or not found.
+     */
+    static final class Entry {
+
+        /** null saying the path was not found */
+        private final List<String> names;
+        private final long expiresAt;
+
+        private Entry(List<String> names, long expiresAt) {
+            this.names = names;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isNotFound() {
+            return null == names;
+        }
+
+        /**
+         * @return the names of the children, empty if not found
+         */
+        List<String> getNames() {
+            return null == names ? List.of() : names;
+        }
+    }
+
+    /**
+     * Constructor using {@link #MAXIMUM_SIZE} and {@link System#nanoTime()}
+     */
+    public ListingCache() {
+        this(MAXIMUM_SIZE, System::nanoTime);
+    }
+
+    /**
+     * @param maximumSize the maximum number of listings, must be positive
+     * @param ticker      providing the current time in nanoseconds, must not be
+     *                    null
+     */
+    ListingCache(int maximumSize, LongSupplier ticker) {
+        this.maximumSize = maximumSize;
+        this.ticker = requireNonNull(ticker);
+    }
+
+    /**
+     * @param key identifying the listed path, must not be null
+     * @return the cached listing if present and not expired
+     */
+    synchronized Optional<Entry> get(String key) {
+        var entry = entries.get(key);
+        if (null != entry && ticker.getAsLong() - entry.expiresAt >= 0) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (null == entry) {
+            missCount.increment();
+            return Optional.empty();
+        }
+        if (entry.isNotFound()) {
+            negativeHitCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return Optional.of(entry);
+    }
+
+    /**
+     * @param key        identifying the listed path, must not be null
+     * @param names      the names of the children, must not be null
+     * @param timeToLive if not positive, nothing is cached
+     */
+    void put(String key, List<String> names, Duration timeToLive) {
+        store(key, List.copyOf(names), timeToLive);
+    }
+
+    /**
+     * @param key        identifying the listed path, must not be null
+     * @param timeToLive if not positive, nothing is cached
+     */
+    void putNotFound(String key, Duration timeToLive) {
+        store(key, null, timeToLive);
+    }
+
+    private synchronized void store(String key, List<String> names, Duration timeToLive) {
+        if (timeToLive.isZero() || timeToLive.isNegative()) {
+            entries.remove(key);
+            return;
+        }
+        entries.put(key, new Entry(names, ticker.getAsLong() + timeToLive.toNanos()));
+        var iterator = entries.entrySet().iterator();
+        while (entries.size() > maximumSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictionCount.increment();
+        }
+    }
+
+    /**
+     * Invalidates the listing of the given path and the ones of all its
+     * ancestors, as creating or deleting a path may change them.
+     *
+     * @param fullPath the full path created or deleted, must not be null
+     */
+    synchronized void invalidatePath(String fullPath) {
+        var current = fullPath;
+        while (current.endsWith("/")) {
+            current = current.substring(0, current.length() - 1);
+        }
+        while (!current.isEmpty()) {
+            entries.remove(key(current));
+            current = current.substring(0, Math.max(0, current.lastIndexOf('/')));
+        }
+        entries.remove(key("/"));
+    }
+
+    /** Removes all listings. */
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * @param listPath the full path to be listed
+     * @return the key of the listing
+     */
+    static String key(String listPath) {
+        return UrlHelper.addTrailingSlashToUrl(listPath);
+    }
+
+    /**
+     * @return the number of lookups answered by a cached listing
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of lookups answered by a cached 404
+     */
+    public long getNegativeHitCount() {
+        return negativeHitCount.sum();
+    }
+
+    /**
+     * @return the number of lookups that needed to list on the server
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the number of listings evicted because of the size bound
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return the current number of listings
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Compact radix trie mapping paths to values: Each edge is labeled with the
+ * longest sequence of characters shared by all keys below it, so the number of
+ * nodes is bounded by twice the number of keys. The children of a node are
+ * kept ordered by their first character, therefore keys are visited in
+ * lexicographic order. Not thread-safe.
+ *
+ * @author agent
+ *
+ * @param <V> the type of the values
+ */
+final class PathTrie<V> {
+
+    private final Node<V> root = new Node<>("");
+
+    private int size;
+
+    private static final class Node<V> {
+
+        private String label;
+        private V value;
+        private char[] firsts = new char[0];
+        @SuppressWarnings("unchecked")
+        private Node<V>[] children = new Node[0];
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private int indexOf(char first) {
+            return Arrays.binarySearch(firsts, first);
+        }
+
+        private void add(Node<V> child) {
+            var index = -indexOf(child.label.charAt(0)) - 1;
+            var count = firsts.length;
+            firsts = Arrays.copyOf(firsts, count + 1);
+            children = Arrays.copyOf(children, count + 1);
+            System.arraycopy(firsts, index, firsts, index + 1, count - index);
+            System.arraycopy(children, index, children, index + 1, count - index);
+            firsts[index] = child.label.charAt(0);
+            children[index] = child;
+        }
+
+        private void remove(int index) {
+            var count = firsts.length;
+            System.arraycopy(firsts, index + 1, firsts, index, count - index - 1);
+            System.arraycopy(children, index + 1, children, index, count - index - 1);
+            firsts = Arrays.copyOf(firsts, count - 1);
+            children = Arrays.copyOf(children, count - 1);
+        }
+    }
+
+    /**
+     * @param key   must not be null nor empty
+     * @param value must not be null
+     * @return the value previously mapped to the key, may be null
+     */
+    V put(String key, V value) {
+        requireNonNull(value);
+        var node = root;
+        var offset = 0;
+        while (offset < key.length()) {
+            var index = node.indexOf(key.charAt(offset));
+            if (index < 0) {
+                var leaf = new Node<V>(key.substring(offset));
+                leaf.value = value;
+                node.add(leaf);
+                size++;
+                return null;
+            }
+            var child = node.children[index];
+            var common = commonLength(child.label, key, offset);
+            if (common < child.label.length()) {
+                var split = new Node<V>(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.add(child);
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+            offset += common;
+        }
+        var previous = node.value;
+        node.value = value;
+        if (null == previous) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * @param key must not be null
+     * @return the value mapped to the key, null if there is none
+     */
+    V get(String key) {
+        var node = root;
+        var offset = 0;
+        while (offset < key.length()) {
+            var index = node.indexOf(key.charAt(offset));
+            if (index < 0 || !key.startsWith(node.children[index].label, offset)) {
+                return null;
+            }
+            node = node.children[index];
+            offset += node.label.length();
+        }
+        return node.value;
+    }
+
+    /**
+     * @param key must not be null nor empty
+     * @return the value previously mapped to the key, null if there was none
+     */
+    V remove(String key) {
+        return remove(root, key, 0);
+    }
+
+    private V remove(Node<V> node, String key, int offset) {
+        if (offset == key.length()) {
+            var previous = node.value;
+            if (null != previous) {
+                node.value = null;
+                size--;
+            }
+            return previous;
+        }
+        var index = node.indexOf(key.charAt(offset));
+        if (index < 0 || !key.startsWith(node.children[index].label, offset)) {
+            return null;
+        }
+        var child = node.children[index];
+        var previous = remove(child, key, offset + child.label.length());
+        if (null != previous) {
+            compact(node, index);
+        }
+        return previous;
+    }
+
+    /**
+     * @param prefix must not be null
+     * @return the number of keys starting with the given prefix, that were
+     *         removed
+     */
+    int removePrefix(String prefix) {
+        if (prefix.isEmpty()) {
+            var removed = size;
+            clear();
+            return removed;
+        }
+        return removePrefix(root, prefix, 0);
+    }
+
+    private int removePrefix(Node<V> node, String prefix, int offset) {
+        var index = node.indexOf(prefix.charAt(offset));
+        if (index < 0) {
+            return 0;
+        }
+        var child = node.children[index];
+        var remaining = prefix.length() - offset;
+        if (remaining <= child.label.length()) {
+            if (!child.label.regionMatches(0, prefix, offset, remaining)) {
+                return 0;
+            }
+            var removed = count(child);
+            node.remove(index);
+            size -= removed;
+            return removed;
+        }
+        if (!prefix.startsWith(child.label, offset)) {
+            return 0;
+        }
+        var removed = removePrefix(child, prefix, offset + child.label.length());
+        if (removed > 0) {
+            compact(node, index);
+        }
+        return removed;
+    }
+
+    /** Removes all keys. */
+    void clear() {
+        root.firsts = new char[0];
+        root.children = Arrays.copyOf(root.children, 0);
+        root.value = null;
+        size = 0;
+    }
+
+    /**
+     * Passes all keys starting with the given prefix, together with their
+     * values, to the given consumer, in lexicographic order of the keys.
+     *
+     * @param prefix   must not be null
+     * @param consumer must not be null
+     */
+    void forEachWithPrefix(String prefix, BiConsumer<String, V> consumer) {
+        var node = root;
+        var offset = 0;
+        while (offset < prefix.length()) {
+            var index = node.indexOf(prefix.charAt(offset));
+            if (index < 0) {
+                return;
+            }
+            var child = node.children[index];
+            var remaining = prefix.length() - offset;
+            if (remaining <= child.label.length()) {
+                if (child.label.regionMatches(0, prefix, offset, remaining)) {
+                    visit(child, new StringBuilder(prefix.substring(0, offset)), consumer);
+                }
+                return;
+            }
+            if (!prefix.startsWith(child.label, offset)) {
+                return;
+            }
+            node = child;
+            offset += child.label.length();
+        }
+        visit(node, new StringBuilder(prefix.substring(0, offset - node.label.length())), consumer);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static <V> void visit(Node<V> node, StringBuilder path, BiConsumer<String, V> consumer) {
+        var length = path.length();
+        path.append(node.label);
+        if (null != node.value) {
+            consumer.accept(path.toString(), node.value);
+        }
+        for (Node<V> child : node.children) {
+            visit(child, path, consumer);
+        }
+        path.setLength(length);
+    }
+
+    /**
+     * Removes the child at the given index if it is neither a key nor a parent,
+     * or merges it with its only child.
+     */
+    private static <V> void compact(Node<V> parent, int index) {
+        var child = parent.children[index];
+        if (null != child.value) {
+            return;
+        }
+        if (0 == child.children.length) {
+            parent.remove(index);
+        } else if (1 == child.children.length) {
+            var grandChild = child.children[0];
+            grandChild.label = child.label + grandChild.label;
+            parent.children[index] = grandChild;
+        }
+    }
+
+    private static int count(Node<?> node) {
+        var count = null == node.value ? 0 : 1;
+        for (Node<?> child : node.children) {
+            count += count(child);
+        }
+        return count;
+    }
+
+    private static int commonLength(String label, String key, int offset) {
+        var max = Math.min(label.length(), key.length() - offset);
+        var common = 0;
+        while (common < max && label.charAt(common) == key.charAt(offset + common)) {
+            common++;
+        }
+        return common;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import de.cuioss.portal.client.vault.kvstore.BinaryPayload;
+import de.cuioss.tools.string.MoreStrings;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Encodes binary values to strings to be stored within Vault and decodes them
+ * again. A binary is stored either as "base64-binary:" followed by its Base64
+ * encoded content, or, if it is at least as large as the compression threshold
+ * and compressing pays off, as "base64-gzip:" followed by its gzip compressed,
+ * Base64 encoded content. Both formats are always recognized on decoding.
+ *
+ * @author agent
+ *
+ */
+@UtilityClass
+class PayloadEncoding {
+
+    static final String BASE64_BIN = "base64-binary:";
+    static final String BASE64_GZIP = "base64-gzip:";
+
+    /** The fixed gzip header: no flags, no modification time, unknown OS. */
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    /**
+     * @param value                must not be null
+     * @param compressionThreshold the minimum size in bytes for compressing, 0
+     *                             or negative disables compression
+     * @return the encoded value
+     */
+    static String encode(byte[] value, int compressionThreshold) {
+        if (compressionThreshold > 0 && value.length >= compressionThreshold) {
+            var compressed = gzip(value);
+            if (compressed.length < value.length) {
+                return BASE64_GZIP + Base64.getEncoder().encodeToString(compressed);
+            }
+        }
+        return BASE64_BIN + Base64.getEncoder().encodeToString(value);
+    }
+
+    /**
+     * Streaming variant of {@link #encode(byte[], int)}: As the size of the
+     * content is not known upfront, it will be compressed for any positive
+     * threshold.
+     *
+     * @param content              must not be null, will be closed by the
+     *                             returned stream
+     * @param compressionThreshold 0 or negative disables compression
+     * @return a stream providing the encoded value as ASCII, while reading the
+     *         given content
+     */
+    static InputStream encode(InputStream content, int compressionThreshold) {
+        if (compressionThreshold > 0) {
+            return new SequenceInputStream(ascii(BASE64_GZIP), new Base64EncodingInputStream(gzip(content)));
+        }
+        return new SequenceInputStream(ascii(BASE64_BIN), new Base64EncodingInputStream(content));
+    }
+
+    /**
+     * @param value may be null
+     * @return boolean indicating whether the given value is an encoded binary
+     */
+    static boolean isEncoded(String value) {
+        return null != value && (value.startsWith(BASE64_BIN) || value.startsWith(BASE64_GZIP));
+    }
+
+    /**
+     * @param value may be null
+     * @return a {@link BinaryPayload} for an encoded binary, otherwise the given
+     *         value
+     */
+    static Serializable decode(String value) {
+        if (MoreStrings.isEmpty(value)) {
+            return value;
+        }
+        if (value.startsWith(BASE64_BIN)) {
+            return new BinaryPayload(value, BASE64_BIN.length());
+        }
+        if (value.startsWith(BASE64_GZIP)) {
+            return new BinaryPayload(value, BASE64_GZIP.length(), true);
+        }
+        return value;
+    }
+
+    static byte[] gzip(byte[] value) {
+        var output = new ByteArrayOutputStream(Math.max(32, value.length / 4));
+        try (var gzip = new GZIPOutputStream(output)) {
+            gzip.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * @param content to be compressed, will be closed by the returned stream
+     * @return a stream providing the gzip compressed content while reading it
+     */
+    static InputStream gzip(InputStream content) {
+        var checksum = new CRC32();
+        var deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        var compressed = new DeflaterInputStream(new CheckedInputStream(content, checksum), deflater);
+        // The trailer is created lazily, after the content has been consumed
+        List<Supplier<InputStream>> parts = List.of(() -> new ByteArrayInputStream(GZIP_HEADER), () -> compressed,
+                () -> {
+                    var trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+                            .putInt((int) checksum.getValue()).putInt((int) deflater.getBytesRead()).array();
+                    deflater.end();
+                    return new ByteArrayInputStream(trailer);
+                });
+        return new SequenceInputStream(new LazyEnumeration(parts.iterator()));
+    }
+
+    private static InputStream ascii(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static final class LazyEnumeration implements Enumeration<InputStream> {
+
+        private final Iterator<Supplier<InputStream>> parts;
+
+        private LazyEnumeration(Iterator<Supplier<InputStream>> parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return parts.hasNext();
+        }
+
+        @Override
+        public InputStream nextElement() {
+            return parts.next().get();
+        }
+    }
+}
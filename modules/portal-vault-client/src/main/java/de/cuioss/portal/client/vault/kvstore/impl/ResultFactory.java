@@ -19,6 +19,9 @@ package de.cuioss.portal.client.vault.kvstore.impl;
 import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
 
 import java.io.Serializable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
 
 import com.bettercloud.vault.VaultException;
 import com.bettercloud.vault.rest.RestResponse;
@@ -52,6 +55,22 @@ public class ResultFactory {
      */
     static final String ELEMENT_NOT_FOUND_KEY = "service.element.not_found";
 
+    /**
+     * The call to '{0}' did not complete within '{1}'. If this error persists
+     * contact your administrator.
+     */
+    static final String SERVICE_TIMEOUT_KEY = "service.timeout";
+
+    /**
+     * The call to '{0}' failed for '{1}' of '{2}' elements: '{3}'.
+     */
+    static final String PARTIAL_FAILURE_KEY = "service.partial_failure";
+
+    /**
+     * The content of '{0}' is '{1}' old, as the service is not available.
+     */
+    static final String STALE_CONTENT_KEY = "service.stale_content";
+
     /**
      * Shorthand for creating a result object indicating that a concrete service is
      * not available. The handling strategy
@@ -99,6 +118,101 @@ public class ResultFactory {
         return serviceNotAvailable("", serviceName, state);
     }
 
+    /**
+     * Shorthand for creating a result object indicating that a call to a concrete
+     * service did not complete in time. The handling strategy
+     * {@link ResultErrorCodes#SERVICE_NOT_AVAILABLE} will be added as well.
+     *
+     * @param <T>           identifying the type of the result.
+     * @param defaultResult to be used
+     * @param serviceName   identifying the service called
+     * @param timeout       the timeout exceeded
+     * @return the created result-object.
+     */
+    public static final <T> ResultObject<T> timeout(T defaultResult, String serviceName, Duration timeout) {
+        return ResultObject.<T>builder().validDefaultResult(defaultResult).state(ResultState.ERROR)
+                .resultDetail(ResultDetail.builder()
+                        .detail(new LabeledKey(SERVICE_TIMEOUT_KEY, immutableList(serviceName, timeout))).build())
+                .errorCode(ResultErrorCodes.SERVICE_NOT_AVAILABLE).build();
+    }
+
+    /**
+     * Shorthand for creating a result object (WARNING) providing the outcome of
+     * a call that failed for some of the elements it was processing. The
+     * outcome for the remaining elements is provided as valid default result.
+     * The handling strategy {@link ResultErrorCodes#SERVICE_NOT_AVAILABLE} will
+     * be added if any of the failures contains it.
+     *
+     * @param <T>         identifying the type of the result.
+     * @param result      the outcome for the elements processed successfully
+     * @param serviceName identifying the service called
+     * @param total       the number of elements processed
+     * @param failures    the failed results by the identifiers of their
+     *                    elements, must not be empty
+     * @return the created result-object.
+     */
+    public static final <T> ResultObject<T> partialFailure(T result, String serviceName, int total,
+            Map<String, ? extends ResultObject<?>> failures) {
+        var builder = ResultObject.<T>builder().validDefaultResult(result).state(ResultState.WARNING)
+                .resultDetail(ResultDetail.builder().detail(new LabeledKey(PARTIAL_FAILURE_KEY,
+                        immutableList(serviceName, failures.size(), total, String.join(", ", failures.keySet()))))
+                        .build());
+        if (failures.values().stream()
+                .anyMatch(failure -> failure.containsErrorCode(ResultErrorCodes.SERVICE_NOT_AVAILABLE))) {
+            builder.errorCode(ResultErrorCodes.SERVICE_NOT_AVAILABLE);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Shorthand for creating a result object (WARNING) providing content that
+     * could not be revalidated, because the service is not available. The
+     * content is provided as valid default result.
+     *
+     * @param <T>         identifying the type of the result.
+     * @param result      the last known content
+     * @param elementName identifying the element the content belongs to
+     * @param age         the time since the content was loaded
+     * @return the created result-object.
+     */
+    public static final <T> ResultObject<T> stale(T result, String elementName, Duration age) {
+        return ResultObject.<T>builder().validDefaultResult(result).state(ResultState.WARNING)
+                .resultDetail(ResultDetail.builder()
+                        .detail(new LabeledKey(STALE_CONTENT_KEY, immutableList(elementName, age))).build())
+                .build();
+    }
+
+    /**
+     * @param result must not be null
+     * @return boolean indicating whether the given result was created by
+     *         {@link #stale(Object, String, Duration)}
+     */
+    public static final boolean isStale(ResultObject<?> result) {
+        return ResultState.WARNING == result.getState() && result.getResultDetail()
+                .filter(detail -> detail.getDetail() instanceof LabeledKey key
+                        && STALE_CONTENT_KEY.equals(key.getContent()))
+                .isPresent();
+    }
+
+    /**
+     * Translates the result of the given result-object, keeping its state,
+     * details and error-code.
+     *
+     * @param <S>    identifying the type of the source result.
+     * @param <T>    identifying the type of the target result.
+     * @param source to be translated. In case it is not valid, it must provide
+     *               a valid default result.
+     * @param mapper translating the (default) result, must not be null
+     * @return the created result-object.
+     */
+    public static final <S, T> ResultObject<T> map(ResultObject<S> source, Function<S, T> mapper) {
+        if (source.isValid()) {
+            return valid(mapper.apply(source.getResult()));
+        }
+        return ResultObject.<T>builder().extractStateAndDetailsAndErrorCodeFrom(source)
+                .validDefaultResult(mapper.apply(source.getResult())).build();
+    }
+
     /**
      * Shorthand for creating a valid result object.
      *
@@ -139,10 +253,12 @@ public class ResultFactory {
      * @return the created error result
      */
     public static final <T> ResultObject<T> vaultException(T defaultResult, VaultException exception) {
-
+        // No status at all: Vault was not reachable
+        var errorCode = 0 == exception.getHttpStatusCode() ? ResultErrorCodes.SERVICE_NOT_AVAILABLE
+                : ResultErrorCodes.parseHttpCode(exception.getHttpStatusCode());
         return ResultObject.<T>builder().validDefaultResult(defaultResult).state(ResultState.ERROR)
                 .resultDetail(ResultDetail.builder().detail(new DisplayName(exception.getMessage())).build())
-                .errorCode(ResultErrorCodes.parseHttpCode(exception.getHttpStatusCode())).build();
+                .errorCode(errorCode).build();
     }
 
     /**
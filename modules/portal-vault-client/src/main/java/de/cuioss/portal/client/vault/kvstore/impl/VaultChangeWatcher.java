@@ -0,0 +1,503 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.partialFailure;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.serviceNotAvailable;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
+import static de.cuioss.tools.base.Preconditions.checkArgument;
+import static de.cuioss.tools.string.MoreStrings.requireNotEmpty;
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import de.cuioss.portal.client.vault.VaultContext;
+import de.cuioss.portal.client.vault.kvstore.KVChangeEvent;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.portal.client.vault.kvstore.NodeManager;
+import de.cuioss.tools.logging.CuiLogger;
+import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.service.ServiceState;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Detects changes of watched nodes by polling their metadata. For each node
+ * only its current version is read, see
+ * {@link NodeManager#readCurrentVersion()}. Only if it differs from the version
+ * last seen, the content is read and compared with the last seen one, key by
+ * key. The outcome is passed as {@link KVChangeEvent} to the listener, e.g.
+ * firing it as CDI event. A deleted current version counts as version 0, so a
+ * soft delete is reported as removal of all entries, although Vault still
+ * lists the node.
+ * <p>
+ * To spread the load, each {@link #getInterval()} is split into
+ * {@link #SLICES} ticks, each one polling the nodes whose path hashes into the
+ * corresponding slice. The nodes of a tick are polled concurrently on the
+ * executor, at most {@link VaultContext#getBatchConcurrency()} at the same
+ * time. A tick only submits the polls, so the scheduler is never blocked. If
+ * the previous poll of a slice is still running, the slice is skipped.
+ * <p>
+ * Vault provides no metadata for folders, therefore subtrees registered by
+ * {@link #watchTree(String)} are listed again every {@link #RESCAN_INTERVALS}
+ * intervals, to pick up nodes added or removed meanwhile.
+ * <p>
+ * The first poll of a node registered by {@link #watch(String)} or
+ * {@link #watchTree(String)} only records its content, without firing an
+ * event.
+ *
+ * @author agent
+ *
+ */
+@ToString(of = { "vault", "interval" })
+public class VaultChangeWatcher implements Closeable {
+
+    /** 30 seconds */
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(30);
+
+    /** The number of ticks an interval is split into. */
+    public static final int SLICES = 16;
+
+    /** The number of intervals after which watched subtrees are listed again. */
+    public static final int RESCAN_INTERVALS = 10;
+
+    private static final int UNKNOWN = -1;
+
+    private static final String SERVICE_NAME = "VaultChangeWatcher";
+    private static final CuiLogger log = new CuiLogger(VaultChangeWatcher.class);
+
+    @Getter
+    private final VaultContext vault;
+
+    @Getter
+    private final Duration interval;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Executor executor;
+
+    private final Consumer<KVChangeEvent> listener;
+
+    private final Map<String, Watched> watched = new ConcurrentHashMap<>();
+
+    private final Set<String> trees = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong ticks = new AtomicLong();
+
+    /** The slices whose poll is running */
+    private final Set<Integer> polling = ConcurrentHashMap.newKeySet();
+
+    private final KeyValueTreeReader reader = new KeyValueTreeReader();
+
+    private ScheduledFuture<?> scheduled;
+
+    private static final class Watched {
+
+        private final String path;
+        private final int slice;
+        private volatile boolean explicit;
+        private volatile int version;
+        private volatile Map<String, KVEntry> entries = Collections.emptyMap();
+
+        private Watched(String path, int version) {
+            this.path = path;
+            this.version = version;
+            slice = Math.floorMod(path.hashCode(), SLICES);
+        }
+    }
+
+    /**
+     * @param vault     must not be null
+     * @param interval  the time in which each watched node is polled once, must
+     *                  be positive
+     * @param scheduler triggering the ticks, must not be null
+     * @param executor  running the polls, must not be null
+     * @param listener  receiving the detected changes, must not be null. It is
+     *                  called concurrently for different nodes.
+     */
+    public VaultChangeWatcher(VaultContext vault, Duration interval, ScheduledExecutorService scheduler,
+            Executor executor, Consumer<KVChangeEvent> listener) {
+        this.vault = requireNonNull(vault);
+        this.interval = requireNonNull(interval);
+        checkArgument(!interval.isNegative() && !interval.isZero(), "interval must be positive");
+        this.scheduler = requireNonNull(scheduler);
+        this.executor = requireNonNull(executor);
+        this.listener = requireNonNull(listener);
+    }
+
+    /**
+     * Constructor using {@link VaultExecutors#defaultScheduler()} and
+     * {@link VaultExecutors#defaultExecutor()}
+     *
+     * @param vault    must not be null
+     * @param interval the time in which each watched node is polled once, must
+     *                 be positive
+     * @param listener receiving the detected changes, must not be null
+     */
+    public VaultChangeWatcher(VaultContext vault, Duration interval, Consumer<KVChangeEvent> listener) {
+        this(vault, interval, VaultExecutors.defaultScheduler(), VaultExecutors.defaultExecutor(), listener);
+    }
+
+    /**
+     * Starts polling, if not already started.
+     */
+    public synchronized void start() {
+        if (null != scheduled) {
+            return;
+        }
+        var tick = Math.max(1, interval.toNanos() / SLICES);
+        log.debug("Polling watched nodes every '{}' ns", tick);
+        scheduled = scheduler.scheduleWithFixedDelay(this::tickSafely, tick, tick, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops polling. The registrations are kept, so it may be started again.
+     */
+    @Override
+    public synchronized void close() {
+        if (null != scheduled) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+    }
+
+    /**
+     * @param path the path of the node to be watched, like
+     *             {@link Navigator#getPath()}, must not be empty
+     */
+    public void watch(String path) {
+        requireNotEmpty(path);
+        watched.computeIfAbsent(path, key -> new Watched(key, UNKNOWN)).explicit = true;
+    }
+
+    /**
+     * Watches all nodes below the given folder, the subtree is listed right
+     * away.
+     *
+     * @param root the path of the folder, like {@link Navigator#getPath()},
+     *             must not be empty
+     * @return the number of nodes found. If some folders failed to be listed,
+     *         a {@link ResultFactory#partialFailure(Object, String, int, Map)},
+     *         they will be listed again on the next rescan.
+     */
+    public ResultObject<Integer> watchTree(String root) {
+        requireNotEmpty(root);
+        trees.add(root);
+        var listed = listNodes(root);
+        listed.getResult().forEach(path -> watched.computeIfAbsent(path, key -> new Watched(key, UNKNOWN)));
+        return ResultFactory.map(listed, Collection::size);
+    }
+
+    /**
+     * @param path a path given to {@link #watch(String)} or
+     *             {@link #watchTree(String)}, must not be null
+     */
+    public void unwatch(String path) {
+        requireNonNull(path);
+        if (trees.remove(path)) {
+            watched.values().removeIf(node -> !node.explicit && node.path.startsWith(path));
+        }
+        var node = watched.get(path);
+        if (null != node) {
+            node.explicit = false;
+            if (trees.stream().noneMatch(path::startsWith)) {
+                watched.remove(path);
+            }
+        }
+    }
+
+    /**
+     * @return the number of nodes currently watched
+     */
+    public int size() {
+        return watched.size();
+    }
+
+    private void tickSafely() {
+        try {
+            tick().whenComplete((outcome, e) -> {
+                if (null != e) {
+                    log.warn(e, "Polling watched nodes failed");
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn(e, "Polling watched nodes failed");
+        }
+    }
+
+    /**
+     * Submits the poll of the nodes of the next slice, listing the watched
+     * subtrees first if due. The slice is skipped if its previous poll is still
+     * running.
+     *
+     * @return the number of changed nodes, see {@link #poll(Collection)},
+     *         completed once all nodes of the slice are polled
+     */
+    CompletableFuture<ResultObject<Integer>> tick() {
+        var tick = ticks.getAndIncrement();
+        var slice = (int) (tick % SLICES);
+        if (!polling.add(slice)) {
+            log.debug("Skipping slice '{}', its previous poll is still running", slice);
+            return CompletableFuture.completedFuture(valid(0));
+        }
+        CompletableFuture<Void> rescanned;
+        try {
+            rescanned = 0 != tick && 0 == tick % ((long) SLICES * RESCAN_INTERVALS)
+                    ? CompletableFuture.runAsync(this::rescan, executor)
+                    : CompletableFuture.completedFuture(null);
+        } catch (RejectedExecutionException e) {
+            polling.remove(slice);
+            log.debug("Unable to list the watched subtrees, due to '{}'", e.getMessage());
+            return CompletableFuture.completedFuture(unavailable(0));
+        }
+        return rescanned
+                .thenCompose(done -> poll(watched.values().stream().filter(node -> node.slice == slice).toList()))
+                .whenComplete((outcome, e) -> polling.remove(slice));
+    }
+
+    /**
+     * Lists the watched subtrees again. Nodes found the first time are
+     * considered as being created, so all of their entries are reported as
+     * added. Nodes not found anymore are polled a last time before being
+     * dropped, reporting their removal. Waits for these polls, therefore it is
+     * run on the executor by {@link #tick()}.
+     */
+    void rescan() {
+        for (String root : trees) {
+            var listed = listNodes(root);
+            if (!listed.isValid()) {
+                log.debug("Unable to list '{}', keeping its watched nodes", root);
+                continue;
+            }
+            var found = listed.getResult();
+            found.forEach(path -> watched.computeIfAbsent(path, key -> new Watched(key, 0)));
+            var vanished = watched.values().stream()
+                    .filter(node -> !node.explicit && node.path.startsWith(root) && !found.contains(node.path))
+                    .toList();
+            if (!vanished.isEmpty()) {
+                poll(vanished).join();
+                vanished.forEach(node -> watched.remove(node.path));
+            }
+        }
+    }
+
+    /**
+     * @param root the path of the folder
+     * @return the paths of all nodes below the given folder
+     */
+    ResultObject<Set<String>> listNodes(String root) {
+        Set<String> found = ConcurrentHashMap.newKeySet();
+        var outcome = reader.listTree(new KeyValueNavigator(vault, root), KeyValueTreeReader.UNLIMITED,
+                Math.max(1, vault.getBatchConcurrency()), (parent, children) -> children.stream()
+                        .map(Navigator::getPath).filter(path -> !path.endsWith("/")).forEach(found::add));
+        return ResultFactory.map(outcome, count -> found);
+    }
+
+    /**
+     * Polls the given nodes concurrently: At most
+     * {@link VaultContext#getBatchConcurrency()} tasks are submitted, each one
+     * checking the nodes not taken by another one yet.
+     *
+     * @return the number of nodes an event was fired for, completed once all
+     *         nodes are polled. If some nodes failed to be polled, a
+     *         {@link ResultFactory#partialFailure(Object, String, int, Map)},
+     *         they will be polled again on their next tick.
+     */
+    private CompletableFuture<ResultObject<Integer>> poll(Collection<Watched> nodes) {
+        if (nodes.isEmpty()) {
+            return CompletableFuture.completedFuture(valid(0));
+        }
+        Queue<Watched> pending = new ConcurrentLinkedQueue<>(nodes);
+        Map<String, ResultObject<Boolean>> outcomes = new ConcurrentHashMap<>();
+        var workers = new ArrayList<CompletableFuture<Void>>();
+        for (var i = Math.min(nodes.size(), Math.max(1, vault.getBatchConcurrency())); i > 0; i--) {
+            workers.add(submit(pending, outcomes));
+        }
+        return CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new))
+                .thenApply(done -> summarize(nodes, outcomes));
+    }
+
+    private CompletableFuture<Void> submit(Queue<Watched> pending, Map<String, ResultObject<Boolean>> outcomes) {
+        try {
+            return CompletableFuture.runAsync(() -> {
+                for (var node = pending.poll(); null != node; node = pending.poll()) {
+                    outcomes.put(node.path, checkSafely(node));
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            log.debug("Unable to poll watched nodes, due to '{}'", e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Nodes without outcome were not polled, because their tasks were
+     * rejected.
+     */
+    private ResultObject<Integer> summarize(Collection<Watched> nodes, Map<String, ResultObject<Boolean>> outcomes) {
+        var changed = 0;
+        Map<String, ResultObject<Boolean>> failures = new LinkedHashMap<>();
+        for (Watched node : nodes) {
+            var outcome = outcomes.get(node.path);
+            if (null == outcome || !outcome.isValid()) {
+                failures.put(node.path, null == outcome ? unavailable() : outcome);
+            } else if (Boolean.TRUE.equals(outcome.getResult())) {
+                changed++;
+            }
+        }
+        if (failures.isEmpty()) {
+            return valid(changed);
+        }
+        log.debug("Polling '{}' of '{}' nodes failed", failures.size(), nodes.size());
+        return partialFailure(changed, SERVICE_NAME, nodes.size(), failures);
+    }
+
+    private ResultObject<Boolean> checkSafely(Watched node) {
+        try {
+            return check(node);
+        } catch (RuntimeException e) {
+            log.warn(e, "Polling '{}' failed", node.path);
+            return unavailable();
+        }
+    }
+
+    /**
+     * Compares the current version of the given node with the last seen one,
+     * reading and comparing its content on a mismatch. A node is checked by
+     * one task at a time, as a rescan may poll it while its slice is polled.
+     *
+     * @return {@link Boolean#TRUE} if an event was fired
+     */
+    private ResultObject<Boolean> check(Watched node) {
+        synchronized (node) {
+            return compare(node);
+        }
+    }
+
+    private ResultObject<Boolean> compare(Watched node) {
+        var manager = nodeManager(node.path);
+        var current = manager.readCurrentVersion();
+        if (!current.isValid()) {
+            return failed(current);
+        }
+        // 0 for a missing node as well as for a deleted current version
+        var version = current.getResult().intValue();
+        if (version == node.version) {
+            return valid(Boolean.FALSE);
+        }
+        Map<String, KVEntry> entries = Collections.emptyMap();
+        if (0 != version) {
+            var read = manager.read();
+            if (!read.isValid()) {
+                return failed(read);
+            }
+            entries = index(read.getResult());
+            // The node may have been written in between
+            version = entries.values().stream().map(entry -> entry.getMetadata().getVersion())
+                    .filter(Objects::nonNull).findFirst().orElse(version);
+        }
+        var previousVersion = node.version;
+        var previous = node.entries;
+        node.entries = entries;
+        node.version = version;
+        if (UNKNOWN == previousVersion) {
+            log.trace("Recorded '{}' at version '{}'", node.path, version);
+            return valid(Boolean.FALSE);
+        }
+        var event = diff(node.path, previousVersion, version, previous, entries);
+        log.debug("Node '{}' changed from version '{}' to '{}'", node.path, previousVersion, version);
+        try {
+            listener.accept(event);
+        } catch (RuntimeException e) {
+            log.warn(e, "Listener failed on change of '{}'", node.path);
+        }
+        return valid(Boolean.TRUE);
+    }
+
+    /**
+     * @param path identifying the node
+     * @return the {@link NodeManager} for polling the given node
+     */
+    NodeManager nodeManager(String path) {
+        return new KeyValueNodeManager(new KeyValueNavigator(vault, path), vault);
+    }
+
+    /**
+     * @return the event describing the differences between the given entries.
+     *         Values are compared, the metadata is not.
+     */
+    static KVChangeEvent diff(String path, int previousVersion, int currentVersion,
+            Map<String, KVEntry> previous, Map<String, KVEntry> current) {
+        List<KVEntry> added = new ArrayList<>();
+        List<KVEntry> changed = new ArrayList<>();
+        List<KVEntry> removed = new ArrayList<>();
+        current.forEach((key, entry) -> {
+            var before = previous.get(key);
+            if (null == before) {
+                added.add(entry);
+            } else if (!Objects.deepEquals(before.getValue(), entry.getValue())) {
+                changed.add(entry);
+            }
+        });
+        previous.forEach((key, entry) -> {
+            if (!current.containsKey(key)) {
+                removed.add(entry);
+            }
+        });
+        return KVChangeEvent.builder().path(path).previousVersion(Math.max(0, previousVersion))
+                .currentVersion(currentVersion).added(added).changed(changed).removed(removed).build();
+    }
+
+    private static Map<String, KVEntry> index(Collection<KVEntry> entries) {
+        Map<String, KVEntry> result = new LinkedHashMap<>();
+        entries.forEach(entry -> result.put(entry.getKey(), entry));
+        return result;
+    }
+
+    private static ResultObject<Boolean> failed(ResultObject<?> outcome) {
+        return ResultObject.<Boolean>builder().extractStateAndDetailsAndErrorCodeFrom(outcome)
+                .validDefaultResult(Boolean.FALSE).build();
+    }
+
+    private static ResultObject<Boolean> unavailable() {
+        return unavailable(Boolean.FALSE);
+    }
+
+    private static <T> ResultObject<T> unavailable(T defaultResult) {
+        return serviceNotAvailable(defaultResult, SERVICE_NAME, ServiceState.TEMPORARILY_UNAVAILABLE);
+    }
+}
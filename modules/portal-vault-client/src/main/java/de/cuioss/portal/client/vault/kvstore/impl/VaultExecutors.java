@@ -0,0 +1,101 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Provides the default {@link ExecutorService} for asynchronous calls to Vault.
+ * The calls are blocking I/O, therefore one thread per task is used: On a
+ * runtime providing virtual threads, "Executors#newVirtualThreadPerTaskExecutor"
+ * is used, otherwise an unbounded cached pool of daemon threads.
+ * <p>
+ * Periodic tasks are triggered by a single shared daemon thread, see
+ * {@link #defaultScheduler()}. They are expected to hand over the calls
+ * themselves to {@link #defaultExecutor()}.
+ *
+ * @author agent
+ *
+ */
+@UtilityClass
+public class VaultExecutors {
+
+    private static final CuiLogger log = new CuiLogger(VaultExecutors.class);
+
+    private static final String VIRTUAL_THREAD_FACTORY = "newVirtualThreadPerTaskExecutor";
+
+    private static final String THREAD_NAME_PREFIX = "vault-client-";
+
+    private static final String SCHEDULER_THREAD_NAME = "vault-client-scheduler";
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /** Initialization-on-demand holder for the default executor. */
+    private static final class DefaultExecutorHolder {
+
+        private static final ExecutorService DEFAULT = createDefaultExecutor();
+    }
+
+    /** Initialization-on-demand holder for the default scheduler. */
+    private static final class DefaultSchedulerHolder {
+
+        private static final ScheduledExecutorService DEFAULT = Executors
+                .newSingleThreadScheduledExecutor(runnable -> {
+                    var thread = new Thread(runnable, SCHEDULER_THREAD_NAME);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * @return the shared default executor, never to be shut down by the caller
+     */
+    public static ExecutorService defaultExecutor() {
+        return DefaultExecutorHolder.DEFAULT;
+    }
+
+    /**
+     * @return the shared scheduler for periodic tasks, never to be shut down by
+     *         the caller
+     */
+    public static ScheduledExecutorService defaultScheduler() {
+        return DefaultSchedulerHolder.DEFAULT;
+    }
+
+    /**
+     * @return a newly created executor, using virtual threads if available
+     */
+    static ExecutorService createDefaultExecutor() {
+        try {
+            var executor = (ExecutorService) Executors.class.getMethod(VIRTUAL_THREAD_FACTORY).invoke(null);
+            log.debug("Using virtual threads for asynchronous calls to vault");
+            return executor;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Virtual threads not available, using cached thread pool, due to '{}'", e.getMessage());
+            return Executors.newCachedThreadPool(runnable -> {
+                var thread = new Thread(runnable, THREAD_NAME_PREFIX + THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
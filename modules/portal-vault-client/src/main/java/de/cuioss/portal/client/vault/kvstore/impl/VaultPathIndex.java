@@ -0,0 +1,383 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.partialFailure;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
+import static de.cuioss.tools.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.tools.logging.CuiLogger;
+import de.cuioss.uimodel.result.ResultObject;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * In-memory index of all paths below a root {@link Navigator}, held as
+ * compact radix trie. Queries by prefix, glob and substring are answered from
+ * memory, returning the {@link Navigator}s of the paths found, in lexicographic
+ * order of their paths. The root itself is not part of the index.
+ * <p>
+ * {@link #refresh()} crawls the complete subtree by
+ * {@link KeyValueTreeReader#listTree(Navigator, int, int, java.util.function.BiConsumer)}.
+ * As Vault does not provide any metadata for folders, changes can not be
+ * detected without listing. Therefore {@link #refresh(Collection)} takes the
+ * paths known to be changed, e.g. by writes, and re-lists only the folders
+ * containing them, crawling new subfolders and dropping removed ones.
+ * <p>
+ * Queries and refreshes may run concurrently.
+ *
+ * @author agent
+ *
+ */
+@ToString(of = { "root", "parallelism" })
+public class VaultPathIndex {
+
+    private static final String SERVICE_NAME = "VaultPathIndex";
+    private static final CuiLogger log = new CuiLogger(VaultPathIndex.class);
+
+    @Getter
+    private final Navigator root;
+
+    @Getter
+    private final int parallelism;
+
+    private final String rootPrefix;
+
+    private final KeyValueTreeReader reader = new KeyValueTreeReader();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final PathTrie<Navigator> trie = new PathTrie<>();
+
+    /**
+     * The index is empty until {@link #refresh()} is called.
+     *
+     * @param root        the node to start at, must not be null
+     * @param parallelism the maximum number of folders being listed
+     *                    concurrently, must be positive
+     */
+    public VaultPathIndex(Navigator root, int parallelism) {
+        this.root = requireNonNull(root);
+        checkArgument(parallelism > 0, "parallelism must be positive");
+        this.parallelism = parallelism;
+        rootPrefix = withTrailingSlash(root.getPath());
+    }
+
+    /**
+     * Rebuilds the complete index by crawling the subtree of {@link #getRoot()}.
+     *
+     * @return the number of paths indexed. If some folders failed to be
+     *         listed, the result is a
+     *         {@link ResultFactory#partialFailure(Object, String, int, Map)},
+     *         the index then contains the paths found.
+     */
+    public ResultObject<Integer> refresh() {
+        Map<String, Navigator> found = new ConcurrentHashMap<>();
+        var crawled = crawl(root, found);
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            found.forEach(trie::put);
+            log.debug("Indexed '{}' paths below '{}'", trie.size(), root.getPath());
+            return ResultFactory.map(crawled, count -> trie.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Updates the index for the given changed paths: The folder containing each
+     * of them is listed again. Children no longer listed are removed together
+     * with their subtree, new children are crawled. If a folder is not indexed
+     * itself, its nearest indexed ancestor is listed instead. As Vault drops
+     * empty folders, the parent of a folder listed without children is listed
+     * as well.
+     *
+     * @param changedPaths the paths created, written or deleted, relative to the
+     *                     mount like {@link Navigator#getPath()}. Paths outside
+     *                     of {@link #getRoot()} are ignored. Must not be null.
+     * @return the number of paths indexed, see {@link #refresh()} regarding
+     *         failures
+     */
+    public ResultObject<Integer> refresh(Collection<String> changedPaths) {
+        TreeSet<String> pending = new TreeSet<>();
+        lock.readLock().lock();
+        try {
+            for (String changed : changedPaths) {
+                var slashed = withTrailingSlash(changed);
+                if (rootPrefix.equals(slashed)) {
+                    pending.add(rootPrefix);
+                } else if (slashed.startsWith(rootPrefix)) {
+                    pending.add(indexedFolder(parentFolder(changed)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Set<String> folders = new TreeSet<>();
+        Map<String, ResultObject<?>> failures = new TreeMap<>();
+        while (!pending.isEmpty()) {
+            var folder = pending.pollLast();
+            if (folders.add(folder) && relist(folder, failures) && !rootPrefix.equals(folder)) {
+                // An empty folder does no longer exist within Vault
+                pending.add(indexedFolder(parentFolder(folder)));
+            }
+        }
+        lock.readLock().lock();
+        try {
+            log.debug("Refreshed '{}' folders below '{}', '{}' paths indexed", folders.size(), root.getPath(),
+                    trie.size());
+            if (failures.isEmpty()) {
+                return valid(trie.size());
+            }
+            return partialFailure(trie.size(), SERVICE_NAME, folders.size(), failures);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return boolean indicating whether the folder was listed without any
+     *         children
+     */
+    private boolean relist(String folder, Map<String, ResultObject<?>> failures) {
+        var navigator = navigatorFor(folder);
+        if (navigator.isEmpty()) {
+            return false;
+        }
+        var listed = navigator.get().list();
+        if (!listed.isValid()) {
+            failures.put(folder, listed);
+            return false;
+        }
+        Map<String, Navigator> current = new LinkedHashMap<>();
+        listed.getResult().forEach(child -> current.put(child.getPath(), child));
+        List<String> removed = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            trie.forEachWithPrefix(folder, (path, child) -> {
+                if (isDirectChild(folder, path) && !current.containsKey(path)) {
+                    removed.add(path);
+                }
+            });
+            current.keySet().removeIf(path -> null != trie.get(path));
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<String, Navigator> added = new ConcurrentHashMap<>(current);
+        for (Navigator child : current.values()) {
+            var crawled = crawl(child, added);
+            if (!crawled.isValid()) {
+                failures.put(child.getPath(), crawled);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            for (String path : removed) {
+                trie.remove(path);
+                trie.removePrefix(withTrailingSlash(path));
+            }
+            added.forEach(trie::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return listed.getResult().isEmpty();
+    }
+
+    private ResultObject<Integer> crawl(Navigator start, Map<String, Navigator> found) {
+        return reader.listTree(start, KeyValueTreeReader.UNLIMITED, parallelism,
+                (parent, children) -> children.forEach(child -> found.put(child.getPath(), child)));
+    }
+
+    /**
+     * @param prefix must not be null, e.g. "/apps/"
+     * @return the indexed paths starting with the given prefix
+     */
+    public List<Navigator> findByPrefix(String prefix) {
+        requireNonNull(prefix);
+        List<Navigator> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            trie.forEachWithPrefix(prefix, (path, navigator) -> found.add(navigator));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    /**
+     * @param glob must not be null. '*' matches any characters within one path
+     *             element, '?' a single one and '**' any number of path
+     *             elements, e.g. "/apps/&#42;/db/&#42;&#42;". A trailing '/' of
+     *             the indexed path, identifying a folder, is ignored.
+     * @return the indexed paths matching the given pattern
+     */
+    public List<Navigator> findByGlob(String glob) {
+        var pattern = compileGlob(glob);
+        var literalPrefix = glob.substring(0, firstWildcard(glob));
+        List<Navigator> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            trie.forEachWithPrefix(literalPrefix, (path, navigator) -> {
+                if (pattern.matcher(path).matches()) {
+                    found.add(navigator);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    /**
+     * @param substring must not be null
+     * @return the indexed paths containing the given substring
+     */
+    public List<Navigator> findBySubstring(String substring) {
+        requireNonNull(substring);
+        List<Navigator> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            trie.forEachWithPrefix("", (path, navigator) -> {
+                if (path.contains(substring)) {
+                    found.add(navigator);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    /**
+     * @param path must not be null
+     * @return the {@link Navigator} of the given path, if indexed
+     */
+    public Optional<Navigator> get(String path) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(lookup(path));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of paths indexed
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return trie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the given folder if indexed or being the root, otherwise the
+     *         nearest ancestor that is
+     */
+    private String indexedFolder(String folder) {
+        var current = folder;
+        while (current.length() > rootPrefix.length() && null == lookup(current)) {
+            current = parentFolder(current);
+        }
+        return current.length() > rootPrefix.length() ? current : rootPrefix;
+    }
+
+    private Optional<Navigator> navigatorFor(String folder) {
+        if (rootPrefix.equals(folder)) {
+            return Optional.of(root);
+        }
+        return get(folder);
+    }
+
+    /**
+     * Folders are listed by Vault with a trailing '/', others navigators may
+     * not, so both variants are looked up.
+     */
+    private Navigator lookup(String path) {
+        var found = trie.get(path);
+        if (null == found && path.endsWith("/")) {
+            found = trie.get(path.substring(0, path.length() - 1));
+        }
+        return found;
+    }
+
+    private static boolean isDirectChild(String folder, String path) {
+        if (path.length() <= folder.length()) {
+            return false;
+        }
+        var slash = path.indexOf('/', folder.length());
+        return slash < 0 || slash == path.length() - 1;
+    }
+
+    /**
+     * @return the folder containing the given path, with a trailing '/'
+     */
+    static String parentFolder(String path) {
+        var trimmed = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        return trimmed.substring(0, trimmed.lastIndexOf('/') + 1);
+    }
+
+    static Pattern compileGlob(String glob) {
+        var regex = new StringBuilder();
+        for (var i = 0; i < glob.length(); i++) {
+            var current = glob.charAt(i);
+            if ('*' == current && i + 1 < glob.length() && '*' == glob.charAt(i + 1)) {
+                regex.append(".*");
+                i++;
+            } else if ('*' == current) {
+                regex.append("[^/]*");
+            } else if ('?' == current) {
+                regex.append("[^/]");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(current)));
+            }
+        }
+        return Pattern.compile(regex.append("/?").toString());
+    }
+
+    private static int firstWildcard(String glob) {
+        for (var i = 0; i < glob.length(); i++) {
+            if ('*' == glob.charAt(i) || '?' == glob.charAt(i)) {
+                return i;
+            }
+        }
+        return glob.length();
+    }
+
+    private static String withTrailingSlash(String path) {
+        return path.endsWith("/") ? path : path + "/";
+    }
+}
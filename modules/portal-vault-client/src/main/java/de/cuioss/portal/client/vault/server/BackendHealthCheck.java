@@ -20,7 +20,7 @@ import com.bettercloud.vault.VaultException;
 import de.cuioss.portal.client.vault.PortalVaultContext;
 import de.cuioss.portal.client.vault.VaultContext;
 import de.cuioss.portal.client.vault.VaultEndpoint;
-import de.cuioss.portal.client.vault.util.VaultJsonHelper;
+import de.cuioss.portal.client.vault.util.ParsedVaultResponse;
 import de.cuioss.tools.logging.CuiLogger;
 import de.cuioss.uimodel.service.OptionalService;
 import de.cuioss.uimodel.service.ServiceState;
@@ -56,12 +56,12 @@ public class BackendHealthCheck implements OptionalService {
         builder.url(vaultContext.getUrl());
         try {
             var health = vaultContext.getVault().debug().health();
-            var healthy = AttributeStatus.parse(500 != health.getRestResponse().getStatus());
+            var response = ParsedVaultResponse.of(health.getRestResponse());
+            var healthy = AttributeStatus.parse(500 != response.getStatus());
             builder.healthy(healthy).initialized(AttributeStatus.parse(health.getInitialized()))
                     .unsealed(AttributeStatus.parse(health.getSealed()).negate())
                     .serverTimeUTC(health.getServerTimeUTC());
-            builder.information(String.format(VAULT_VERSION_TEMPLATE,
-                    VaultJsonHelper.getAsStringValue(health.getRestResponse(), "version").orElse(UNKNOWN)));
+            builder.information(String.format(VAULT_VERSION_TEMPLATE, response.getString("version").orElse(UNKNOWN)));
             if (AttributeStatus.TRUE.equals(healthy)) {
                 builder.serviceState(ServiceState.ACTIVE);
             } else {
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.util;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Identifies an element within a JSON document by the names of the
+ * JSON-objects leading to it, e.g. "data", "data", "key" for the value of the
+ * key "key" within a KV version 2 read response. In contrast to a dotted
+ * notation, names may contain dots, as keys of a secret usually do.
+ *
+ * @author agent
+ *
+ */
+@Value
+public class JsonPath implements Serializable {
+
+    private static final long serialVersionUID = 8113409858640624571L;
+
+    @NonNull
+    private final List<String> segments;
+
+    /**
+     * @param segments the names of the elements, must not be null nor contain
+     *                 null
+     * @return the corresponding path
+     */
+    public static JsonPath of(String... segments) {
+        for (String segment : segments) {
+            requireNonNull(segment, "segment must not be null");
+        }
+        return new JsonPath(List.of(segments));
+    }
+
+    /**
+     * @param name of the child element, must not be null
+     * @return a new path identifying the given child of this path
+     */
+    public JsonPath child(@NonNull String name) {
+        var childSegments = new ArrayList<>(segments);
+        childSegments.add(name);
+        return new JsonPath(List.copyOf(childSegments));
+    }
+
+    @Override
+    public String toString() {
+        return String.join(".", segments);
+    }
+}
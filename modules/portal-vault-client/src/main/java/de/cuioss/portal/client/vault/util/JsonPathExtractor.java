@@ -0,0 +1,503 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.util;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pull-style extractor resolving a number of {@link JsonPath}s within a JSON
+ * document, working directly on its UTF-8 bytes. In contrast to parsing the
+ * complete document, e.g. by {@link ParsedVaultResponse}, all elements not
+ * leading to one of the requested paths are skipped without allocating
+ * anything, names are compared byte-wise. Parsing stops as soon as all paths
+ * are resolved, so an {@link InputStream} is not necessarily read to its end.
+ * <p>
+ * The value of a resolved path is provided as string: Strings are unescaped,
+ * all other values, including null, objects and arrays, are provided with their
+ * JSON representation as contained in the document. Only JSON-objects are
+ * navigated, arrays are treated as values. If a requested path is a prefix of
+ * another one, the longer one is not resolved.
+ * <p>
+ * Instances are not thread-safe and are meant to be used once, see
+ * {@link #extract(byte[], Collection)} and
+ * {@link #extract(InputStream, Collection)}.
+ *
+ * @author agent
+ *
+ */
+public final class JsonPathExtractor {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int REPLACEMENT_CHARACTER = 0xfffd;
+
+    private final InputStream input;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+
+    private final JsonPath[] paths;
+    private final byte[][][] segments;
+
+    /** active[depth][i]: the path i matches the names of the current element up to depth */
+    private final boolean[][] active;
+    private int remaining;
+
+    private final Map<JsonPath, String> result = new LinkedHashMap<>();
+
+    private byte[] captured = new byte[64];
+    private int capturedLength;
+    private boolean capturing;
+
+    private final byte[] escaped = new byte[4];
+
+    private JsonPathExtractor(InputStream input, byte[] buffer, int limit, Collection<JsonPath> requested) {
+        this.input = input;
+        this.buffer = buffer;
+        this.limit = limit;
+        paths = requested.stream().distinct().toArray(JsonPath[]::new);
+        segments = new byte[paths.length][][];
+        var maxDepth = 0;
+        for (var i = 0; i < paths.length; i++) {
+            List<String> names = paths[i].getSegments();
+            segments[i] = names.stream().map(name -> name.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+            maxDepth = Math.max(maxDepth, names.size());
+        }
+        active = new boolean[maxDepth + 1][paths.length];
+        Arrays.fill(active[0], true);
+        remaining = paths.length;
+    }
+
+    /**
+     * @param json      the UTF-8 encoded document, must not be null
+     * @param requested the paths to be resolved, must not be null
+     * @return the values of the resolved paths, in order of resolution. Paths
+     *         not present within the document are missing.
+     * @throws IllegalArgumentException if the document is not well-formed up to
+     *                                  the last resolved path
+     */
+    public static Map<JsonPath, String> extract(byte[] json, Collection<JsonPath> requested) {
+        requireNonNull(json);
+        try {
+            return new JsonPathExtractor(null, json, json.length, requireNonNull(requested)).extract();
+        } catch (IOException e) {
+            // Not to be expected without an InputStream
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Variant of {@link #extract(byte[], Collection)} reading the document from
+     * the given stream. The stream is not closed.
+     *
+     * @param json      the UTF-8 encoded document, must not be null
+     * @param requested the paths to be resolved, must not be null
+     * @return the values of the resolved paths, in order of resolution. Paths
+     *         not present within the document are missing.
+     * @throws IOException              if reading the stream fails
+     * @throws IllegalArgumentException if the document is not well-formed up to
+     *                                  the last resolved path
+     */
+    public static Map<JsonPath, String> extract(InputStream json, Collection<JsonPath> requested)
+        throws IOException {
+        return new JsonPathExtractor(requireNonNull(json), new byte[BUFFER_SIZE], 0, requireNonNull(requested))
+                .extract();
+    }
+
+    private Map<JsonPath, String> extract() throws IOException {
+        if (remaining > 0) {
+            parseValue(0);
+        }
+        return result;
+    }
+
+    private void parseValue(int depth) throws IOException {
+        var capture = false;
+        var descend = false;
+        for (var i = 0; i < paths.length; i++) {
+            if (active[depth][i]) {
+                if (segments[i].length == depth) {
+                    capture = true;
+                } else {
+                    descend = true;
+                }
+            }
+        }
+        if (capture) {
+            var value = captureValue();
+            for (var i = 0; i < paths.length; i++) {
+                if (active[depth][i] && segments[i].length == depth && !result.containsKey(paths[i])) {
+                    result.put(paths[i], value);
+                    remaining--;
+                }
+            }
+            return;
+        }
+        skipWhitespace();
+        if (!descend || '{' != peek()) {
+            skipValue();
+            return;
+        }
+        parseObject(depth);
+    }
+
+    private void parseObject(int depth) throws IOException {
+        expect('{');
+        skipWhitespace();
+        if ('}' == peek()) {
+            read();
+            return;
+        }
+        while (true) {
+            skipWhitespace();
+            expect('"');
+            matchName(depth);
+            skipWhitespace();
+            expect(':');
+            parseValue(depth + 1);
+            if (0 == remaining) {
+                return;
+            }
+            skipWhitespace();
+            var next = read();
+            if ('}' == next) {
+                return;
+            }
+            if (',' != next) {
+                throw malformed(next);
+            }
+        }
+    }
+
+    /**
+     * Reads the name of a member, the opening quote already consumed, and
+     * computes the paths matching the member.
+     */
+    private void matchName(int depth) throws IOException {
+        var current = active[depth];
+        var next = active[depth + 1];
+        var candidates = 0;
+        for (var i = 0; i < paths.length; i++) {
+            next[i] = current[i] && segments[i].length > depth;
+            if (next[i]) {
+                candidates++;
+            }
+        }
+        var offset = 0;
+        while (candidates > 0) {
+            var c = read();
+            if ('"' == c) {
+                for (var i = 0; i < paths.length; i++) {
+                    if (next[i] && segments[i][depth].length != offset) {
+                        next[i] = false;
+                    }
+                }
+                return;
+            }
+            if ('\\' == c) {
+                var length = unescape(escaped);
+                for (var j = 0; j < length; j++) {
+                    candidates = compare(depth, offset++, escaped[j], candidates);
+                }
+            } else if (c < 0) {
+                throw malformed(c);
+            } else {
+                candidates = compare(depth, offset++, (byte) c, candidates);
+            }
+        }
+        skipString();
+    }
+
+    private int compare(int depth, int offset, byte value, int candidates) {
+        var next = active[depth + 1];
+        var left = candidates;
+        for (var i = 0; i < paths.length; i++) {
+            if (next[i]) {
+                var segment = segments[i][depth];
+                if (offset >= segment.length || segment[offset] != value) {
+                    next[i] = false;
+                    left--;
+                }
+            }
+        }
+        return left;
+    }
+
+    private String captureValue() throws IOException {
+        skipWhitespace();
+        capturedLength = 0;
+        if ('"' == peek()) {
+            read();
+            while (true) {
+                var c = read();
+                if ('"' == c) {
+                    break;
+                }
+                if ('\\' == c) {
+                    var length = unescape(escaped);
+                    for (var j = 0; j < length; j++) {
+                        append(escaped[j]);
+                    }
+                } else if (c < 0) {
+                    throw malformed(c);
+                } else {
+                    append((byte) c);
+                }
+            }
+        } else {
+            capturing = true;
+            try {
+                skipValue();
+            } finally {
+                capturing = false;
+            }
+        }
+        return new String(captured, 0, capturedLength, StandardCharsets.UTF_8);
+    }
+
+    private void append(byte value) {
+        if (capturedLength == captured.length) {
+            captured = Arrays.copyOf(captured, captured.length * 2);
+        }
+        captured[capturedLength++] = value;
+    }
+
+    /**
+     * Reads an escape sequence, the backslash already consumed, and writes its
+     * UTF-8 representation to the given target.
+     *
+     * @return the number of bytes written
+     */
+    private int unescape(byte[] target) throws IOException {
+        var c = read();
+        switch (c) {
+        case '"', '\\', '/':
+            target[0] = (byte) c;
+            return 1;
+        case 'b':
+            target[0] = '\b';
+            return 1;
+        case 'f':
+            target[0] = '\f';
+            return 1;
+        case 'n':
+            target[0] = '\n';
+            return 1;
+        case 'r':
+            target[0] = '\r';
+            return 1;
+        case 't':
+            target[0] = '\t';
+            return 1;
+        case 'u':
+            return encode(readCodePoint(), target);
+        default:
+            throw malformed(c);
+        }
+    }
+
+    private int readCodePoint() throws IOException {
+        var high = readHex();
+        if (!Character.isHighSurrogate(high)) {
+            return high;
+        }
+        if ('\\' != peek()) {
+            return REPLACEMENT_CHARACTER;
+        }
+        read();
+        var c = read();
+        if ('u' != c) {
+            throw malformed(c);
+        }
+        var low = readHex();
+        if (!Character.isLowSurrogate(low)) {
+            return REPLACEMENT_CHARACTER;
+        }
+        return Character.toCodePoint(high, low);
+    }
+
+    private char readHex() throws IOException {
+        var value = 0;
+        for (var i = 0; i < 4; i++) {
+            var c = read();
+            var digit = Character.digit(c, 16);
+            if (digit < 0) {
+                throw malformed(c);
+            }
+            value = value << 4 | digit;
+        }
+        return (char) value;
+    }
+
+    private static int encode(int codePoint, byte[] target) {
+        if (codePoint <= Character.MAX_VALUE && Character.isSurrogate((char) codePoint)) {
+            return encode(REPLACEMENT_CHARACTER, target);
+        }
+        if (codePoint < 0x80) {
+            target[0] = (byte) codePoint;
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            target[0] = (byte) (0xc0 | codePoint >> 6);
+            target[1] = (byte) (0x80 | codePoint & 0x3f);
+            return 2;
+        }
+        if (codePoint < 0x10000) {
+            target[0] = (byte) (0xe0 | codePoint >> 12);
+            target[1] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+            target[2] = (byte) (0x80 | codePoint & 0x3f);
+            return 3;
+        }
+        target[0] = (byte) (0xf0 | codePoint >> 18);
+        target[1] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+        target[2] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+        target[3] = (byte) (0x80 | codePoint & 0x3f);
+        return 4;
+    }
+
+    private void skipValue() throws IOException {
+        skipWhitespace();
+        var c = read();
+        switch (c) {
+        case '"':
+            skipString();
+            break;
+        case '{', '[':
+            skipContainer();
+            break;
+        default:
+            if (c < 0 || '}' == c || ']' == c || ',' == c || ':' == c) {
+                throw malformed(c);
+            }
+            skipLiteral();
+        }
+    }
+
+    /** Skips the remainder of a string, the opening quote already consumed. */
+    private void skipString() throws IOException {
+        while (true) {
+            var c = read();
+            if ('"' == c) {
+                return;
+            }
+            if ('\\' == c) {
+                c = read();
+            }
+            if (c < 0) {
+                throw malformed(c);
+            }
+        }
+    }
+
+    /** Skips the remainder of an object or array, the opening bracket already consumed. */
+    private void skipContainer() throws IOException {
+        var depth = 1;
+        while (depth > 0) {
+            var c = read();
+            switch (c) {
+            case '"':
+                skipString();
+                break;
+            case '{', '[':
+                depth++;
+                break;
+            case '}', ']':
+                depth--;
+                break;
+            default:
+                if (c < 0) {
+                    throw malformed(c);
+                }
+            }
+        }
+    }
+
+    /** Skips the remainder of a number, true, false or null. */
+    private void skipLiteral() throws IOException {
+        while (true) {
+            var c = peek();
+            if (c < 0 || ',' == c || '}' == c || ']' == c || isWhitespace(c)) {
+                return;
+            }
+            read();
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (isWhitespace(peek())) {
+            read();
+        }
+    }
+
+    private static boolean isWhitespace(int c) {
+        return ' ' == c || '\t' == c || '\n' == c || '\r' == c;
+    }
+
+    private void expect(char expected) throws IOException {
+        var c = read();
+        if (expected != c) {
+            throw malformed(c);
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xff;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        var c = buffer[position++];
+        if (capturing) {
+            append(c);
+        }
+        return c & 0xff;
+    }
+
+    private boolean fill() throws IOException {
+        if (null == input) {
+            return false;
+        }
+        var read = input.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private IllegalArgumentException malformed(int c) {
+        if (c < 0) {
+            return new IllegalArgumentException("Unexpected end of JSON document");
+        }
+        return new IllegalArgumentException("Unexpected character '" + (char) c + "' within JSON document");
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import com.bettercloud.vault.json.Json;
+import com.bettercloud.vault.json.JsonObject;
+import com.bettercloud.vault.json.JsonValue;
+import com.bettercloud.vault.json.ParseException;
+import com.bettercloud.vault.rest.RestResponse;
+
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Wraps a {@link RestResponse} whose body is parsed exactly once, directly
+ * from its UTF-8 bytes. In contrast to {@link VaultJsonHelper}, that parses the
+ * body on each call, the elements commonly accessed for KV version 2 responses
+ * are resolved on creation: "data", "data.data" and "data.metadata".
+ * <p>
+ * A missing or invalid body results in an instance without any elements.
+ *
+ * @author agent
+ *
+ */
+@ToString(of = "status")
+public final class ParsedVaultResponse {
+
+    private static final String DATA = "data";
+    private static final String METADATA = "metadata";
+    private static final String VERSION = "version";
+
+    private static final CuiLogger log = new CuiLogger(ParsedVaultResponse.class);
+
+    /** The http status code of the response, 0 if there was none. */
+    @Getter
+    private final int status;
+
+    private final JsonObject root;
+
+    private final JsonObject data;
+
+    private final JsonObject secretData;
+
+    private final JsonObject secretMetadata;
+
+    private ParsedVaultResponse(int status, JsonObject root) {
+        this.status = status;
+        this.root = root;
+        data = child(root, DATA);
+        secretData = child(data, DATA);
+        secretMetadata = child(data, METADATA);
+    }
+
+    /**
+     * @param response may be null
+     * @return the parsed response
+     */
+    public static ParsedVaultResponse of(RestResponse response) {
+        if (null == response) {
+            return new ParsedVaultResponse(0, null);
+        }
+        return new ParsedVaultResponse(response.getStatus(), parse(response.getBody()));
+    }
+
+    private static JsonObject parse(byte[] body) {
+        if (null == body || 0 == body.length) {
+            return null;
+        }
+        try (var reader = new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8)) {
+            var value = Json.parse(reader);
+            return value.isObject() ? value.asObject() : null;
+        } catch (ParseException | IOException e) {
+            log.debug("Unable to parse response body, due to '{}'", e.getMessage());
+            return null;
+        }
+    }
+
+    private static JsonObject child(JsonObject parent, String name) {
+        if (null == parent) {
+            return null;
+        }
+        var value = parent.get(name);
+        return null != value && value.isObject() ? value.asObject() : null;
+    }
+
+    /**
+     * @return the complete body, if it is a JSON-object
+     */
+    public Optional<JsonObject> getRoot() {
+        return Optional.ofNullable(root);
+    }
+
+    /**
+     * @return the element "data"
+     */
+    public Optional<JsonObject> getData() {
+        return Optional.ofNullable(data);
+    }
+
+    /**
+     * @return the element "data.data", the content of a secret read from a KV
+     *         version 2 engine
+     */
+    public Optional<JsonObject> getSecretData() {
+        return Optional.ofNullable(secretData);
+    }
+
+    /**
+     * @return the element "data.metadata", the metadata of a secret read from a
+     *         KV version 2 engine
+     */
+    public Optional<JsonObject> getSecretMetadata() {
+        return Optional.ofNullable(secretMetadata);
+    }
+
+    /**
+     * @return the element "data.metadata.version", 0 if there is none
+     */
+    public int getSecretVersion() {
+        return null == secretMetadata ? 0 : secretMetadata.getInt(VERSION, 0);
+    }
+
+    /**
+     * @param name identifying a top-level element, must not be null
+     * @return the value of the element, without quotes in case of a string
+     */
+    public Optional<String> getString(String name) {
+        if (null == root) {
+            return Optional.empty();
+        }
+        var value = root.get(name);
+        if (null == value || value.isNull()) {
+            return Optional.empty();
+        }
+        return Optional.of(asString(value));
+    }
+
+    /**
+     * @param value must not be null
+     * @return the value of a string, otherwise its JSON representation
+     */
+    public static String asString(JsonValue value) {
+        if (value.isString()) {
+            return value.asString();
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.util;
+
+import java.time.format.DateTimeParseException;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Parser for RFC 3339 timestamps as provided by Vault, e.g.
+ * "2018-03-22T02:24:06.945319214Z". In contrast to
+ * {@link java.time.ZonedDateTime#parse(CharSequence)} it works directly on
+ * the characters, without creating intermediate objects.
+ *
+ * @author agent
+ *
+ */
+@UtilityClass
+public class Rfc3339 {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    /** Days from 0000-03-01 to 1970-01-01, see {@link #epochDay(int, int, int)} */
+    private static final long DAYS_0000_TO_1970 = 719_468;
+
+    /**
+     * Parses the local date-time of the given timestamp, ignoring its offset,
+     * like {@code ZonedDateTime.parse(text).toLocalDateTime()} does. Fractions
+     * of a second are truncated.
+     *
+     * @param text the timestamp, like "2018-03-22T02:24:06.945319214Z" or
+     *             "2018-03-22T04:24:06+02:00", must not be null
+     * @return the local date-time in seconds since 1970-01-01T00:00:00, as
+     *         {@link java.time.LocalDateTime#toEpochSecond(java.time.ZoneOffset)}
+     *         with {@link java.time.ZoneOffset#UTC} computes it
+     * @throws DateTimeParseException if the given text is no valid timestamp
+     */
+    public static long parseLocalEpochSecond(CharSequence text) {
+        var length = text.length();
+        if (length < 20) {
+            throw invalid(text, 0);
+        }
+        var year = digits(text, 0, 4);
+        expect(text, 4, '-');
+        var month = digits(text, 5, 2);
+        expect(text, 7, '-');
+        var day = digits(text, 8, 2);
+        var separator = text.charAt(10);
+        if ('T' != separator && 't' != separator) {
+            throw invalid(text, 10);
+        }
+        var hour = digits(text, 11, 2);
+        expect(text, 13, ':');
+        var minute = digits(text, 14, 2);
+        expect(text, 16, ':');
+        var second = digits(text, 17, 2);
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw invalid(text, 5);
+        }
+        if (hour > 23 || minute > 59 || second > 59) {
+            throw invalid(text, 11);
+        }
+        var index = 19;
+        if ('.' == text.charAt(index)) {
+            index++;
+            var start = index;
+            while (index < length && isDigit(text.charAt(index))) {
+                index++;
+            }
+            if (index == start || index - start > 9) {
+                throw invalid(text, start);
+            }
+        }
+        checkOffset(text, index);
+        return epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+    }
+
+    private static void checkOffset(CharSequence text, int index) {
+        var length = text.length();
+        if (index >= length) {
+            throw invalid(text, index);
+        }
+        var sign = text.charAt(index);
+        if ('Z' == sign || 'z' == sign) {
+            if (index + 1 != length) {
+                throw invalid(text, index + 1);
+            }
+            return;
+        }
+        if (('+' != sign && '-' != sign) || index + 6 != length) {
+            throw invalid(text, index);
+        }
+        var hours = digits(text, index + 1, 2);
+        expect(text, index + 3, ':');
+        var minutes = digits(text, index + 4, 2);
+        if (hours > 18 || minutes > 59 || (18 == hours && 0 != minutes)) {
+            throw invalid(text, index);
+        }
+    }
+
+    /**
+     * Computes the days since 1970-01-01 for the given proleptic Gregorian date,
+     * using the algorithm "days_from_civil" by Howard Hinnant
+     */
+    static long epochDay(int year, int month, int day) {
+        var adjustedYear = month <= 2 ? year - 1L : year;
+        var era = Math.floorDiv(adjustedYear, 400);
+        var yearOfEra = adjustedYear - era * 400;
+        var dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        var dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+        case 2 -> isLeapYear(year) ? 29 : 28;
+        case 4, 6, 9, 11 -> 30;
+        default -> 31;
+        };
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int digits(CharSequence text, int start, int count) {
+        if (start + count > text.length()) {
+            throw invalid(text, start);
+        }
+        var result = 0;
+        for (var i = start; i < start + count; i++) {
+            var character = text.charAt(i);
+            if (!isDigit(character)) {
+                throw invalid(text, i);
+            }
+            result = result * 10 + (character - '0');
+        }
+        return result;
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static void expect(CharSequence text, int index, char expected) {
+        if (index >= text.length() || expected != text.charAt(index)) {
+            throw invalid(text, index);
+        }
+    }
+
+    private static DateTimeParseException invalid(CharSequence text, int index) {
+        return new DateTimeParseException("Invalid RFC 3339 timestamp: '" + text + "'", text, index);
+    }
+}
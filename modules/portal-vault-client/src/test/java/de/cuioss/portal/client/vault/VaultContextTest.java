@@ -37,6 +37,23 @@ class VaultContextTest {
         assertTrue(contextProviderKV.get().isEnabled());
     }
 
+    @Test
+    void shouldShareExistenceCacheOfSameToken() {
+        var underTest = contextProviderKV.get();
+        assertEquals(0, underTest.getExistenceCacheTtl());
+        assertSame(underTest.getExistenceCache(), contextProviderKV.get().getExistenceCache());
+        assertNotSame(underTest.getExistenceCache(), contextProviderHealth.get().getExistenceCache());
+    }
+
+    @Test
+    void shouldShareListingCacheOfSameToken() {
+        var underTest = contextProviderKV.get();
+        assertEquals(0, underTest.getListCacheTtl());
+        assertEquals(0, underTest.getListCacheNegativeTtl());
+        assertSame(underTest.getListingCache(), contextProviderKV.get().getListingCache());
+        assertNotSame(underTest.getListingCache(), contextProviderHealth.get().getListingCache());
+    }
+
     @Test
     void shouldProduceHealthProvider() {
         assertNotNull(contextProviderHealth.get());
@@ -22,7 +22,9 @@ import jakarta.inject.Provider;
 import org.junit.jupiter.api.Test;
 
 import static de.cuioss.tools.string.MoreStrings.isEmpty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 @EnableVaultTest
@@ -45,4 +47,13 @@ class VaultProducerTest {
     void shouldProduceVault() {
         assertNotNull(vaultProvider.get());
     }
+
+    @Test
+    void shouldScopeCachesByServerAndToken() {
+        var config = vaultConfigProvider.get();
+        var scope = VaultProducer.cacheScope(config);
+        assertEquals(scope, VaultProducer.cacheScope(vaultConfigProvider.get()));
+        assertFalse(scope.contains(config.getToken()));
+        assertNotEquals(scope, VaultProducer.cacheScope(vaultConfigProvider.get().token("other")));
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BinaryPayloadTest {
+
+    private static final String PREFIX = "base64-binary:";
+
+    private final Random random = new Random(42);
+
+    @Test
+    void shouldDecodeAllLengths() throws IOException {
+        for (var length = 0; length < 70; length++) {
+            var content = new byte[length];
+            random.nextBytes(content);
+            var underTest = new BinaryPayload(PREFIX + Base64.getEncoder().encodeToString(content),
+                    PREFIX.length());
+            assertEquals(length, underTest.size());
+            assertArrayEquals(content, underTest.toByteArray());
+            try (var input = underTest.openStream()) {
+                assertArrayEquals(content, input.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void shouldHandleUnpadded() {
+        var content = new byte[] { 1, 2, 3, 4 };
+        var underTest = BinaryPayload.ofBase64(Base64.getEncoder().withoutPadding().encodeToString(content));
+        assertEquals(4, underTest.size());
+        assertArrayEquals(content, underTest.toByteArray());
+    }
+
+    @Test
+    void shouldCompareEncodedContent() {
+        var encoded = Base64.getEncoder().encodeToString(new byte[] { 1, 2, 3 });
+        var underTest = BinaryPayload.ofBase64(encoded);
+        var prefixed = new BinaryPayload(PREFIX + encoded, PREFIX.length());
+        assertEquals(underTest, prefixed);
+        assertEquals(underTest.hashCode(), prefixed.hashCode());
+        assertNotEquals(underTest, BinaryPayload.ofBase64(Base64.getEncoder().encodeToString(new byte[] { 1 })));
+    }
+
+    @Test
+    void shouldFailOnInvalidEncoding() {
+        var underTest = BinaryPayload.ofBase64("not*base64");
+        assertThrows(UncheckedIOException.class, underTest::toByteArray);
+        assertThrows(IllegalArgumentException.class, () -> new BinaryPayload("abc", 4));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class KVEntriesTest {
+
+    @Test
+    void shouldIndexEntries() {
+        List<KVEntry> entries = new ArrayList<>();
+        for (var i = 0; i < 2500; i++) {
+            entries.add(KVEntry.of("key" + i, "value" + i));
+        }
+        entries.add(KVEntry.of("key0", "duplicate"));
+        var underTest = KVEntries.of(entries);
+        assertEquals(entries, underTest);
+        assertEquals(2501, underTest.size());
+        assertEquals("value2499", underTest.get("key2499").get().getValue());
+        assertEquals("value0", underTest.get("key0").get().getValue());
+        assertTrue(underTest.containsKey("key42"));
+        assertFalse(underTest.get("notThere").isPresent());
+        assertEquals(2500, underTest.keySet().size());
+        assertSame(underTest, KVEntries.of(underTest));
+        assertThrows(UnsupportedOperationException.class, () -> underTest.add(KVEntry.EMPTY));
+    }
+
+    @Test
+    void shouldProject() {
+        var underTest = KVEntries.of(immutableList(KVEntry.of("a", "1"), KVEntry.of("b", "2"), KVEntry.of("c", "3")));
+        var projected = underTest.project(immutableList("c", "notThere", "a", "c"));
+        assertEquals(immutableList(KVEntry.of("c", "3"), KVEntry.of("a", "1")), projected);
+        assertSame(KVEntries.EMPTY, underTest.project(immutableList("notThere")));
+        assertSame(KVEntries.EMPTY, KVEntries.of(immutableList()));
+    }
+}
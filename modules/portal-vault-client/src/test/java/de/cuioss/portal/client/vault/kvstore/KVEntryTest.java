@@ -21,8 +21,10 @@ import static de.cuioss.test.generator.Generators.floats;
 import static de.cuioss.test.generator.Generators.integers;
 import static de.cuioss.test.generator.Generators.letterStrings;
 import static de.cuioss.test.generator.Generators.nonEmptyStrings;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -31,10 +33,19 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Properties;
 
 import org.junit.jupiter.api.Test;
 
+import com.bettercloud.vault.json.JsonObject;
+
 import de.cuioss.test.valueobjects.ValueObjectTest;
 import de.cuioss.test.valueobjects.api.contracts.VerifyBuilder;
 import de.cuioss.test.valueobjects.api.object.ObjectTestConfig;
@@ -117,6 +128,44 @@ class KVEntryTest extends ValueObjectTest<KVEntry> {
         assertEquals(test2, entry2.getValueAsFloat().get());
     }
 
+    @Test
+    void shouldTranslateToPrimitives() {
+        var entry = KVEntry.of(KEY, " 42 ");
+        assertEquals(42, entry.getValueAsInt(-1));
+        assertEquals(42L, entry.getValueAsLong(-1L));
+        assertEquals(42.0, entry.getValueAsDouble(-1.0));
+        assertFalse(entry.getValueAsBoolean(true));
+        var invalid = KVEntry.of(KEY, letterStrings().next());
+        assertEquals(-1, invalid.getValueAsInt(-1));
+        assertEquals(-1, invalid.getValueAsInt(-1));
+        var empty = KVEntry.of(KEY, (String) null);
+        assertEquals(7, empty.getValueAsInt(7));
+        assertTrue(empty.getValueAsBoolean(true));
+        assertTrue(KVEntry.of(KEY, Boolean.TRUE).getValueAsBoolean(false));
+        assertEquals(3, KVEntry.of(KEY, "3".getBytes()).getValueAsInt(-1));
+    }
+
+    @Test
+    void shouldDecodeByCodec() {
+        var entry = KVEntry.of(KEY, "90s");
+        var duration = entry.getValueAs(Duration.class);
+        assertEquals(Duration.ofSeconds(90), duration.get());
+        // Memoized
+        assertSame(duration.get(), entry.getValueAs(Duration.class).get());
+        assertFalse(entry.getValueAs(Integer.class).isPresent());
+        assertFalse(entry.getValueAs(KVEntryTest.class).isPresent());
+        assertFalse(KVEntry.of(KEY, (String) null).getValueAs(Duration.class).isPresent());
+        var propertiesEntry = KVEntry.of(KEY, "a=1\nb=2".getBytes());
+        var properties = propertiesEntry.getValueAs(Properties.class).get();
+        assertEquals("2", properties.getProperty("b"));
+        // Mutable, therefore not shared
+        properties.setProperty("b", "changed");
+        assertEquals("2", propertiesEntry.getValueAs(Properties.class).get().getProperty("b"));
+        var jsonEntry = KVEntry.of(KEY, "{\"a\":1}");
+        jsonEntry.getValueAs(JsonObject.class).get().set("a", 2);
+        assertEquals(1, jsonEntry.getValueAs(JsonObject.class).get().getInt("a", 0));
+    }
+
     @Test
     void shouldTranslateToInputStream() {
         assertFalse(KVEntry.of(KEY, (String) null).getValueAsInputStream().isPresent());
@@ -164,4 +213,43 @@ class KVEntryTest extends ValueObjectTest<KVEntry> {
         assertEquals(entry.getKey(), copy.getKey());
         assertEquals(entry.getMetadata(), copy.getMetadata());
     }
+
+    @Test
+    void shouldHandleBinaryPayload() throws IOException {
+        var content = new byte[] { 0, 1, 2, 3, 4 };
+        var payload = BinaryPayload.ofBase64(Base64.getEncoder().encodeToString(content));
+        var entry = KVEntry.of(KEY, payload);
+        assertArrayEquals(content, (byte[]) entry.getValue());
+        assertEquals(payload, entry.getBinaryPayload().get());
+        try (var input = entry.getValueAsInputStream().get()) {
+            assertArrayEquals(content, input.readAllBytes());
+        }
+        var copy = entry.newMetadata(Metadata.builder().created(LocalDateTime.now()).version(2).build());
+        assertEquals(payload, copy.getBinaryPayload().get());
+        assertEquals(entry, copy);
+        assertFalse(KVEntry.of(KEY, content).getBinaryPayload().isPresent());
+    }
+
+    @Test
+    void shouldCreateStreaming() throws IOException {
+        var entry = KVEntry.streaming(KEY, new FileSystemLoader("pom.xml"));
+        assertTrue(entry.getStreamingPayload().get().isRepeatable());
+        try (var first = entry.getValueAsInputStream().get(); var second = entry.getValueAsInputStream().get()) {
+            assertArrayEquals(first.readAllBytes(), second.readAllBytes());
+        }
+        assertThrows(IOException.class, () -> KVEntry.streaming(KEY, new FileSystemLoader("notThere.xml")));
+
+        var once = KVEntry.streaming(KEY, IOStreams.toInputStream("content"));
+        assertFalse(once.getStreamingPayload().get().isRepeatable());
+        assertTrue(once.getValueAsInputStream().isPresent());
+        assertFalse(once.getValueAsInputStream().isPresent());
+    }
+
+    @Test
+    void shouldRejectSerializingStreamFromInputStream() throws IOException {
+        var once = KVEntry.streaming(KEY, IOStreams.toInputStream("content"));
+        try (var output = new ObjectOutputStream(OutputStream.nullOutputStream())) {
+            assertThrows(NotSerializableException.class, () -> output.writeObject(once));
+        }
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+class MetadataTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2018, 3, 22, 2, 24, 6);
+
+    @Test
+    void shouldMaterializeLazily() {
+        var underTest = Metadata.ofEpochSeconds(CREATED.toEpochSecond(ZoneOffset.UTC), Metadata.NOT_DELETED, false,
+                3, "/secret/path");
+        assertEquals(CREATED, underTest.getCreated());
+        assertSame(underTest.getCreated(), underTest.getCreated());
+        assertNull(underTest.getDeleted());
+        assertEquals(3, underTest.getVersion());
+        assertEquals("/secret/path", underTest.getPath());
+    }
+
+    @Test
+    void shouldBeEqualIndependentOfCreation() {
+        var deleted = CREATED.plusDays(1);
+        var built = Metadata.builder().created(CREATED).deleted(deleted).destroyed(true).version(2).path("/p")
+                .build();
+        var lazy = Metadata.ofEpochSeconds(CREATED.toEpochSecond(ZoneOffset.UTC),
+                deleted.toEpochSecond(ZoneOffset.UTC), true, 2, "/p");
+        assertEquals(built, lazy);
+        assertEquals(built.hashCode(), lazy.hashCode());
+        assertEquals(deleted, lazy.getDeleted());
+        assertEquals(built.toString(), lazy.toString());
+    }
+
+    @Test
+    void shouldKeepNanosOfBuilder() {
+        var created = CREATED.withNano(123);
+        assertEquals(created, Metadata.builder().created(created).build().getCreated());
+    }
+}
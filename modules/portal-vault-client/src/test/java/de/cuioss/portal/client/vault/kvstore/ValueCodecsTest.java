@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+import com.bettercloud.vault.json.JsonObject;
+import com.bettercloud.vault.json.JsonValue;
+
+class ValueCodecsTest {
+
+    @Test
+    void shouldParseDurations() {
+        assertEquals(Duration.ofSeconds(30), ValueCodecs.parseDuration("30"));
+        assertEquals(Duration.ofSeconds(30), ValueCodecs.parseDuration("30s"));
+        assertEquals(Duration.ofMillis(250), ValueCodecs.parseDuration("250ms"));
+        assertEquals(Duration.ofMinutes(5), ValueCodecs.parseDuration(" 5m "));
+        assertEquals(Duration.ofHours(12), ValueCodecs.parseDuration("12h"));
+        assertEquals(Duration.ofDays(-1), ValueCodecs.parseDuration("-1d"));
+        assertEquals(Duration.ofMinutes(90), ValueCodecs.parseDuration("PT1H30M"));
+        assertThrows(IllegalArgumentException.class, () -> ValueCodecs.parseDuration("5 weeks"));
+        assertThrows(IllegalArgumentException.class, () -> ValueCodecs.parseDuration("PTX"));
+        assertThrows(IllegalArgumentException.class, () -> ValueCodecs.parseDuration("s"));
+    }
+
+    @Test
+    void shouldProvideBuiltInCodecs() {
+        assertEquals(Long.valueOf(7), ValueCodecs.forType(Long.class).get().decode("7"));
+        assertEquals(Boolean.TRUE, ValueCodecs.forType(Boolean.class).get().decode("TRUE"));
+        assertTrue(ValueCodecs.forType(JsonValue.class).get().decode("[1,2]").isArray());
+        assertEquals(3, ValueCodecs.forType(JsonObject.class).get().decode("{\"a\":3}").getInt("a", 0));
+        assertThrows(IllegalArgumentException.class, () -> ValueCodecs.forType(JsonObject.class).get().decode("3"));
+        assertThrows(IllegalArgumentException.class, () -> ValueCodecs.forType(JsonValue.class).get().decode("{"));
+        assertEquals("b", ValueCodecs.forType(Properties.class).get().decode("a=b").getProperty("a"));
+        assertFalse(ValueCodecs.forType(Thread.class).isPresent());
+        assertTrue(ValueCodecs.forType(Duration.class).get().isImmutable());
+        assertFalse(ValueCodecs.forType(Properties.class).get().isImmutable());
+        assertFalse(ValueCodecs.forType(JsonObject.class).get().isImmutable());
+    }
+
+    @Test
+    void shouldRegisterCodec() {
+        ValueCodecs.register(ValueCodec.of(StringBuilder.class, StringBuilder::new));
+        assertEquals("abc", KVEntry.of("key", "abc").getValueAs(StringBuilder.class).get().toString());
+    }
+}
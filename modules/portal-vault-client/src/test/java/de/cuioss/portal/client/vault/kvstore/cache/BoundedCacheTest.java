@@ -0,0 +1,130 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedCacheTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private BoundedCache<String, String> create(long maximumSize, long maximumWeight) {
+        return BoundedCache.<String, String>builder().maximumSize(maximumSize).maximumWeight(maximumWeight)
+                .weigher(String::length).timeToLive(Duration.ofSeconds(10)).ticker(ticker::get).build();
+    }
+
+    @Test
+    void shouldRejectInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> create(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> create(10, 0));
+    }
+
+    @Test
+    void shouldCacheAndCountHits() {
+        var underTest = create(10, 100);
+        assertFalse(underTest.getIfPresent("a").isPresent());
+        underTest.put("a", "value");
+        assertEquals("value", underTest.getIfPresent("a").get());
+        assertEquals(1, underTest.getHitCount());
+        assertEquals(1, underTest.getMissCount());
+        assertEquals(5, underTest.weightedSize());
+
+        underTest.invalidate("a");
+        assertFalse(underTest.peek("a").isPresent());
+        assertEquals(0, underTest.weightedSize());
+    }
+
+    @Test
+    void shouldExpire() {
+        var underTest = create(10, 100);
+        underTest.put("a", "value");
+        underTest.put("b", "value", Duration.ofSeconds(20));
+        ticker.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertFalse(underTest.getIfPresent("a").isPresent());
+        assertTrue(underTest.getIfPresent("b").isPresent());
+        assertEquals(1, underTest.size());
+    }
+
+    @Test
+    void shouldBeBoundedBySize() {
+        var underTest = create(100, Long.MAX_VALUE);
+        for (var i = 0; i < 1000; i++) {
+            underTest.put("key" + i, "value");
+        }
+        assertEquals(100, underTest.size());
+        assertEquals(900, underTest.getEvictionCount());
+    }
+
+    @Test
+    void shouldBeBoundedByWeight() {
+        List<String> removed = new ArrayList<>();
+        var underTest = BoundedCache.<String, String>builder().maximumSize(100).maximumWeight(10)
+                .weigher(String::length).timeToLive(Duration.ofSeconds(10)).ticker(ticker::get)
+                .removalListener((key, value) -> removed.add(key)).build();
+        underTest.put("a", "12345");
+        underTest.put("b", "12345");
+        underTest.put("c", "12345");
+        assertTrue(underTest.weightedSize() <= 10);
+        assertEquals(1, removed.size());
+        // A single entry exceeding the maximum weight is not cached at all
+        underTest.put("d", "12345678901");
+        assertFalse(underTest.peek("d").isPresent());
+    }
+
+    @Test
+    void shouldPreferFrequentlyUsedEntries() {
+        var underTest = create(100, Long.MAX_VALUE);
+        for (var i = 0; i < 100; i++) {
+            underTest.put("hot" + i, "value");
+        }
+        for (var round = 0; round < 5; round++) {
+            for (var i = 0; i < 100; i++) {
+                underTest.getIfPresent("hot" + i);
+            }
+        }
+        // A scan of entries used only once must not flush the frequently used ones
+        for (var i = 0; i < 1000; i++) {
+            underTest.put("cold" + i, "value");
+        }
+        var retained = 0;
+        for (var i = 0; i < 100; i++) {
+            if (underTest.peek("hot" + i).isPresent()) {
+                retained++;
+            }
+        }
+        assertTrue(retained >= 90, "Expected frequently used entries to be retained, but were " + retained);
+    }
+
+    @Test
+    void shouldInvalidateAll() {
+        var underTest = create(10, 100);
+        underTest.put("a", "value");
+        underTest.put("b", "value");
+        underTest.invalidateAll();
+        assertEquals(0, underTest.size());
+        assertEquals(0, underTest.weightedSize());
+    }
+}
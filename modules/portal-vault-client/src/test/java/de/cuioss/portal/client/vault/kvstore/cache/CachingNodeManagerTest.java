@@ -0,0 +1,353 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.impl.ResultFactory;
+import de.cuioss.uimodel.result.ResultErrorCodes;
+import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.result.ResultState;
+
+class CachingNodeManagerTest {
+
+    private static final String KEY = "key";
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private InMemoryNodeManager backend;
+
+    private NodeCache cache;
+
+    private CachingNodeManager underTest;
+
+    @BeforeEach
+    void setUp() {
+        backend = new InMemoryNodeManager("/node");
+        backend.write(KVEntry.of(KEY, "value"));
+        cache = NodeCache.builder().timeToLive(Duration.ofMinutes(1)).refreshAfter(Duration.ofSeconds(30))
+                .executor(Runnable::run).ticker(ticker::get).build();
+        underTest = new CachingNodeManager(backend, cache);
+    }
+
+    @Test
+    void shouldReadThrough() {
+        assertTrue(underTest.read().isValid());
+        assertTrue(underTest.read().isValid());
+        assertEquals("value", underTest.read(KEY).getResult().getValue());
+        assertEquals(1, backend.getReadCount().get());
+
+        var statistics = underTest.getStatistics();
+        assertEquals(2, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(1, statistics.getLoadSuccessCount());
+        assertEquals(1, statistics.getSize());
+    }
+
+    @Test
+    void shouldReadProjection() {
+        backend.write(KVEntry.of("other", "value2"));
+        var projected = underTest.read(immutableList("other", "notThere"));
+        assertTrue(projected.isValid());
+        assertEquals(1, projected.getResult().size());
+        assertEquals("value2", projected.getResult().iterator().next().getValue());
+        assertTrue(underTest.read(immutableList(KEY)).isValid());
+        assertEquals(1, backend.getReadCount().get());
+    }
+
+    @Test
+    void shouldHandleNotFound() {
+        assertTrue(underTest.read("notThere").containsErrorCode(ResultErrorCodes.NOT_FOUND));
+    }
+
+    @Test
+    void shouldNotCacheErrors() {
+        backend.setAvailable(false);
+        assertFalse(underTest.read().isValid());
+        assertFalse(underTest.read().isValid());
+        assertEquals(2, backend.getReadCount().get());
+        assertEquals(2, underTest.getStatistics().getLoadFailureCount());
+    }
+
+    @Test
+    void shouldExpireAndRefreshAhead() {
+        underTest.read();
+        ticker.addAndGet(Duration.ofSeconds(30).toNanos());
+        // Served from cache, but refreshed (synchronously by the given executor)
+        assertTrue(underTest.read().isValid());
+        assertEquals(2, backend.getReadCount().get());
+        assertEquals(1, underTest.getStatistics().getRefreshCount());
+
+        ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+        underTest.read();
+        assertEquals(3, backend.getReadCount().get());
+    }
+
+    @Test
+    void shouldUpdateOnWrite() {
+        underTest.read();
+        assertTrue(underTest.write(KVEntry.of("other", "otherValue")).isValid());
+        assertTrue(underTest.write(immutableList(KVEntry.of(KEY, "newValue"))).isValid());
+        var read = underTest.read();
+        assertEquals(2, read.getResult().size());
+        assertEquals("newValue", underTest.read(KEY).getResult().getValue());
+        assertEquals(1, backend.getReadCount().get());
+        // Metadata is taken over from the last write
+        read.getResult().forEach(entry -> assertEquals(backend.getVersion(), entry.getMetadata().getVersion()));
+    }
+
+    @Test
+    void shouldInvalidateOnDelete() {
+        underTest.read();
+        assertTrue(underTest.delete(KEY).isValid());
+        assertTrue(underTest.read().getResult().isEmpty());
+        assertEquals(2, backend.getReadCount().get());
+    }
+
+    @Test
+    void shouldInvalidateOnFailedWrite() {
+        underTest.read();
+        backend.setAvailable(false);
+        assertFalse(underTest.write(KVEntry.of(KEY, "newValue")).isValid());
+        backend.setAvailable(true);
+        underTest.read();
+        assertEquals(2, backend.getReadCount().get());
+    }
+
+    @Test
+    void shouldRevalidateByMetadataVersion() {
+        cache = NodeCache.builder().timeToLive(Duration.ofMinutes(1)).refreshAfter(Duration.ofSeconds(30))
+                .executor(Runnable::run).ticker(ticker::get).revalidationMode(RevalidationMode.METADATA_VERSION)
+                .build();
+        underTest = new CachingNodeManager(backend, cache);
+        underTest.read();
+
+        // Unchanged: only the version is read, the node is cached again
+        ticker.addAndGet(Duration.ofSeconds(30).toNanos());
+        underTest.read();
+        assertEquals(1, backend.getReadCount().get());
+        assertEquals(1, backend.getVersionReadCount().get());
+        assertEquals(1, underTest.getStatistics().getRevalidationCount());
+
+        // Modified in the backend: reloaded
+        backend.write(KVEntry.of(KEY, "modified"));
+        assertTrue(underTest.revalidate().getResult());
+        assertEquals(2, backend.getReadCount().get());
+        assertEquals("modified", underTest.read(KEY).getResult().getValue());
+        assertFalse(underTest.revalidate().getResult());
+    }
+
+    @Test
+    void shouldRevalidateByReload() {
+        underTest.read();
+        assertTrue(underTest.revalidate().getResult());
+        assertEquals(2, backend.getReadCount().get());
+        assertEquals(0, backend.getVersionReadCount().get());
+    }
+
+    @Test
+    void shouldKeepWriteMergedWhileReloading() {
+        var racing = new AtomicBoolean();
+        var delegate = new InMemoryNodeManager("/node") {
+
+            @Override
+            public synchronized ResultObject<Collection<KVEntry>> read() {
+                var read = super.read();
+                if (racing.getAndSet(false)) {
+                    underTest.write(KVEntry.of(KEY, "written"));
+                }
+                return read;
+            }
+        };
+        delegate.write(KVEntry.of(KEY, "value"));
+        underTest = new CachingNodeManager(delegate, cache);
+        underTest.read();
+
+        // The content read before the write must not replace the merged one
+        racing.set(true);
+        assertTrue(underTest.revalidate().getResult());
+        assertEquals("written", underTest.read(KEY).getResult().getValue());
+        assertEquals(2, delegate.getReadCount().get());
+    }
+
+    @Test
+    void shouldRevalidateBatched() {
+        cache = NodeCache.builder().executor(Runnable::run).ticker(ticker::get)
+                .revalidationMode(RevalidationMode.METADATA_VERSION).build();
+        var other = new InMemoryNodeManager("/other");
+        other.write(KVEntry.of(KEY, "value"));
+        underTest = new CachingNodeManager(backend, cache);
+        var otherManager = new CachingNodeManager(other, cache);
+        underTest.read();
+        otherManager.read();
+        other.write(KVEntry.of(KEY, "modified"));
+
+        var result = CachingNodeManager.revalidateAll(immutableList(underTest, otherManager));
+        assertEquals(2, result.size());
+        assertFalse(result.get("/secret/node").getResult());
+        assertTrue(result.get("/secret/other").getResult());
+        assertEquals(1, backend.getReadCount().get());
+        assertEquals(2, other.getReadCount().get());
+    }
+
+    @Test
+    void shouldHandleFailingRevalidation() {
+        cache = NodeCache.builder().executor(Runnable::run).ticker(ticker::get)
+                .revalidationMode(RevalidationMode.METADATA_VERSION).build();
+        underTest = new CachingNodeManager(backend, cache);
+        underTest.read();
+        backend.setAvailable(false);
+        assertFalse(underTest.revalidate().isValid());
+        // The cached node is still served
+        assertTrue(underTest.read().isValid());
+    }
+
+    @Test
+    void shouldServeStaleWhileUnavailable() {
+        cache = NodeCache.builder().timeToLive(Duration.ofMinutes(1)).maximumStaleness(Duration.ofMinutes(10))
+                .executor(Runnable::run).ticker(ticker::get).build();
+        underTest = new CachingNodeManager(backend, cache);
+        underTest.read();
+        backend.setAvailable(false);
+        ticker.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        var stale = underTest.read();
+        assertFalse(stale.isValid());
+        assertEquals(ResultState.WARNING, stale.getState());
+        assertTrue(ResultFactory.isStale(stale));
+        assertEquals("value", stale.getResult().iterator().next().getValue());
+        assertEquals("value", underTest.read(KEY).getResult().getValue());
+        assertEquals(1, underTest.read(immutableList(KEY)).getResult().size());
+        assertTrue(cache.isBackendUnavailable());
+        assertEquals(3, underTest.getStatistics().getStaleHitCount());
+
+        // Revalidated in the background once available again
+        backend.setAvailable(true);
+        backend.write(KVEntry.of(KEY, "modified"));
+        var reads = backend.getReadCount().get();
+        assertTrue(ResultFactory.isStale(underTest.read()));
+        assertEquals(reads + 1, backend.getReadCount().get());
+        assertFalse(cache.isBackendUnavailable());
+        assertTrue(underTest.read().isValid());
+        assertEquals("modified", underTest.read(KEY).getResult().getValue());
+
+        // Beyond the maximum staleness nothing is served
+        backend.setAvailable(false);
+        ticker.addAndGet(Duration.ofMinutes(12).toNanos());
+        assertFalse(underTest.read().isValid());
+        assertTrue(underTest.read().getResult().isEmpty());
+    }
+
+    @Test
+    void shouldReloadStaleWhileAvailable() {
+        cache = NodeCache.builder().timeToLive(Duration.ofMinutes(1)).maximumStaleness(Duration.ofMinutes(10))
+                .executor(Runnable::run).ticker(ticker::get).build();
+        underTest = new CachingNodeManager(backend, cache);
+        underTest.read();
+        ticker.addAndGet(Duration.ofMinutes(2).toNanos());
+        backend.delete(KEY);
+        var read = underTest.read();
+        assertTrue(read.isValid());
+        assertTrue(read.getResult().isEmpty());
+    }
+
+    @Test
+    void shouldServeWarmCacheAndRevalidateByVersion(@TempDir Path directory) throws IOException {
+        var key = new SecretKeySpec(new byte[16], "AES");
+        var file = directory.resolve("warm.cache");
+        underTest.read();
+        cache.writeSnapshot(file, key);
+        backend.write(KVEntry.of(KEY, "modified"));
+        var readCount = backend.getReadCount().get();
+
+        List<Runnable> tasks = new ArrayList<>();
+        cache = NodeCache.builder().timeToLive(Duration.ofMinutes(1)).executor(tasks::add).ticker(ticker::get)
+                .warmCache(WarmCacheFile.open(file, key)).build();
+        underTest = new CachingNodeManager(backend, cache);
+
+        // Served from the file, revalidation scheduled
+        assertEquals("value", underTest.read(KEY).getResult().getValue());
+        assertEquals(readCount, backend.getReadCount().get());
+        assertEquals(1, underTest.getStatistics().getWarmHitCount());
+        assertEquals(1, tasks.size());
+
+        // The version changed in the backend: reloaded
+        tasks.forEach(Runnable::run);
+        assertEquals(1, backend.getVersionReadCount().get());
+        assertEquals(readCount + 1, backend.getReadCount().get());
+        assertEquals("modified", underTest.read(KEY).getResult().getValue());
+
+        // The file is only consulted once per node
+        cache.invalidate(cache.snapshot().keySet().iterator().next());
+        assertEquals("modified", underTest.read(KEY).getResult().getValue());
+        assertEquals(1, underTest.getStatistics().getWarmHitCount());
+    }
+
+    @Test
+    void shouldKeepWarmNodesNotInvalidated(@TempDir Path directory) throws IOException {
+        var key = new SecretKeySpec(new byte[16], "AES");
+        var file = directory.resolve("warm.cache");
+        cache.put("/secret/a", immutableList(KVEntry.of(KEY, "a")));
+        cache.put("/secret/b", immutableList(KVEntry.of(KEY, "b")));
+        cache.put("/secret/c", immutableList(KVEntry.of(KEY, "c")));
+        cache.writeSnapshot(file, key);
+
+        cache = NodeCache.builder().timeToLive(Duration.ofMinutes(1)).executor(Runnable::run).ticker(ticker::get)
+                .warmCache(WarmCacheFile.open(file, key)).build();
+        cache.put("/secret/a", immutableList(KVEntry.of(KEY, "modified")));
+        cache.invalidate("/secret/b");
+        cache.writeSnapshot(file, key);
+
+        // Not looked up, but kept. Only the invalidated node is dropped
+        var written = WarmCacheFile.open(file, key);
+        assertEquals(2, written.getSize());
+        assertEquals("modified", written.read("/secret/a").get().iterator().next().getValue());
+        assertFalse(written.read("/secret/b").isPresent());
+        assertEquals("c", written.read("/secret/c").get().iterator().next().getValue());
+    }
+
+    @Test
+    void shouldDropWarmNodesOnInvalidateAll(@TempDir Path directory) throws IOException {
+        var key = new SecretKeySpec(new byte[16], "AES");
+        var file = directory.resolve("warm.cache");
+        cache.put("/secret/a", immutableList(KVEntry.of(KEY, "a")));
+        cache.writeSnapshot(file, key);
+
+        cache = NodeCache.builder().warmCache(WarmCacheFile.open(file, key)).build();
+        cache.invalidateAll();
+        cache.writeSnapshot(file, key);
+        assertEquals(0, WarmCacheFile.open(file, key).getSize());
+    }
+}
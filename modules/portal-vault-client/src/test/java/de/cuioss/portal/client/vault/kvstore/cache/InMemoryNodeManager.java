@@ -0,0 +1,140 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.notFound;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
+import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.bettercloud.vault.Vault;
+import com.bettercloud.vault.VaultConfig;
+
+import de.cuioss.portal.client.vault.VaultContext;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Metadata;
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.portal.client.vault.kvstore.NodeManager;
+import de.cuioss.portal.client.vault.kvstore.impl.KeyValueNavigator;
+import de.cuioss.portal.client.vault.kvstore.impl.ResultFactory;
+import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.service.ServiceState;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * {@link NodeManager} keeping its entries in memory and counting the calls of
+ * {@link #read()} and {@link #readCurrentVersion()}
+ */
+class InMemoryNodeManager implements NodeManager {
+
+    static final VaultContext CONTEXT = VaultContext.builder().vault(new Vault(new VaultConfig()))
+            .endpointName("secret").enabled(true).build();
+
+    private final Map<String, KVEntry> entries = new LinkedHashMap<>();
+
+    @Getter
+    private final AtomicInteger readCount = new AtomicInteger();
+
+    @Getter
+    private final AtomicInteger versionReadCount = new AtomicInteger();
+
+    @Getter
+    private final Navigator navigator;
+
+    @Getter
+    private int version = 1;
+
+    /** If set to false, all calls result in an error. */
+    @Setter
+    private boolean available = true;
+
+    InMemoryNodeManager(String path) {
+        navigator = new KeyValueNavigator(CONTEXT, path);
+    }
+
+    @Override
+    public synchronized ResultObject<Collection<KVEntry>> read() {
+        readCount.incrementAndGet();
+        if (!available) {
+            return unavailable(immutableList());
+        }
+        return valid(immutableList(new ArrayList<>(entries.values())));
+    }
+
+    @Override
+    public synchronized ResultObject<Integer> readCurrentVersion() {
+        versionReadCount.incrementAndGet();
+        if (!available) {
+            return unavailable(0);
+        }
+        return valid(version);
+    }
+
+    @Override
+    public ResultObject<KVEntry> write(KVEntry entry) {
+        var written = write(immutableList(entry));
+        if (!written.isValid()) {
+            return unavailable(KVEntry.EMPTY);
+        }
+        return valid(written.getResult().iterator().next());
+    }
+
+    @Override
+    public synchronized ResultObject<Collection<KVEntry>> write(Collection<KVEntry> toBeWritten) {
+        if (!available) {
+            return unavailable(immutableList());
+        }
+        version++;
+        var metadata = Metadata.builder().created(LocalDateTime.now()).version(version).build();
+        var result = new ArrayList<KVEntry>();
+        for (KVEntry entry : toBeWritten) {
+            var written = KVEntry.builder().key(entry.getKey()).value(entry.getValue()).metadata(metadata).build();
+            entries.put(entry.getKey(), written);
+            result.add(written);
+        }
+        entries.replaceAll((key, entry) -> KVEntry.builder().key(key).value(entry.getValue()).metadata(metadata)
+                .build());
+        return valid(immutableList(result));
+    }
+
+    @Override
+    public synchronized ResultObject<KVEntry> read(String key) {
+        if (!entries.containsKey(key)) {
+            return notFound(KVEntry.EMPTY, "KeyValue", key);
+        }
+        return valid(entries.get(key));
+    }
+
+    @Override
+    public synchronized ResultObject<Boolean> delete(String key) {
+        if (null == entries.remove(key)) {
+            return notFound(Boolean.FALSE, key, key);
+        }
+        version++;
+        return valid(Boolean.TRUE);
+    }
+
+    private <T> ResultObject<T> unavailable(T defaultResult) {
+        return ResultFactory.serviceNotAvailable(defaultResult, "InMemory", ServiceState.TEMPORARILY_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.cuioss.portal.client.vault.kvstore.BinaryPayload;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+
+class OffHeapStoreTest {
+
+    private final OffHeapStore underTest = OffHeapStore.builder().threshold(100).budget(1000).build();
+
+    @Test
+    void shouldOffloadLargeBinaries() throws IOException {
+        var content = content(500);
+        var offloaded = underTest.offload(KVEntry.of("key", content));
+        var payload = offloaded.getOffHeapPayload().get();
+        assertTrue(payload.isDirect());
+        assertEquals(500, payload.size());
+        assertEquals(500, underTest.getUsed());
+        assertArrayEquals(content, (byte[]) offloaded.getValue());
+        try (var input = offloaded.getValueAsInputStream().get()) {
+            assertArrayEquals(content, input.readAllBytes());
+        }
+        assertSame(offloaded, underTest.offload(offloaded));
+    }
+
+    @Test
+    void shouldOffloadEncodedBinaries() {
+        var content = content(300);
+        var entry = KVEntry.of("key", BinaryPayload.ofBase64(Base64.getEncoder().encodeToString(content)));
+        var offloaded = underTest.offload(entry);
+        assertTrue(offloaded.getOffHeapPayload().isPresent());
+        assertArrayEquals(content, (byte[]) offloaded.getValue());
+        assertEquals(entry.getMetadata(), offloaded.getMetadata());
+    }
+
+    @Test
+    void shouldKeepSmallAndNonBinaryValues() {
+        var small = KVEntry.of("key", content(99));
+        assertSame(small, underTest.offload(small));
+        var text = KVEntry.of("key", "value".repeat(100));
+        assertSame(text, underTest.offload(text));
+        assertEquals(0, underTest.getUsed());
+    }
+
+    @Test
+    void shouldRespectBudget() {
+        assertTrue(underTest.offload(KVEntry.of("a", content(600))).getOffHeapPayload().isPresent());
+        var rejected = KVEntry.of("b", content(600));
+        assertSame(rejected, underTest.offload(rejected));
+        assertEquals(1, underTest.getRejectedCount());
+        assertEquals(600, underTest.getUsed());
+    }
+
+    @Test
+    void shouldReleaseOnceUnused() {
+        var payload = underTest.offload(KVEntry.of("key", content(200))).getOffHeapPayload().get();
+        payload.retain().retain();
+        payload.release();
+        assertFalse(payload.isReleased());
+        assertEquals(200, underTest.getUsed());
+        payload.release();
+        assertTrue(payload.isReleased());
+        assertEquals(0, underTest.getUsed());
+        // Still readable for holders of former references
+        assertEquals(200, payload.toByteArray().length);
+        payload.release();
+        assertEquals(0, underTest.getUsed());
+    }
+
+    @Test
+    void shouldReleaseWithinNodeCache() {
+        var cache = NodeCache.builder().offHeapStore(underTest).build();
+        var content = content(400);
+        var node = cache.put("/path", List.of(KVEntry.of("key", content), KVEntry.of("other", "value")));
+        assertTrue(node.getEntries().get(0).getOffHeapPayload().isPresent());
+        assertEquals(400, cache.getStatistics().getOffHeapSize());
+
+        // Replacing the node with the same payload keeps it
+        cache.merge("/path", List.of(KVEntry.of("other", "changed")));
+        var merged = cache.get("/path").get();
+        assertArrayEquals(content, (byte[]) merged.getEntries().get(0).getValue());
+        assertEquals(400, underTest.getUsed());
+
+        cache.invalidate("/path");
+        assertEquals(0, underTest.getUsed());
+        assertEquals(0, cache.getStatistics().getOffHeapSize());
+    }
+
+    private static byte[] content(int size) {
+        var content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.cache;
+
+import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Metadata;
+
+class WarmCacheFileTest {
+
+    private static final SecretKey KEY = new SecretKeySpec(new byte[16], "AES");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldRoundTrip() throws IOException {
+        var metadata = Metadata.builder().created(LocalDateTime.of(2023, 5, 1, 12, 0)).version(3).path("a").build();
+        var entries = immutableList(KVEntry.builder().key("text").value("value").metadata(metadata).build(),
+                KVEntry.builder().key("binary").value(new byte[] { 0, 1, 2 }).metadata(metadata).build(),
+                KVEntry.builder().key("empty").metadata(metadata).build());
+        var file = directory.resolve("warm.cache");
+        WarmCacheFile.write(file, KEY, Map.of("/secret/a", entries));
+
+        var underTest = WarmCacheFile.open(file, KEY);
+        assertEquals(1, underTest.getSize());
+        var read = new ArrayList<>(underTest.read("/secret/a").get());
+        assertEquals(3, read.size());
+        assertEquals("value", read.get(0).getValue());
+        assertArrayEquals(new byte[] { 0, 1, 2 }, (byte[]) read.get(1).getValue());
+        assertNull(read.get(2).getValue());
+        assertEquals(metadata.getCreated(), read.get(0).getMetadata().getCreated());
+        assertEquals(3, read.get(0).getMetadata().getVersion());
+        assertEquals("a", read.get(0).getMetadata().getPath());
+        assertFalse(underTest.read("/secret/b").isPresent());
+        assertFalse(Files.exists(directory.resolve("warm.cache.tmp")));
+    }
+
+    @Test
+    void shouldIndexManyNodes() throws IOException {
+        Map<String, Collection<KVEntry>> nodes = new LinkedHashMap<>();
+        for (var i = 0; i < 500; i++) {
+            nodes.put("/secret/node" + i, immutableList(KVEntry.of("key", "value" + i)));
+        }
+        var file = directory.resolve("warm.cache");
+        WarmCacheFile.write(file, KEY, nodes);
+
+        var underTest = WarmCacheFile.open(file, KEY);
+        for (var i = 0; i < 500; i++) {
+            assertEquals("value" + i, underTest.read("/secret/node" + i).get().iterator().next().getValue());
+        }
+        assertFalse(underTest.read("/secret/node500").isPresent());
+        assertEquals(500, underTest.paths().size());
+        assertTrue(underTest.paths().containsAll(nodes.keySet()));
+    }
+
+    @Test
+    void shouldRejectOtherKey() throws IOException {
+        var file = directory.resolve("warm.cache");
+        WarmCacheFile.write(file, KEY, Map.of("/secret/a", immutableList(KVEntry.of("key", "value"))));
+        var otherKey = new SecretKeySpec(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 },
+                "AES");
+        assertFalse(WarmCacheFile.open(file, otherKey).read("/secret/a").isPresent());
+    }
+
+    @Test
+    void shouldRejectOtherFiles() throws IOException {
+        var file = directory.resolve("other.txt");
+        Files.writeString(file, "This is not a warm cache file at all");
+        assertThrows(IOException.class, () -> WarmCacheFile.open(file, KEY));
+    }
+
+    @Test
+    void shouldSkipCorruptRecords() throws IOException {
+        var file = directory.resolve("warm.cache");
+        WarmCacheFile.write(file, KEY, Map.of("/secret/a", immutableList(KVEntry.of("key", "value"))));
+        var content = ByteBuffer.wrap(Files.readAllBytes(file));
+        var indexOffset = (int) content.getLong(16);
+
+        // path length of the only record, starting right after the header
+        writeInt(file, 32, Integer.MAX_VALUE);
+        var underTest = WarmCacheFile.open(file, KEY);
+        assertTrue(underTest.read("/secret/a").isEmpty());
+        assertTrue(underTest.paths().isEmpty());
+
+        // length of the encrypted entries
+        writeInt(file, 32, "/secret/a".length());
+        writeInt(file, 36 + "/secret/a".length(), indexOffset);
+        assertTrue(WarmCacheFile.open(file, KEY).read("/secret/a").isEmpty());
+
+        // offsets of all slots pointing behind the end of the file
+        for (var slot = indexOffset; slot < content.capacity(); slot += Long.BYTES) {
+            if (0 != content.getLong(slot)) {
+                writeLong(file, slot, content.capacity() + 100L);
+            }
+        }
+        underTest = WarmCacheFile.open(file, KEY);
+        assertTrue(underTest.read("/secret/a").isEmpty());
+        assertTrue(underTest.paths().isEmpty());
+    }
+
+    private static void writeInt(Path file, int position, int value) throws IOException {
+        write(file, position, ByteBuffer.allocate(Integer.BYTES).putInt(0, value));
+    }
+
+    private static void writeLong(Path file, int position, long value) throws IOException {
+        write(file, position, ByteBuffer.allocate(Long.BYTES).putLong(0, value));
+    }
+
+    private static void write(Path file, int position, ByteBuffer value) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(value, position);
+        }
+    }
+
+    @Test
+    void shouldHandleEmptySnapshot() throws IOException {
+        var file = directory.resolve("warm.cache");
+        WarmCacheFile.write(file, KEY, Map.of());
+        var underTest = WarmCacheFile.open(file, KEY);
+        assertEquals(0, underTest.getSize());
+        assertTrue(underTest.read("/secret/a").isEmpty());
+        assertTrue(underTest.paths().isEmpty());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import de.cuioss.portal.client.vault.*;
+import de.cuioss.portal.core.test.mocks.configuration.PortalTestConfiguration;
+import de.cuioss.test.valueobjects.junit5.contracts.ShouldBeNotNull;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnableVaultTest
+class AsyncKeyValueNavigatorTest implements ShouldBeNotNull<AsyncKeyValueNavigator> {
+
+    @Inject
+    private PortalTestConfiguration configuration;
+
+    @Inject
+    @PortalVaultContext(VaultEndpoint.KEY_VALUE)
+    private Provider<VaultContext> vault;
+
+    @Override
+    public AsyncKeyValueNavigator getUnderTest() {
+        return (AsyncKeyValueNavigator) AsyncKeyValueNavigator.of(new KeyValueNavigator(vault.get(), "/a/b"));
+    }
+
+    @Test
+    void shouldDeriveNavigators() {
+        var underTest = getUnderTest().withTimeout(Duration.ofSeconds(5));
+        assertEquals("/a/b", underTest.getPath());
+        var parent = underTest.getParent();
+        assertEquals("/a", parent.getPath());
+        assertEquals(Duration.ofSeconds(5), parent.getTimeout());
+        var nodeManager = underTest.getNodeManager().join();
+        assertTrue(nodeManager.isValid());
+        assertEquals(Duration.ofSeconds(5), nodeManager.getResult().getTimeout());
+    }
+
+    @Test
+    void shouldHandleDisabled() {
+        configuration.update(VaultClientConfigKeys.VAULT_CLIENT_ENABLED, "false");
+        var underTest = getUnderTest();
+        var listed = underTest.list().join();
+        assertFalse(listed.isValid());
+        assertTrue(listed.getResult().isEmpty());
+        assertFalse(underTest.create("c").join().isValid());
+        assertFalse(underTest.delete().join().isValid());
+        assertFalse(underTest.getNodeManager().join().isValid());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import de.cuioss.portal.client.vault.*;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.core.test.mocks.configuration.PortalTestConfiguration;
+import de.cuioss.test.valueobjects.junit5.contracts.ShouldBeNotNull;
+import de.cuioss.uimodel.result.ResultErrorCodes;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnableVaultTest
+class AsyncKeyValueNodeManagerTest implements ShouldBeNotNull<AsyncKeyValueNodeManager> {
+
+    @Inject
+    private PortalTestConfiguration configuration;
+
+    @Inject
+    @PortalVaultContext(VaultEndpoint.KEY_VALUE)
+    private Provider<VaultContext> vault;
+
+    KeyValueNodeManager nodeManager() {
+        return new KeyValueNodeManager(new KeyValueNavigator(vault.get(), "/secret"), vault.get());
+    }
+
+    @Override
+    public AsyncKeyValueNodeManager getUnderTest() {
+        return (AsyncKeyValueNodeManager) AsyncKeyValueNodeManager.of(nodeManager());
+    }
+
+    @Test
+    void shouldHandleDisabled() {
+        configuration.update(VaultClientConfigKeys.VAULT_CLIENT_ENABLED, "false");
+        var underTest = getUnderTest();
+        var read = underTest.read().join();
+        assertFalse(read.isValid());
+        assertTrue(read.containsErrorCode(ResultErrorCodes.SERVICE_NOT_AVAILABLE));
+        assertFalse(underTest.write(immutableList(KVEntry.EMPTY)).join().isValid());
+        assertFalse(underTest.delete("test").join().isValid());
+        assertFalse(underTest.readCurrentVersion().join().isValid());
+    }
+
+    @Test
+    void shouldTimeout() {
+        // Tasks are never run, so each call runs into the timeout
+        var underTest = new AsyncKeyValueNodeManager(nodeManager(), runnable -> {
+        }, Duration.ofSeconds(30)).withTimeout(Duration.ofMillis(10));
+        assertEquals(Duration.ofMillis(10), underTest.getTimeout());
+        var read = underTest.read("key").join();
+        assertFalse(read.isValid());
+        assertTrue(read.containsErrorCode(ResultErrorCodes.SERVICE_NOT_AVAILABLE));
+        assertEquals(KVEntry.EMPTY, read.getResult());
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class Base64EncodingInputStreamTest {
+
+    private final Random random = new Random(4711);
+
+    @Test
+    void shouldEncodeLikeEncoder() throws IOException {
+        for (int length : new int[] { 0, 1, 2, 3, 4, 100, 3 * 4096 - 1, 3 * 4096, 3 * 4096 + 1, 100_000 }) {
+            var content = new byte[length];
+            random.nextBytes(content);
+            try (var underTest = new Base64EncodingInputStream(new ByteArrayInputStream(content))) {
+                assertArrayEquals(Base64.getEncoder().encode(content), underTest.readAllBytes(),
+                        "Length " + length);
+            }
+        }
+    }
+
+    @Test
+    void shouldReadSingleBytes() throws IOException {
+        try (var underTest = new Base64EncodingInputStream(new ByteArrayInputStream(new byte[] { 1, 2 }))) {
+            var builder = new StringBuilder();
+            int read;
+            while ((read = underTest.read()) != -1) {
+                builder.append((char) read);
+            }
+            assertEquals(Base64.getEncoder().encodeToString(new byte[] { 1, 2 }), builder.toString());
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import de.cuioss.portal.client.vault.*;
+import de.cuioss.portal.client.vault.kvstore.ChunkedBlobManifest;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.portal.client.vault.kvstore.NodeManager;
+import de.cuioss.portal.core.test.mocks.configuration.PortalTestConfiguration;
+import de.cuioss.uimodel.result.ResultErrorCodes;
+import de.cuioss.uimodel.result.ResultObject;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.notFound;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnableVaultTest
+class ChunkedBlobStoreTest {
+
+    private static final String PATH = "/blobs";
+    private static final String KEY = "archive.zip";
+
+    @Inject
+    private PortalTestConfiguration configuration;
+
+    @Inject
+    @PortalVaultContext(VaultEndpoint.KEY_VALUE)
+    private Provider<VaultContext> vault;
+
+    private final Map<String, Map<String, KVEntry>> nodes = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void before() {
+        configuration.update(VaultClientConfigKeys.VAULT_KEY_VALUE_CHUNK_SIZE, "100");
+        configuration.update(VaultClientConfigKeys.VAULT_KEY_VALUE_BATCH_CONCURRENCY, "3");
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldWriteAndReadChunked() throws IOException {
+        var content = content(1050);
+        var underTest = underTest();
+        var written = underTest.write(PATH, KEY, new ByteArrayInputStream(content));
+        assertTrue(written.isValid());
+        var manifest = written.getResult();
+        assertEquals(1050, manifest.getSize());
+        assertEquals(100, manifest.getChunkSize());
+        assertEquals(11, manifest.getChunkCount());
+        assertEquals(11, chunkNodes().size());
+        assertEquals(manifest, underTest.readManifest(PATH, KEY).getResult());
+
+        var opened = underTest.open(PATH, KEY);
+        assertTrue(opened.isValid());
+        try (var input = opened.getResult()) {
+            assertArrayEquals(content, input.readAllBytes());
+        }
+    }
+
+    @Test
+    void shouldHandleEmptyContent() throws IOException {
+        var underTest = underTest();
+        var written = underTest.write(PATH, KEY, new ByteArrayInputStream(new byte[0]));
+        assertTrue(written.isValid());
+        assertEquals(0, written.getResult().getChunkCount());
+        assertEquals(ChunkedBlobManifest.EMPTY.getSha256(), written.getResult().getSha256());
+        try (var input = underTest.open(PATH, KEY).getResult()) {
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    void shouldReplacePreviousGeneration() throws IOException {
+        var underTest = underTest();
+        var first = underTest.write(PATH, KEY, new ByteArrayInputStream(content(500))).getResult();
+        var content = content(250);
+        var second = underTest.write(PATH, KEY, new ByteArrayInputStream(content)).getResult();
+        assertNotEquals(first.getGeneration(), second.getGeneration());
+        assertEquals(3, chunkNodes().size());
+        assertTrue(chunkNodes().stream().allMatch(path -> path.contains(second.getGeneration())));
+        try (var input = underTest.open(PATH, KEY).getResult()) {
+            assertArrayEquals(content, input.readAllBytes());
+        }
+    }
+
+    @Test
+    void shouldDetectCorruptedChunk() throws IOException {
+        var underTest = underTest();
+        underTest.write(PATH, KEY, new ByteArrayInputStream(content(300)));
+        var chunk = chunkNodes().get(0);
+        nodes.get(chunk).put(ChunkedBlobStore.CHUNK_KEY, KVEntry.of(ChunkedBlobStore.CHUNK_KEY, content(99)));
+        try (var input = underTest.open(PATH, KEY).getResult()) {
+            assertThrows(IOException.class, input::readAllBytes);
+        }
+    }
+
+    @Test
+    void shouldDelete() {
+        var underTest = underTest();
+        underTest.write(PATH, KEY, new ByteArrayInputStream(content(300)));
+        assertTrue(underTest.delete(PATH, KEY).getResult());
+        assertTrue(chunkNodes().isEmpty());
+        var read = underTest.readManifest(PATH, KEY);
+        assertFalse(read.isValid());
+        assertTrue(read.containsErrorCode(ResultErrorCodes.NOT_FOUND));
+    }
+
+    @Test
+    void shouldRejectNonManifest() {
+        var underTest = underTest();
+        nodes.computeIfAbsent(PATH, path -> new ConcurrentHashMap<>()).put(KEY, KVEntry.of(KEY, "plain"));
+        assertTrue(underTest.readManifest(PATH, KEY).containsErrorCode(ResultErrorCodes.NOT_FOUND));
+        assertFalse(underTest.open(PATH, KEY).isValid());
+    }
+
+    @Test
+    void shouldHandleDisabled() {
+        configuration.update(VaultClientConfigKeys.VAULT_CLIENT_ENABLED, "false");
+        var written = underTest().write(PATH, KEY, new ByteArrayInputStream(content(10)));
+        assertFalse(written.isValid());
+        assertTrue(written.containsErrorCode(ResultErrorCodes.SERVICE_NOT_AVAILABLE));
+    }
+
+    @Test
+    void shouldParseManifest() {
+        var manifest = ChunkedBlobManifest.builder().size(12).chunkSize(10).chunkCount(2).sha256("abc")
+                .generation("gen").build();
+        assertTrue(ChunkedBlobManifest.isManifest(manifest.toValue()));
+        assertEquals(manifest, ChunkedBlobManifest.parse(manifest.toValue()).get());
+        assertTrue(ChunkedBlobManifest.parse("plain").isEmpty());
+        assertTrue(ChunkedBlobManifest.parse(ChunkedBlobManifest.PREFIX + "{").isEmpty());
+        assertTrue(ChunkedBlobManifest.parse(null).isEmpty());
+    }
+
+    private ChunkedBlobStore underTest() {
+        return new ChunkedBlobStore(vault.get(), executor) {
+
+            @Override
+            NodeManager nodeManager(KeyValueNavigator navigator) {
+                return new MapNodeManager(navigator, nodes.computeIfAbsent(navigator.getPath(),
+                        path -> new ConcurrentHashMap<>()));
+            }
+
+            @Override
+            ResultObject<Boolean> deleteNode(KeyValueNavigator navigator) {
+                if (null == nodes.remove(navigator.getPath())) {
+                    return notFound(Boolean.FALSE, "node", navigator.getPath());
+                }
+                return valid(Boolean.TRUE);
+            }
+        };
+    }
+
+    private ArrayList<String> chunkNodes() {
+        var result = new ArrayList<String>();
+        nodes.keySet().stream().filter(path -> path.contains(ChunkedBlobStore.CHUNKS_SUFFIX)).sorted()
+                .forEach(result::add);
+        return result;
+    }
+
+    private static byte[] content(int size) {
+        var content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    @RequiredArgsConstructor
+    private static class MapNodeManager implements NodeManager {
+
+        private final Navigator navigator;
+        private final Map<String, KVEntry> entries;
+
+        @Override
+        public Navigator getNavigator() {
+            return navigator;
+        }
+
+        @Override
+        public ResultObject<Collection<KVEntry>> read() {
+            return valid(new ArrayList<>(entries.values()));
+        }
+
+        @Override
+        public ResultObject<Integer> readCurrentVersion() {
+            return valid(1);
+        }
+
+        @Override
+        public ResultObject<KVEntry> write(KVEntry entry) {
+            entries.put(entry.getKey(), entry);
+            return valid(entry);
+        }
+
+        @Override
+        public ResultObject<Collection<KVEntry>> write(Collection<KVEntry> toBeWritten) {
+            toBeWritten.forEach(this::write);
+            return valid(toBeWritten);
+        }
+
+        @Override
+        public ResultObject<KVEntry> read(String key) {
+            if (!entries.containsKey(key)) {
+                return notFound(KVEntry.EMPTY, "KeyValue", key);
+            }
+            return valid(entries.get(key));
+        }
+
+        @Override
+        public ResultObject<Boolean> delete(String key) {
+            if (null == entries.remove(key)) {
+                return notFound(Boolean.FALSE, "KeyValue", key);
+            }
+            return valid(Boolean.TRUE);
+        }
+    }
+}
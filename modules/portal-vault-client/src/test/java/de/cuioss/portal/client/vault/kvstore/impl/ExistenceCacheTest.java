@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class ExistenceCacheTest {
+
+    private static final Duration TTL = Duration.ofSeconds(5);
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private final ExistenceCache underTest = new ExistenceCache(ticker::get);
+
+    @Test
+    void shouldCachePositiveAndNegative() {
+        underTest.put("/secret/a", true, TTL);
+        underTest.put("/secret/b", false, TTL);
+        assertTrue(underTest.get("/secret/a").get());
+        assertFalse(underTest.get("/secret/b").get());
+        assertFalse(underTest.get("/secret/c").isPresent());
+
+        underTest.invalidate("/secret/a");
+        assertFalse(underTest.get("/secret/a").isPresent());
+    }
+
+    @Test
+    void shouldExpire() {
+        underTest.put("/secret/a", true, TTL);
+        ticker.addAndGet(TTL.toNanos() - 1);
+        assertTrue(underTest.get("/secret/a").isPresent());
+        ticker.incrementAndGet();
+        assertFalse(underTest.get("/secret/a").isPresent());
+        assertEquals(0, underTest.size());
+    }
+
+    @Test
+    void shouldNotCacheWithoutTimeToLive() {
+        underTest.put("/secret/a", true, Duration.ZERO);
+        assertFalse(underTest.get("/secret/a").isPresent());
+    }
+
+    @Test
+    void shouldBeBounded() {
+        for (var i = 0; i < ExistenceCache.MAXIMUM_SIZE; i++) {
+            underTest.put("/secret/" + i, true, TTL);
+        }
+        assertEquals(ExistenceCache.MAXIMUM_SIZE, underTest.size());
+        ticker.addAndGet(TTL.toNanos());
+        underTest.put("/secret/new", true, TTL);
+        assertEquals(1, underTest.size());
+        for (var i = 0; i < ExistenceCache.MAXIMUM_SIZE; i++) {
+            underTest.put("/secret/" + i, true, TTL);
+        }
+        assertTrue(underTest.size() <= ExistenceCache.MAXIMUM_SIZE);
+    }
+}
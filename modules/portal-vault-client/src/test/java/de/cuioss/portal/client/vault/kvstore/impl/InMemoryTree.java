@@ -0,0 +1,322 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.notFound;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.serviceNotAvailable;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
+import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.portal.client.vault.kvstore.NodeManager;
+import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.service.ServiceState;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Tree of nodes kept in memory, providing {@link Navigator}s and
+ * {@link NodeManager}s on it. Listings are derived from the paths of the nodes
+ * like Vault does: The children of "/a" are the ones of "/a/", folders are
+ * named with a trailing '/'. Each write of a node increments its version.
+ * A node deleted by {@link #softDelete(String)} is still listed, like Vault
+ * does for a deleted current version.
+ * <p>
+ * All operations on a path contained in {@link #getFailing()} result in an
+ * error, the calls of {@link Navigator#list()} and {@link NodeManager#read()}
+ * are counted.
+ */
+public class InMemoryTree {
+
+    private static final String SERVICE_NAME = "InMemoryTree";
+
+    private final Map<String, Map<String, KVEntry>> nodes = new TreeMap<>();
+
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+
+    private final Set<String> softDeleted = ConcurrentHashMap.newKeySet();
+
+    /** The paths all operations fail for */
+    @Getter
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+
+    /** The paths of the nodes deleted by {@link Navigator#delete()}, in order */
+    @Getter
+    private final List<String> deleted = Collections.synchronizedList(new ArrayList<>());
+
+    @Getter
+    private final AtomicInteger listCount = new AtomicInteger();
+
+    @Getter
+    private final AtomicInteger readCount = new AtomicInteger();
+
+    /**
+     * Replaces the content of the given node, creating it if needed.
+     *
+     * @param path    the path of the node, must not be null
+     * @param entries the entries to be stored as they are
+     */
+    public synchronized void put(String path, KVEntry... entries) {
+        put(path, immutableList(entries));
+    }
+
+    /**
+     * Replaces the content of the given node, creating it if needed.
+     *
+     * @param path    the path of the node, must not be null
+     * @param entries the entries to be stored as they are
+     */
+    public synchronized void put(String path, Collection<KVEntry> entries) {
+        Map<String, KVEntry> content = new LinkedHashMap<>();
+        entries.forEach(entry -> content.put(entry.getKey(), entry));
+        nodes.put(path, content);
+        versions.merge(path, 1, Integer::sum);
+        softDeleted.remove(path);
+    }
+
+    /**
+     * @param path the path of the node to be removed including its versions
+     */
+    public synchronized void remove(String path) {
+        nodes.remove(path);
+        versions.remove(path);
+        softDeleted.remove(path);
+    }
+
+    /**
+     * Deletes the current version of the given node: It is still listed, but
+     * has no content and its current version is reported as 0, until it is
+     * written again.
+     *
+     * @param path the path of the node
+     */
+    public synchronized void softDelete(String path) {
+        softDeleted.add(path);
+    }
+
+    /**
+     * @param path the path of the node
+     * @return the entries of the node, empty if not present
+     */
+    public synchronized List<KVEntry> get(String path) {
+        var content = nodes.get(path);
+        return null == content || softDeleted.contains(path) ? List.of() : immutableList(new ArrayList<>(content.values()));
+    }
+
+    /**
+     * @return the paths of all nodes, sorted
+     */
+    public synchronized Set<String> paths() {
+        return new TreeSet<>(nodes.keySet());
+    }
+
+    /**
+     * @param path the path of the node, must not be null
+     * @return the navigator for the given path
+     */
+    public Navigator navigator(String path) {
+        return new TreeNavigator(path);
+    }
+
+    /**
+     * @param path the path of the node, must not be null
+     * @return the manager of the content of the given node
+     */
+    public NodeManager nodeManager(String path) {
+        return new TreeNodeManager(new TreeNavigator(path));
+    }
+
+    /**
+     * @param path the path of the node to be deleted
+     * @return the outcome like {@link Navigator#delete()}
+     */
+    public synchronized ResultObject<Boolean> delete(String path) {
+        if (failing.contains(path)) {
+            return unavailable(Boolean.FALSE);
+        }
+        if (null == nodes.remove(path)) {
+            return notFound(Boolean.FALSE, SERVICE_NAME, path);
+        }
+        versions.remove(path);
+        deleted.add(path);
+        return valid(Boolean.TRUE);
+    }
+
+    private synchronized List<Navigator> children(String path) {
+        var prefix = path.endsWith("/") ? path : path + "/";
+        Set<String> children = new TreeSet<>();
+        for (String stored : nodes.keySet()) {
+            if (stored.startsWith(prefix) && stored.length() > prefix.length()) {
+                var remainder = stored.substring(prefix.length());
+                var slash = remainder.indexOf('/');
+                children.add(prefix + (slash < 0 ? remainder : remainder.substring(0, slash + 1)));
+            }
+        }
+        List<Navigator> result = new ArrayList<>();
+        children.forEach(child -> result.add(new TreeNavigator(child)));
+        return result;
+    }
+
+    private synchronized Collection<KVEntry> write(String path, Collection<KVEntry> entries) {
+        var content = nodes.computeIfAbsent(path, key -> new LinkedHashMap<>());
+        entries.forEach(entry -> content.put(entry.getKey(), entry));
+        versions.merge(path, 1, Integer::sum);
+        softDeleted.remove(path);
+        return entries;
+    }
+
+    private synchronized ResultObject<Boolean> deleteEntry(String path, String key) {
+        var content = nodes.get(path);
+        if (null == content || null == content.remove(key)) {
+            return notFound(Boolean.FALSE, SERVICE_NAME, key);
+        }
+        versions.merge(path, 1, Integer::sum);
+        return valid(Boolean.TRUE);
+    }
+
+    private static <T> ResultObject<T> unavailable(T defaultResult) {
+        return serviceNotAvailable(defaultResult, SERVICE_NAME, ServiceState.TEMPORARILY_UNAVAILABLE);
+    }
+
+    @RequiredArgsConstructor
+    private class TreeNavigator implements Navigator {
+
+        @Getter
+        private final String path;
+
+        @Override
+        public ServiceState getServiceState() {
+            return ServiceState.ACTIVE;
+        }
+
+        @Override
+        public String getContext() {
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
+
+        @Override
+        public Navigator getParent() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResultObject<List<Navigator>> list() {
+            listCount.incrementAndGet();
+            if (failing.contains(path)) {
+                return unavailable(Collections.emptyList());
+            }
+            return valid(children(path));
+        }
+
+        @Override
+        public ResultObject<List<Navigator>> list(String listPath) {
+            return new TreeNavigator(listPath).list();
+        }
+
+        @Override
+        public ResultObject<Navigator> create(String createPath) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResultObject<Boolean> delete() {
+            return InMemoryTree.this.delete(path);
+        }
+
+        @Override
+        public ResultObject<NodeManager> getNodeManager() {
+            return valid(new TreeNodeManager(this));
+        }
+    }
+
+    @RequiredArgsConstructor
+    private class TreeNodeManager implements NodeManager {
+
+        @Getter
+        private final Navigator navigator;
+
+        @Override
+        public ResultObject<Collection<KVEntry>> read() {
+            readCount.incrementAndGet();
+            if (failing.contains(navigator.getPath())) {
+                return unavailable(Collections.emptyList());
+            }
+            return valid(get(navigator.getPath()));
+        }
+
+        @Override
+        public ResultObject<Integer> readCurrentVersion() {
+            if (failing.contains(navigator.getPath())) {
+                return unavailable(0);
+            }
+            if (softDeleted.contains(navigator.getPath())) {
+                return valid(0);
+            }
+            return valid(versions.getOrDefault(navigator.getPath(), 0));
+        }
+
+        @Override
+        public ResultObject<KVEntry> read(String key) {
+            if (failing.contains(navigator.getPath())) {
+                return unavailable(KVEntry.EMPTY);
+            }
+            for (KVEntry entry : get(navigator.getPath())) {
+                if (key.equals(entry.getKey())) {
+                    return valid(entry);
+                }
+            }
+            return notFound(KVEntry.EMPTY, SERVICE_NAME, key);
+        }
+
+        @Override
+        public ResultObject<KVEntry> write(KVEntry entry) {
+            var written = write(immutableList(entry));
+            if (!written.isValid()) {
+                return unavailable(KVEntry.EMPTY);
+            }
+            return valid(entry);
+        }
+
+        @Override
+        public ResultObject<Collection<KVEntry>> write(Collection<KVEntry> entries) {
+            if (failing.contains(navigator.getPath())) {
+                return unavailable(Collections.emptyList());
+            }
+            return valid(InMemoryTree.this.write(navigator.getPath(), entries));
+        }
+
+        @Override
+        public ResultObject<Boolean> delete(String key) {
+            if (failing.contains(navigator.getPath())) {
+                return unavailable(Boolean.FALSE);
+            }
+            return deleteEntry(navigator.getPath(), key);
+        }
+    }
+}
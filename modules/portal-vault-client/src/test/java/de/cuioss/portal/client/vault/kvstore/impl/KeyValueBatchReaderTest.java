@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import de.cuioss.portal.client.vault.*;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.core.test.mocks.configuration.PortalTestConfiguration;
+import de.cuioss.uimodel.result.ResultErrorCodes;
+import de.cuioss.uimodel.result.ResultObject;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnableVaultTest
+class KeyValueBatchReaderTest {
+
+    @Inject
+    private PortalTestConfiguration configuration;
+
+    @Inject
+    @PortalVaultContext(VaultEndpoint.KEY_VALUE)
+    private Provider<VaultContext> vault;
+
+    @Test
+    void shouldHandleDisabled() {
+        configuration.update(VaultClientConfigKeys.VAULT_CLIENT_ENABLED, "false");
+        var result = new KeyValueBatchReader(vault.get()).readAll(immutableList("/b", "/a", "/b"));
+        assertEquals(List.of("/b", "/a"), new ArrayList<>(result.keySet()));
+        result.values().forEach(read -> {
+            assertFalse(read.isValid());
+            assertTrue(read.containsErrorCode(ResultErrorCodes.SERVICE_NOT_AVAILABLE));
+        });
+    }
+
+    @Test
+    void shouldBoundConcurrency() {
+        configuration.update(VaultClientConfigKeys.VAULT_KEY_VALUE_BATCH_CONCURRENCY, "2");
+        var active = new AtomicInteger();
+        var maximum = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var underTest = new KeyValueBatchReader(vault.get(), executor) {
+
+                @Override
+                ResultObject<Collection<KVEntry>> read(KeyValueNavigator navigator) {
+                    maximum.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    active.decrementAndGet();
+                    return ResultFactory.valid(immutableList(KVEntry.of("path", navigator.getPath())));
+                }
+            };
+            var result = underTest.readAll(immutableList("/1", "/2", "/3", "/4", "/5", "/6"));
+            assertEquals(6, result.size());
+            result.forEach((path, read) -> assertEquals(path,
+                    read.getResult().iterator().next().getValueAsString().get()));
+            assertTrue(maximum.get() <= 2, "Concurrency exceeded: " + maximum.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReportFailingRead() {
+        var underTest = new KeyValueBatchReader(vault.get()) {
+
+            @Override
+            ResultObject<Collection<KVEntry>> read(KeyValueNavigator navigator) {
+                if ("/broken".equals(navigator.getPath())) {
+                    throw new IllegalStateException("boom");
+                }
+                return ResultFactory.valid(immutableList(KVEntry.of("path", navigator.getPath())));
+            }
+        };
+        var result = underTest.readAll(immutableList("/1", "/broken", "/2"));
+        assertEquals(List.of("/1", "/broken", "/2"), new ArrayList<>(result.keySet()));
+        assertTrue(result.get("/1").isValid());
+        assertTrue(result.get("/2").isValid());
+        var broken = result.get("/broken");
+        assertFalse(broken.isValid());
+        assertTrue(broken.containsErrorCode(ResultErrorCodes.SERVICE_NOT_AVAILABLE));
+        assertTrue(broken.getResult().isEmpty());
+    }
+}
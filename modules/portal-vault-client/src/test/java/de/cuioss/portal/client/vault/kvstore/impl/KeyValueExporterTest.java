@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bettercloud.vault.json.Json;
+
+import de.cuioss.portal.client.vault.kvstore.BinaryPayload;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Metadata;
+
+class KeyValueExporterTest {
+
+    private static final Metadata METADATA = Metadata.ofEpochSeconds(1_700_000_000L, Metadata.NOT_DELETED, false, 3,
+            null);
+
+    private final InMemoryTree tree = new InMemoryTree();
+
+    private final KeyValueExporter underTest = new KeyValueExporter();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldExportSubtree() throws IOException {
+        for (var i = 0; i < 50; i++) {
+            tree.put("/app" + i, entry("user", "user" + i), entry("password", "line\n\"quoted\""));
+        }
+        var target = directory.resolve("export.ndjson");
+
+        var result = underTest.export(tree.navigator("/"), 4, target);
+        assertTrue(result.isValid());
+        assertEquals(100, result.getResult());
+        var lines = Files.readAllLines(target);
+        assertEquals(100, lines.size());
+        for (var i = 0; i < lines.size(); i += 2) {
+            // The entries of a node are consecutive
+            var first = Json.parse(lines.get(i)).asObject();
+            assertEquals(first.get("path"), Json.parse(lines.get(i + 1)).asObject().get("path"));
+        }
+        var record = KeyValueImporter.toEntry(Json.parse(lines.get(1)).asObject());
+        assertEquals("line\n\"quoted\"", record.getValue());
+        assertEquals(METADATA, record.getMetadata());
+    }
+
+    @Test
+    void shouldKeepBinaryEncoding() {
+        var encoded = PayloadEncoding.encode(new byte[] { 0, 1, 2, (byte) 0xff }, 0);
+        var read = KVEntry.builder().key("binary").value(PayloadEncoding.decode(encoded)).metadata(METADATA)
+                .build();
+        var record = KeyValueExporter.toRecord("/blob", read);
+        assertTrue(record.contains(encoded));
+        assertFalse(record.contains("deleted"));
+
+        var imported = KeyValueImporter.toEntry(Json.parse(record).asObject());
+        assertEquals(encoded, imported.getBinaryPayload().map(BinaryPayload::getSource).get());
+        assertArrayEquals(new byte[] { 0, 1, 2, (byte) 0xff }, (byte[]) imported.getValue());
+
+        var raw = KeyValueExporter.toRecord("/blob", KVEntry.of("binary", new byte[] { 0, 1, 2, (byte) 0xff }));
+        assertArrayEquals((byte[]) imported.getValue(),
+                (byte[]) KeyValueImporter.toEntry(Json.parse(raw).asObject()).getValue());
+
+        var deleted = Metadata.ofEpochSeconds(1L, 2L, true, null, null);
+        var empty = KeyValueExporter.toRecord("/", KVEntry.builder().key("empty").metadata(deleted).build());
+        var copy = KeyValueImporter.toEntry(Json.parse(empty).asObject());
+        assertEquals(deleted, copy.getMetadata());
+        assertNull(copy.getValue());
+    }
+
+    @Test
+    void shouldPropagateWriteFailure() {
+        tree.put("/", entry("key", "value"));
+        var failing = new Writer() {
+
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {
+                // nothing to flush
+            }
+
+            @Override
+            public void close() {
+                // nothing to close
+            }
+        };
+        assertThrows(IOException.class, () -> underTest.export(tree.navigator("/"), 1, failing));
+    }
+
+    private static KVEntry entry(String key, String value) {
+        return KVEntry.builder().key(key).value(value).metadata(METADATA).build();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.serviceNotAvailable;
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bettercloud.vault.Vault;
+import com.bettercloud.vault.VaultConfig;
+
+import de.cuioss.portal.client.vault.VaultContext;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.uimodel.result.ResultErrorCodes;
+import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.service.ServiceState;
+
+class KeyValueImporterTest {
+
+    private static final VaultContext CONTEXT = VaultContext.builder().vault(new Vault(new VaultConfig()))
+            .endpointName("secret").batchConcurrency(4).build();
+
+    private static final int NODES = 1500;
+
+    private final Map<String, Collection<KVEntry>> written = new ConcurrentHashMap<>();
+
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    private final KeyValueImporter underTest = new KeyValueImporter(CONTEXT, executor) {
+
+        @Override
+        ResultObject<Collection<KVEntry>> write(String path, List<KVEntry> entries) {
+            if (failing.contains(path)) {
+                return serviceNotAvailable(List.of(), "Fake", ServiceState.TEMPORARILY_UNAVAILABLE);
+            }
+            written.put(path, entries);
+            return valid(entries);
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldImportInBatches() throws IOException {
+        List<Long> checkpoints = new CopyOnWriteArrayList<>();
+        var result = underTest.importFrom(reader(export()), 0, checkpoints::add);
+        assertTrue(result.isValid());
+        assertEquals(2 * NODES, result.getResult());
+        assertEquals(NODES, written.size());
+        assertEquals("user7", written.get("/app7").iterator().next().getValue());
+        assertEquals(2, written.get("/app7").size());
+        assertEquals(2L * NODES, checkpoints.get(checkpoints.size() - 1));
+        assertTrue(checkpoints.size() > 1);
+    }
+
+    @Test
+    void shouldResumeFromCheckpoint() throws IOException {
+        var source = directory.resolve("export.ndjson");
+        var checkpoint = directory.resolve("export.checkpoint");
+        Files.writeString(source, export());
+        failing.add("/app1000");
+
+        var result = underTest.importFrom(source, checkpoint);
+        assertFalse(result.isValid());
+        assertTrue(result.containsErrorCode(ResultErrorCodes.SERVICE_NOT_AVAILABLE));
+        assertEquals(2 * (NODES - 1), result.getResult());
+        // The lines of '/app1000' start after line 2000
+        assertEquals("2000", Files.readString(checkpoint));
+
+        failing.clear();
+        written.clear();
+        result = underTest.importFrom(source, checkpoint);
+        assertTrue(result.isValid());
+        assertEquals(2 * (NODES - 1000), result.getResult());
+        assertTrue(written.containsKey("/app1000"));
+        assertFalse(written.containsKey("/app999"));
+        assertEquals(Long.toString(2L * NODES), Files.readString(checkpoint));
+    }
+
+    @Test
+    void shouldRejectInvalidRecord() {
+        var source = reader(export() + "{\"path\":\"/broken\"\n");
+        assertThrows(IllegalArgumentException.class, () -> underTest.importFrom(source, 0, lines -> {
+            // not of interest
+        }));
+        // The batch of the last node is not known to be complete
+        assertEquals(NODES - 1, written.size());
+    }
+
+    private static String export() {
+        var text = new StringBuilder();
+        for (var i = 0; i < NODES; i++) {
+            var node = "/app" + i;
+            text.append(KeyValueExporter.toRecord(node, KVEntry.of("user", "user" + i))).append('\n');
+            text.append(KeyValueExporter.toRecord(node, KVEntry.of("password", "secret" + i))).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static BufferedReader reader(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+}
@@ -15,7 +15,11 @@
  */
 package de.cuioss.portal.client.vault.kvstore.impl;
 
+import com.bettercloud.vault.Vault;
+import com.bettercloud.vault.VaultConfig;
 import de.cuioss.portal.client.vault.*;
+import de.cuioss.portal.client.vault.kvstore.cache.CachingNodeManager;
+import de.cuioss.portal.client.vault.kvstore.cache.NodeCache;
 import de.cuioss.portal.core.test.mocks.configuration.PortalTestConfiguration;
 import de.cuioss.test.juli.junit5.EnableTestLogger;
 import de.cuioss.test.valueobjects.junit5.contracts.ShouldBeNotNull;
@@ -26,6 +30,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 
 @EnableVaultTest
 @EnableTestLogger(debug = KeyValueNavigatorTest.class)
@@ -79,4 +84,20 @@ class KeyValueNavigatorTest implements ShouldBeNotNull<KeyValueNavigator> {
         assertFalse(underTest.delete().isValid());
     }
 
+    @Test
+    void shouldProvideNodeManagerWithoutCache() {
+        var context = VaultContext.builder().vault(new Vault(new VaultConfig())).endpointName("secret")
+                .enabled(true).build();
+        var manager = new KeyValueNavigator(context, FIRST_ELEMENT_PATH).getNodeManager();
+        assertInstanceOf(KeyValueNodeManager.class, manager.getResult());
+    }
+
+    @Test
+    void shouldProvideCachingNodeManager() {
+        var context = VaultContext.builder().vault(new Vault(new VaultConfig())).endpointName("secret")
+                .enabled(true).nodeCache(NodeCache.builder().build()).build();
+        var manager = new KeyValueNavigator(context, FIRST_ELEMENT_PATH).getNodeManager();
+        assertInstanceOf(CachingNodeManager.class, manager.getResult());
+    }
+
 }
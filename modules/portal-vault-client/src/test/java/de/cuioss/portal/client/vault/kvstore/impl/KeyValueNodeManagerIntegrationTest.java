@@ -18,6 +18,8 @@ package de.cuioss.portal.client.vault.kvstore.impl;
 import de.cuioss.portal.client.vault.*;
 import de.cuioss.portal.client.vault.kvstore.KVEntry;
 import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.portal.client.vault.kvstore.WriteMode;
+import de.cuioss.portal.core.test.mocks.configuration.PortalTestConfiguration;
 import de.cuioss.test.juli.junit5.EnableTestLogger;
 import de.cuioss.tools.io.FileSystemLoader;
 import de.cuioss.tools.logging.CuiLogger;
@@ -32,6 +34,7 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 
 import static de.cuioss.test.generator.Generators.bytes;
+import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
 import static de.cuioss.test.generator.Generators.strings;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -55,6 +58,9 @@ class KeyValueNodeManagerIntegrationTest {
     @PortalVaultContext(VaultEndpoint.KEY_VALUE)
     private Provider<VaultContext> vault;
 
+    @Inject
+    private PortalTestConfiguration configuration;
+
     @BeforeEach
     @AfterEach
     void deleteAllPaths() {
@@ -109,6 +115,67 @@ class KeyValueNodeManagerIntegrationTest {
         assertTrue(allread.getResult().isEmpty());
     }
 
+    @Test
+    void shouldReadCurrentVersion() {
+        var underTest = elementManager();
+        var notThere = underTest.readCurrentVersion();
+        assertTrue(notThere.isValid());
+        assertEquals(0, notThere.getResult());
+
+        var written = underTest.write(KVEntry.of(PROPERTY_1, strings().next()));
+        assertTrue(written.isValid());
+        var version = underTest.readCurrentVersion();
+        assertTrue(version.isValid());
+        assertEquals(written.getResult().getMetadata().getVersion(), version.getResult());
+    }
+
+    @Test
+    void shouldReadAll() {
+        var value = strings().next();
+        assertTrue(elementManager().write(KVEntry.of(PROPERTY_1, value)).isValid());
+        var result = new KeyValueBatchReader(vault.get()).readAll(immutableList("/" + NEW_PATH, "/" + NOT_THERE));
+        assertEquals(2, result.size());
+        var read = result.get("/" + NEW_PATH);
+        assertTrue(read.isValid());
+        assertEquals(value, read.getResult().iterator().next().getValueAsString().get());
+        var notThere = result.get("/" + NOT_THERE);
+        assertTrue(notThere.isValid());
+        assertTrue(notThere.getResult().isEmpty());
+    }
+
+    @Test
+    void shouldStreamBinaryData() throws IOException {
+        var underTest = elementManager();
+        assertTrue(underTest.write(KVEntry.of(PROPERTY_2, "value")).isValid());
+        var written = underTest.write(KVEntry.streaming(PROPERTY_1, POM_LOADER));
+        assertTrue(written.isValid());
+        assertTrue(written.getResult().getStreamingPayload().isPresent());
+
+        var read = underTest.read(PROPERTY_1);
+        assertTrue(read.isValid());
+        assertArrayEquals(KVEntry.toByteArray(POM_LOADER.inputStream()), (byte[]) read.getResult().getValue());
+        assertEquals("value", underTest.read(PROPERTY_2).getResult().getValue());
+        assertEquals(written.getResult().getMetadata().getVersion(),
+                read.getResult().getMetadata().getVersion());
+    }
+
+    @Test
+    void shouldCompressBinaryData() throws IOException {
+        configuration.update(VaultClientConfigKeys.VAULT_KEY_VALUE_COMPRESSION_THRESHOLD, "1024");
+        var underTest = elementManager();
+        var pomContent = KVEntry.toByteArray(POM_LOADER.inputStream());
+        assertTrue(underTest.write(KVEntry.of(PROPERTY_1, pomContent)).isValid());
+        assertTrue(underTest.write(KVEntry.streaming(PROPERTY_2, POM_LOADER)).isValid());
+
+        // Compressed values are read independent of the configuration
+        configuration.update(VaultClientConfigKeys.VAULT_KEY_VALUE_COMPRESSION_THRESHOLD, "0");
+        underTest = elementManager();
+        var read = underTest.read(PROPERTY_1);
+        assertTrue(read.getResult().getBinaryPayload().get().isGzipped());
+        assertArrayEquals(pomContent, (byte[]) read.getResult().getValue());
+        assertArrayEquals(pomContent, (byte[]) underTest.read(PROPERTY_2).getResult().getValue());
+    }
+
     @Test
     void shouldHandleNotExisitingProperty() {
         var underTest = elementManager();
@@ -165,6 +232,11 @@ class KeyValueNodeManagerIntegrationTest {
         var read = underTest.read();
         assertTrue(read.isValid());
         assertEquals(2, read.getResult().size());
+
+        var projected = underTest.read(immutableList(PROPERTY_2, NOT_THERE));
+        assertTrue(projected.isValid());
+        assertEquals(1, projected.getResult().size());
+        assertEquals(value2, projected.getResult().iterator().next().getValueAsString().get());
     }
 
     void assertPropertyDeleted(ResultObject<Boolean> deleted) {
@@ -224,4 +296,57 @@ class KeyValueNodeManagerIntegrationTest {
         assertArrayEquals(large, (byte[]) written.getResult().getValue());
     }
 
+    @Test
+    void shouldMergeWithCheckAndSet() {
+        configuration.update(VaultClientConfigKeys.VAULT_KEY_VALUE_WRITE_MODE, WriteMode.CHECK_AND_SET.name());
+        var underTest = elementManager();
+
+        var value = strings().next();
+        var value2 = strings().next();
+        var written = underTest.write(KVEntry.of(PROPERTY_1, value));
+        assertTrue(written.isValid());
+        assertEquals(value, written.getResult().getValueAsString().get());
+        var firstVersion = written.getResult().getMetadata().getVersion();
+
+        var writtenAll = underTest.write(immutableList(KVEntry.of(PROPERTY_2, value2)));
+        assertTrue(writtenAll.isValid());
+        assertEquals(2, writtenAll.getResult().size());
+
+        var read = underTest.read();
+        assertTrue(read.isValid());
+        assertEquals(2, read.getResult().size());
+        assertEquals(firstVersion + 1, read.getResult().iterator().next().getMetadata().getVersion());
+    }
+
+    @Test
+    void shouldHandleBinaryDataWithCheckAndSet() {
+        configuration.update(VaultClientConfigKeys.VAULT_KEY_VALUE_WRITE_MODE, WriteMode.CHECK_AND_SET.name());
+        var underTest = elementManager();
+
+        var content = new byte[] { 0, 1, 2, 3 };
+        var written = underTest.write(KVEntry.of(PROPERTY_1, content));
+        assertTrue(written.isValid());
+        assertArrayEquals(content, (byte[]) written.getResult().getValue());
+    }
+
+    @Test
+    void shouldPatchEntries() {
+        configuration.update(VaultClientConfigKeys.VAULT_KEY_VALUE_WRITE_MODE, WriteMode.PATCH.name());
+        var underTest = elementManager();
+
+        // Node does not exist: falls back to merge
+        var written = underTest.write(KVEntry.of(PROPERTY_1, strings().next()));
+        assertTrue(written.isValid());
+
+        var value2 = strings().next();
+        var patched = underTest.write(immutableList(KVEntry.of(PROPERTY_2, value2)));
+        assertTrue(patched.isValid());
+        assertEquals(1, patched.getResult().size());
+        assertEquals(value2, patched.getResult().iterator().next().getValueAsString().get());
+        assertEquals(2, underTest.read().getResult().size());
+
+        assertPropertyDeleted(underTest.delete(PROPERTY_1));
+        assertPropertyNotFound(underTest.read(PROPERTY_1));
+        assertTrue(underTest.read(PROPERTY_2).isValid());
+    }
 }
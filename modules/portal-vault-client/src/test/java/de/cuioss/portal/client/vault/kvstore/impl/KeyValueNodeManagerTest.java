@@ -15,20 +15,36 @@
  */
 package de.cuioss.portal.client.vault.kvstore.impl;
 
+import com.bettercloud.vault.Vault;
+import com.bettercloud.vault.VaultConfig;
+import com.bettercloud.vault.rest.RestResponse;
 import de.cuioss.portal.client.vault.*;
 import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.WriteMode;
 import de.cuioss.portal.core.test.mocks.configuration.PortalTestConfiguration;
 import de.cuioss.test.valueobjects.junit5.contracts.ShouldBeNotNull;
+import de.cuioss.uimodel.result.ResultErrorCodes;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @EnableVaultTest
 class KeyValueNodeManagerTest implements ShouldBeNotNull<KeyValueNodeManager> {
 
+    private static final int CAS_RETRIES = 2;
+
     @Inject
     private PortalTestConfiguration configuration;
 
@@ -54,4 +70,159 @@ class KeyValueNodeManagerTest implements ShouldBeNotNull<KeyValueNodeManager> {
         assertFalse(underTest.delete("test").isValid());
     }
 
+    @Test
+    void shouldRetryCheckAndSetMismatch() {
+        var client = new CheckAndSetClient(1);
+        var written = checkAndSetManager(client).write(immutableList(KVEntry.of("key", "value")));
+        assertTrue(written.isValid());
+        // The version read again after the mismatch is used for the retry
+        assertEquals(List.of(3, 4), client.getCasVersions());
+        assertEquals(2, written.getResult().size());
+        assertEquals(5, written.getResult().iterator().next().getMetadata().getVersion());
+        assertTrue(client.getWritten().containsKey("other"));
+    }
+
+    @Test
+    void shouldGiveUpAfterCasRetries() {
+        var client = new CheckAndSetClient(Integer.MAX_VALUE);
+        var written = checkAndSetManager(client).write(immutableList(KVEntry.of("key", "value")));
+        assertFalse(written.isValid());
+        assertEquals(CAS_RETRIES + 1, client.getCasVersions().size());
+    }
+
+    @Test
+    void shouldReportDeletedCurrentVersionAsMissing() {
+        assertEquals(3, readCurrentVersion("\"deletion_time\":\"\",\"destroyed\":false"));
+        assertEquals(0, readCurrentVersion("\"deletion_time\":\"2023-05-01T12:00:00.000000Z\",\"destroyed\":false"));
+        assertEquals(0, readCurrentVersion("\"deletion_time\":\"\",\"destroyed\":true"));
+        // Scheduled by 'delete_version_after', but not deleted yet
+        assertEquals(3, readCurrentVersion("\"deletion_time\":\"2999-01-01T00:00:00Z\",\"destroyed\":false"));
+    }
+
+    private static int readCurrentVersion(String currentVersionState) {
+        var client = new KeyValueRestClient(VaultContext.builder().vault(new Vault(new VaultConfig()))
+                .config(new VaultConfig()).endpointName("secret").build()) {
+
+            @Override
+            public RestResponse readMetadata(String fullPath) {
+                return CheckAndSetClient.response(HttpServletResponse.SC_OK,
+                        "{\"data\":{\"current_version\":3,\"versions\":{\"2\":{\"created_time\":"
+                                + "\"2023-04-01T12:00:00Z\",\"deletion_time\":\"\",\"destroyed\":false},"
+                                + "\"3\":{\"created_time\":\"2023-04-02T12:00:00Z\"," + currentVersionState
+                                + "}}}}");
+            }
+        };
+        var version = checkAndSetManager(client).readCurrentVersion();
+        assertTrue(version.isValid());
+        return version.getResult();
+    }
+
+    @Test
+    void shouldNotDeleteMissingKey() {
+        for (WriteMode writeMode : immutableList(WriteMode.PATCH, WriteMode.MERGE)) {
+            var client = new PatchClient();
+            var deleted = manager(client, writeMode).delete("missing");
+            assertFalse(deleted.isValid(), writeMode.name());
+            assertTrue(deleted.containsErrorCode(ResultErrorCodes.NOT_FOUND), writeMode.name());
+            assertEquals(0, client.getPatched().size(), writeMode.name());
+        }
+    }
+
+    @Test
+    void shouldDeleteByPatch() {
+        var client = new PatchClient();
+        assertTrue(manager(client, WriteMode.PATCH).delete("other").isValid());
+        assertEquals(1, client.getPatched().size());
+        assertTrue(client.getPatched().get(0).containsKey("other"));
+    }
+
+    private static KeyValueNodeManager checkAndSetManager(KeyValueRestClient client) {
+        return manager(client, WriteMode.CHECK_AND_SET);
+    }
+
+    private static KeyValueNodeManager manager(KeyValueRestClient client, WriteMode writeMode) {
+        var context = VaultContext.builder().vault(new Vault(new VaultConfig())).config(new VaultConfig())
+                .endpointName("secret").enabled(true).writeMode(writeMode).casRetries(CAS_RETRIES)
+                .build();
+        return new KeyValueNodeManager(new KeyValueNavigator(context, "/node"), context) {
+
+            @Override
+            KeyValueRestClient restClient() {
+                return client;
+            }
+        };
+    }
+
+    /**
+     * Simulates a concurrent writer: Each read provides the next version, the
+     * given number of writes is rejected as check-and-set mismatch.
+     */
+    private static class CheckAndSetClient extends KeyValueRestClient {
+
+        private int mismatches;
+
+        private int version = 2;
+
+        @Getter
+        private final List<Integer> casVersions = new ArrayList<>();
+
+        @Getter
+        private Map<String, Object> written;
+
+        CheckAndSetClient(int mismatches) {
+            super(VaultContext.builder().vault(new Vault(new VaultConfig())).config(new VaultConfig())
+                    .endpointName("secret").build());
+            this.mismatches = mismatches;
+        }
+
+        @Override
+        public RestResponse readData(String fullPath) {
+            version++;
+            return response(HttpServletResponse.SC_OK, "{\"data\":{\"data\":{\"other\":\"kept\"},"
+                    + "\"metadata\":{\"version\":" + version + "}}}");
+        }
+
+        @Override
+        public RestResponse writeData(String fullPath, Map<String, Object> data, Integer cas) {
+            casVersions.add(cas);
+            if (mismatches > 0) {
+                mismatches--;
+                return response(HttpServletResponse.SC_BAD_REQUEST,
+                        "{\"errors\":[\"check-and-set parameter did not match the current version\"]}");
+            }
+            written = data;
+            return response(HttpServletResponse.SC_OK, "{\"data\":{\"version\":" + (cas + 1) + "}}");
+        }
+
+        private static RestResponse response(int status, String body) {
+            return new RestResponse(status, "application/json", body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Provides a node containing the key "other" and records the patches.
+     */
+    private static class PatchClient extends KeyValueRestClient {
+
+        @Getter
+        private final List<Map<String, Object>> patched = new ArrayList<>();
+
+        PatchClient() {
+            super(VaultContext.builder().vault(new Vault(new VaultConfig())).config(new VaultConfig())
+                    .endpointName("secret").build());
+        }
+
+        @Override
+        public RestResponse readData(String fullPath) {
+            return CheckAndSetClient.response(HttpServletResponse.SC_OK,
+                    "{\"data\":{\"data\":{\"other\":\"kept\"},\"metadata\":{\"version\":2}}}");
+        }
+
+        @Override
+        public RestResponse patchData(String fullPath, Map<String, Object> data) {
+            patched.add(data);
+            return CheckAndSetClient.response(HttpServletResponse.SC_OK, "{\"data\":{\"version\":3}}");
+        }
+    }
+
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.bettercloud.vault.Vault;
+import com.bettercloud.vault.VaultConfig;
+import com.bettercloud.vault.json.Json;
+import com.bettercloud.vault.rest.RestResponse;
+
+import de.cuioss.portal.client.vault.EnableVaultTest;
+import de.cuioss.portal.client.vault.PortalVaultContext;
+import de.cuioss.portal.client.vault.VaultContext;
+import de.cuioss.portal.client.vault.VaultEndpoint;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.servlet.http.HttpServletResponse;
+
+@EnableVaultTest
+class KeyValueRestClientTest {
+
+    @Inject
+    @PortalVaultContext(VaultEndpoint.KEY_VALUE)
+    private Provider<VaultContext> vault;
+
+    @Test
+    void shouldTranslateApiPath() {
+        var underTest = new KeyValueRestClient(vault.get());
+        assertEquals("/v1/secret/data", underTest.toApiPath("/secret/", KeyValueRestClient.DATA));
+        assertEquals("/v1/secret/data/a/b", underTest.toApiPath("/secret/a/b", KeyValueRestClient.DATA));
+        assertEquals("/v1/secret/metadata/a%20b", underTest.toApiPath("/secret/a b", "metadata"));
+    }
+
+    @Test
+    void shouldRequireConfig() {
+        var context = VaultContext.builder().endpointName("secret").vault(new Vault(new VaultConfig())).build();
+        assertThrows(NullPointerException.class, () -> new KeyValueRestClient(context));
+    }
+
+    @Test
+    void shouldTranslateToJson() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("string", "value");
+        data.put("integer", 4);
+        data.put("boolean", true);
+        data.put("null", null);
+        var json = KeyValueRestClient.toJson(data);
+        assertEquals("value", json.get("string").asString());
+        assertEquals(4, json.get("integer").asInt());
+        assertTrue(json.get("boolean").asBoolean());
+        assertTrue(json.get("null").isNull());
+        assertTrue(KeyValueRestClient.toJson(null).isEmpty());
+    }
+
+    @Test
+    void shouldDetectCheckAndSetMismatch() {
+        assertTrue(KeyValueRestClient.isCheckAndSetMismatch(new RestResponse(HttpServletResponse.SC_BAD_REQUEST,
+                "application/json",
+                "{\"errors\":[\"check-and-set parameter did not match the current version\"]}".getBytes())));
+        assertFalse(KeyValueRestClient.isCheckAndSetMismatch(new RestResponse(HttpServletResponse.SC_BAD_REQUEST,
+                "application/json", "{\"errors\":[\"invalid\"]}".getBytes())));
+        assertFalse(KeyValueRestClient.isCheckAndSetMismatch(
+                new RestResponse(HttpServletResponse.SC_OK, "application/json", new byte[] {})));
+    }
+
+    @Test
+    void shouldDetectMethodNotSupported() {
+        assertTrue(KeyValueRestClient.isMethodNotSupported(
+                new RestResponse(HttpServletResponse.SC_METHOD_NOT_ALLOWED, "application/json", new byte[] {})));
+        assertFalse(KeyValueRestClient
+                .isMethodNotSupported(new RestResponse(HttpServletResponse.SC_OK, "application/json", new byte[] {})));
+    }
+
+    @Test
+    void shouldCreateStreamingBody() throws IOException {
+        Map<String, Object> data = new HashMap<>();
+        data.put("string", "value");
+        Map<String, InputStream> streamed = new LinkedHashMap<>();
+        streamed.put("first", stream("abc"));
+        streamed.put("sec\"ond", stream("def"));
+        var json = Json.parse(read(KeyValueRestClient.streamingBody(data, streamed, 3))).asObject();
+        assertEquals(3, json.get("options").asObject().get("cas").asInt());
+        var written = json.get("data").asObject();
+        assertEquals("value", written.get("string").asString());
+        assertEquals("abc", written.get("first").asString());
+        assertEquals("def", written.get("sec\"ond").asString());
+
+        json = Json.parse(read(KeyValueRestClient.streamingBody(new HashMap<>(), Map.of("only", stream("x")), null)))
+                .asObject();
+        assertFalse(json.names().contains("options"));
+        assertEquals("x", json.get("data").asObject().get("only").asString());
+    }
+
+    @Test
+    void shouldProvideStreamingBodyOnce() throws IOException {
+        var body = stream("abc");
+        var supplier = KeyValueRestClient.singleUse(body);
+        assertEquals("abc", read(supplier.get()));
+        assertThrows(UncheckedIOException.class, supplier::get);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(InputStream input) throws IOException {
+        try (input) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
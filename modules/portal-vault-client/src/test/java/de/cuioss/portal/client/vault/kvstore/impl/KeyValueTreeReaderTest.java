@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.uimodel.result.ResultErrorCodes;
+
+class KeyValueTreeReaderTest {
+
+    private final InMemoryTree tree = new InMemoryTree();
+
+    private final KeyValueTreeReader underTest = new KeyValueTreeReader();
+
+    @BeforeEach
+    void setUp() {
+        // "/" -> 20 secrets and 20 folders, each with 10 leaves
+        for (var i = 0; i < 20; i++) {
+            var secret = "/secret" + i;
+            tree.put(secret, KVEntry.of("key", secret));
+            for (var j = 0; j < 10; j++) {
+                var leaf = "/folder" + i + "/leaf" + j;
+                tree.put(leaf, KVEntry.of("key", leaf));
+            }
+        }
+    }
+
+    @Test
+    void shouldReadCompleteTree() {
+        var result = underTest.readTree(navigator("/"), KeyValueTreeReader.UNLIMITED, 4);
+        assertTrue(result.isValid());
+        assertEquals(220, result.getResult().size());
+        assertEquals(tree.paths(), new HashSet<>(result.getResult().keySet()));
+        assertEquals("/folder0/leaf0", result.getResult().keySet().iterator().next());
+        assertEquals("/folder3/leaf7", result.getResult().get("/folder3/leaf7").iterator().next().getValue());
+    }
+
+    @Test
+    void shouldRespectDepth() {
+        assertTrue(underTest.readTree(navigator("/"), 0, 2).getResult().isEmpty());
+        assertEquals(20, underTest.readTree(navigator("/"), 1, 2).getResult().size());
+        assertEquals(10, underTest.readTree(navigator("/folder5/"), 1, 2).getResult().size());
+        assertThrows(IllegalArgumentException.class, () -> underTest.readTree(navigator("/"), -1, 2));
+        assertThrows(IllegalArgumentException.class, () -> underTest.readTree(navigator("/"), 1, 0));
+    }
+
+    @Test
+    void shouldStreamNodes() {
+        Map<String, Collection<KVEntry>> streamed = new ConcurrentHashMap<>();
+        var result = underTest.readTree(navigator("/"), KeyValueTreeReader.UNLIMITED, 8, streamed::put);
+        assertTrue(result.isValid());
+        assertEquals(220, result.getResult());
+        assertEquals(220, streamed.size());
+    }
+
+    @Test
+    void shouldListTree() {
+        Map<String, Integer> listed = new ConcurrentHashMap<>();
+        var result = underTest.listTree(navigator("/"), 1, 4,
+                (parent, listedChildren) -> listed.put(parent.getPath(), listedChildren.size()));
+        assertTrue(result.isValid());
+        assertEquals(1, result.getResult());
+        assertEquals(Map.of("/", 40), listed);
+        result = underTest.listTree(navigator("/"), KeyValueTreeReader.UNLIMITED, 4,
+                (parent, listedChildren) -> listed.put(parent.getPath(), listedChildren.size()));
+        assertEquals(241, result.getResult());
+        assertEquals(241, listed.size());
+    }
+
+    @Test
+    void shouldReportPartialFailures() {
+        tree.getFailing().add("/folder1/leaf1");
+        tree.getFailing().add("/folder2/");
+        var result = underTest.readTree(navigator("/"), KeyValueTreeReader.UNLIMITED, 4);
+        assertFalse(result.isValid());
+        assertTrue(result.containsErrorCode(ResultErrorCodes.SERVICE_NOT_AVAILABLE));
+        assertTrue(result.getResultDetail().isPresent());
+        // The children of '/folder2/' are not available
+        assertEquals(220 - 1 - 10, result.getResult().size());
+        assertFalse(result.getResult().containsKey("/folder1/leaf1"));
+        assertTrue(result.getResult().containsKey("/folder1/leaf2"));
+    }
+
+    private Navigator navigator(String path) {
+        return tree.navigator(path);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.tools.collect.CollectionLiterals.immutableList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+import de.cuioss.uimodel.result.ResultState;
+
+class KeyValueTreeWriterTest {
+
+    private final InMemoryTree tree = new InMemoryTree();
+
+    private final KeyValueTreeWriter underTest = new KeyValueTreeWriter(Runnable::run) {
+
+        @Override
+        Navigator resolve(Navigator target, String path) {
+            return tree.navigator(path);
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        for (String path : immutableList("/tenant", "/tenant/a", "/tenant/b/c", "/tenant/b/d", "/tenant/b/e/f",
+                "/other")) {
+            tree.put(path, KVEntry.of("key", path));
+        }
+    }
+
+    @Test
+    void shouldDeleteLeavesBeforeParents() {
+        var result = underTest.deleteTree(tree.navigator("/tenant"), 3);
+        assertTrue(result.isValid());
+        assertEquals(5, result.getResult().size());
+        assertEquals(Set.of("/other"), tree.paths());
+        assertEquals("/tenant/b/e/f", tree.getDeleted().get(0));
+        assertEquals("/tenant", tree.getDeleted().get(4));
+        for (var i = 1; i < tree.getDeleted().size(); i++) {
+            assertTrue(depth(tree.getDeleted().get(i - 1)) >= depth(tree.getDeleted().get(i)));
+        }
+    }
+
+    @Test
+    void shouldDeleteFolder() {
+        var result = underTest.deleteTree(tree.navigator("/tenant/b/"), 2);
+        assertTrue(result.isValid());
+        assertEquals(3, result.getResult().size());
+        assertEquals(Set.of("/tenant", "/tenant/a", "/other"), tree.paths());
+    }
+
+    @Test
+    void shouldReportFailingNodes() {
+        tree.getFailing().add("/tenant/b/c");
+        var result = underTest.deleteTree(tree.navigator("/tenant"), 2);
+        assertEquals(ResultState.WARNING, result.getState());
+        assertFalse(result.getResult().get("/tenant/b/c").isValid());
+        assertTrue(result.getResult().get("/tenant/b/d").isValid());
+        assertEquals(Set.of("/other", "/tenant/b/c"), tree.paths());
+    }
+
+    @Test
+    void shouldCopyTree() {
+        var result = underTest.copyTree(tree.navigator("/tenant"), tree.navigator("/copy/"), 2);
+        assertTrue(result.isValid());
+        assertEquals(5, result.getResult().size());
+        assertEquals("/tenant/b/e/f", tree.get("/copy/b/e/f").iterator().next().getValue());
+        assertEquals("/tenant", tree.get("/copy").iterator().next().getValue());
+        assertTrue(tree.paths().contains("/tenant/a"));
+        assertEquals(11, tree.paths().size());
+    }
+
+    @Test
+    void shouldMoveTree() {
+        var result = underTest.moveTree(tree.navigator("/tenant/b/"), tree.navigator("/moved/"), 2);
+        assertTrue(result.isValid());
+        assertEquals(Set.of("/tenant", "/tenant/a", "/other", "/moved/c", "/moved/d", "/moved/e/f"),
+                tree.paths());
+    }
+
+    @Test
+    void shouldKeepSourceOnFailedCopy() {
+        tree.getFailing().add("/moved/d");
+        var result = underTest.moveTree(tree.navigator("/tenant/b/"), tree.navigator("/moved/"), 2);
+        assertEquals(ResultState.WARNING, result.getState());
+        assertFalse(result.getResult().get("/tenant/b/d").isValid());
+        assertTrue(tree.paths().contains("/tenant/b/c"));
+        assertTrue(tree.getDeleted().isEmpty());
+    }
+
+    @Test
+    void shouldRejectTargetWithinSource() {
+        var source = tree.navigator("/tenant");
+        var target = tree.navigator("/tenant/b/copy");
+        assertThrows(IllegalArgumentException.class, () -> underTest.copyTree(source, target, 1));
+    }
+
+    @Test
+    void shouldResolveTargetPaths() {
+        assertEquals("/target", KeyValueTreeWriter.targetPath("/source", "/target", "/source"));
+        assertEquals("/target", KeyValueTreeWriter.targetPath("/source", "/target/", "/source"));
+        assertEquals("/target/a/b", KeyValueTreeWriter.targetPath("/source", "/target", "/source/a/b"));
+        assertEquals("/target/a", KeyValueTreeWriter.targetPath("/source/", "/target", "/source/a"));
+        assertEquals("/target/a", KeyValueTreeWriter.targetPath("/source", "/target/", "/source/a"));
+        assertEquals("/target/a", KeyValueTreeWriter.targetPath("/", "/target/", "/a"));
+    }
+
+    private static int depth(String path) {
+        return path.split("/").length;
+    }
+}
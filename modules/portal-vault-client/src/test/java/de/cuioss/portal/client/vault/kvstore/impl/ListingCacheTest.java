@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class ListingCacheTest {
+
+    private static final Duration TTL = Duration.ofSeconds(5);
+
+    private static final Duration NEGATIVE_TTL = Duration.ofSeconds(1);
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private final ListingCache underTest = new ListingCache(3, ticker::get);
+
+    @Test
+    void shouldCacheFoundAndNotFound() {
+        var found = ListingCache.key("/secret/a");
+        var missing = ListingCache.key("/secret/b/");
+        assertFalse(underTest.get(found).isPresent());
+        underTest.put(found, List.of("one", "two/"), TTL);
+        underTest.putNotFound(missing, NEGATIVE_TTL);
+
+        assertEquals(List.of("one", "two/"), underTest.get(found).get().getNames());
+        assertTrue(underTest.get(missing).get().isNotFound());
+        assertEquals(1, underTest.getHitCount());
+        assertEquals(1, underTest.getNegativeHitCount());
+        assertEquals(1, underTest.getMissCount());
+    }
+
+    @Test
+    void shouldExpireSeparately() {
+        var found = ListingCache.key("/secret/a");
+        var missing = ListingCache.key("/secret/b");
+        underTest.put(found, List.of("one"), TTL);
+        underTest.putNotFound(missing, NEGATIVE_TTL);
+        ticker.addAndGet(NEGATIVE_TTL.toNanos());
+        assertTrue(underTest.get(found).isPresent());
+        assertFalse(underTest.get(missing).isPresent());
+        ticker.addAndGet(TTL.toNanos());
+        assertFalse(underTest.get(found).isPresent());
+        assertEquals(0, underTest.size());
+
+        underTest.put(found, List.of("one"), Duration.ZERO);
+        assertFalse(underTest.get(found).isPresent());
+    }
+
+    @Test
+    void shouldInvalidateAncestors() {
+        underTest.put(ListingCache.key("/"), List.of("secret/"), TTL);
+        underTest.put(ListingCache.key("/secret"), List.of("a/"), TTL);
+        underTest.put(ListingCache.key("/secret/a"), List.of("b"), TTL);
+        underTest.invalidatePath("/secret/a/b");
+        assertEquals(0, underTest.size());
+
+        underTest.put(ListingCache.key("/secret/other"), List.of("c"), TTL);
+        underTest.put(ListingCache.key("/other"), List.of("c"), TTL);
+        underTest.invalidatePath("/secret/a/");
+        assertEquals(2, underTest.size());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsed() {
+        underTest.put("a", List.of(), TTL);
+        underTest.put("b", List.of(), TTL);
+        underTest.put("c", List.of(), TTL);
+        assertTrue(underTest.get("a").isPresent());
+        underTest.put("d", List.of(), TTL);
+        assertEquals(3, underTest.size());
+        assertEquals(1, underTest.getEvictionCount());
+        assertTrue(underTest.get("a").isPresent());
+        assertFalse(underTest.get("b").isPresent());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class PathTrieTest {
+
+    private final PathTrie<String> underTest = new PathTrie<>();
+
+    @Test
+    void shouldPutAndGet() {
+        assertNull(underTest.put("/apps/one", "1"));
+        assertNull(underTest.put("/apps/other", "2"));
+        assertNull(underTest.put("/apps/", "3"));
+        assertEquals("1", underTest.put("/apps/one", "4"));
+        assertEquals(3, underTest.size());
+        assertEquals("4", underTest.get("/apps/one"));
+        assertEquals("3", underTest.get("/apps/"));
+        assertNull(underTest.get("/apps/o"));
+        assertNull(underTest.get("/apps/ones"));
+        assertNull(underTest.get("/"));
+    }
+
+    @Test
+    void shouldVisitByPrefixInOrder() {
+        List.of("/b/2", "/a/1", "/b/1", "/ba", "/a/2/x").forEach(key -> underTest.put(key, key));
+        assertEquals(List.of("/a/1", "/a/2/x", "/b/1", "/b/2", "/ba"), keys(""));
+        assertEquals(List.of("/b/1", "/b/2", "/ba"), keys("/b"));
+        assertEquals(List.of("/b/1", "/b/2"), keys("/b/"));
+        assertEquals(List.of("/a/2/x"), keys("/a/2/"));
+        assertEquals(List.of(), keys("/c"));
+        assertEquals(List.of(), keys("/a/3"));
+    }
+
+    @Test
+    void shouldRemove() {
+        List.of("/a/1", "/a/2", "/a/22", "/b").forEach(key -> underTest.put(key, key));
+        assertEquals("/a/2", underTest.remove("/a/2"));
+        assertNull(underTest.remove("/a/2"));
+        assertNull(underTest.remove("/a/"));
+        assertEquals(List.of("/a/1", "/a/22", "/b"), keys(""));
+        assertEquals(2, underTest.removePrefix("/a/"));
+        assertEquals(0, underTest.removePrefix("/a/"));
+        assertEquals(List.of("/b"), keys(""));
+        assertEquals(1, underTest.size());
+        assertEquals(1, underTest.removePrefix(""));
+        assertEquals(0, underTest.size());
+    }
+
+    @Test
+    void shouldBehaveLikeSortedMap() {
+        var random = new Random(42);
+        var reference = new TreeMap<String, String>();
+        for (var i = 0; i < 5000; i++) {
+            var key = "/" + Integer.toString(random.nextInt(300), 3) + "/" + Integer.toString(random.nextInt(20), 2);
+            if (random.nextInt(4) == 0) {
+                assertEquals(reference.remove(key), underTest.remove(key));
+            } else {
+                assertEquals(reference.put(key, key), underTest.put(key, key));
+            }
+        }
+        assertEquals(reference.size(), underTest.size());
+        assertEquals(new ArrayList<>(reference.keySet()), keys(""));
+        assertEquals(new ArrayList<>(reference.subMap("/12", "/13").keySet()), keys("/12"));
+    }
+
+    private List<String> keys(String prefix) {
+        List<String> keys = new ArrayList<>();
+        underTest.forEachWithPrefix(prefix, (key, value) -> keys.add(key));
+        return keys;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.cuioss.portal.client.vault.kvstore.BinaryPayload;
+
+class PayloadEncodingTest {
+
+    private static final byte[] COMPRESSIBLE = "<descriptor><entry>value</entry></descriptor>".repeat(100)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void shouldEncodeUncompressed() {
+        var encoded = PayloadEncoding.encode(COMPRESSIBLE, 0);
+        assertTrue(encoded.startsWith(PayloadEncoding.BASE64_BIN));
+        assertRoundtrip(COMPRESSIBLE, encoded, false);
+        // Below threshold
+        assertTrue(PayloadEncoding.encode(new byte[] { 1, 2, 3 }, 10).startsWith(PayloadEncoding.BASE64_BIN));
+    }
+
+    @Test
+    void shouldEncodeCompressed() {
+        var encoded = PayloadEncoding.encode(COMPRESSIBLE, 1024);
+        assertTrue(encoded.startsWith(PayloadEncoding.BASE64_GZIP));
+        assertTrue(encoded.length() < COMPRESSIBLE.length / 5);
+        assertRoundtrip(COMPRESSIBLE, encoded, true);
+    }
+
+    @Test
+    void shouldNotCompressIncompressible() {
+        var random = new byte[4096];
+        new Random(42).nextBytes(random);
+        var encoded = PayloadEncoding.encode(random, 1024);
+        assertTrue(encoded.startsWith(PayloadEncoding.BASE64_BIN));
+        assertRoundtrip(random, encoded, false);
+    }
+
+    @Test
+    void shouldEncodeStreaming() throws IOException {
+        for (var threshold : new int[] { 0, 1 }) {
+            try (var input = PayloadEncoding.encode(new ByteArrayInputStream(COMPRESSIBLE), threshold)) {
+                var encoded = new String(input.readAllBytes(), StandardCharsets.US_ASCII);
+                assertRoundtrip(COMPRESSIBLE, encoded, threshold > 0);
+            }
+        }
+    }
+
+    @Test
+    void shouldGzipStreamingLikeGzipOutputStream() throws IOException {
+        for (var length : new int[] { 0, 1, 100_000 }) {
+            var content = new byte[length];
+            new Random(length).nextBytes(content);
+            try (var compressed = PayloadEncoding.gzip(new ByteArrayInputStream(content));
+                    var decompressed = new GZIPInputStream(compressed)) {
+                assertArrayEquals(content, decompressed.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void shouldDecodePlainValues() {
+        assertEquals("plain", PayloadEncoding.decode("plain"));
+        assertEquals("", PayloadEncoding.decode(""));
+        assertFalse(PayloadEncoding.isEncoded("plain"));
+        assertFalse(PayloadEncoding.isEncoded(null));
+        var legacy = PayloadEncoding.BASE64_BIN + Base64.getEncoder().encodeToString(new byte[] { 1 });
+        assertArrayEquals(new byte[] { 1 }, ((BinaryPayload) PayloadEncoding.decode(legacy)).toByteArray());
+    }
+
+    private static void assertRoundtrip(byte[] expected, String encoded, boolean gzipped) {
+        assertTrue(PayloadEncoding.isEncoded(encoded));
+        var payload = (BinaryPayload) PayloadEncoding.decode(encoded);
+        assertEquals(gzipped, payload.isGzipped());
+        assertArrayEquals(expected, payload.toByteArray());
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static de.cuioss.portal.client.vault.kvstore.impl.ResultFactory.valid;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.bettercloud.vault.Vault;
+import com.bettercloud.vault.VaultConfig;
+
+import de.cuioss.portal.client.vault.VaultContext;
+import de.cuioss.portal.client.vault.kvstore.KVChangeEvent;
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Metadata;
+import de.cuioss.portal.client.vault.kvstore.NodeManager;
+import de.cuioss.uimodel.result.ResultObject;
+import de.cuioss.uimodel.result.ResultState;
+
+class VaultChangeWatcherTest {
+
+    private static final VaultContext CONTEXT = VaultContext.builder().vault(new Vault(new VaultConfig()))
+            .endpointName("secret").enabled(true).build();
+
+    private final InMemoryTree tree = new InMemoryTree();
+
+    private final List<KVChangeEvent> events = new ArrayList<>();
+
+    private VaultChangeWatcher underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = watcher(Runnable::run);
+    }
+
+    private VaultChangeWatcher watcher(Executor executor) {
+        return new VaultChangeWatcher(CONTEXT, Duration.ofSeconds(1), VaultExecutors.defaultScheduler(), executor,
+                this::record) {
+
+            @Override
+            NodeManager nodeManager(String path) {
+                return tree.nodeManager(path);
+            }
+
+            @Override
+            ResultObject<Set<String>> listNodes(String root) {
+                Set<String> found = new HashSet<>();
+                tree.paths().stream().filter(path -> path.startsWith(root)).forEach(found::add);
+                return valid(found);
+            }
+        };
+    }
+
+    private synchronized void record(KVChangeEvent event) {
+        events.add(event);
+    }
+
+    private void put(String path, String... keyValues) {
+        List<KVEntry> entries = new ArrayList<>();
+        for (var i = 0; i < keyValues.length; i += 2) {
+            entries.add(KVEntry.of(keyValues[i], keyValues[i + 1]));
+        }
+        tree.put(path, entries);
+    }
+
+    /** Runs the ticks of one interval */
+    private int pollAll() {
+        var changed = 0;
+        for (var i = 0; i < VaultChangeWatcher.SLICES; i++) {
+            changed += underTest.tick().join().getResult();
+        }
+        return changed;
+    }
+
+    @Test
+    void shouldDetectChangesByVersion() {
+        put("/a", "keep", "1", "change", "1", "remove", "1");
+        put("/b", "key", "1");
+        underTest.watch("/a");
+        underTest.watch("/b");
+        assertEquals(0, pollAll());
+        assertEquals(2, tree.getReadCount().get());
+
+        // Unchanged: only the versions are read
+        assertEquals(0, pollAll());
+        assertEquals(2, tree.getReadCount().get());
+
+        put("/a", "keep", "1", "change", "2", "add", "1");
+        assertEquals(1, pollAll());
+        assertEquals(3, tree.getReadCount().get());
+        var event = events.get(0);
+        assertEquals("/a", event.getPath());
+        assertEquals(1, event.getPreviousVersion());
+        assertEquals(2, event.getCurrentVersion());
+        assertEquals("add", event.getAdded().get(0).getKey());
+        assertEquals("2", event.getChanged().get(0).getValue());
+        assertEquals("remove", event.getRemoved().get(0).getKey());
+        assertEquals(1, event.getAdded().size());
+        assertEquals(1, event.getChanged().size());
+        assertEquals(1, event.getRemoved().size());
+    }
+
+    @Test
+    void shouldReportDeletion() {
+        put("/a", "key", "1");
+        underTest.watch("/a");
+        pollAll();
+        tree.remove("/a");
+        assertEquals(1, pollAll());
+        var event = events.get(0);
+        assertEquals(0, event.getCurrentVersion());
+        assertEquals(1, event.getRemoved().size());
+        assertTrue(event.hasChanges());
+
+        // Created again
+        put("/a", "key", "2");
+        assertEquals(1, pollAll());
+        assertEquals("2", events.get(1).getAdded().get(0).getValue());
+    }
+
+    @Test
+    void shouldReportSoftDeletion() {
+        put("/tree/a", "key", "1");
+        underTest.watchTree("/tree/");
+        pollAll();
+        tree.softDelete("/tree/a");
+        assertEquals(1, pollAll());
+        var event = events.get(0);
+        assertEquals(0, event.getCurrentVersion());
+        assertEquals(1, event.getRemoved().size());
+
+        // Still listed, so it stays watched without further events
+        underTest.rescan();
+        assertEquals(1, underTest.size());
+        assertEquals(0, pollAll());
+        assertEquals(1, events.size());
+
+        // Written again
+        put("/tree/a", "key", "2");
+        assertEquals(1, pollAll());
+        assertEquals("2", events.get(1).getAdded().get(0).getValue());
+    }
+
+    @Test
+    void shouldRetryFailingPolls() {
+        put("/a", "key", "1");
+        put("/b", "key", "1");
+        underTest.watch("/a");
+        underTest.watch("/b");
+        pollAll();
+        put("/a", "key", "2");
+        tree.getFailing().add("/a");
+        var states = new ArrayList<ResultState>();
+        for (var i = 0; i < VaultChangeWatcher.SLICES; i++) {
+            states.add(underTest.tick().join().getState());
+        }
+        assertTrue(states.contains(ResultState.WARNING));
+        assertTrue(events.isEmpty());
+
+        tree.getFailing().clear();
+        assertEquals(1, pollAll());
+    }
+
+    @Test
+    void shouldSkipSliceStillPolling() {
+        List<Runnable> tasks = new ArrayList<>();
+        underTest = watcher(tasks::add);
+        put("/a", "key", "1");
+        underTest.watch("/a");
+        List<CompletableFuture<ResultObject<Integer>>> polled = new ArrayList<>();
+        for (var i = 0; i < 2 * VaultChangeWatcher.SLICES; i++) {
+            polled.add(underTest.tick());
+        }
+        // Only submitted, the second tick of the slice is skipped
+        assertEquals(1, tasks.size());
+        assertEquals(0, tree.getReadCount().get());
+
+        tasks.get(0).run();
+        assertTrue(polled.stream().allMatch(CompletableFuture::isDone));
+        assertEquals(1, tree.getReadCount().get());
+    }
+
+    @Test
+    void shouldWatchTree() {
+        put("/tree/a", "key", "1");
+        put("/tree/b", "key", "1");
+        assertEquals(2, underTest.watchTree("/tree/").getResult());
+        assertEquals(2, underTest.size());
+        assertEquals(0, pollAll());
+
+        // Added and removed meanwhile
+        put("/tree/c", "key", "1");
+        tree.remove("/tree/b");
+        underTest.rescan();
+        assertEquals(2, underTest.size());
+        assertEquals(1, events.size());
+        assertEquals("/tree/b", events.get(0).getPath());
+        assertEquals(1, pollAll());
+        assertEquals("/tree/c", events.get(1).getPath());
+        assertEquals(1, events.get(1).getAdded().size());
+
+        underTest.watch("/tree/a");
+        underTest.unwatch("/tree/");
+        assertEquals(1, underTest.size());
+        underTest.unwatch("/tree/a");
+        assertEquals(0, underTest.size());
+    }
+
+    @Test
+    void shouldCompareValuesOnly() {
+        var metadata = Metadata.ofEpochSeconds(0, Metadata.NOT_DELETED, false, 1, null);
+        var event = VaultChangeWatcher.diff("/a", 1, 2,
+                Map.of("binary", KVEntry.builder().key("binary").value(new byte[] { 1 }).metadata(metadata).build()),
+                Map.of("binary", KVEntry.of("binary", new byte[] { 1 })));
+        assertFalse(event.hasChanges());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.kvstore.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.cuioss.portal.client.vault.kvstore.KVEntry;
+import de.cuioss.portal.client.vault.kvstore.Navigator;
+
+class VaultPathIndexTest {
+
+    private final InMemoryTree tree = new InMemoryTree();
+
+    private VaultPathIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        // Vault style: folders with a trailing '/'
+        add("/apps/one/db/password", "/apps/one/db/user", "/apps/one/ui", "/apps/two/db/password",
+                "/shared/certificate");
+        underTest = new VaultPathIndex(tree.navigator("/"), 4);
+        assertTrue(underTest.refresh().isValid());
+        tree.getListCount().set(0);
+    }
+
+    @Test
+    void shouldIndexAllPaths() {
+        assertEquals(11, underTest.size());
+        assertTrue(underTest.get("/apps/one/db/password").isPresent());
+        assertTrue(underTest.get("/apps/one/db").isPresent());
+        assertFalse(underTest.get("/apps/three/").isPresent());
+        assertThrows(IllegalArgumentException.class, () -> new VaultPathIndex(tree.navigator("/"), 0));
+    }
+
+    @Test
+    void shouldFindByPrefix() {
+        assertEquals(List.of("/apps/one/db/", "/apps/one/db/password", "/apps/one/db/user"),
+                paths(underTest.findByPrefix("/apps/one/d")));
+        assertEquals(11, underTest.findByPrefix("/").size());
+        assertTrue(underTest.findByPrefix("/other").isEmpty());
+    }
+
+    @Test
+    void shouldFindByGlob() {
+        assertEquals(List.of("/apps/one/db/", "/apps/one/db/password", "/apps/one/db/user", "/apps/two/db/",
+                "/apps/two/db/password"), paths(underTest.findByGlob("/apps/*/db/**")));
+        assertEquals(List.of("/apps/one/db/password", "/apps/two/db/password"),
+                paths(underTest.findByGlob("/apps/*/db/password")));
+        assertEquals(List.of("/apps/one/", "/apps/two/"), paths(underTest.findByGlob("/apps/???")));
+        assertEquals(List.of("/shared/certificate"), paths(underTest.findByGlob("**/cert*")));
+    }
+
+    @Test
+    void shouldFindBySubstring() {
+        assertEquals(List.of("/apps/one/db/password", "/apps/two/db/password"),
+                paths(underTest.findBySubstring("pass")));
+        assertTrue(underTest.findBySubstring("missing").isEmpty());
+    }
+
+    @Test
+    void shouldRefreshIncrementally() {
+        add("/apps/two/cache/host");
+        tree.remove("/apps/one/db/user");
+        var result = underTest.refresh(List.of("/apps/two/cache/host", "/apps/one/db/user"));
+        assertTrue(result.isValid());
+        assertEquals(12, result.getResult());
+        assertTrue(underTest.get("/apps/two/cache/host").isPresent());
+        assertFalse(underTest.get("/apps/one/db/user").isPresent());
+        // '/apps/two/' and '/apps/one/db/', then the new subtree of 'cache/'
+        assertEquals(4, tree.getListCount().get());
+    }
+
+    @Test
+    void shouldDropEmptiedFolders() {
+        tree.remove("/shared/certificate");
+        var result = underTest.refresh(List.of("/shared/certificate"));
+        assertTrue(result.isValid());
+        assertFalse(underTest.get("/shared/").isPresent());
+        assertEquals(9, underTest.size());
+    }
+
+    @Test
+    void shouldReportFailures() {
+        tree.getFailing().add("/apps/");
+        var result = underTest.refresh(List.of("/apps/one/"));
+        assertFalse(result.isValid());
+        assertEquals(11, underTest.size());
+
+        var fresh = new VaultPathIndex(tree.navigator("/"), 2);
+        assertFalse(fresh.refresh().isValid());
+        assertEquals(List.of("/apps/", "/shared/", "/shared/certificate"), paths(fresh.findByPrefix("")));
+    }
+
+    private void add(String... paths) {
+        for (String path : paths) {
+            tree.put(path, KVEntry.of("key", "value"));
+        }
+    }
+
+    private static List<String> paths(List<Navigator> navigators) {
+        List<String> paths = new ArrayList<>();
+        navigators.forEach(navigator -> paths.add(navigator.getPath()));
+        return paths;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class JsonPathExtractorTest {
+
+    private static final String KV_BODY = "{\"request_id\":\"75c0ebac\",\"lease_duration\":0,\"data\":{"
+            + "\"data\":{\"other\":{\"nested\":[1,{\"key\":\"x\"}]},\"some.key\":\"v\\u00e4lue \\\"quoted\\\"\","
+            + " \"number\" : -4.2e3, \"empty\":null, \"k\\u0065y\":\"escaped name\"},"
+            + "\"metadata\":{\"created_time\":\"2018-03-22T02:24:06.945319214Z\",\"version\":3}}}";
+
+    private static final JsonPath VERSION = JsonPath.of("data", "metadata", "version");
+
+    @Test
+    void shouldExtractRequestedPaths() {
+        var data = JsonPath.of("data", "data");
+        var result = JsonPathExtractor.extract(bytes(KV_BODY),
+                List.of(data.child("some.key"), data.child("number"), data.child("empty"), data.child("key"),
+                        data.child("other"), VERSION, data.child("missing")));
+        assertEquals("v\u00e4lue \"quoted\"", result.get(data.child("some.key")));
+        assertEquals("-4.2e3", result.get(data.child("number")));
+        assertEquals("null", result.get(data.child("empty")));
+        assertEquals("escaped name", result.get(data.child("key")));
+        assertEquals("{\"nested\":[1,{\"key\":\"x\"}]}", result.get(data.child("other")));
+        assertEquals("3", result.get(VERSION));
+        assertFalse(result.containsKey(data.child("missing")));
+    }
+
+    @Test
+    void shouldNotNavigateIntoNonObjects() {
+        var result = JsonPathExtractor.extract(bytes(KV_BODY), List.of(JsonPath.of("request_id", "x"),
+                JsonPath.of("data", "data", "other", "nested", "key")));
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void shouldStopOnceResolved() throws IOException {
+        // Everything behind the resolved path is never looked at
+        var result = JsonPathExtractor.extract(new ByteArrayInputStream(bytes("{\"a\":{\"b\":true},\"c\":")),
+                List.of(JsonPath.of("a", "b")));
+        assertEquals("true", result.get(JsonPath.of("a", "b")));
+    }
+
+    @Test
+    void shouldReadFromStream() throws IOException {
+        var builder = new StringBuilder("{\"data\":{\"data\":{");
+        for (var i = 0; i < 2000; i++) {
+            builder.append("\"key").append(i).append("\":\"value").append(i).append("\",");
+        }
+        builder.append("\"last\":\"\\ud83d\\ude00\"},\"metadata\":{\"version\":7}}}");
+        var result = JsonPathExtractor.extract(new TrickleInputStream(bytes(builder.toString())),
+                List.of(JsonPath.of("data", "data", "key1999"), JsonPath.of("data", "data", "last"), VERSION));
+        assertEquals("value1999", result.get(JsonPath.of("data", "data", "key1999")));
+        assertEquals("\ud83d\ude00", result.get(JsonPath.of("data", "data", "last")));
+        assertEquals("7", result.get(VERSION));
+    }
+
+    @Test
+    void shouldRejectMalformedDocuments() {
+        var paths = List.of(VERSION);
+        assertThrows(IllegalArgumentException.class, () -> JsonPathExtractor.extract(bytes("{\"data\""), paths));
+        assertThrows(IllegalArgumentException.class,
+                () -> JsonPathExtractor.extract(bytes("{\"data\":{\"metadata\":{\"version\":\"3}}}"), paths));
+        assertThrows(IllegalArgumentException.class, () -> JsonPathExtractor.extract(bytes("{\"a\" 1}"), paths));
+        assertThrows(IllegalArgumentException.class, () -> JsonPathExtractor.extract(bytes(""), paths));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Provides at most 7 bytes per read, forcing the extractor to refill its buffer. */
+    private static final class TrickleInputStream extends InputStream {
+
+        private final ByteArrayInputStream delegate;
+
+        TrickleInputStream(byte[] content) {
+            delegate = new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public int read() {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return delegate.read(b, off, Math.min(len, 7));
+        }
+    }
+}
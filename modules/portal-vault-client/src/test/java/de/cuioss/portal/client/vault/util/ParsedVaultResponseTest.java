@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.util;
+
+import com.bettercloud.vault.rest.RestResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParsedVaultResponseTest {
+
+    private static final String KV_BODY = "{\"request_id\":\"75c0ebac\",\"version\":\"1.13.0\",\"data\":{"
+            + "\"data\":{\"key\":\"v\u00e4lue\",\"number\":42},"
+            + "\"metadata\":{\"created_time\":\"2018-03-22T02:24:06.945319214Z\",\"version\":3}}}";
+
+    @Test
+    void shouldResolveElements() {
+        var underTest = ParsedVaultResponse.of(response(HttpServletResponse.SC_OK, KV_BODY));
+        assertEquals(HttpServletResponse.SC_OK, underTest.getStatus());
+        assertTrue(underTest.getRoot().isPresent());
+        assertTrue(underTest.getData().isPresent());
+        assertEquals("v\u00e4lue", underTest.getSecretData().get().getString("key", null));
+        assertEquals("42", ParsedVaultResponse.asString(underTest.getSecretData().get().get("number")));
+        assertEquals(3, underTest.getSecretVersion());
+        assertEquals("1.13.0", underTest.getString("version").get());
+        assertFalse(underTest.getString("other").isPresent());
+    }
+
+    @Test
+    void shouldHandleMissingElements() {
+        var underTest = ParsedVaultResponse.of(response(HttpServletResponse.SC_OK, "{\"data\":{\"keys\":[]}}"));
+        assertTrue(underTest.getData().isPresent());
+        assertFalse(underTest.getSecretData().isPresent());
+        assertFalse(underTest.getSecretMetadata().isPresent());
+        assertEquals(0, underTest.getSecretVersion());
+    }
+
+    @Test
+    void shouldHandleEmptyAndInvalidBodies() {
+        var empty = ParsedVaultResponse.of(null);
+        assertEquals(0, empty.getStatus());
+        assertFalse(empty.getRoot().isPresent());
+        var noContent = ParsedVaultResponse.of(response(HttpServletResponse.SC_NO_CONTENT, ""));
+        assertEquals(HttpServletResponse.SC_NO_CONTENT, noContent.getStatus());
+        assertFalse(noContent.getData().isPresent());
+        assertFalse(ParsedVaultResponse.of(response(HttpServletResponse.SC_BAD_GATEWAY, "<html>")).getRoot()
+                .isPresent());
+        assertFalse(ParsedVaultResponse.of(response(HttpServletResponse.SC_OK, "[1]")).getRoot().isPresent());
+    }
+
+    private static RestResponse response(int status, String body) {
+        return new RestResponse(status, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.portal.client.vault.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+import org.junit.jupiter.api.Test;
+
+class Rfc3339Test {
+
+    @Test
+    void shouldParseLikeZonedDateTime() {
+        for (String timestamp : new String[] { "2018-03-22T02:24:06.945319214Z", "2018-03-22T02:24:06Z",
+                "1970-01-01T00:00:00Z", "1969-12-31T23:59:59.5Z", "2000-02-29T12:00:00.1+02:00",
+                "2023-12-31T23:59:59-05:30", "0001-01-01T00:00:00Z", "9999-12-31T23:59:59.999999999Z" }) {
+            assertEquals(expected(timestamp), Rfc3339.parseLocalEpochSecond(timestamp), timestamp);
+        }
+    }
+
+    @Test
+    void shouldComputeEpochDays() {
+        var date = LocalDate.of(1600, 1, 1);
+        while (date.getYear() < 2500) {
+            assertEquals(date.toEpochDay(),
+                    Rfc3339.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+            date = date.plusDays(13);
+        }
+    }
+
+    @Test
+    void shouldRejectInvalid() {
+        for (String timestamp : new String[] { "", "2018-03-22", "2018-03-22T02:24:06", "2018-13-22T02:24:06Z",
+                "2019-02-29T02:24:06Z", "2018-03-22T24:00:00Z", "2018-03-22T02:60:06Z", "2018-03-22 02:24:06Z",
+                "2018-03-22T02:24:06.Z", "2018-03-22T02:24:06ZZ", "2018-03-22T02:24:06+0200",
+                "2018-03-22T02:24:06+19:00", "2018-0a-22T02:24:06Z" }) {
+            assertThrows(DateTimeParseException.class, () -> Rfc3339.parseLocalEpochSecond(timestamp), timestamp);
+        }
+    }
+
+    private static long expected(String timestamp) {
+        return ZonedDateTime.parse(timestamp).toLocalDateTime().toEpochSecond(ZoneOffset.UTC);
+    }
+}